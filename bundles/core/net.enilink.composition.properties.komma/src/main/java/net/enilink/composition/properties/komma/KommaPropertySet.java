@@ -28,12 +28,17 @@
  */
 package net.enilink.composition.properties.komma;
 
+import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 import java.util.Set;
 
 import com.google.inject.Inject;
@@ -47,10 +52,12 @@ import net.enilink.composition.properties.PropertySet;
 import net.enilink.composition.properties.exceptions.PropertyException;
 import net.enilink.composition.properties.traits.Mergeable;
 import net.enilink.komma.core.IEntity;
+import net.enilink.komma.core.IEntityManager;
 import net.enilink.komma.core.ILiteral;
 import net.enilink.komma.core.IQuery;
 import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.IReferenceable;
+import net.enilink.komma.core.IStatement;
 import net.enilink.komma.core.ITransaction;
 import net.enilink.komma.core.KommaException;
 import net.enilink.komma.core.Statement;
@@ -63,7 +70,12 @@ import net.enilink.komma.core.URI;
  */
 public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E> {
 	protected static final String QUERY = "SELECT DISTINCT ?o WHERE { ?s ?p ?o }";
+	/**
+	 * Caches with more elements are only softly referenced and are searched
+	 * by hash.
+	 */
 	private static final int CACHE_LIMIT = 10;
+	private static final int MAX_BATCH_SIZE = 256;
 	protected final List<WeakReference<Object>> ownerBeans = new ArrayList<>(1);
 
 	protected KommaPropertySetFactory factory;
@@ -71,7 +83,10 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 	protected final IReference property;
 	protected Class<E> valueType;
 	protected URI rdfValueType;
-	private volatile List<E> cache;
+	/**
+	 * Either the {@link CachedElements} or a soft reference to them.
+	 */
+	private volatile Object cache;
 	/**
 	 * Tracks active transactions to avoid using the cache while any transaction is active.
 	 */
@@ -83,6 +98,64 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 	 */
 	private int refreshVersion;
 
+	/**
+	 * The cached elements together with a hashed copy for fast lookups.
+	 */
+	static class CachedElements<E> extends AbstractList<E> implements RandomAccess {
+		final List<E> elements;
+		/**
+		 * Whether all elements are cached or only the first ones.
+		 */
+		final boolean complete;
+		private volatile Set<Object> hashed;
+
+		CachedElements(List<E> elements, boolean complete) {
+			this.elements = elements;
+			this.complete = complete;
+		}
+
+		@Override
+		public E get(int index) {
+			return elements.get(index);
+		}
+
+		@Override
+		public int size() {
+			return elements.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (elements.size() <= CACHE_LIMIT) {
+				return elements.contains(o);
+			}
+			Set<Object> hashed = this.hashed;
+			if (hashed == null) {
+				hashed = new HashSet<>(elements);
+				this.hashed = hashed;
+			}
+			return hashed.contains(o);
+		}
+
+		@Override
+		public void add(int index, E element) {
+			hashed = null;
+			elements.add(index, element);
+		}
+
+		@Override
+		public E set(int index, E element) {
+			hashed = null;
+			return elements.set(index, element);
+		}
+
+		@Override
+		public E remove(int index) {
+			hashed = null;
+			return elements.remove(index);
+		}
+	}
+
 	public KommaPropertySet(IReference subject, IReference property) {
 		this(subject, property, null, null);
 	}
@@ -243,9 +316,7 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 
 	protected boolean containsWithoutCache(Object o) {
 		try {
-			return factory.getManager().createQuery("ASK { ?s ?p ?o }")
-					.setParameter("s", subject).setParameter("p", property)
-					.setParameter("o", convertInstance(o)).getBooleanResult();
+			return factory.getManager().hasMatch(subject, property, convertInstance(o));
 		} catch (KommaException e) {
 			throw new PropertyException(e);
 		}
@@ -348,6 +419,97 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 		return (IExtendedIterator<E>) query.evaluate();
 	}
 
+	/**
+	 * Determines if the elements can be read directly from the statements of
+	 * the subject and predicate instead of evaluating a query.
+	 */
+	protected boolean isMatchable(String filterPattern, int limit) {
+		if (filterPattern != null && !filterPattern.isEmpty() || limit != Integer.MAX_VALUE) {
+			return false;
+		}
+		// the roles of the explicit rdf:type are added by the query
+		return rdfValueType == null || findConcepts(rdfValueType).isEmpty();
+	}
+
+	/**
+	 * Returns the distinct objects of all statements with the subject and
+	 * predicate of this set.
+	 */
+	protected Set<Object> matchObjects() {
+		Set<Object> objects = new LinkedHashSet<>();
+		try (IExtendedIterator<IStatement> stmts = factory.getManager().match(subject, property, null)) {
+			for (IStatement stmt : stmts) {
+				objects.add(stmt.getObject());
+			}
+		}
+		return objects;
+	}
+
+	/**
+	 * Converts the given objects to elements of this set in the same way as
+	 * the results of {@link #evaluateQueryForTypes(IQuery)}.
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<E> convertObjects(List<Object> objects) {
+		IEntityManager manager = factory.getManager();
+		List<IReference> references = new ArrayList<>(objects.size());
+		if (valueType != URI.class) {
+			for (Object object : objects) {
+				if (object instanceof IReference) {
+					references.add((IReference) object);
+				}
+			}
+		}
+		Iterator<?> beans = null;
+		if (!references.isEmpty()) {
+			// retrieves the types of all resources at once
+			Class<?> concept = valueType != null ? valueType : Object.class;
+			beans = manager.findAll(references, concept).iterator();
+		}
+		List<E> elements = new ArrayList<>(objects.size());
+		for (Object object : objects) {
+			if (object instanceof IReference) {
+				elements.add((E) (beans == null ? ((IReference) object).getURI() : beans.next()));
+			} else {
+				elements.add((E) manager.toInstance(object, valueType, null));
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * Reads the elements directly from the matching statements and converts
+	 * them in batches of increasing size.
+	 */
+	protected IExtendedIterator<E> matchElements() {
+		final Iterator<Object> objects = matchObjects().iterator();
+		return new NiceIterator<>() {
+			private int batchSize = CACHE_LIMIT;
+			private Iterator<E> batch = null;
+
+			@Override
+			public boolean hasNext() {
+				if ((batch == null || !batch.hasNext()) && objects.hasNext()) {
+					List<Object> values = new ArrayList<>(batchSize);
+					while (values.size() < batchSize && objects.hasNext()) {
+						values.add(objects.next());
+					}
+					batch = convertObjects(values).iterator();
+					batchSize = Math.min(batchSize * 2, MAX_BATCH_SIZE);
+				}
+				return batch != null && batch.hasNext();
+			}
+
+			@Override
+			public E next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return batch.next();
+			}
+		};
+	}
+
 	protected IQuery<?> createElementsQuery(String query, String filterPattern, int limit) {
 		boolean useFilter = filterPattern != null && !filterPattern.isEmpty();
 		if (useFilter || limit != Integer.MAX_VALUE) {
@@ -375,8 +537,9 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 
 	protected IExtendedIterator<E> createElementsIterator(final String filterPattern, final int limit) {
 		final int startRefreshVersion = refreshVersion;
-		IQuery<?> query = createElementsQuery(QUERY, filterPattern, limit);
-		return new ConvertingIterator<>(evaluateQueryForTypes(query)) {
+		IExtendedIterator<E> elements = isMatchable(filterPattern, limit) ? matchElements()
+				: evaluateQueryForTypes(createElementsQuery(QUERY, filterPattern, limit));
+		return new ConvertingIterator<>(elements) {
 			private List<E> list = filterPattern == null
 					&& limit == Integer.MAX_VALUE ? new ArrayList<>(Math.min(
 					CACHE_LIMIT, getCacheLimit())) : null;
@@ -495,8 +658,14 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 		refreshCache();
 	}
 
+	@SuppressWarnings("unchecked")
 	protected final List<E> getCache() {
-		return cache;
+		Object cache = this.cache;
+		if (cache instanceof SoftReference<?>) {
+			// is null if the elements were reclaimed by the garbage collector
+			return ((SoftReference<List<E>>) cache).get();
+		}
+		return (List<E>) cache;
 	}
 
 	protected void setCache(List<E> cache) {
@@ -507,12 +676,24 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 			synchronized (this) {
 				refreshVersion++;
 			}
-			this.cache = cache;
+			if (cache == null) {
+				this.cache = null;
+			} else {
+				List<E> elements = new CachedElements<>(cache, cache.size() < getCacheLimit());
+				// large caches may be reclaimed if memory is low
+				this.cache = elements.size() > CACHE_LIMIT ? new SoftReference<>(elements) : elements;
+			}
 		}
 	}
 
+	/**
+	 * Returns the maximum number of elements that are cached. Sets with more
+	 * elements only cache this number of elements.
+	 *
+	 * @return the maximum number of cached elements
+	 */
 	protected int getCacheLimit() {
-		return CACHE_LIMIT;
+		return factory.getCacheLimit();
 	}
 
 	public Class<E> getElementType() {
@@ -592,8 +773,24 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 		}
 	}
 
+	@Override
+	public synchronized int getCacheStamp() {
+		return getCache() != null ? -1 : refreshVersion & Integer.MAX_VALUE;
+	}
+
+	@Override
+	public void init(Collection<? extends E> values, int stamp) {
+		synchronized (this) {
+			// only set cache if no refreshes have occurred after the stamp
+			// was obtained, else the values may be outdated
+			if (stamp >= 0 && stamp == getCacheStamp()) {
+				setCache(new ArrayList<>(values));
+			}
+		}
+	}
+
 	private boolean isCacheComplete(List<E> cache) {
-		return cache != null && cache.size() < getCacheLimit();
+		return cache != null && ((CachedElements<E>) cache).complete;
 	}
 
 	public boolean isEmpty() {
@@ -601,8 +798,10 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 		if (cache != null) {
 			return cache.isEmpty();
 		}
-		try (IExtendedIterator<E> iter = createElementsIterator()) {
-			return !iter.hasNext();
+		try {
+			return !factory.getManager().hasMatch(subject, property, null);
+		} catch (KommaException e) {
+			throw new PropertyException(e);
 		}
 	}
 
@@ -738,14 +937,10 @@ public class KommaPropertySet<E> implements PropertySet<E>, Set<E>, Filterable<E
 		if (isCacheComplete(cache)) {
 			return cache.size();
 		}
-		try (IExtendedIterator<IReference> values = factory.getManager().createQuery(QUERY)
-				.setParameter("s", subject).setParameter("p", property)
-				.evaluateRestricted(IReference.class)) {
-			int size;
-			for (size = 0; values.hasNext(); size++) {
-				values.next();
-			}
-			return size;
+		try {
+			return matchObjects().size();
+		} catch (KommaException e) {
+			throw new PropertyException(e);
 		}
 	}
 
@@ -26,6 +26,18 @@ import com.google.inject.Inject;
 import com.google.inject.Injector;
 
 public class KommaPropertySetFactory implements PropertySetFactory {
+	/**
+	 * System property with the maximum number of elements that are cached by
+	 * each property set.
+	 */
+	public static final String CACHE_LIMIT_PROPERTY = "net.enilink.komma.propertySetCacheLimit";
+
+	/**
+	 * The default maximum number of elements that are cached by each property
+	 * set.
+	 */
+	public static final int DEFAULT_CACHE_LIMIT = 1000;
+
 	// Use weak references to property sets.
 	// This ensures that a property set is shared between multiple beans
 	final ConcurrentMap<Key, PropertySet<?>> propertySetCache = new MapMaker().weakValues().makeMap();
@@ -90,6 +102,8 @@ public class KommaPropertySetFactory implements PropertySetFactory {
 	@Inject
 	protected Injector injector;
 
+	private volatile int cacheLimit = Integer.getInteger(CACHE_LIMIT_PROPERTY, DEFAULT_CACHE_LIMIT);
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <E> PropertySet<E> createPropertySet(Object bean, String uri, Class<E> elementType,
@@ -129,6 +143,28 @@ public class KommaPropertySetFactory implements PropertySetFactory {
 		return propertySetCache;
 	}
 
+	/**
+	 * Returns the maximum number of elements that are cached by each property
+	 * set. All elements of sets with less elements are cached, larger sets only
+	 * cache their first elements.
+	 *
+	 * @return the maximum number of cached elements
+	 */
+	public int getCacheLimit() {
+		return cacheLimit;
+	}
+
+	/**
+	 * Sets the maximum number of elements that are cached by each property
+	 * set. The limit is applied to caches that are filled afterwards.
+	 *
+	 * @param cacheLimit
+	 *            the maximum number of cached elements
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		this.cacheLimit = cacheLimit;
+	}
+
 	/**
 	 * Returns the associated entity manager.
 	 *
@@ -57,6 +57,16 @@ public class LocalizedKommaPropertySet extends KommaPropertySet<String> {
 		super(subject, property, String.class, null);
 	}
 
+	private List<ILiteral> matchLiterals() {
+		List<ILiteral> literals = new ArrayList<ILiteral>();
+		for (Object object : matchObjects()) {
+			if (object instanceof ILiteral) {
+				literals.add((ILiteral) object);
+			}
+		}
+		return literals;
+	}
+
 	private int addBestValues(ILiteral literal, String language, int best,
 			Collection<ILiteral> values) {
 		int score = best;
@@ -104,15 +114,8 @@ public class LocalizedKommaPropertySet extends KommaPropertySet<String> {
 		int score = -1;
 		values = new ArrayList<ILiteral>();
 		try {
-			IExtendedIterator<ILiteral> literals = factory.getManager().createQuery(QUERY)
-					.setParameter("s", subject).setParameter("p", property)
-					.evaluateRestricted(ILiteral.class);
-			try {
-				for (ILiteral literal : literals) {
-					score = addBestValues(literal, language, score, values);
-				}
-			} finally {
-				literals.close();
+			for (ILiteral literal : matchLiterals()) {
+				score = addBestValues(literal, language, score, values);
 			}
 		} catch (KommaException e) {
 			throw new PropertyException(e);
@@ -206,23 +209,16 @@ public class LocalizedKommaPropertySet extends KommaPropertySet<String> {
 			}
 			String language = factory.getManager().getLocale().getLanguage();
 
-			IExtendedIterator<ILiteral> literals = factory.getManager().createQuery(QUERY)
-					.setParameter("s", subject).setParameter("p", property)
-					.evaluateRestricted(ILiteral.class);
-			try {
-				for (ILiteral literal : literals) {
-					String l = literal.getLanguage();
-					if (Objects.equals(language, l)) {
-						Object label = literal.getLabel();
-						if (c.contains(label)) {
-							c.remove(label);
-						} else {
-							remove(literal);
-						}
+			for (ILiteral literal : matchLiterals()) {
+				String l = literal.getLanguage();
+				if (Objects.equals(language, l)) {
+					Object label = literal.getLabel();
+					if (c.contains(label)) {
+						c.remove(label);
+					} else {
+						remove(literal);
 					}
 				}
-			} finally {
-				literals.close();
 			}
 			if (c.size() > 0) {
 				addAll(c);
@@ -97,4 +97,28 @@ public interface PropertySet<E> extends Refreshable {
 	 * @param values
 	 */
 	void init(Collection<? extends E> values);
+
+	/**
+	 * Returns a stamp for the current state of the internal cache or
+	 * <code>-1</code> if the values are already cached or the property set
+	 * does not support pre-initialization.
+	 * 
+	 * @return the stamp that is required by {@link #init(Collection, int)}
+	 */
+	default int getCacheStamp() {
+		return -1;
+	}
+
+	/**
+	 * Sets the internal cache of the property set to the given values if it
+	 * has not been changed or refreshed since the given stamp was returned by
+	 * {@link #getCacheStamp()}. This allows to initialize the cache with
+	 * values that were retrieved after obtaining the stamp. This is an
+	 * optional operation.
+	 * 
+	 * @param values
+	 * @param stamp
+	 */
+	default void init(Collection<? extends E> values, int stamp) {
+	}
 }
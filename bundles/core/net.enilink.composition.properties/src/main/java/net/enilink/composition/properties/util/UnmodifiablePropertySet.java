@@ -81,6 +81,16 @@ public class UnmodifiablePropertySet<E> implements PropertySet<E> {
 		delegate.init(values);
 	}
 
+	@Override
+	public int getCacheStamp() {
+		return delegate.getCacheStamp();
+	}
+
+	@Override
+	public void init(Collection<? extends E> values, int stamp) {
+		delegate.init(values, stamp);
+	}
+
 	@Override
 	public void refresh() {
 		delegate.refresh();
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.composition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.objectweb.asm.ClassReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.enilink.composition.asm.DefaultBehaviourFactory;
+
+/**
+ * Persistent storage for generated classes that is used by a
+ * {@link ClassDefiner} to reuse composite and behaviour classes across runs.
+ * <p>
+ * The classes are stored within a directory whose name is derived from the
+ * code of the class generators, i.e. the behaviour factories and processors.
+ * Each stored class is additionally tagged with a digest of all classes that
+ * are referenced by it, like roles, behaviours and their super types. A
+ * stored class is only used if this digest is still valid.
+ */
+public class ClassCache {
+	/**
+	 * The version of the storage format.
+	 */
+	public static final int VERSION = 1;
+
+	private static final String FILE_SUFFIX = ".cached";
+
+	private static final byte[] UNKNOWN = new byte[0];
+
+	private final Logger logger = LoggerFactory.getLogger(ClassCache.class);
+
+	private final File directory;
+
+	private final ConcurrentMap<String, byte[]> digests = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a class cache that uses the given directory.
+	 *
+	 * @param directory
+	 *            the directory for the stored classes
+	 */
+	public ClassCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Creates a class cache for the output of the given class generators. The
+	 * cache uses a sub-directory of <code>baseDirectory</code> that is unique
+	 * for the code of the generators.
+	 *
+	 * @param baseDirectory
+	 *            the base directory for all caches
+	 * @param generators
+	 *            the classes that are involved in the generation of classes,
+	 *            e.g. behaviour factories and processors
+	 * @return a class cache for the generators
+	 */
+	public static ClassCache forGenerators(File baseDirectory,
+			Collection<Class<?>> generators) {
+		ClassCache cache = new ClassCache(null);
+		TreeMap<String, Class<?>> sorted = new TreeMap<>();
+		for (Class<?> generator : generators) {
+			sorted.put(generator.getName(), generator);
+		}
+		MessageDigest md = createDigest();
+		md.update(Integer.toString(VERSION).getBytes());
+		for (Class<?> generator : sorted.values()) {
+			md.update(generator.getName().getBytes());
+			md.update(cache.digest(generator.getName().replace('.', '/'),
+					generator.getClassLoader()));
+		}
+		return new ClassCache(new File(baseDirectory, toHex(md.digest())
+				.substring(0, 16)));
+	}
+
+	/**
+	 * Returns the directory of this cache.
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Loads the bytecode of a class from this cache.
+	 *
+	 * @param name
+	 *            the name of the class
+	 * @param loader
+	 *            the class loader that is used to validate the classes
+	 *            referenced by the stored class
+	 * @return the bytecode or <code>null</code> if the class is not stored or
+	 *         if it is outdated
+	 */
+	public byte[] load(String name, ClassLoader loader) {
+		File file = getFile(name);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(
+				Files.newInputStream(file.toPath()))) {
+			if (in.readInt() != VERSION) {
+				return null;
+			}
+			byte[] digest = new byte[in.readUnsignedShort()];
+			in.readFully(digest);
+			byte[] bytecode = new byte[in.readInt()];
+			in.readFully(bytecode);
+			if (MessageDigest.isEqual(digest, dependencyDigest(bytecode, loader))) {
+				return bytecode;
+			}
+			logger.debug("Ignoring outdated class {} in cache", name);
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Unable to read class " + name + " from cache", e);
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the bytecode of a class in this cache.
+	 *
+	 * @param name
+	 *            the name of the class
+	 * @param bytecode
+	 *            the bytecode of the class
+	 * @param loader
+	 *            the class loader that is used to resolve the classes
+	 *            referenced by the class
+	 */
+	public void store(String name, byte[] bytecode, ClassLoader loader) {
+		File file = getFile(name);
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+					bytecode.length + 64);
+			DataOutputStream out = new DataOutputStream(bytes);
+			byte[] digest = dependencyDigest(bytecode, loader);
+			out.writeInt(VERSION);
+			out.writeShort(digest.length);
+			out.write(digest);
+			out.writeInt(bytecode.length);
+			out.write(bytecode);
+			out.flush();
+
+			file.getParentFile().mkdirs();
+			// the cache may be shared by multiple processes
+			File tmp = File.createTempFile(file.getName(), ".tmp",
+					file.getParentFile());
+			try {
+				Files.write(tmp.toPath(), bytes.toByteArray());
+				Files.move(tmp.toPath(), file.toPath(),
+						StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				tmp.delete();
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Unable to store class " + name + " in cache", e);
+		}
+	}
+
+	protected File getFile(String name) {
+		return new File(directory, name.replace('.', '/') + FILE_SUFFIX);
+	}
+
+	/**
+	 * Computes a digest of all non-generated classes that are referenced by
+	 * the given bytecode.
+	 */
+	protected byte[] dependencyDigest(byte[] bytecode, ClassLoader loader) {
+		ClassReader reader = new ClassReader(bytecode);
+		char[] buffer = new char[reader.getMaxStringLength()];
+		TreeSet<String> dependencies = new TreeSet<>();
+		for (int i = 1; i < reader.getItemCount(); i++) {
+			int offset = reader.getItem(i);
+			// 7 is the tag of CONSTANT_Class items
+			if (offset > 0 && reader.readByte(offset - 1) == 7) {
+				String dependency = reader.readUTF8(offset, buffer);
+				if (dependency.startsWith("[")) {
+					int start = dependency.indexOf('L');
+					if (start < 0) {
+						continue;
+					}
+					dependency = dependency.substring(start + 1,
+							dependency.length() - 1);
+				}
+				if (!isIgnored(dependency)) {
+					dependencies.add(dependency);
+				}
+			}
+		}
+		dependencies.remove(reader.getClassName());
+		MessageDigest md = createDigest();
+		for (String dependency : dependencies) {
+			md.update(dependency.getBytes());
+			md.update(digest(dependency, loader));
+		}
+		return md.digest();
+	}
+
+	/**
+	 * Computes a digest of the given class and its super types.
+	 */
+	protected byte[] digest(String internalName, ClassLoader loader) {
+		byte[] digest = digests.get(internalName);
+		if (digest != null) {
+			return digest;
+		}
+		byte[] bytecode = readClass(internalName, loader);
+		if (bytecode == null) {
+			digest = UNKNOWN;
+		} else {
+			MessageDigest md = createDigest();
+			md.update(bytecode);
+			ClassReader reader = new ClassReader(bytecode);
+			String superName = reader.getSuperName();
+			if (superName != null && !isIgnored(superName)) {
+				md.update(digest(superName, loader));
+			}
+			for (String face : reader.getInterfaces()) {
+				if (!isIgnored(face)) {
+					md.update(digest(face, loader));
+				}
+			}
+			digest = md.digest();
+		}
+		digests.putIfAbsent(internalName, digest);
+		return digest;
+	}
+
+	private byte[] readClass(String internalName, ClassLoader loader) {
+		String resource = internalName + ".class";
+		InputStream in = loader != null ? loader.getResourceAsStream(resource)
+				: null;
+		if (in == null) {
+			in = ClassCache.class.getClassLoader()
+					.getResourceAsStream(resource);
+		}
+		if (in == null) {
+			return null;
+		}
+		try (InputStream stream = in) {
+			return stream.readAllBytes();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Determines if a class is ignored when computing digests. This applies
+	 * to classes of the Java runtime and to generated classes which are
+	 * validated on their own.
+	 */
+	protected boolean isIgnored(String internalName) {
+		return internalName.startsWith("java/")
+				|| internalName.startsWith("javax/")
+				|| internalName.startsWith("jdk/")
+				|| internalName.startsWith("sun/")
+				|| internalName.startsWith(ClassResolver.PKG_PREFIX.replace(
+						'.', '/'))
+				|| internalName.startsWith(DefaultBehaviourFactory.PKG_PREFIX
+						.replace('.', '/'));
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(
+					Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+}
@@ -37,8 +37,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import net.enilink.composition.asm.DefaultBehaviourFactory;
 
@@ -52,6 +55,8 @@ public class ClassDefiner extends ClassLoader {
 	private static final URL exists;
 
 	static {
+		// use a lock per class name instead of locking the whole definer
+		registerAsParallelCapable();
 		try {
 			exists = new URL("http://java/"
 					+ ClassDefiner.class.getName().replace('.', '/')
@@ -64,6 +69,10 @@ public class ClassDefiner extends ClassLoader {
 
 	private File output;
 
+	private final ConcurrentMap<String, FutureTask<Class<?>>> pending = new ConcurrentHashMap<String, FutureTask<Class<?>>>();
+
+	private volatile ClassCache cache;
+
 	/**
 	 * Creates a new Class Factory using the current context class loader.
 	 */
@@ -98,6 +107,27 @@ public class ClassDefiner extends ClassLoader {
 		dir.mkdirs();
 	}
 
+	/**
+	 * Returns the persistent cache for generated classes.
+	 * 
+	 * @return the class cache or <code>null</code>
+	 */
+	public ClassCache getClassCache() {
+		return cache;
+	}
+
+	/**
+	 * Sets a persistent cache for generated classes. Classes that are
+	 * requested from this definer are loaded from the cache if possible and
+	 * newly defined classes are added to it.
+	 * 
+	 * @param cache
+	 *            the class cache or <code>null</code>
+	 */
+	public void setClassCache(ClassCache cache) {
+		this.cache = cache;
+	}
+
 	@Override
 	public URL getResource(String name) {
 		if (output != null) {
@@ -134,9 +164,84 @@ public class ClassDefiner extends ClassLoader {
 		return getParent().getResourceAsStream(name);
 	}
 
+	/**
+	 * Returns the generated class with the given name. If the class does not
+	 * exist yet then it is created by invoking <code>generator</code>.
+	 * <p>
+	 * Classes with different names are generated in parallel while concurrent
+	 * requests for the same name wait for a single invocation of a generator.
+	 * 
+	 * @param name
+	 *            the name of the generated class
+	 * @param generator
+	 *            creates and defines the class, may return <code>null</code>
+	 *            if no class is required
+	 * @return the existing or generated class
+	 * @throws Exception
+	 *             if the generator fails
+	 */
+	public Class<?> resolveClass(String name,
+			final Callable<? extends Class<?>> generator) throws Exception {
+		Class<?> c = findGeneratedClass(name);
+		if (c != null) {
+			return c;
+		}
+		final String className = name;
+		FutureTask<Class<?>> task = new FutureTask<Class<?>>(
+				new Callable<Class<?>>() {
+					@Override
+					public Class<?> call() throws Exception {
+						// the class may have been defined before this task
+						// was registered
+						Class<?> c = findGeneratedClass(className);
+						return c != null ? c : generator.call();
+					}
+				});
+		FutureTask<Class<?>> existing = pending.putIfAbsent(name, task);
+		if (existing == null) {
+			try {
+				task.run();
+			} finally {
+				pending.remove(name, task);
+			}
+			existing = task;
+		}
+		try {
+			return existing.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	private Class<?> findGeneratedClass(String name) {
+		try {
+			return loadClass(name);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
 	public Class<?> defineClass(String name, byte[] bytecode) {
+		synchronized (getClassLoadingLock(name)) {
+			Class<?> c = defineGeneratedClass(name, bytecode, true);
+			ClassCache cache = this.cache;
+			if (cache != null) {
+				cache.store(name, bytecode, this);
+			}
+			return c;
+		}
+	}
+
+	private Class<?> defineGeneratedClass(String name, byte[] bytecode,
+			boolean save) {
 		String resource = name.replace('.', '/') + ".class";
-		if (output != null) {
+		if (save && output != null) {
 			saveResource(resource, bytecode);
 		}
 		if (bytecodes != null) {
@@ -170,7 +275,13 @@ public class ClassDefiner extends ClassLoader {
 			synchronized (getClassLoadingLock(name)) {
 				Class<?> c = findLoadedClass(name);
 				if (c == null) {
-					throw new ClassNotFoundException(name);
+					ClassCache cache = this.cache;
+					byte[] bytecode = cache != null ? cache.load(name, this)
+							: null;
+					if (bytecode == null) {
+						throw new ClassNotFoundException(name);
+					}
+					c = defineGeneratedClass(name, bytecode, false);
 				}
 				if (resolve) {
 					resolveClass(c);
@@ -35,6 +35,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -110,19 +111,15 @@ public class ClassResolver<T> {
 		}
 	}
 
-	private Class<?> getCompositeClass(String className,
-			Collection<Class<?>> roles) throws Exception {
-		try {
-			return Class.forName(className, true, definer);
-		} catch (ClassNotFoundException e) {
-			synchronized (definer) {
-				try {
-					return Class.forName(className, true, definer);
-				} catch (ClassNotFoundException e1) {
-					return composeBehaviours(className, roles);
-				}
+	private Class<?> getCompositeClass(final String className,
+			final Collection<Class<?>> roles) throws Exception {
+		// composite classes for different roles are created in parallel
+		return definer.resolveClass(className, new Callable<Class<?>>() {
+			@Override
+			public Class<?> call() throws Exception {
+				return composeBehaviours(className, roles);
 			}
-		}
+		});
 	}
 
 	private Class<?> composeBehaviours(String className,
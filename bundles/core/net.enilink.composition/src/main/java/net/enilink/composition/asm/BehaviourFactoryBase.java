@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.objectweb.asm.Type;
 import net.enilink.composition.BehaviourFactory;
@@ -218,16 +219,19 @@ public abstract class BehaviourFactoryBase implements BehaviourFactory {
 
 	protected abstract String getExtendedClassName(Class<?> behaviourClass);
 
-	public Collection<Class<?>> implement(Class<?> behaviourClass)
+	public Collection<Class<?>> implement(final Class<?> behaviourClass)
 			throws Exception {
-		// first check whether we did not already create and load the
-		// extension of the given behaviour class
-		String extendedClassName = getExtendedClassName(behaviourClass);
-		Class<?> extendedClass = AsmUtils.findClass(extendedClassName, definer);
-		if (extendedClass == null) {
-			extendedClass = extendBehaviourClass(extendedClassName,
-					behaviourClass);
-		}
+		// reuse an already created and loaded extension of the given
+		// behaviour class or create it exactly once
+		final String extendedClassName = getExtendedClassName(behaviourClass);
+		Class<?> extendedClass = definer.resolveClass(extendedClassName,
+				new Callable<Class<?>>() {
+					@Override
+					public Class<?> call() throws Exception {
+						return extendBehaviourClass(extendedClassName,
+								behaviourClass);
+					}
+				});
 		return extendedClass != null ? Collections
 				.<Class<?>> singleton(extendedClass) : Collections
 				.<Class<?>> emptySet();
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.composition.test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import net.enilink.composition.ClassCache;
+import net.enilink.composition.ClassDefiner;
+import net.enilink.composition.ClassResolver;
+import net.enilink.composition.annotations.Iri;
+import net.enilink.composition.mappers.RoleMapper;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+public class ClassCacheTest extends CompositionTestCase {
+	ClassCache cache;
+
+	ClassDefiner definer;
+
+	@Iri("urn:test:Concept")
+	public interface Concept {
+		int value();
+	}
+
+	public static abstract class ConceptSupport implements Concept {
+		public int value() {
+			return 42;
+		}
+	}
+
+	@Override
+	public void setUp() throws Exception {
+		File dir = Files.createTempDirectory("classes").toFile();
+		dir.deleteOnExit();
+		cache = new ClassCache(dir);
+		definer = new ClassDefiner();
+		definer.setClassCache(cache);
+		super.setUp();
+	}
+
+	@Override
+	protected Module createModule() {
+		return Modules.override(super.createModule()).with(
+				new AbstractModule() {
+					@Override
+					protected void configure() {
+						bind(ClassDefiner.class).toInstance(definer);
+					}
+				});
+	}
+
+	@Override
+	protected void initRoleMapper(RoleMapper<String> roleMapper) {
+		super.initRoleMapper(roleMapper);
+
+		roleMapper.addConcept(Concept.class);
+		roleMapper.addBehaviour(ConceptSupport.class);
+	}
+
+	@Test
+	public void testReuseClasses() throws Exception {
+		Class<?> composite = classResolver.resolveComposite(Collections
+				.singleton("urn:test:Concept"));
+		Assert.assertNotNull(cache.load(composite.getName(), definer));
+
+		// the composite and the behaviour classes are defined from the cache
+		definer = new ClassDefiner();
+		definer.setClassCache(cache);
+		Class<?> cached = Class.forName(composite.getName(), true, definer);
+		Assert.assertNotSame(composite, cached);
+
+		super.setUp();
+		Assert.assertSame(cached, classResolver.resolveComposite(Collections
+				.singleton("urn:test:Concept")));
+		Assert.assertEquals(42,
+				((Concept) objectFactory.createObject("urn:test:Concept"))
+						.value());
+	}
+
+	@Test
+	public void testMissingClasses() throws Exception {
+		try {
+			Class.forName(ClassResolver.PKG_PREFIX + "_0._EntityProxy0", true,
+					definer);
+			Assert.fail("Class should not be found");
+		} catch (ClassNotFoundException e) {
+			// expected
+		}
+	}
+}
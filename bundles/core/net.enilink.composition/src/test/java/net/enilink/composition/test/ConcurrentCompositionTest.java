@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.composition.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.enilink.composition.annotations.Iri;
+import net.enilink.composition.mappers.RoleMapper;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentCompositionTest extends CompositionTestCase {
+	static final int THREADS = 8;
+
+	@Iri("urn:test:A")
+	public interface A {
+		String a();
+	}
+
+	public static abstract class ASupport implements A {
+		public String a() {
+			return "a";
+		}
+	}
+
+	@Iri("urn:test:B")
+	public interface B {
+		String b();
+	}
+
+	public static abstract class BSupport implements B {
+		public String b() {
+			return "b";
+		}
+	}
+
+	@Iri("urn:test:C")
+	public interface C {
+		String c();
+	}
+
+	public static abstract class CSupport implements C {
+		public String c() {
+			return "c";
+		}
+	}
+
+	@Iri("urn:test:D")
+	public interface D {
+		String d();
+	}
+
+	public static abstract class DSupport implements D {
+		public String d() {
+			return "d";
+		}
+	}
+
+	@Override
+	protected void initRoleMapper(RoleMapper<String> roleMapper) {
+		super.initRoleMapper(roleMapper);
+
+		roleMapper.addConcept(A.class);
+		roleMapper.addBehaviour(ASupport.class);
+		roleMapper.addConcept(B.class);
+		roleMapper.addBehaviour(BSupport.class);
+		roleMapper.addConcept(C.class);
+		roleMapper.addBehaviour(CSupport.class);
+		roleMapper.addConcept(D.class);
+		roleMapper.addBehaviour(DSupport.class);
+	}
+
+	@Test
+	public void testConcurrentResolution() throws Exception {
+		String[] names = { "urn:test:A", "urn:test:B", "urn:test:C",
+				"urn:test:D" };
+		final List<Set<String>> typeSets = new ArrayList<Set<String>>();
+		for (int mask = 1; mask < 1 << names.length; mask++) {
+			Set<String> types = new LinkedHashSet<String>();
+			for (int i = 0; i < names.length; i++) {
+				if ((mask & 1 << i) != 0) {
+					types.add(names[i]);
+				}
+			}
+			typeSets.add(types);
+		}
+
+		final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<List<Class<?>>>> results = new ArrayList<Future<List<Class<?>>>>();
+			for (int t = 0; t < THREADS; t++) {
+				final int offset = t;
+				results.add(executor.submit(new Callable<List<Class<?>>>() {
+					@Override
+					public List<Class<?>> call() throws Exception {
+						barrier.await();
+						Class<?>[] composites = new Class<?>[typeSets.size()];
+						// each thread starts with a different type set
+						for (int i = 0; i < typeSets.size(); i++) {
+							int index = (i + offset) % typeSets.size();
+							composites[index] = classResolver
+									.resolveComposite(typeSets.get(index));
+						}
+						List<Class<?>> list = new ArrayList<Class<?>>();
+						Collections.addAll(list, composites);
+						return list;
+					}
+				}));
+			}
+			List<Class<?>> expected = results.get(0).get();
+			for (Future<List<Class<?>>> result : results) {
+				List<Class<?>> composites = result.get();
+				for (int i = 0; i < composites.size(); i++) {
+					Assert.assertSame(expected.get(i), composites.get(i));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Object all = objectFactory.createObject("urn:test:A", "urn:test:B",
+				"urn:test:C", "urn:test:D");
+		Assert.assertEquals("a", ((A) all).a());
+		Assert.assertEquals("b", ((B) all).b());
+		Assert.assertEquals("c", ((C) all).c());
+		Assert.assertEquals("d", ((D) all).d());
+	}
+}
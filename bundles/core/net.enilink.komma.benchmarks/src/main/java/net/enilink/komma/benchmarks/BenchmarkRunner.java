@@ -0,0 +1,46 @@
+package net.enilink.komma.benchmarks;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the command line options of JMH.
+ * <p>
+ * In contrast to JMH's own main class the results are written as JSON to a
+ * file named <code>jmh-result-&lt;timestamp&gt;.json</code> unless a result
+ * format or file is given with <code>-rf</code> or <code>-rff</code>. The
+ * files of different runs can be compared with tools like the JMH Visualizer.
+ * <p>
+ * Example:
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar EntityManagerBenchmark -p store=memory
+ * </pre>
+ */
+public class BenchmarkRunner {
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+				|| cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+		if (!cmdOptions.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cmdOptions.getResult().hasValue()) {
+			String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+			String extension = cmdOptions.getResultFormat().orElse(ResultFormatType.JSON).toString().toLowerCase();
+			options.result("jmh-result-" + timestamp + "." + extension);
+		}
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,79 @@
+package net.enilink.komma.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.inject.Guice;
+import com.google.inject.Key;
+
+import net.enilink.composition.ClassResolver;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.komma.em.ManagerCompositionModule;
+import net.enilink.vocab.owl.OWL;
+import net.enilink.vocab.rdfs.RDFS;
+
+/**
+ * Measures the lookup of composite classes for sets of RDF types by the
+ * {@link ClassResolver}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassResolverBenchmark {
+	ClassResolver<URI> classResolver;
+	List<Collection<URI>> typeSets = new ArrayList<>();
+	URI resource = URIs.createURI(DataGenerator.NS + "resource");
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		classResolver = Guice.createInjector(new ManagerCompositionModule(EntityManagerBenchmark.createModule()))
+				.getInstance(new Key<ClassResolver<URI>>() {
+				});
+		URI item = URIs.createURI(Item.TYPE);
+		typeSets.add(Arrays.asList(item));
+		typeSets.add(Arrays.asList(OWL.TYPE_CLASS));
+		typeSets.add(Arrays.asList(RDFS.TYPE_CLASS, OWL.TYPE_CLASS));
+		typeSets.add(Arrays.asList(OWL.TYPE_OBJECTPROPERTY, item));
+		typeSets.add(Arrays.asList(OWL.TYPE_ONTOLOGY));
+		// ensure that all classes are generated before measuring
+		for (Collection<URI> types : typeSets) {
+			classResolver.resolveComposite(types);
+		}
+	}
+
+	Collection<URI> nextTypes() {
+		Collection<URI> types = typeSets.get(next);
+		next = (next + 1) % typeSets.size();
+		return types;
+	}
+
+	@Benchmark
+	public Class<?> resolveComposite() {
+		return classResolver.resolveComposite(nextTypes());
+	}
+
+	@Benchmark
+	public Class<?> resolveCompositeForResource() {
+		return classResolver.resolveComposite(resource, nextTypes());
+	}
+}
@@ -0,0 +1,141 @@
+package net.enilink.komma.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.Literal;
+import net.enilink.komma.core.Statement;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.vocab.owl.OWL;
+import net.enilink.vocab.rdf.RDF;
+import net.enilink.vocab.rdfs.RDFS;
+
+/**
+ * Generates a synthetic ontology together with instance data.
+ * <p>
+ * The ontology consists of a tree of classes and a set of object and datatype
+ * properties. Each instance has one of the classes as type, a label, a value
+ * for each datatype property and links to other instances via
+ * {@link Item#getRelated()}. The data is reproducible for the same seed.
+ */
+public class DataGenerator {
+	public static final String NS = "urn:benchmark:";
+
+	public static final URI ONTOLOGY = URIs.createURI(NS + "ontology");
+
+	public static final URI PROPERTY_RELATED = URIs.createURI(Item.PROPERTY_RELATED);
+
+	protected final int classes;
+	protected final int properties;
+	protected final int instances;
+	protected final int links;
+	protected final Random random;
+
+	protected final List<URI> classUris = new ArrayList<>();
+	protected final List<URI> propertyUris = new ArrayList<>();
+	protected final List<URI> instanceUris = new ArrayList<>();
+
+	/**
+	 * Creates a new generator.
+	 *
+	 * @param classes
+	 *            the number of classes
+	 * @param properties
+	 *            the number of datatype properties
+	 * @param instances
+	 *            the number of instances
+	 * @param links
+	 *            the number of related instances for each instance
+	 * @param seed
+	 *            the seed for the random number generator
+	 */
+	public DataGenerator(int classes, int properties, int instances, int links, long seed) {
+		this.classes = classes;
+		this.properties = properties;
+		this.instances = instances;
+		this.links = links;
+		this.random = new Random(seed);
+
+		for (int i = 0; i < classes; i++) {
+			classUris.add(URIs.createURI(NS + "Class" + i));
+		}
+		for (int i = 0; i < properties; i++) {
+			propertyUris.add(URIs.createURI(NS + "property" + i));
+		}
+		for (int i = 0; i < instances; i++) {
+			instanceUris.add(URIs.createURI(NS + "instance" + i));
+		}
+	}
+
+	public DataGenerator(int classes, int properties, int instances, int links) {
+		this(classes, properties, instances, links, 42);
+	}
+
+	/**
+	 * Returns the statements of the ontology.
+	 */
+	public List<IStatement> generateOntology() {
+		List<IStatement> stmts = new ArrayList<>();
+		stmts.add(new Statement(ONTOLOGY, RDF.PROPERTY_TYPE, OWL.TYPE_ONTOLOGY));
+		stmts.add(new Statement(URIs.createURI(Item.TYPE), RDF.PROPERTY_TYPE, OWL.TYPE_CLASS));
+		for (int i = 0; i < classes; i++) {
+			URI c = classUris.get(i);
+			stmts.add(new Statement(c, RDF.PROPERTY_TYPE, OWL.TYPE_CLASS));
+			stmts.add(new Statement(c, RDFS.PROPERTY_LABEL, new Literal("Class " + i)));
+			// build a tree of classes with up to four children per class
+			URI superClass = i == 0 ? URIs.createURI(Item.TYPE) : classUris.get((i - 1) / 4);
+			stmts.add(new Statement(c, RDFS.PROPERTY_SUBCLASSOF, superClass));
+		}
+		stmts.add(new Statement(PROPERTY_RELATED, RDF.PROPERTY_TYPE, OWL.TYPE_OBJECTPROPERTY));
+		for (URI p : propertyUris) {
+			stmts.add(new Statement(p, RDF.PROPERTY_TYPE, OWL.TYPE_DATATYPEPROPERTY));
+			stmts.add(new Statement(p, RDFS.PROPERTY_DOMAIN, classUris.get(random.nextInt(classes))));
+		}
+		return stmts;
+	}
+
+	/**
+	 * Returns the statements of the instance data.
+	 */
+	public List<IStatement> generateInstances() {
+		List<IStatement> stmts = new ArrayList<>();
+		for (int i = 0; i < instances; i++) {
+			URI instance = instanceUris.get(i);
+			stmts.add(new Statement(instance, RDF.PROPERTY_TYPE, classUris.get(random.nextInt(classes))));
+			// also add the type of the concept since no inferencing is used
+			stmts.add(new Statement(instance, RDF.PROPERTY_TYPE, URIs.createURI(Item.TYPE)));
+			stmts.add(new Statement(instance, RDFS.PROPERTY_LABEL, new Literal("Instance " + i)));
+			for (URI p : propertyUris) {
+				stmts.add(new Statement(instance, p, new Literal("value " + random.nextInt())));
+			}
+			for (int l = 0; l < links; l++) {
+				stmts.add(new Statement(instance, PROPERTY_RELATED, instanceUris.get(random.nextInt(instances))));
+			}
+		}
+		return stmts;
+	}
+
+	/**
+	 * Returns the statements of the ontology and the instance data.
+	 */
+	public List<IStatement> generate() {
+		List<IStatement> stmts = generateOntology();
+		stmts.addAll(generateInstances());
+		return stmts;
+	}
+
+	public List<URI> getClasses() {
+		return classUris;
+	}
+
+	public List<URI> getProperties() {
+		return propertyUris;
+	}
+
+	public List<URI> getInstances() {
+		return instanceUris;
+	}
+}
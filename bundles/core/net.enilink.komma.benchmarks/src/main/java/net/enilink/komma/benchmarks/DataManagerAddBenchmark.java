@@ -0,0 +1,105 @@
+package net.enilink.komma.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.inject.Injector;
+
+import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.Literal;
+import net.enilink.komma.core.Statement;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.dm.IDataManagerFactory;
+import net.enilink.komma.dm.change.IDataChangeSupport;
+
+/**
+ * Compares adding statements in bulk with adding them one at a time through
+ * {@link IDataManager#add(Iterable, net.enilink.komma.core.IReference...)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataManagerAddBenchmark {
+	@Param({ "10000" })
+	int statements;
+
+	@Param({ "VERIFY_NONE", "VERIFY_ALL" })
+	IDataChangeSupport.Mode mode;
+
+	@Param({ "memory", "native" })
+	String store;
+
+	Injector injector;
+	IDataManagerFactory factory;
+	IDataManager dm;
+	List<IStatement> data;
+	URI ctx = URIs.createURI("urn:benchmark:ctx");
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		injector = Stores.createInjector(store);
+		injector.getInstance(IDataChangeSupport.class).setDefaultMode(mode);
+		factory = injector.getInstance(IDataManagerFactory.class);
+		dm = factory.get();
+
+		data = new ArrayList<>(statements);
+		URI p = URIs.createURI("urn:benchmark:p");
+		for (int i = 0; i < statements; i++) {
+			data.add(new Statement(URIs.createURI("urn:benchmark:s" + (i / 10)),
+					p, new Literal("value " + i)));
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void clear() throws Exception {
+		try (RepositoryConnection conn = injector.getInstance(Repository.class)
+				.getConnection()) {
+			conn.clear();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dm.close();
+		factory.close();
+	}
+
+	@Benchmark
+	public void addBatch() {
+		dm.getTransaction().begin();
+		dm.add(data, ctx);
+		dm.getTransaction().commit();
+	}
+
+	@Benchmark
+	public void addSingle() {
+		dm.getTransaction().begin();
+		for (IStatement stmt : data) {
+			dm.add(Collections.singleton(stmt), ctx);
+		}
+		dm.getTransaction().commit();
+	}
+}
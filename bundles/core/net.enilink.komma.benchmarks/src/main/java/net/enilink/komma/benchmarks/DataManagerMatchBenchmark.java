@@ -0,0 +1,90 @@
+package net.enilink.komma.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.enilink.commons.iterator.IExtendedIterator;
+import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.dm.IDataManagerFactory;
+
+/**
+ * Measures statement lookups via
+ * {@link IDataManager#match(net.enilink.komma.core.IReference, net.enilink.komma.core.IReference, net.enilink.komma.core.IValue, boolean, net.enilink.komma.core.IReference...)}
+ * .
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataManagerMatchBenchmark {
+	@Param({ "10000" })
+	int instances;
+
+	@Param({ "memory", "native" })
+	String store;
+
+	IDataManagerFactory factory;
+	IDataManager dm;
+	List<URI> uris;
+	URI ctx = URIs.createURI("urn:benchmark:ctx");
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		factory = Stores.createInjector(store).getInstance(IDataManagerFactory.class);
+		dm = factory.get();
+
+		DataGenerator generator = new DataGenerator(50, 5, instances, 5);
+		dm.getTransaction().begin();
+		dm.add(generator.generate(), ctx);
+		dm.getTransaction().commit();
+		uris = generator.getInstances();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dm.close();
+		factory.close();
+	}
+
+	@Benchmark
+	public void matchSubject(Blackhole bh) {
+		URI uri = uris.get(next);
+		next = (next + 1) % uris.size();
+		try (IExtendedIterator<IStatement> it = dm.match(uri, null, null, false, ctx)) {
+			while (it.hasNext()) {
+				bh.consume(it.next());
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchPredicate(Blackhole bh) {
+		try (IExtendedIterator<IStatement> it = dm.match(null, DataGenerator.PROPERTY_RELATED, null, false,
+				ctx)) {
+			while (it.hasNext()) {
+				bh.consume(it.next());
+			}
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package net.enilink.komma.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.enilink.komma.core.IEntityManager;
+import net.enilink.komma.core.IEntityManagerFactory;
+import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.em.util.KommaUtil;
+
+/**
+ * Measures the creation of entities by
+ * {@link IEntityManager#find(net.enilink.komma.core.IReference)} and the
+ * iteration of property sets with cached and uncached entity managers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityManagerBenchmark {
+	@Param({ "1000" })
+	int instances;
+
+	@Param({ "5" })
+	int links;
+
+	@Param({ "memory", "native" })
+	String store;
+
+	@Param({ "true", "false" })
+	boolean cached;
+
+	IEntityManagerFactory factory;
+	IEntityManager manager;
+	List<URI> uris;
+	int next;
+
+	public static KommaModule createModule() {
+		KommaModule module = KommaUtil.getCoreModule();
+		module.addConcept(Item.class);
+		return module;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		factory = Stores.createEntityManagerFactory(store, createModule(), cached);
+		manager = factory.get();
+
+		DataGenerator generator = new DataGenerator(50, 5, instances, links);
+		manager.add(generator.generate());
+		uris = generator.getInstances();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		manager.close();
+		factory.getUnitOfWork().end();
+		factory.close();
+	}
+
+	URI nextUri() {
+		URI uri = uris.get(next);
+		next = (next + 1) % uris.size();
+		return uri;
+	}
+
+	@Benchmark
+	public Object find() {
+		return manager.find(nextUri());
+	}
+
+	@Benchmark
+	public Object findWithConcept() {
+		return manager.find(nextUri(), Item.class);
+	}
+
+	@Benchmark
+	public void iteratePropertySet(Blackhole bh) {
+		Item item = manager.find(nextUri(), Item.class);
+		for (Item related : item.getRelated()) {
+			bh.consume(related);
+		}
+	}
+}
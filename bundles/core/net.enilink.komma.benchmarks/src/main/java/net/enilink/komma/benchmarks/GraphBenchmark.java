@@ -0,0 +1,109 @@
+package net.enilink.komma.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.enilink.komma.core.CompactGraph;
+import net.enilink.komma.core.IGraph;
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.LinkedHashGraph;
+import net.enilink.komma.core.URI;
+import net.enilink.vocab.rdfs.RDFS;
+
+/**
+ * Compares the in-memory graph implementations {@link LinkedHashGraph} and
+ * {@link CompactGraph}.
+ * <p>
+ * The memory that is required to build a graph is reported as
+ * <code>gc.alloc.rate.norm</code> of the benchmark <code>build</code> if the
+ * GC profiler is enabled:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar GraphBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+	@Param({ "10000" })
+	int instances;
+
+	@Param({ "linked", "compact" })
+	String graphType;
+
+	List<IStatement> statements;
+	List<URI> uris;
+	IGraph graph;
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		DataGenerator generator = new DataGenerator(50, 5, instances, 5);
+		statements = generator.generate();
+		uris = generator.getInstances();
+		graph = createGraph();
+		graph.addAll(statements);
+	}
+
+	IGraph createGraph() {
+		return "compact".equals(graphType) ? new CompactGraph() : new LinkedHashGraph();
+	}
+
+	@Benchmark
+	public IGraph build() {
+		IGraph graph = createGraph();
+		graph.addAll(statements);
+		return graph;
+	}
+
+	@Benchmark
+	public void iterate(Blackhole bh) {
+		for (IStatement stmt : graph) {
+			bh.consume(stmt);
+		}
+	}
+
+	@Benchmark
+	public void filterSubject(Blackhole bh) {
+		URI uri = uris.get(next);
+		next = (next + 1) % uris.size();
+		for (IStatement stmt : graph.filter(uri, null, null)) {
+			bh.consume(stmt);
+		}
+	}
+
+	@Benchmark
+	public void filterObject(Blackhole bh) {
+		URI uri = uris.get(next);
+		next = (next + 1) % uris.size();
+		for (IReference subject : graph.filter(null, DataGenerator.PROPERTY_RELATED, uri).subjects()) {
+			bh.consume(subject);
+		}
+	}
+
+	@Benchmark
+	public Object objectValue() {
+		URI uri = uris.get(next);
+		next = (next + 1) % uris.size();
+		return graph.filter(uri, RDFS.PROPERTY_LABEL, null).objectValue();
+	}
+}
@@ -0,0 +1,20 @@
+package net.enilink.komma.benchmarks;
+
+import java.util.Set;
+
+import net.enilink.composition.annotations.Iri;
+
+/**
+ * Concept for the instances that are created by the {@link DataGenerator}.
+ */
+@Iri(Item.TYPE)
+public interface Item {
+	String TYPE = DataGenerator.NS + "Item";
+
+	String PROPERTY_RELATED = DataGenerator.NS + "related";
+
+	@Iri(PROPERTY_RELATED)
+	Set<Item> getRelated();
+
+	void setRelated(Set<Item> related);
+}
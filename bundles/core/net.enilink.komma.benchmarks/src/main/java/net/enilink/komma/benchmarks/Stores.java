@@ -0,0 +1,171 @@
+package net.enilink.komma.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.eclipse.rdf4j.sail.nativerdf.NativeStore;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+
+import net.enilink.komma.core.IEntityManagerFactory;
+import net.enilink.komma.core.IUnitOfWork;
+import net.enilink.komma.core.KommaException;
+import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.dm.change.DataChangeSupport;
+import net.enilink.komma.dm.change.IDataChangeSupport;
+import net.enilink.komma.em.CacheModule;
+import net.enilink.komma.em.CachingEntityManagerModule;
+import net.enilink.komma.em.DecoratingEntityManagerModule;
+import net.enilink.komma.em.EntityManagerFactoryModule;
+import net.enilink.komma.em.util.UnitOfWork;
+import net.enilink.komma.rdf4j.RDF4JModule;
+
+/**
+ * Creates the stores that are used by the benchmarks.
+ */
+public class Stores {
+	/**
+	 * Store type that keeps all data in memory.
+	 */
+	public static final String MEMORY = "memory";
+
+	/**
+	 * Store type that keeps all data in a temporary directory on disk.
+	 */
+	public static final String NATIVE = "native";
+
+	/**
+	 * Creates a repository of the given type. The temporary directory of a
+	 * native store is deleted when the repository is shut down, for example
+	 * by closing the data manager or entity manager factory in the tear down
+	 * of a benchmark.
+	 */
+	public static Repository createRepository(String type) {
+		Repository repository;
+		if (MEMORY.equals(type)) {
+			repository = new SailRepository(new MemoryStore());
+		} else if (NATIVE.equals(type)) {
+			final Path dataDir;
+			try {
+				dataDir = Files.createTempDirectory("komma-benchmark");
+			} catch (IOException e) {
+				throw new KommaException(e);
+			}
+			repository = new SailRepository(new NativeStore(dataDir.toFile())) {
+				@Override
+				protected void shutDownInternal() {
+					try {
+						super.shutDownInternal();
+					} finally {
+						deleteRecursively(dataDir);
+					}
+				}
+			};
+		} else {
+			throw new IllegalArgumentException("Unknown store type: " + type);
+		}
+		repository.init();
+		return repository;
+	}
+
+	static void deleteRecursively(Path dir) {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			// delete the contents of directories before the directories
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.delete(path);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (IOException | UncheckedIOException e) {
+			throw new KommaException(e);
+		}
+	}
+
+	/**
+	 * Returns a module that provides a repository of the given type together
+	 * with the bindings for data managers.
+	 */
+	public static Module createStorageModule(final String type) {
+		return new AbstractModule() {
+			@Override
+			protected void configure() {
+				install(new RDF4JModule());
+			}
+
+			@Singleton
+			@Provides
+			Repository provideRepository() {
+				return createRepository(type);
+			}
+		};
+	}
+
+	/**
+	 * Returns a module that provides a repository of the given type together
+	 * with the bindings for data managers and change support.
+	 */
+	public static Module createModule(final String type) {
+		return new AbstractModule() {
+			@Override
+			protected void configure() {
+				install(createStorageModule(type));
+				bind(DataChangeSupport.class).in(Singleton.class);
+				bind(IDataChangeSupport.class).to(DataChangeSupport.class);
+			}
+		};
+	}
+
+	public static Injector createInjector(String type) {
+		return Guice.createInjector(createModule(type));
+	}
+
+	/**
+	 * Creates an entity manager factory for the given store type. The unit of
+	 * work of the factory is already started.
+	 * 
+	 * @param type
+	 *            the store type
+	 * @param module
+	 *            the module with concepts and behaviours
+	 * @param cached
+	 *            <code>true</code> if entities and their properties should be
+	 *            cached
+	 */
+	public static IEntityManagerFactory createEntityManagerFactory(String type, KommaModule module,
+			boolean cached) {
+		List<Module> modules = new ArrayList<>();
+		modules.add(createStorageModule(type));
+		modules.add(new EntityManagerFactoryModule(module, null,
+				cached ? new CachingEntityManagerModule() : new DecoratingEntityManagerModule()));
+		if (cached) {
+			modules.add(new CacheModule());
+		}
+		modules.add(new AbstractModule() {
+			@Override
+			protected void configure() {
+				UnitOfWork uow = new UnitOfWork();
+				uow.begin();
+
+				bind(UnitOfWork.class).toInstance(uow);
+				bind(IUnitOfWork.class).toInstance(uow);
+			}
+		});
+		return Guice.createInjector(modules).getInstance(IEntityManagerFactory.class);
+	}
+}
@@ -0,0 +1,67 @@
+package net.enilink.komma.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+
+/**
+ * Measures the creation of URIs from strings by {@link URIs#createURI(String)}
+ * for URIs that are already in use. The allocations per operation are reported
+ * with the GC profiler (<code>-prof gc</code>).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class URIsBenchmark {
+	static final int COUNT = 10000;
+
+	List<String> strings = new ArrayList<>();
+	// keeps the URIs reachable
+	List<URI> uris = new ArrayList<>();
+
+	@State(Scope.Thread)
+	public static class Position {
+		int next;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		for (int i = 0; i < COUNT; i++) {
+			String string = DataGenerator.NS + (i % 2 == 0 ? "resource" + i : "ontology#resource" + i);
+			strings.add(string);
+			uris.add(URIs.createURI(string));
+		}
+	}
+
+	@Benchmark
+	public URI createURI(Position position) {
+		int i = position.next;
+		position.next = (i + 1) % COUNT;
+		return URIs.createURI(strings.get(i));
+	}
+
+	@Benchmark
+	@Threads(8)
+	public URI createURIConcurrently(Position position) {
+		return createURI(position);
+	}
+}
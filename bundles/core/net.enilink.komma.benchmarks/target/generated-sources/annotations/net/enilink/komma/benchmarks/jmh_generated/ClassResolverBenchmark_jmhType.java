@@ -0,0 +1,4 @@
+package net.enilink.komma.benchmarks.jmh_generated;
+public class ClassResolverBenchmark_jmhType extends ClassResolverBenchmark_jmhType_B3 {
+}
+
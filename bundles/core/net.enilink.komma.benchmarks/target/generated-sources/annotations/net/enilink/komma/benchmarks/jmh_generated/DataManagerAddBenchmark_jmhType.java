@@ -0,0 +1,4 @@
+package net.enilink.komma.benchmarks.jmh_generated;
+public class DataManagerAddBenchmark_jmhType extends DataManagerAddBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.enilink.komma.benchmarks.jmh_generated;
+public class DataManagerMatchBenchmark_jmhType extends DataManagerMatchBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.enilink.komma.benchmarks.jmh_generated;
+public class EntityManagerBenchmark_jmhType extends EntityManagerBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.enilink.komma.benchmarks.jmh_generated;
+public class GraphBenchmark_jmhType extends GraphBenchmark_jmhType_B3 {
+}
+
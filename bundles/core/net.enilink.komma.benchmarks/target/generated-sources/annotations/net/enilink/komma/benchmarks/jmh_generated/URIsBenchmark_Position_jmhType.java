@@ -0,0 +1,4 @@
+package net.enilink.komma.benchmarks.jmh_generated;
+public class URIsBenchmark_Position_jmhType extends URIsBenchmark_Position_jmhType_B3 {
+}
+
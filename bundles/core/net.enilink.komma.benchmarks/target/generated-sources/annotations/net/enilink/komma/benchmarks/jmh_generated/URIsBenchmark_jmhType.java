@@ -0,0 +1,4 @@
+package net.enilink.komma.benchmarks.jmh_generated;
+public class URIsBenchmark_jmhType extends URIsBenchmark_jmhType_B3 {
+}
+
@@ -15,5 +15,17 @@ import java.util.Collection;
 public interface INotificationListener<T extends INotification> {
 	void notifyChanged(Collection<? extends T> notifications);
 
+	/**
+	 * Returns the filter for the notifications that are passed to this
+	 * listener or <code>null</code> if all notifications are accepted.
+	 * <p>
+	 * {@link NotificationSupport} reads the filter only once when the listener
+	 * is added. A listener whose filter changes has to be removed and added
+	 * again. Filters created with {@link NotificationFilter#instanceOf} or
+	 * {@link NotificationFilter#hasValue}, also as part of a conjunction, are
+	 * indexed and hence cheaper than other filters.
+	 * 
+	 * @return the filter or <code>null</code>
+	 */
 	NotificationFilter<T> getFilter();
 }
\ No newline at end of file
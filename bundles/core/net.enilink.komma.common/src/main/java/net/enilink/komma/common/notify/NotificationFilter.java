@@ -10,10 +10,33 @@
  *******************************************************************************/
 package net.enilink.komma.common.notify;
 
+import java.util.Objects;
+import java.util.function.Function;
+
 /**
  * Filter which may be used for INotifications
+ * <p>
+ * Filters that are created by {@link #instanceOf(Class)} or
+ * {@link #hasValue(Function, Object)} and their conjunctions are
+ * <em>indexable</em>. Listeners with such filters are looked up by
+ * {@link NotificationSupport} in hash tables instead of evaluating their
+ * filters for each notification.
  */
 public abstract class NotificationFilter<T extends INotification> {
+	/**
+	 * The attribute for the {@link INotification#getSubject() subject} of
+	 * notifications.
+	 */
+	public static final Function<INotification, Object> SUBJECT = INotification::getSubject;
+
+	/**
+	 * The attribute for the {@link IPropertyNotification#getProperty()
+	 * property} of property notifications.
+	 */
+	public static final Function<INotification, Object> PROPERTY = n -> n instanceof IPropertyNotification
+			? ((IPropertyNotification) n).getProperty()
+			: null;
+
 	/**
 	 * Answer true iff the object <code>o</code> is acceptable. This method may
 	 * also throw an exception if the argument is of a wrong type; it is not
@@ -21,20 +44,106 @@ public abstract class NotificationFilter<T extends INotification> {
 	 */
 	public abstract boolean accept(T o);
 
+	/**
+	 * Returns the type of which all notifications accepted by this filter are
+	 * instances or <code>null</code> if the type is unknown.
+	 */
+	public Class<?> getIndexedType() {
+		return null;
+	}
+
+	/**
+	 * Returns the attribute whose value is equal to
+	 * {@link #getIndexedValue()} for all notifications accepted by this filter
+	 * or <code>null</code> if there is no such attribute.
+	 * <p>
+	 * Attributes are compared by identity, hence filters should use shared
+	 * attributes like {@link #SUBJECT} or {@link #PROPERTY}.
+	 */
+	public Function<? super INotification, ?> getIndexedAttribute() {
+		return null;
+	}
+
+	/**
+	 * Returns the value of the {@link #getIndexedAttribute() indexed attribute}.
+	 */
+	public Object getIndexedValue() {
+		return null;
+	}
+
 	public static NotificationFilter<INotification> instanceOf(
 			final Class<? extends INotification> clazz) {
 		return new NotificationFilter<INotification>() {
 			public boolean accept(INotification x) {
 				return clazz.isAssignableFrom(x.getClass());
 			}
+
+			@Override
+			public Class<?> getIndexedType() {
+				return clazz;
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter that accepts notifications whose value for the given
+	 * attribute is equal to <code>value</code>.
+	 * 
+	 * @param attribute
+	 *            the attribute, for example {@link #SUBJECT} or
+	 *            {@link #PROPERTY}
+	 * @param value
+	 *            the required value of the attribute
+	 * @return a filter for the attribute value
+	 */
+	public static NotificationFilter<INotification> hasValue(
+			final Function<? super INotification, ?> attribute,
+			final Object value) {
+		Objects.requireNonNull(value, "value");
+		return new NotificationFilter<INotification>() {
+			public boolean accept(INotification x) {
+				return value.equals(attribute.apply(x));
+			}
+
+			@Override
+			public Function<? super INotification, ?> getIndexedAttribute() {
+				return attribute;
+			}
+
+			@Override
+			public Object getIndexedValue() {
+				return value;
+			}
 		};
 	}
 
 	public NotificationFilter<T> and(final NotificationFilter<? super T> other) {
-		return other == any() ? this : new NotificationFilter<T>() {
+		if (other == any()) {
+			return this;
+		}
+		// the conjunction is indexed by one of its operands
+		final NotificationFilter<?> indexed = getIndexedAttribute() != null
+				|| other.getIndexedAttribute() == null
+						&& getIndexedType() != null ? this : other;
+		return new NotificationFilter<T>() {
 			public boolean accept(T x) {
 				return NotificationFilter.this.accept(x) && other.accept(x);
 			}
+
+			@Override
+			public Class<?> getIndexedType() {
+				return indexed.getIndexedType();
+			}
+
+			@Override
+			public Function<? super INotification, ?> getIndexedAttribute() {
+				return indexed.getIndexedAttribute();
+			}
+
+			@Override
+			public Object getIndexedValue() {
+				return indexed.getIndexedValue();
+			}
 		};
 	}
 
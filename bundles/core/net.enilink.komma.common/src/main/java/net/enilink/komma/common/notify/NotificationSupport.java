@@ -12,24 +12,122 @@ package net.enilink.komma.common.notify;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Function;
 
+/**
+ * Distributes notifications to registered listeners.
+ * <p>
+ * The filter of a listener is retrieved once when the listener is added.
+ * Listeners with {@link NotificationFilter indexable} filters are stored in
+ * hash tables by the indexed attribute values and notification types of their
+ * filters. Each notification is then routed to the matching listeners by a few
+ * lookups instead of evaluating the filters of all listeners.
+ */
 public class NotificationSupport<T extends INotification> implements
 		INotificationBroadcaster<T>, INotifier<T> {
-	private CopyOnWriteArraySet<INotificationListener<T>> listeners = new CopyOnWriteArraySet<INotificationListener<T>>();
+	static class Registration<T extends INotification> {
+		final INotificationListener<T> listener;
+		final NotificationFilter<? super T> filter;
+		final boolean indexed;
+
+		Registration(INotificationListener<T> listener,
+				NotificationFilter<? super T> filter, boolean indexed) {
+			this.listener = listener;
+			this.filter = filter;
+			this.indexed = indexed;
+		}
+	}
+
+	private final CopyOnWriteArrayList<Registration<T>> registrations = new CopyOnWriteArrayList<>();
+
+	private final ConcurrentMap<Class<?>, Set<Registration<T>>> byType = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Function<? super INotification, ?>, ConcurrentMap<Object, Set<Registration<T>>>> byAttribute = new ConcurrentHashMap<>();
 
 	/* (non-Javadoc)
 	 * @see net.enilink.komma.common.notify.INotificationSupport#notify(java.util.Collection)
 	 */
+	@SuppressWarnings("unchecked")
 	public void fireNotifications(Collection<? extends T> notifications) {
+		if (notifications.isEmpty() || registrations.isEmpty()) {
+			return;
+		}
+		Map<Registration<T>, List<T>> routed = route(notifications);
 		List<T> cache = new ArrayList<T>();
-		for (INotificationListener<T> listener : listeners) {
-			Collection<T> filtered = FilterUtil.select(notifications, listener
-					.getFilter(), cache);
+		for (Registration<T> registration : registrations) {
+			Collection<T> filtered;
+			if (registration.indexed) {
+				filtered = routed.get(registration);
+			} else if (registration.filter == null) {
+				filtered = (Collection<T>) notifications;
+			} else {
+				filtered = FilterUtil.select(notifications,
+						registration.filter, cache);
+			}
+			if (filtered != null && !filtered.isEmpty()) {
+				registration.listener.notifyChanged(filtered);
+			}
+		}
+	}
 
-			if (!filtered.isEmpty()) {
-				listener.notifyChanged(filtered);
+	/**
+	 * Determines the notifications for all listeners with indexed filters.
+	 */
+	private Map<Registration<T>, List<T>> route(
+			Collection<? extends T> notifications) {
+		Map<Registration<T>, List<T>> routed = new IdentityHashMap<>();
+		if (byType.isEmpty() && byAttribute.isEmpty()) {
+			return routed;
+		}
+		// registrations by the concrete classes of the notifications
+		Map<Class<?>, List<Set<Registration<T>>>> typeCache = new HashMap<>();
+		for (T notification : notifications) {
+			if (!byType.isEmpty()) {
+				List<Set<Registration<T>>> candidates = typeCache
+						.computeIfAbsent(notification.getClass(), c -> {
+							List<Set<Registration<T>>> sets = new ArrayList<>();
+							for (Map.Entry<Class<?>, Set<Registration<T>>> entry : byType
+									.entrySet()) {
+								if (entry.getKey().isAssignableFrom(c)) {
+									sets.add(entry.getValue());
+								}
+							}
+							return sets;
+						});
+				for (Set<Registration<T>> matching : candidates) {
+					route(notification, matching, routed);
+				}
+			}
+			for (Map.Entry<Function<? super INotification, ?>, ConcurrentMap<Object, Set<Registration<T>>>> entry : byAttribute
+					.entrySet()) {
+				Object value = entry.getKey().apply(notification);
+				if (value != null) {
+					Set<Registration<T>> matching = entry.getValue().get(value);
+					if (matching != null) {
+						route(notification, matching, routed);
+					}
+				}
+			}
+		}
+		return routed;
+	}
+
+	private void route(T notification, Set<Registration<T>> matching,
+			Map<Registration<T>, List<T>> routed) {
+		for (Registration<T> registration : matching) {
+			// indexed filters may be combined with arbitrary other filters
+			if (registration.filter.accept(notification)) {
+				routed.computeIfAbsent(registration, r -> new ArrayList<>())
+						.add(notification);
 			}
 		}
 	}
@@ -37,14 +135,64 @@ public class NotificationSupport<T extends INotification> implements
 	/* (non-Javadoc)
 	 * @see net.enilink.komma.common.notify.INotificationSupport#addListener(net.enilink.komma.common.notify.INotificationListener)
 	 */
-	public void addListener(INotificationListener<T> listener) {
-		listeners.add(listener);
+	public synchronized void addListener(INotificationListener<T> listener) {
+		for (Registration<T> registration : registrations) {
+			if (registration.listener.equals(listener)) {
+				return;
+			}
+		}
+		NotificationFilter<? super T> filter = listener.getFilter();
+		if (filter == NotificationFilter.any()) {
+			filter = null;
+		}
+		Function<? super INotification, ?> attribute = filter == null ? null
+				: filter.getIndexedAttribute();
+		Object value = filter == null ? null : filter.getIndexedValue();
+		Class<?> type = filter == null ? null : filter.getIndexedType();
+		Registration<T> registration = new Registration<T>(listener, filter,
+				attribute != null && value != null || type != null);
+		if (attribute != null && value != null) {
+			byAttribute.computeIfAbsent(attribute,
+					a -> new ConcurrentHashMap<>()).computeIfAbsent(value,
+					v -> new CopyOnWriteArraySet<>()).add(registration);
+		} else if (type != null) {
+			byType.computeIfAbsent(type, t -> new CopyOnWriteArraySet<>()).add(
+					registration);
+		}
+		registrations.add(registration);
 	}
 
 	/* (non-Javadoc)
 	 * @see net.enilink.komma.common.notify.INotificationSupport#removeListener(net.enilink.komma.common.notify.INotificationListener)
 	 */
-	public void removeListener(INotificationListener<T> listener) {
-		listeners.remove(listener);
+	public synchronized void removeListener(INotificationListener<T> listener) {
+		for (Registration<T> registration : registrations) {
+			if (registration.listener.equals(listener)) {
+				registrations.remove(registration);
+				if (registration.indexed) {
+					NotificationFilter<? super T> filter = registration.filter;
+					if (filter.getIndexedAttribute() != null
+							&& filter.getIndexedValue() != null) {
+						Map<Object, Set<Registration<T>>> values = byAttribute
+								.get(filter.getIndexedAttribute());
+						remove(values, filter.getIndexedValue(), registration);
+						if (values.isEmpty()) {
+							byAttribute.remove(filter.getIndexedAttribute());
+						}
+					} else {
+						remove(byType, filter.getIndexedType(), registration);
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	private static <K, R> void remove(Map<K, Set<R>> map, K key, R value) {
+		Set<R> values = map.get(key);
+		values.remove(value);
+		if (values.isEmpty()) {
+			map.remove(key);
+		}
 	}
-}
\ No newline at end of file
+}
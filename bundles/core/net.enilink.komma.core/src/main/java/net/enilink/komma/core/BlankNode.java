@@ -10,6 +10,8 @@
  *******************************************************************************/
 package net.enilink.komma.core;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * This class represents a generic blank node.
  * 
@@ -21,28 +23,52 @@ public class BlankNode implements IReference {
 	 * ID for bnode prefixes to prevent blank node clashes (unique per
 	 * classloaded instance of this class)
 	 */
-	private static long lastPrefixId = 0;
-	private static String idPrefix = nextIdPrefix();
-	private static int nextId;
+	private static final String idPrefix = Long.toString(
+			System.currentTimeMillis(), 32) + "x";
 
-	private static synchronized String nextIdPrefix() {
-		lastPrefixId = Math.max(System.currentTimeMillis(), lastPrefixId + 1);
-		return Long.toString(lastPrefixId, 32) + "x";
-	}
+	/**
+	 * Number of IDs that are reserved at once by a thread.
+	 */
+	private static final int ID_BLOCK_SIZE = 1024;
+
+	/**
+	 * Start of the next block of IDs that is not reserved by any thread.
+	 */
+	private static final AtomicLong nextIdBlock = new AtomicLong();
+
+	/**
+	 * The current block of IDs of each thread as pair of next ID and end of
+	 * the block.
+	 */
+	private static final ThreadLocal<long[]> idBlock = ThreadLocal
+			.withInitial(() -> new long[2]);
 
 	public static String generateId() {
 		return generateId(null);
 	}
 
-	public static synchronized String generateId(String prefix) {
-		int id = nextId++;
-		String idStr = new StringBuilder("_:")
+	/**
+	 * Generates a new unique blank node ID with the given prefix.
+	 * <p>
+	 * The IDs are taken from blocks that are reserved per thread and hence
+	 * can be generated concurrently without contention. IDs of different
+	 * threads are unique but not ordered.
+	 * 
+	 * @param prefix
+	 *            The prefix for the ID or <code>null</code> for the default
+	 *            prefix
+	 * @return The blank node ID in the form <code>_:[prefix][id]</code>
+	 */
+	public static String generateId(String prefix) {
+		long[] block = idBlock.get();
+		if (block[0] == block[1]) {
+			block[0] = nextIdBlock.getAndAdd(ID_BLOCK_SIZE);
+			block[1] = block[0] + ID_BLOCK_SIZE;
+		}
+		long id = block[0]++;
+		return new StringBuilder("_:")
 				.append(prefix == null ? "komma-" : prefix).append(idPrefix)
 				.append(id).toString();
-		if (id == Integer.MAX_VALUE) {
-			idPrefix = nextIdPrefix();
-		}
-		return idStr;
 	}
 
 	private String id;
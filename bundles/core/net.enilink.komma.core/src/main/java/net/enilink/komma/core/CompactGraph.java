@@ -0,0 +1,1223 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableSet;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import net.enilink.commons.iterator.IExtendedIterator;
+import net.enilink.commons.iterator.NiceIterator;
+import net.enilink.commons.iterator.WrappedIterator;
+
+/**
+ * Memory efficient implementation of the {@link IGraph} interface.
+ * <p>
+ * All terms of the graph are encoded as <code>int</code> ids by a dictionary
+ * and the statements are stored as tuples of ids within primitive arrays. For
+ * each of the positions subject, predicate, object and context the statements
+ * sharing the same term are linked to each other. These links are used as
+ * indexes for matching statement patterns. A statement therefore requires
+ * about 50 bytes in contrast to several hundred bytes for a
+ * {@link LinkedHashGraph}.
+ * <p>
+ * The iteration order is the insertion order of the statements. Statements
+ * are materialized as {@link Statement} objects while iterating. Terms are
+ * only removed from the dictionary if the graph is cleared.
+ */
+public class CompactGraph extends AbstractSet<IStatement> implements IGraph {
+	private static final long serialVersionUID = 2795287412866093541L;
+
+	static final int SUBJ = 0, PRED = 1, OBJ = 2, CTX = 3, POSITIONS = 4;
+
+	/**
+	 * The id of a wildcard within a pattern.
+	 */
+	static final int ANY = -1;
+
+	/**
+	 * The id of the <code>null</code> context.
+	 */
+	static final int NULL_ID = 0;
+
+	static final int EMPTY = -1, REMOVED = -2;
+
+	static final int DEFAULT_CAPACITY = 16;
+
+	// the dictionary of terms
+	transient Object[] terms;
+	transient int termCount;
+	transient int[] termTable;
+
+	// first and last statement and number of statements per term and position
+	transient int[][] heads, tails, counts;
+
+	// the term ids of the statements and links to statements with the same
+	// term per position
+	transient int[][] ids, next, prev;
+	transient BitSet inferred;
+	transient int slots;
+	transient int size;
+	transient int[] statementTable;
+	transient int removedEntries;
+
+	transient int modCount;
+
+	transient IGraph emptyGraph;
+
+	public CompactGraph() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public CompactGraph(Collection<? extends IStatement> c) {
+		this(c.size());
+		addAll(c);
+	}
+
+	public CompactGraph(int size) {
+		init(Math.max(size, DEFAULT_CAPACITY));
+	}
+
+	private void init(int capacity) {
+		terms = new Object[capacity];
+		termTable = newTable(capacity);
+		heads = new int[POSITIONS][];
+		tails = new int[POSITIONS][];
+		counts = new int[POSITIONS][];
+		ids = new int[POSITIONS][];
+		next = new int[POSITIONS][];
+		prev = new int[POSITIONS][];
+		for (int pos = 0; pos < POSITIONS; pos++) {
+			heads[pos] = filled(capacity);
+			tails[pos] = filled(capacity);
+			counts[pos] = new int[capacity];
+			ids[pos] = new int[capacity];
+			next[pos] = new int[capacity];
+			prev[pos] = new int[capacity];
+		}
+		inferred = new BitSet();
+		statementTable = newTable(capacity);
+		termCount = 0;
+		slots = 0;
+		size = 0;
+		removedEntries = 0;
+		// the null context always has the first id
+		intern(null);
+	}
+
+	private static int[] filled(int length) {
+		int[] array = new int[length];
+		Arrays.fill(array, EMPTY);
+		return array;
+	}
+
+	private static int[] newTable(int capacity) {
+		int length = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) * 2;
+		return filled(length);
+	}
+
+	private static int mix(int h) {
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	// dictionary
+
+	/**
+	 * Returns the id of the given term or {@link #EMPTY} if the term is
+	 * unknown.
+	 */
+	int id(Object term) {
+		int mask = termTable.length - 1;
+		for (int i = mix(term == null ? 0 : term.hashCode()) & mask;; i = (i + 1)
+				& mask) {
+			int id = termTable[i];
+			if (id == EMPTY) {
+				return EMPTY;
+			}
+			Object existing = terms[id];
+			if (existing == term || existing != null && existing.equals(term)) {
+				return id;
+			}
+		}
+	}
+
+	int intern(Object term) {
+		int mask = termTable.length - 1;
+		int i = mix(term == null ? 0 : term.hashCode()) & mask;
+		for (;; i = (i + 1) & mask) {
+			int id = termTable[i];
+			if (id == EMPTY) {
+				break;
+			}
+			Object existing = terms[id];
+			if (existing == term || existing != null && existing.equals(term)) {
+				return id;
+			}
+		}
+		int id = termCount++;
+		if (id == terms.length) {
+			growTerms();
+		}
+		terms[id] = term;
+		if (termCount * 3 > termTable.length * 2) {
+			rehashTerms(termTable.length * 2);
+		} else {
+			termTable[i] = id;
+		}
+		return id;
+	}
+
+	private void growTerms() {
+		int capacity = terms.length * 2;
+		terms = Arrays.copyOf(terms, capacity);
+		for (int pos = 0; pos < POSITIONS; pos++) {
+			heads[pos] = grow(heads[pos], capacity);
+			tails[pos] = grow(tails[pos], capacity);
+			counts[pos] = Arrays.copyOf(counts[pos], capacity);
+		}
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		int length = array.length;
+		array = Arrays.copyOf(array, capacity);
+		Arrays.fill(array, length, capacity, EMPTY);
+		return array;
+	}
+
+	private void rehashTerms(int length) {
+		termTable = filled(length);
+		int mask = length - 1;
+		for (int id = 0; id < termCount; id++) {
+			Object term = terms[id];
+			int i = mix(term == null ? 0 : term.hashCode()) & mask;
+			while (termTable[i] != EMPTY) {
+				i = (i + 1) & mask;
+			}
+			termTable[i] = id;
+		}
+	}
+
+	// statements
+
+	private static int hash(int s, int p, int o, int c) {
+		return mix(((s * 31 + p) * 31 + o) * 31 + c);
+	}
+
+	/**
+	 * Returns the slot of the statement with the given ids or {@link #EMPTY}.
+	 */
+	int find(int s, int p, int o, int c) {
+		int mask = statementTable.length - 1;
+		for (int i = hash(s, p, o, c) & mask;; i = (i + 1) & mask) {
+			int slot = statementTable[i];
+			if (slot == EMPTY) {
+				return EMPTY;
+			}
+			if (slot != REMOVED && ids[SUBJ][slot] == s
+					&& ids[PRED][slot] == p && ids[OBJ][slot] == o
+					&& ids[CTX][slot] == c) {
+				return slot;
+			}
+		}
+	}
+
+	boolean addStatement(IReference subj, IReference pred, Object obj,
+			IReference ctx, boolean isInferred) {
+		int s = intern(subj), p = intern(pred), o = intern(obj), c = intern(ctx);
+		if (find(s, p, o, c) != EMPTY) {
+			return false;
+		}
+		if (slots == ids[SUBJ].length) {
+			if (size < slots * 3 / 4) {
+				compact();
+			} else {
+				growStatements(slots * 2);
+			}
+		}
+		int slot = slots++;
+		ids[SUBJ][slot] = s;
+		ids[PRED][slot] = p;
+		ids[OBJ][slot] = o;
+		ids[CTX][slot] = c;
+		link(SUBJ, slot, s);
+		link(PRED, slot, p);
+		link(OBJ, slot, o);
+		link(CTX, slot, c);
+		if (isInferred) {
+			inferred.set(slot);
+		}
+		size++;
+		if ((size + removedEntries) * 3 > statementTable.length * 2) {
+			rehashStatements(size * 3 > statementTable.length ? statementTable.length * 2
+					: statementTable.length);
+		} else {
+			insertIntoTable(slot);
+		}
+		modCount++;
+		return true;
+	}
+
+	private void insertIntoTable(int slot) {
+		int mask = statementTable.length - 1;
+		int i = hash(ids[SUBJ][slot], ids[PRED][slot], ids[OBJ][slot],
+				ids[CTX][slot])
+				& mask;
+		while (statementTable[i] != EMPTY && statementTable[i] != REMOVED) {
+			i = (i + 1) & mask;
+		}
+		if (statementTable[i] == REMOVED) {
+			removedEntries--;
+		}
+		statementTable[i] = slot;
+	}
+
+	private void rehashStatements(int length) {
+		statementTable = filled(length);
+		removedEntries = 0;
+		for (int slot = 0; slot < slots; slot++) {
+			if (ids[SUBJ][slot] != EMPTY) {
+				insertIntoTable(slot);
+			}
+		}
+	}
+
+	private void growStatements(int capacity) {
+		for (int pos = 0; pos < POSITIONS; pos++) {
+			ids[pos] = Arrays.copyOf(ids[pos], capacity);
+			next[pos] = Arrays.copyOf(next[pos], capacity);
+			prev[pos] = Arrays.copyOf(prev[pos], capacity);
+		}
+	}
+
+	/**
+	 * Removes the slots of deleted statements while preserving the order of
+	 * the remaining statements.
+	 */
+	private void compact() {
+		int target = 0;
+		BitSet newInferred = new BitSet();
+		for (int slot = 0; slot < slots; slot++) {
+			if (ids[SUBJ][slot] != EMPTY) {
+				for (int pos = 0; pos < POSITIONS; pos++) {
+					ids[pos][target] = ids[pos][slot];
+				}
+				if (inferred.get(slot)) {
+					newInferred.set(target);
+				}
+				target++;
+			}
+		}
+		slots = target;
+		inferred = newInferred;
+		for (int pos = 0; pos < POSITIONS; pos++) {
+			Arrays.fill(heads[pos], 0, termCount, EMPTY);
+			Arrays.fill(tails[pos], 0, termCount, EMPTY);
+			Arrays.fill(counts[pos], 0, termCount, 0);
+			for (int slot = 0; slot < slots; slot++) {
+				link(pos, slot, ids[pos][slot]);
+			}
+		}
+		rehashStatements(statementTable.length);
+	}
+
+	private void link(int pos, int slot, int id) {
+		int tail = tails[pos][id];
+		prev[pos][slot] = tail;
+		next[pos][slot] = EMPTY;
+		if (tail == EMPTY) {
+			heads[pos][id] = slot;
+		} else {
+			next[pos][tail] = slot;
+		}
+		tails[pos][id] = slot;
+		counts[pos][id]++;
+	}
+
+	private void unlink(int pos, int slot) {
+		int id = ids[pos][slot];
+		int before = prev[pos][slot], after = next[pos][slot];
+		if (before == EMPTY) {
+			heads[pos][id] = after;
+		} else {
+			next[pos][before] = after;
+		}
+		if (after == EMPTY) {
+			tails[pos][id] = before;
+		} else {
+			prev[pos][after] = before;
+		}
+		counts[pos][id]--;
+	}
+
+	void removeSlot(int slot) {
+		int mask = statementTable.length - 1;
+		int i = hash(ids[SUBJ][slot], ids[PRED][slot], ids[OBJ][slot],
+				ids[CTX][slot])
+				& mask;
+		while (statementTable[i] != slot) {
+			i = (i + 1) & mask;
+		}
+		statementTable[i] = REMOVED;
+		removedEntries++;
+		for (int pos = 0; pos < POSITIONS; pos++) {
+			unlink(pos, slot);
+		}
+		ids[SUBJ][slot] = EMPTY;
+		inferred.clear(slot);
+		size--;
+		modCount++;
+	}
+
+	IStatement statement(int slot) {
+		return new Statement((IReference) terms[ids[SUBJ][slot]],
+				(IReference) terms[ids[PRED][slot]], terms[ids[OBJ][slot]],
+				(IReference) terms[ids[CTX][slot]], inferred.get(slot));
+	}
+
+	// patterns
+
+	/**
+	 * Encodes a statement pattern. Returns <code>null</code> if the pattern
+	 * can not match any statement because of unknown terms.
+	 */
+	int[] pattern(IReference subj, IReference pred, Object obj,
+			IReference... contexts) {
+		int s = subj == null ? ANY : id(subj);
+		int p = pred == null ? ANY : id(pred);
+		int o = obj == null ? ANY : id(obj);
+		if (s == EMPTY && subj != null || p == EMPTY && pred != null
+				|| o == EMPTY && obj != null) {
+			return null;
+		}
+		contexts = LinkedHashGraph.notNull(contexts);
+		int[] pattern = new int[3 + contexts.length];
+		pattern[SUBJ] = s;
+		pattern[PRED] = p;
+		pattern[OBJ] = o;
+		int length = 3;
+		for (IReference ctx : contexts) {
+			int c = id(ctx);
+			if (c != EMPTY) {
+				pattern[length++] = c;
+			}
+		}
+		if (contexts.length > 0 && length == 3) {
+			// none of the contexts is known
+			return null;
+		}
+		return length == pattern.length ? pattern : Arrays.copyOf(pattern,
+				length);
+	}
+
+	boolean matches(int slot, int[] pattern) {
+		if (ids[SUBJ][slot] == EMPTY) {
+			return false;
+		}
+		for (int pos = SUBJ; pos <= OBJ; pos++) {
+			if (pattern[pos] != ANY && pattern[pos] != ids[pos][slot]) {
+				return false;
+			}
+		}
+		if (pattern.length == 3) {
+			return true;
+		}
+		int c = ids[CTX][slot];
+		for (int i = 3; i < pattern.length; i++) {
+			if (pattern[i] == c) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	protected SlotIterator match(IReference subj, IReference pred, Object obj,
+			IReference... contexts) {
+		int[] pattern = pattern(subj, pred, obj, contexts);
+		if (pattern == null) {
+			return new SlotIterator(null, ANY, EMPTY);
+		}
+		// use the shortest list of statements with a common term
+		int index = ANY, first = 0, min = Integer.MAX_VALUE;
+		for (int pos = SUBJ; pos <= CTX; pos++) {
+			int id;
+			if (pos == CTX) {
+				id = pattern.length == 4 ? pattern[3] : ANY;
+			} else {
+				id = pattern[pos];
+			}
+			if (id != ANY && counts[pos][id] < min) {
+				min = counts[pos][id];
+				index = pos;
+				first = heads[pos][id];
+			}
+		}
+		return new SlotIterator(pattern, index, first);
+	}
+
+	/**
+	 * Iterates over the slots of the statements that match a pattern.
+	 */
+	protected class SlotIterator implements Iterator<IStatement> {
+		final int[] pattern;
+		final int index;
+		int nextSlot, current = EMPTY;
+		int expectedModCount = modCount;
+
+		SlotIterator(int[] pattern, int index, int first) {
+			this.pattern = pattern;
+			this.index = index;
+			this.nextSlot = pattern == null ? EMPTY : advance(first);
+		}
+
+		private int advance(int slot) {
+			if (index == ANY) {
+				while (slot < slots && !matches(slot, pattern)) {
+					slot++;
+				}
+				return slot < slots ? slot : EMPTY;
+			}
+			while (slot != EMPTY && !matches(slot, pattern)) {
+				slot = next[index][slot];
+			}
+			return slot;
+		}
+
+		public boolean hasNext() {
+			return nextSlot != EMPTY;
+		}
+
+		int nextSlot() {
+			if (nextSlot == EMPTY) {
+				throw new NoSuchElementException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			current = nextSlot;
+			nextSlot = advance(index == ANY ? current + 1
+					: next[index][current]);
+			return current;
+		}
+
+		public IStatement next() {
+			return statement(nextSlot());
+		}
+
+		/**
+		 * Continues the iteration after statements have been removed by
+		 * other means than this iterator.
+		 */
+		void resync() {
+			if (nextSlot != EMPTY) {
+				nextSlot = advance(nextSlot);
+			}
+			expectedModCount = modCount;
+		}
+
+		public void remove() {
+			if (current == EMPTY) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			removeSlot(current);
+			expectedModCount = modCount;
+			current = EMPTY;
+		}
+	}
+
+	// IGraph
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean add(IStatement st) {
+		return addStatement(st.getSubject(), st.getPredicate(),
+				st.getObject(), st.getContext(), st.isInferred());
+	}
+
+	public boolean add(IReference subj, IReference pred, Object obj,
+			IReference... contexts) {
+		IReference[] ctxs = LinkedHashGraph.notNull(contexts);
+		if (ctxs.length == 0) {
+			ctxs = LinkedHashGraph.NULL_CTX;
+		}
+		boolean changed = false;
+		for (IReference ctx : ctxs) {
+			changed |= addStatement(subj, pred, obj, ctx, false);
+		}
+		return changed;
+	}
+
+	@Override
+	public void clear() {
+		init(DEFAULT_CAPACITY);
+		modCount++;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (o instanceof IStatement) {
+			int slot = find((IStatement) o);
+			if (slot != EMPTY) {
+				removeSlot(slot);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o instanceof IStatement) {
+			return find((IStatement) o) != EMPTY;
+		}
+		return false;
+	}
+
+	private int find(IStatement st) {
+		int s = id(st.getSubject()), p = id(st.getPredicate()), o = id(st
+				.getObject()), c = id(st.getContext());
+		if (s == EMPTY || p == EMPTY || o == EMPTY || c == EMPTY) {
+			return EMPTY;
+		}
+		return find(s, p, o, c);
+	}
+
+	@Override
+	public Iterator<IStatement> iterator() {
+		return match(null, null, null);
+	}
+
+	public boolean contains(IReference subj, IReference pred, Object obj,
+			IReference... contexts) {
+		return match(subj, pred, obj, contexts).hasNext();
+	}
+
+	public boolean remove(IReference subj, IReference pred, Object obj,
+			IReference... contexts) {
+		SlotIterator iter = match(subj, pred, obj, contexts);
+		if (!iter.hasNext()) {
+			return false;
+		}
+		while (iter.hasNext()) {
+			iter.nextSlot();
+			iter.remove();
+		}
+		return true;
+	}
+
+	public boolean clear(IReference... contexts) {
+		return remove(null, null, null, contexts);
+	}
+
+	@Override
+	public IExtendedIterator<IStatement> match(IReference subject,
+			IReference predicate, IValue object, boolean includeInferred,
+			IReference... contexts) {
+		IExtendedIterator<IStatement> it = WrappedIterator.create(match(
+				subject, predicate, (Object) object, contexts));
+		if (!includeInferred) {
+			it = it.filterDrop(e -> e.isInferred());
+		}
+		return it;
+	}
+
+	@Override
+	public boolean hasMatch(IReference subject, IReference predicate,
+			IValue object, boolean includeInferred, IReference... contexts) {
+		return match(subject, predicate, object, includeInferred, contexts)
+				.hasNext();
+	}
+
+	public IGraph filter(IReference subj, IReference pred, Object obj,
+			IReference... contexts) {
+		return new FilteredGraph(subj, pred, obj, contexts);
+	}
+
+	public Set<IReference> subjects() {
+		return new TermSet<IReference>(SUBJ, null, null, null);
+	}
+
+	public Set<IReference> predicates() {
+		return new TermSet<IReference>(PRED, null, null, null);
+	}
+
+	public Set<Object> objects() {
+		return new TermSet<Object>(OBJ, null, null, null);
+	}
+
+	public Set<IReference> contexts() {
+		return new TermSet<IReference>(CTX, null, null, null);
+	}
+
+	public Object objectValue() throws KommaException {
+		return objectValue(objects());
+	}
+
+	public ILiteral objectLiteral() throws KommaException {
+		return objectLiteral(objectValue());
+	}
+
+	public IReference objectReference() throws KommaException {
+		return objectReference(objectValue());
+	}
+
+	public String objectString() throws KommaException {
+		return objectString(objectValue());
+	}
+
+	static Object objectValue(Set<Object> objects) throws KommaException {
+		Iterator<Object> iter = objects.iterator();
+		if (iter.hasNext()) {
+			Object obj = iter.next();
+			if (iter.hasNext()) {
+				throw new KommaException();
+			}
+			return obj;
+		}
+		return null;
+	}
+
+	static ILiteral objectLiteral(Object obj) throws KommaException {
+		if (obj == null) {
+			return null;
+		}
+		if (obj instanceof ILiteral) {
+			return (ILiteral) obj;
+		}
+		throw new KommaException();
+	}
+
+	static IReference objectReference(Object obj) throws KommaException {
+		if (obj == null) {
+			return null;
+		}
+		if (obj instanceof IReference) {
+			return (IReference) obj;
+		}
+		throw new KommaException();
+	}
+
+	static String objectString(Object obj) throws KommaException {
+		if (obj == null) {
+			return null;
+		}
+		if (obj instanceof ILiteral) {
+			return ((ILiteral) obj).getLabel();
+		}
+		return obj.toString();
+	}
+
+	@Override
+	public void rename(IReference source, IReference target) {
+		LinkedHashGraph.rename(this, source, target);
+	}
+
+	@Override
+	public int hashCode() {
+		return size();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o instanceof IGraph) {
+			return GraphUtil.equals(this, (IGraph) o);
+		}
+		return false;
+	}
+
+	protected IGraph emptyGraph() {
+		if (emptyGraph == null) {
+			emptyGraph = new LinkedHashGraph(0).emptyGraph();
+		}
+		return emptyGraph;
+	}
+
+	static boolean matches(IReference stContext, IReference... contexts) {
+		if (contexts != null && contexts.length == 0) {
+			return true;
+		}
+		for (IReference context : LinkedHashGraph.notNull(contexts)) {
+			if (context == null ? stContext == null : context
+					.equals(stContext)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A set view of the terms at one position of the statements that match
+	 * a pattern.
+	 */
+	protected class TermSet<V> extends AbstractSet<V> {
+		final int position;
+		final IReference subj, pred;
+		final Object obj;
+		final IReference[] contexts;
+
+		TermSet(int position, IReference subj, IReference pred, Object obj,
+				IReference... contexts) {
+			this.position = position;
+			this.subj = subj;
+			this.pred = pred;
+			this.obj = obj;
+			this.contexts = position == CTX ? new IReference[0]
+					: LinkedHashGraph.notNull(contexts);
+		}
+
+		boolean isUnrestricted() {
+			return subj == null && pred == null && obj == null
+					&& contexts.length == 0;
+		}
+
+		@Override
+		public Iterator<V> iterator() {
+			if (isUnrestricted()) {
+				// directly use the terms that occur at the position
+				return new TermIterator(null) {
+					int id = -1;
+
+					@Override
+					int findNext() {
+						while (++id < termCount) {
+							if (counts[position][id] > 0) {
+								return id;
+							}
+						}
+						return EMPTY;
+					}
+				};
+			}
+			final SlotIterator slots = match(subj, pred, obj, contexts);
+			final BitSet seen = new BitSet();
+			return new TermIterator(slots) {
+				@Override
+				int findNext() {
+					while (slots.hasNext()) {
+						int id = ids[position][slots.nextSlot()];
+						if (!seen.get(id)) {
+							seen.set(id);
+							return id;
+						}
+					}
+					return EMPTY;
+				}
+			};
+		}
+
+		abstract class TermIterator implements Iterator<V> {
+			final SlotIterator source;
+			int nextId = EMPTY, current = EMPTY;
+			boolean ready;
+
+			TermIterator(SlotIterator source) {
+				this.source = source;
+			}
+
+			abstract int findNext();
+
+			public boolean hasNext() {
+				if (!ready) {
+					nextId = findNext();
+					ready = true;
+				}
+				return nextId != EMPTY;
+			}
+
+			@SuppressWarnings("unchecked")
+			public V next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				ready = false;
+				current = nextId;
+				return (V) terms[current];
+			}
+
+			public void remove() {
+				if (current == EMPTY) {
+					throw new IllegalStateException();
+				}
+				int[] pattern = pattern(subj, pred, obj, contexts);
+				for (int slot = heads[position][current]; slot != EMPTY;) {
+					int after = next[position][slot];
+					if (matches(slot, pattern)) {
+						removeSlot(slot);
+					}
+					slot = after;
+				}
+				if (source != null) {
+					source.resync();
+				}
+				current = EMPTY;
+			}
+		}
+
+		@Override
+		public int size() {
+			int size = 0;
+			for (Iterator<V> it = iterator(); it.hasNext(); it.next()) {
+				size++;
+			}
+			return size;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (position == CTX) {
+				return (o == null || o instanceof IReference)
+						&& CompactGraph.this.contains(subj, pred, obj,
+								(IReference) o);
+			}
+			if (o == null || position != OBJ && !(o instanceof IReference)) {
+				return false;
+			}
+			return CompactGraph.this.contains(bind(SUBJ, o), bind(PRED, o),
+					bind(OBJ, o), contexts);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (position == CTX) {
+				return (o == null || o instanceof IReference)
+						&& CompactGraph.this.remove(subj, pred, obj,
+								(IReference) o);
+			}
+			if (o == null || position != OBJ && !(o instanceof IReference)) {
+				return false;
+			}
+			return CompactGraph.this.remove(bind(SUBJ, o), bind(PRED, o),
+					bind(OBJ, o), contexts);
+		}
+
+		@Override
+		public boolean add(V value) {
+			for (int pos = SUBJ; pos <= OBJ; pos++) {
+				if (pos != position && bind(pos, null) == null) {
+					throw new UnsupportedOperationException(
+							"Incomplete statement");
+				}
+			}
+			if (contains(value)) {
+				return false;
+			}
+			if (position == CTX) {
+				return CompactGraph.this.add(subj, pred, obj,
+						(IReference) value);
+			}
+			return CompactGraph.this.add(bind(SUBJ, value),
+					bind(PRED, value), bind(OBJ, value), contexts);
+		}
+
+		@Override
+		public void clear() {
+			CompactGraph.this.remove(subj, pred, obj, contexts);
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> T bind(int pos, Object value) {
+			if (pos == position) {
+				return (T) value;
+			}
+			switch (pos) {
+			case SUBJ:
+				return (T) subj;
+			case PRED:
+				return (T) pred;
+			default:
+				return (T) obj;
+			}
+		}
+	}
+
+	protected class FilteredGraph extends AbstractSet<IStatement> implements
+			IGraph {
+		private static final long serialVersionUID = -4185924093744312542L;
+
+		protected IReference subj;
+
+		protected IReference pred;
+
+		protected Object obj;
+
+		protected IReference[] contexts;
+
+		public FilteredGraph(IReference subj, IReference pred, Object obj,
+				IReference... contexts) {
+			this.subj = subj;
+			this.pred = pred;
+			this.obj = obj;
+			this.contexts = LinkedHashGraph.notNull(contexts);
+		}
+
+		@Override
+		public Iterator<IStatement> iterator() {
+			return CompactGraph.this.match(subj, pred, obj, contexts);
+		}
+
+		@Override
+		public int size() {
+			int size = 0;
+			SlotIterator iter = CompactGraph.this.match(subj, pred, obj,
+					contexts);
+			while (iter.hasNext()) {
+				size++;
+				iter.nextSlot();
+			}
+			return size;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (o instanceof IStatement && accept((IStatement) o)) {
+				return CompactGraph.this.contains(o);
+			}
+			return false;
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (o instanceof IStatement && accept((IStatement) o)) {
+				return CompactGraph.this.remove(o);
+			}
+			return false;
+		}
+
+		@Override
+		public boolean add(IStatement st) {
+			if (accept(st)) {
+				return CompactGraph.this.add(st);
+			}
+			throw new IllegalArgumentException(
+					"Statement is filtered out of view: " + st);
+		}
+
+		public boolean add(IReference s, IReference p, Object o,
+				IReference... c) {
+			if (!accept(s, p, o, c)) {
+				throw new IllegalArgumentException(
+						"Statement is filtered out of view");
+			}
+			return CompactGraph.this.add(s == null ? subj : s, p == null ? pred
+					: p, o == null ? obj : o, c != null && c.length == 0 ? contexts
+					: c);
+		}
+
+		@Override
+		public void clear() {
+			CompactGraph.this.remove(subj, pred, obj, contexts);
+		}
+
+		public boolean clear(IReference... c) {
+			c = LinkedHashGraph.notNull(c);
+			if (c.length == 0) {
+				return remove(subj, pred, obj, contexts);
+			} else if (matches(c)) {
+				return CompactGraph.this.remove(subj, pred, obj, c);
+			} else {
+				return false;
+			}
+		}
+
+		public boolean remove(IReference s, IReference p, Object o,
+				IReference... c) {
+			if (!accept(s, p, o, c)) {
+				return false;
+			}
+			return CompactGraph.this.remove(s == null ? subj : s,
+					p == null ? pred : p, o == null ? obj : o, c != null
+							&& c.length == 0 ? contexts : c);
+		}
+
+		public boolean contains(IReference s, IReference p, Object o,
+				IReference... c) {
+			if (!accept(s, p, o, c)) {
+				return false;
+			}
+			return CompactGraph.this.contains(s == null ? subj : s,
+					p == null ? pred : p, o == null ? obj : o, c != null
+							&& c.length == 0 ? contexts : c);
+		}
+
+		public IGraph filter(IReference s, IReference p, Object o,
+				IReference... c) {
+			if (!accept(s, p, o, c)) {
+				return emptyGraph();
+			}
+			return CompactGraph.this.filter(s == null ? subj : s,
+					p == null ? pred : p, o == null ? obj : o, c != null
+							&& c.length == 0 ? contexts : c);
+		}
+
+		@Override
+		public IExtendedIterator<IStatement> match(IReference subject,
+				IReference predicate, IValue object, boolean includeInferred,
+				IReference... contexts) {
+			if (!accept(subject, predicate, object, contexts)) {
+				return NiceIterator.emptyIterator();
+			}
+			IExtendedIterator<IStatement> it = WrappedIterator
+					.create(filter(subject, predicate, object, contexts)
+							.iterator());
+			if (!includeInferred) {
+				it = it.filterDrop(e -> e.isInferred());
+			}
+			return it;
+		}
+
+		@Override
+		public boolean hasMatch(IReference subject, IReference predicate,
+				IValue object, boolean includeInferred, IReference... contexts) {
+			return match(subject, predicate, object, includeInferred, contexts)
+					.hasNext();
+		}
+
+		public Set<IReference> contexts() {
+			if (contexts.length > 0) {
+				return unmodifiableSet(new LinkedHashSet<IReference>(
+						asList(contexts)));
+			}
+			return new TermSet<IReference>(CTX, subj, pred, obj);
+		}
+
+		public Set<Object> objects() {
+			if (obj != null) {
+				return Collections.singleton(obj);
+			}
+			return new TermSet<Object>(OBJ, subj, pred, null, contexts);
+		}
+
+		public Set<IReference> predicates() {
+			if (pred != null) {
+				return Collections.singleton(pred);
+			}
+			return new TermSet<IReference>(PRED, subj, null, obj, contexts);
+		}
+
+		public Set<IReference> subjects() {
+			if (subj != null) {
+				return Collections.singleton(subj);
+			}
+			return new TermSet<IReference>(SUBJ, null, pred, obj, contexts);
+		}
+
+		public Object objectValue() throws KommaException {
+			return CompactGraph.objectValue(objects());
+		}
+
+		public ILiteral objectLiteral() throws KommaException {
+			return CompactGraph.objectLiteral(objectValue());
+		}
+
+		public IReference objectReference() throws KommaException {
+			return CompactGraph.objectReference(objectValue());
+		}
+
+		public String objectString() throws KommaException {
+			return CompactGraph.objectString(objectValue());
+		}
+
+		@Override
+		public void rename(IReference source, IReference target) {
+			LinkedHashGraph.rename(this, source, target);
+		}
+
+		@Override
+		public int hashCode() {
+			return size();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o instanceof IGraph) {
+				return GraphUtil.equals(this, (IGraph) o);
+			}
+			return false;
+		}
+
+		private boolean matches(IReference[] c) {
+			for (IReference ctx : c) {
+				if (!CompactGraph.matches(ctx, contexts)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean accept(IStatement st) {
+			return accept(st.getSubject(), st.getPredicate(), st.getObject(),
+					st.getContext());
+		}
+
+		private boolean accept(IReference s, IReference p, Object o,
+				IReference... c) {
+			if (subj != null && s != null && !subj.equals(s)) {
+				return false;
+			}
+			if (pred != null && p != null && !pred.equals(p)) {
+				return false;
+			}
+			if (obj != null && o != null && !obj.equals(o)) {
+				return false;
+			}
+			return matches(LinkedHashGraph.notNull(c));
+		}
+	}
+
+	private void writeObject(ObjectOutputStream s) throws IOException {
+		s.defaultWriteObject();
+		s.writeInt(size);
+		for (int slot = 0; slot < slots; slot++) {
+			if (ids[SUBJ][slot] != EMPTY) {
+				IStatement st = statement(slot);
+				s.writeObject(new Statement(st.getSubject(),
+						st.getPredicate(), st.getObject(), st.getContext(), st
+								.isInferred()));
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream s) throws IOException,
+			ClassNotFoundException {
+		s.defaultReadObject();
+		int size = s.readInt();
+		init(Math.max(size, DEFAULT_CAPACITY));
+		for (int i = 0; i < size; i++) {
+			add((Statement) s.readObject());
+		}
+	}
+}
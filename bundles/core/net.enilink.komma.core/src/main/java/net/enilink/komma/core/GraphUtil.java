@@ -6,7 +6,9 @@
 package net.enilink.komma.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -14,9 +16,14 @@ import java.util.Set;
 
 /**
  * Utility methods for working with {@link IGraph} instances.
+ * <p>
+ * Graphs with blank nodes are compared by iteratively refining a coloring of
+ * their blank nodes (Weisfeiler-Lehman style hashing) until it is stable.
+ * Blank nodes that can not be distinguished by their neighborhood are matched
+ * by a backtracking search that is restricted to nodes with the same color.
  * 
  */
-class GraphUtil {
+public class GraphUtil {
 
 	/**
 	 * Compares two graphs, defined by two statement collections, and returns
@@ -55,7 +62,428 @@ class GraphUtil {
 			return false;
 		}
 
-		return isSubsetInternal(graph1, graph2);
+		// Compare statements without blank nodes first, save the rest for later
+		BNodeGraph bnodes1 = new BNodeGraph();
+		for (IStatement stmt : graph1) {
+			if (!bnodes1.add(stmt) && !graph2.contains(stmt)) {
+				return false;
+			}
+		}
+		BNodeGraph bnodes2 = new BNodeGraph();
+		for (IStatement stmt : graph2) {
+			bnodes2.add(stmt);
+		}
+		if (bnodes1.statements.size() != bnodes2.statements.size()
+				|| bnodes1.nodes.size() != bnodes2.nodes.size()) {
+			return false;
+		}
+		bnodes1.init();
+		bnodes2.init();
+		return match(bnodes1, bnodes2, graph2);
+	}
+
+	/**
+	 * Computes a hash code for the given graph that does not depend on the IDs
+	 * of its blank nodes.
+	 * <p>
+	 * Isomorphic graphs always have the same canonical hash. Hence it can be
+	 * used to find duplicates within a set of graphs where graphs with equal
+	 * hashes have to be compared by {@link #equals(Iterable, Iterable)}.
+	 * 
+	 * @param graph
+	 *            The statements of the graph
+	 * @return The canonical hash of the graph
+	 */
+	public static long canonicalHash(Iterable<? extends IStatement> graph) {
+		// Filter duplicates
+		Set<IStatement> set = new HashSet<IStatement>();
+		for (IStatement stmt : graph) {
+			set.add(stmt);
+		}
+
+		long hash = set.size();
+		BNodeGraph bnodes = new BNodeGraph();
+		for (IStatement stmt : set) {
+			if (!bnodes.add(stmt)) {
+				hash += mix(Statements.hashCode(stmt));
+			}
+		}
+		bnodes.init();
+		for (int s = 0; s < bnodes.statements.size(); s++) {
+			hash += mix(bnodes.signature(s, -1));
+		}
+		return hash;
+	}
+
+	/**
+	 * Matches the connected components of blank nodes of two graphs. As
+	 * isomorphism is an equivalence relation, each component of the first
+	 * graph can be matched with any isomorphic and not yet matched component
+	 * of the second graph.
+	 */
+	private static boolean match(BNodeGraph g1, BNodeGraph g2,
+			Set<? extends IStatement> graph2) {
+		Map<Long, List<int[]>> candidates = new HashMap<Long, List<int[]>>();
+		for (int node = 0; node < g2.components.length; node++) {
+			int[] component = g2.components[node];
+			if (component[0] == node) {
+				Long key = g2.invariant(component);
+				List<int[]> list = candidates.get(key);
+				if (list == null) {
+					list = new ArrayList<int[]>();
+					candidates.put(key, list);
+				}
+				list.add(component);
+			}
+		}
+		for (int node = 0; node < g1.components.length; node++) {
+			int[] component1 = g1.components[node];
+			if (component1[0] == node) {
+				List<int[]> list = candidates.get(g1.invariant(component1));
+				boolean matched = false;
+				for (int i = 0; list != null && i < list.size(); i++) {
+					if (match(g1, component1, g2, list.get(i), graph2)) {
+						list.remove(i);
+						matched = true;
+						break;
+					}
+				}
+				if (!matched) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Matches two connected components of blank nodes with stable colorings.
+	 * Non-unique colors are split by assigning a new color to a node of the
+	 * first component and to each candidate node of the second component in
+	 * turn.
+	 */
+	private static boolean match(BNodeGraph g1, int[] component1,
+			BNodeGraph g2, int[] component2, Set<? extends IStatement> graph2) {
+		if (component1.length != component2.length) {
+			return false;
+		}
+		long[] sorted1 = g1.colors(component1), sorted2 = g2
+				.colors(component2);
+		Arrays.sort(sorted1);
+		Arrays.sort(sorted2);
+		if (!Arrays.equals(sorted1, sorted2)) {
+			return false;
+		}
+
+		// choose the smallest color class with more than one node
+		long color = 0;
+		int classSize = Integer.MAX_VALUE;
+		for (int i = 0; i < sorted1.length;) {
+			int j = i + 1;
+			while (j < sorted1.length && sorted1[j] == sorted1[i]) {
+				j++;
+			}
+			if (j - i > 1 && j - i < classSize) {
+				color = sorted1[i];
+				classSize = j - i;
+			}
+			i = j;
+		}
+		if (classSize == Integer.MAX_VALUE) {
+			return verify(g1, component1, g2, component2, graph2);
+		}
+
+		int node1 = -1;
+		for (int node : component1) {
+			if (g1.colors[node] == color) {
+				node1 = node;
+				break;
+			}
+		}
+		long[] colors1 = g1.colors(component1), colors2 = g2
+				.colors(component2);
+		for (int node2 : component2) {
+			if (g2.colors[node2] != color) {
+				continue;
+			}
+			g1.individualize(node1);
+			g2.individualize(node2);
+			boolean matched = match(g1, component1, g2, component2, graph2);
+			g1.setColors(component1, colors1);
+			g2.setColors(component2, colors2);
+			if (matched) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Verifies the mapping between the blank nodes of two components that is
+	 * given by colorings where each color is unique.
+	 */
+	private static boolean verify(BNodeGraph g1, int[] component1,
+			BNodeGraph g2, int[] component2, Set<? extends IStatement> graph2) {
+		Map<Long, IReference> byColor = new HashMap<Long, IReference>();
+		for (int node : component2) {
+			byColor.put(g2.colors[node], g2.nodes.get(node));
+		}
+		Map<IReference, IReference> bNodeMapping = new HashMap<IReference, IReference>();
+		for (int node : component1) {
+			bNodeMapping.put(g1.nodes.get(node), byColor.get(g1.colors[node]));
+		}
+		for (int node : component1) {
+			for (int s : g1.occurrences[node]) {
+				IStatement stmt = g1.statements.get(s);
+				Object obj = stmt.getObject();
+				IStatement mapped = new Statement(map(stmt.getSubject(),
+						bNodeMapping), map(stmt.getPredicate(), bNodeMapping),
+						obj instanceof IReference ? map((IReference) obj,
+								bNodeMapping) : obj, map(stmt.getContext(),
+								bNodeMapping));
+				if (!graph2.contains(mapped)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static IReference map(IReference ref,
+			Map<IReference, IReference> bNodeMapping) {
+		return isBNode(ref) ? bNodeMapping.get(ref) : ref;
+	}
+
+	private static boolean isBNode(Object value) {
+		return value instanceof IReference
+				&& ((IReference) value).getURI() == null;
+	}
+
+	/**
+	 * Finalizer of the 64-bit MurmurHash3 function.
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * The statements of a graph that contain blank nodes together with a
+	 * coloring of these blank nodes.
+	 */
+	private static class BNodeGraph {
+		final List<IStatement> statements = new ArrayList<IStatement>();
+		final List<IReference> nodes = new ArrayList<IReference>();
+		final Map<IReference, Integer> nodeIndex = new HashMap<IReference, Integer>();
+
+		/**
+		 * Blank node indexes of the terms for each statement or
+		 * <code>-1</code> for other terms.
+		 */
+		int[][] terms;
+		/**
+		 * Hashes of the terms that are not blank nodes for each statement.
+		 */
+		long[][] constants;
+		/**
+		 * The statements in which each blank node occurs.
+		 */
+		int[][] occurrences;
+		/**
+		 * The nodes of the connected component of each blank node.
+		 */
+		int[][] components;
+		long[] colors;
+
+		/**
+		 * Adds the statement if it contains blank nodes.
+		 * 
+		 * @return <code>true</code> if the statement contains blank nodes,
+		 *         else <code>false</code>
+		 */
+		boolean add(IStatement stmt) {
+			if (isBNode(stmt.getSubject()) || isBNode(stmt.getPredicate())
+					|| isBNode(stmt.getObject())
+					|| isBNode(stmt.getContext())) {
+				statements.add(stmt);
+				return true;
+			}
+			return false;
+		}
+
+		void init() {
+			int size = statements.size();
+			terms = new int[size][];
+			constants = new long[size][];
+			List<List<Integer>> occurrenceLists = new ArrayList<List<Integer>>();
+			for (int s = 0; s < size; s++) {
+				IStatement stmt = statements.get(s);
+				Object[] values = { stmt.getSubject(), stmt.getPredicate(),
+						stmt.getObject(), stmt.getContext() };
+				terms[s] = new int[values.length];
+				constants[s] = new long[values.length];
+				for (int i = 0; i < values.length; i++) {
+					Object value = values[i];
+					if (isBNode(value)) {
+						Integer node = nodeIndex.get(value);
+						if (node == null) {
+							node = nodes.size();
+							nodeIndex.put((IReference) value, node);
+							nodes.add((IReference) value);
+							occurrenceLists.add(new ArrayList<Integer>());
+						}
+						terms[s][i] = node;
+						List<Integer> list = occurrenceLists.get(node);
+						// a statement is recorded only once per node
+						if (list.isEmpty() || list.get(list.size() - 1) != s) {
+							list.add(s);
+						}
+					} else {
+						terms[s][i] = -1;
+						constants[s][i] = value == null ? 0 : value.hashCode();
+					}
+				}
+			}
+			occurrences = new int[nodes.size()][];
+			for (int node = 0; node < occurrences.length; node++) {
+				List<Integer> list = occurrenceLists.get(node);
+				occurrences[node] = new int[list.size()];
+				for (int i = 0; i < list.size(); i++) {
+					occurrences[node][i] = list.get(i);
+				}
+			}
+			components = new int[nodes.size()][];
+			int[] all = new int[nodes.size()];
+			for (int node = 0; node < all.length; node++) {
+				all[node] = node;
+				if (components[node] == null) {
+					int[] component = component(node);
+					for (int member : component) {
+						components[member] = component;
+					}
+				}
+			}
+			colors = new long[nodes.size()];
+			Arrays.fill(colors, 1);
+			refine(all);
+		}
+
+		/**
+		 * Determines the blank nodes that are connected to the given node.
+		 */
+		int[] component(int node) {
+			List<Integer> members = new ArrayList<Integer>();
+			Set<Integer> seen = new HashSet<Integer>();
+			seen.add(node);
+			members.add(node);
+			for (int i = 0; i < members.size(); i++) {
+				for (int s : occurrences[members.get(i)]) {
+					for (int term : terms[s]) {
+						if (term >= 0 && seen.add(term)) {
+							members.add(term);
+						}
+					}
+				}
+			}
+			int[] component = new int[members.size()];
+			for (int i = 0; i < component.length; i++) {
+				component[i] = members.get(i);
+			}
+			return component;
+		}
+
+		/**
+		 * Computes the hash of a statement as seen from the given node.
+		 */
+		long signature(int s, int node) {
+			long h = 17;
+			for (int i = 0; i < terms[s].length; i++) {
+				int term = terms[s][i];
+				long value;
+				if (term < 0) {
+					value = constants[s][i];
+				} else if (term == node) {
+					value = -1;
+				} else {
+					value = colors[term];
+				}
+				h = 31 * h + mix(value + i);
+			}
+			return h;
+		}
+
+		/**
+		 * Refines the coloring of the given nodes until the number of their
+		 * distinct colors no longer increases.
+		 */
+		void refine(int[] subset) {
+			int distinct = countColors(subset, colors);
+			long[] next = new long[colors.length];
+			while (distinct < subset.length) {
+				for (int node : subset) {
+					long h = colors[node];
+					for (int s : occurrences[node]) {
+						h += mix(signature(s, node));
+					}
+					next[node] = mix(h);
+				}
+				for (int node : subset) {
+					colors[node] = next[node];
+				}
+				int nextDistinct = countColors(subset, colors);
+				if (nextDistinct <= distinct) {
+					break;
+				}
+				distinct = nextDistinct;
+			}
+		}
+
+		/**
+		 * Assigns a new color to the given node and refines the coloring of
+		 * its connected component.
+		 */
+		void individualize(int node) {
+			colors[node] = mix(colors[node] ^ 0x5bd1e995L);
+			refine(components[node]);
+		}
+
+		long[] colors(int[] subset) {
+			long[] result = new long[subset.length];
+			for (int i = 0; i < subset.length; i++) {
+				result[i] = colors[subset[i]];
+			}
+			return result;
+		}
+
+		void setColors(int[] subset, long[] values) {
+			for (int i = 0; i < subset.length; i++) {
+				colors[subset[i]] = values[i];
+			}
+		}
+
+		/**
+		 * Computes a hash of the colors of the given nodes that does not
+		 * depend on their order.
+		 */
+		long invariant(int[] subset) {
+			long h = subset.length;
+			for (int node : subset) {
+				h += mix(colors[node]);
+			}
+			return h;
+		}
+
+		static int countColors(int[] subset, long[] colors) {
+			Set<Long> distinct = new HashSet<Long>();
+			for (int node : subset) {
+				distinct.add(colors[node]);
+			}
+			return distinct.size();
+		}
 	}
 
 	/**
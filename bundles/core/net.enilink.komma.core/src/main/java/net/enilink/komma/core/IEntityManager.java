@@ -12,6 +12,7 @@ package net.enilink.komma.core;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -297,6 +298,23 @@ public interface IEntityManager extends AutoCloseable {
 	 */
 	<T> IExtendedIterator<T> findAll(Class<T> role);
 
+	/**
+	 * Retrieves the rdf:types of all given resources at once and creates the
+	 * corresponding Java Beans by incorporating the given concept.
+	 * <p>
+	 * This is equivalent to calling {@link #find(IReference, Class, Class...)}
+	 * for each resource but avoids separate requests for the types of each
+	 * resource.
+	 * 
+	 * @param references
+	 *            the resources of the entities.
+	 * @param concept
+	 *            concept that should be implemented by the entities.
+	 * @return list of JavaBeans in the order of the given references.
+	 */
+	<T> List<T> findAll(Collection<? extends IReference> references,
+			Class<T> concept);
+
 	/**
 	 * Creates a Java Bean class without inserting any statements.
 	 * 
@@ -39,6 +39,20 @@ import net.enilink.commons.iterator.IExtendedIterator;
  * 
  */
 public interface IQuery<R> extends IQueryBase<IQuery<R>>, AutoCloseable {
+	/**
+	 * Query {@link #setProperty(String, Object) property} that limits the
+	 * conversion of results to beans in batches. Its value is the maximum
+	 * number of results whose rdf:type statements are retrieved with a single
+	 * request before they are converted.
+	 * <p>
+	 * Results are converted in batches that start small and grow up to this
+	 * size, hence they are read ahead of their consumption. A value of
+	 * <code>1</code> converts each result when it is requested, for example if
+	 * the store is modified while the results are consumed. A
+	 * <code>null</code> value restores the default.
+	 */
+	String PROPERTY_BATCH_SIZE = "net.enilink.komma.query.batchSize";
+
 	/**
 	 * Closes any open results from this query.
 	 */
@@ -1348,6 +1348,7 @@ public class LinkedHashGraph extends AbstractSet<IStatement> implements IGraph {
 		for (Set<V> set : sets) {
 			if (set != null && set.size() < minSize) {
 				minSet = set;
+				minSize = set.size();
 			}
 		}
 		return minSet;
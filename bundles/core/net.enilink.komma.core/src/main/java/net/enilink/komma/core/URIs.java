@@ -15,16 +15,17 @@
 package net.enilink.komma.core;
 
 import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Helper class for Uniform Resource Identifiers (URIs), as specified by <a
@@ -130,41 +131,59 @@ import java.util.StringTokenizer;
  */
 public final class URIs {
 	// A cache of URIs, keyed by the strings from which they were created.
-	// The fragment of any URI is removed before caching it here, to minimize
-	// the size of the cache in the usual case where most URIs only differ by
-	// the fragment.
+	// The URIs are held weakly and URIs that are equal to a cached URI are
+	// replaced by the cached instance. This ensures that the same instance is
+	// returned for a string as long as the URI is used somewhere.
 	private static final URICache uriCache = new URICache();
 
-	private static class URICache extends HashMap<String, WeakReference<URI>> {
-		private static final long serialVersionUID = 1L;
+	private static class URICache {
+		final ConcurrentMap<String, Entry> map = new ConcurrentHashMap<>();
 
-		static final int MIN_LIMIT = 1000;
-		int count;
-		int limit = MIN_LIMIT;
+		final ReferenceQueue<URI> queue = new ReferenceQueue<>();
 
-		public synchronized URI get(String key) {
-			WeakReference<URI> reference = super.get(key);
-			return reference == null ? null : reference.get();
-		}
+		static class Entry extends WeakReference<URI> {
+			final String key;
 
-		public synchronized void put(String key, URI value) {
-			super.put(key, new WeakReference<URI>(value));
-			if (++count > limit) {
-				cleanGCedValues();
+			Entry(String key, URI value, ReferenceQueue<URI> queue) {
+				super(value, queue);
+				this.key = key;
 			}
 		}
 
-		private void cleanGCedValues() {
-			for (Iterator<Map.Entry<String, WeakReference<URI>>> i = entrySet()
-					.iterator(); i.hasNext();) {
-				Map.Entry<String, WeakReference<URI>> entry = i.next();
-				WeakReference<URI> reference = entry.getValue();
-				if (reference.get() == null) {
-					i.remove();
+		public URI get(String key) {
+			Entry entry = map.get(key);
+			return entry == null ? null : entry.get();
+		}
+
+		/**
+		 * Adds the given URI to the cache if no other URI is cached for the
+		 * key and returns the cached URI.
+		 */
+		public URI intern(String key, URI value) {
+			expungeStaleEntries();
+			Entry entry = new Entry(key, value, queue);
+			while (true) {
+				Entry existing = map.putIfAbsent(key, entry);
+				if (existing == null) {
+					return value;
+				}
+				URI existingValue = existing.get();
+				if (existingValue != null) {
+					return existingValue;
+				}
+				if (map.replace(key, existing, entry)) {
+					return value;
 				}
 			}
-			count = 0;
-			limit = Math.max(MIN_LIMIT, size() / 2);
+		}
+
+		// removes the entries of URIs that have been garbage collected
+		private void expungeStaleEntries() {
+			for (Reference<? extends URI> reference; (reference = queue
+					.poll()) != null;) {
+				Entry entry = (Entry) reference;
+				map.remove(entry.key, entry);
+			}
 		}
 	}
 
@@ -568,28 +587,33 @@ public final class URIs {
 	}
 
 	// Uses a cache to speed up creation of a URI from a string. The cache
-	// is consulted to see if the URI, less any fragment, has already been
-	// created. If needed, the fragment is re-appended to the cached URI,
-	// which is considerably more efficient than creating the whole URI from
-	// scratch. If the URI wasn't found in the cache, it is created using
-	// parseIntoURI() and then cached. This method should always be used
-	// by string-parsing factory methods, instead of parseIntoURI() directly.
+	// is consulted to see if the URI has already been created. Otherwise
+	// the URI, less any fragment, is looked up and the fragment is
+	// re-appended to it, which is considerably more efficient than creating
+	// the whole URI from scratch. If the URI wasn't found in the cache, it is
+	// created using parseIntoURI() and then cached. This method should always
+	// be used by string-parsing factory methods, instead of parseIntoURI()
+	// directly.
 	private static URI createURIWithCache(String uri) {
+		URI result = uriCache.get(uri);
+		if (result != null) {
+			return result;
+		}
+
 		int i = uri.indexOf(FRAGMENT_SEPARATOR);
 		String base = i == -1 ? uri : uri.substring(0, i);
 		String fragment = i == -1 ? null : uri.substring(i + 1);
 
-		URI result = uriCache.get(base);
-
-		if (result == null) {
-			result = parseIntoURI(base);
-			uriCache.put(base, result);
-		}
-
 		if (fragment != null) {
+			result = uriCache.get(base);
+			if (result == null) {
+				result = uriCache.intern(base, parseIntoURI(base));
+			}
 			result = result.appendFragment(fragment);
+		} else {
+			result = parseIntoURI(base);
 		}
-		return result;
+		return uriCache.intern(uri, result);
 	}
 
 	// String-parsing implementation.
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Service provider interface for recording metrics of KOMMA's hot paths like
+ * query evaluation, statement changes, entity caching, the generation of
+ * composite classes and the dispatching of change events.
+ * <p>
+ * Implementations must be thread-safe and cheap enough to be called for each
+ * operation. Callers should check {@link #isEnabled()} before doing any work
+ * that is only required for recording, e.g. reading the system timer.
+ * 
+ * @see Metrics
+ */
+public interface IMetrics {
+	/**
+	 * An implementation that does not record anything.
+	 */
+	IMetrics NOOP = new IMetrics() {
+		@Override
+		public boolean isEnabled() {
+			return false;
+		}
+
+		@Override
+		public void count(String name, long delta) {
+		}
+
+		@Override
+		public void record(String name, long nanos) {
+		}
+
+		@Override
+		public void addGauge(String name, LongSupplier gauge) {
+		}
+
+		@Override
+		public void removeGauge(String name, LongSupplier gauge) {
+		}
+	};
+
+	/**
+	 * Returns <code>true</code> if this instance records metrics.
+	 * 
+	 * @return <code>true</code> if metrics are recorded, else
+	 *         <code>false</code>
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Adds the given delta to the counter with the given name.
+	 * 
+	 * @param name
+	 *            The name of the counter
+	 * @param delta
+	 *            The value that should be added
+	 */
+	void count(String name, long delta);
+
+	/**
+	 * Records the duration of an operation for the timer with the given name.
+	 * 
+	 * @param name
+	 *            The name of the timer
+	 * @param nanos
+	 *            The duration in nanoseconds
+	 */
+	void record(String name, long nanos);
+
+	/**
+	 * Adds a gauge whose value is read when the metrics are queried. The
+	 * values of multiple gauges with the same name are summed up.
+	 * 
+	 * @param name
+	 *            The name of the gauge
+	 * @param gauge
+	 *            The supplier of the current value
+	 */
+	void addGauge(String name, LongSupplier gauge);
+
+	/**
+	 * Removes a gauge that was added by {@link #addGauge(String, LongSupplier)}.
+	 * 
+	 * @param name
+	 *            The name of the gauge
+	 * @param gauge
+	 *            The supplier of the current value
+	 */
+	void removeGauge(String name, LongSupplier gauge);
+}
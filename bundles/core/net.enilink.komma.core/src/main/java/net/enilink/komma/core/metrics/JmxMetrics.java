@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import net.enilink.komma.core.KommaException;
+
+/**
+ * Records metrics in memory and exposes them as MXBean with the name
+ * {@link #OBJECT_NAME}.
+ * <p>
+ * Counters and timers are based on {@link LongAdder} to avoid contention.
+ * Timers keep a histogram with power-of-two buckets for approximating
+ * percentiles. The number of distinct timer names is limited by
+ * {@link #DEFAULT_MAX_TIMERS} to bound the memory for per-query timers,
+ * further durations are recorded by the timer {@link #OVERFLOW_TIMER}.
+ */
+public class JmxMetrics implements IMetrics, MetricsMXBean {
+	/**
+	 * The name of the MXBean.
+	 */
+	public static final String OBJECT_NAME = "net.enilink.komma:type=Metrics";
+
+	/**
+	 * The default maximum number of distinct timers.
+	 */
+	public static final int DEFAULT_MAX_TIMERS = 1000;
+
+	/**
+	 * The timer for durations of timers that exceed the maximum number of
+	 * timers.
+	 */
+	public static final String OVERFLOW_TIMER = "<other>";
+
+	static class Timer {
+		final LongAdder count = new LongAdder();
+		final LongAdder total = new LongAdder();
+		final LongAccumulator max = new LongAccumulator(Math::max, 0);
+		final AtomicLongArray buckets = new AtomicLongArray(64);
+
+		void record(long nanos) {
+			if (nanos < 0) {
+				nanos = 0;
+			}
+			count.increment();
+			total.add(nanos);
+			max.accumulate(nanos);
+			// bucket i contains durations less than 2^i
+			buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos));
+		}
+
+		TimerStatistics statistics() {
+			long[] counts = new long[buckets.length()];
+			long sum = 0;
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = buckets.get(i);
+				sum += counts[i];
+			}
+			long max = this.max.get();
+			return new TimerStatistics(count.sum(), total.sum(), max,
+					percentile(counts, sum, 0.5, max),
+					percentile(counts, sum, 0.9, max),
+					percentile(counts, sum, 0.99, max));
+		}
+
+		static long percentile(long[] counts, long sum, double p, long max) {
+			long rank = (long) Math.ceil(sum * p);
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank && seen > 0) {
+					return Math.min(max, i == 0 ? 0 : (1L << i) - 1);
+				}
+			}
+			return max;
+		}
+	}
+
+	final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+	final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+	final ConcurrentMap<String, List<LongSupplier>> gauges = new ConcurrentHashMap<>();
+	final int maxTimers;
+
+	public JmxMetrics() {
+		this(DEFAULT_MAX_TIMERS);
+	}
+
+	/**
+	 * Creates a metrics instance with the given maximum number of timers.
+	 * 
+	 * @param maxTimers
+	 *            The maximum number of distinct timers
+	 */
+	public JmxMetrics(int maxTimers) {
+		this.maxTimers = maxTimers;
+	}
+
+	/**
+	 * Registers this instance with the platform MBean server. An already
+	 * registered instance is replaced.
+	 * 
+	 * @throws KommaException
+	 *             if the registration fails
+	 */
+	public void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+		} catch (JMException e) {
+			throw new KommaException("Unable to register metrics MXBean", e);
+		}
+	}
+
+	/**
+	 * Removes the MXBean with the name {@link #OBJECT_NAME} from the platform
+	 * MBean server.
+	 * 
+	 * @throws KommaException
+	 *             if the removal fails
+	 */
+	public void unregister() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			throw new KommaException("Unable to unregister metrics MXBean", e);
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public void count(String name, long delta) {
+		LongAdder counter = counters.get(name);
+		if (counter == null) {
+			counter = counters.computeIfAbsent(name, k -> new LongAdder());
+		}
+		counter.add(delta);
+	}
+
+	@Override
+	public void record(String name, long nanos) {
+		Timer timer = timers.get(name);
+		if (timer == null) {
+			if (timers.size() >= maxTimers) {
+				name = OVERFLOW_TIMER;
+			}
+			timer = timers.computeIfAbsent(name, k -> new Timer());
+		}
+		timer.record(nanos);
+	}
+
+	@Override
+	public void addGauge(String name, LongSupplier gauge) {
+		gauges.computeIfAbsent(name, k -> new CopyOnWriteArrayList<>()).add(
+				gauge);
+	}
+
+	@Override
+	public void removeGauge(String name, LongSupplier gauge) {
+		List<LongSupplier> list = gauges.get(name);
+		if (list != null) {
+			list.remove(gauge);
+		}
+	}
+
+	@Override
+	public Map<String, Long> getCounters() {
+		Map<String, Long> result = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().sum());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getGauges() {
+		Map<String, Long> result = new TreeMap<>();
+		for (Map.Entry<String, List<LongSupplier>> entry : gauges.entrySet()) {
+			long value = 0;
+			for (LongSupplier gauge : entry.getValue()) {
+				value += gauge.getAsLong();
+			}
+			result.put(entry.getKey(), value);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, TimerStatistics> getTimers() {
+		Map<String, TimerStatistics> result = new TreeMap<>();
+		for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().statistics());
+		}
+		return result;
+	}
+
+	@Override
+	public void reset() {
+		counters.clear();
+		timers.clear();
+	}
+}
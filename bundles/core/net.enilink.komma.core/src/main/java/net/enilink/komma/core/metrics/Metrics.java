@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core.metrics;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import net.enilink.komma.core.KommaException;
+
+/**
+ * Holds the {@link IMetrics} instance that is used by all KOMMA components.
+ * <p>
+ * By default no metrics are recorded. Metrics are recorded and exposed via JMX
+ * if the system property <code>net.enilink.komma.metrics</code> is set to
+ * <code>jmx</code> or if a {@link JmxMetrics} instance is installed with
+ * {@link #set(IMetrics)}.
+ * <p>
+ * The following metrics are recorded by KOMMA:
+ * <ul>
+ * <li><code>dm.query</code> and <code>dm.query:&lt;query&gt;</code> - timers for
+ * the evaluation of all queries and of each normalized query text</li>
+ * <li><code>dm.add</code>, <code>dm.remove</code> - counters for added
+ * statements and removed statement patterns</li>
+ * <li><code>dm.match</code>, <code>dm.hasMatch</code> - counters for
+ * statement lookups</li>
+ * <li><code>cache.entity.hits</code>, <code>cache.entity.misses</code>,
+ * <code>cache.entity.evictions</code>, <code>cache.entity.size</code> - gauges
+ * for the entity caches</li>
+ * <li><code>composition.generate</code> - timer for the generation of
+ * composite and behaviour classes</li>
+ * <li><code>changes</code> - counter for dispatched changes</li>
+ * <li><code>changes.dispatchInternal</code>, <code>changes.dispatch</code> -
+ * timers for notifying internal and other change listeners</li>
+ * </ul>
+ */
+public class Metrics {
+	/**
+	 * System property for the metrics implementation. The only supported
+	 * value is <code>jmx</code>.
+	 */
+	public static final String METRICS_PROPERTY = "net.enilink.komma.metrics";
+
+	private static volatile IMetrics metrics = IMetrics.NOOP;
+
+	/**
+	 * The gauges that were added by {@link #addGauge(String, LongSupplier)}.
+	 */
+	private static final List<Map.Entry<String, LongSupplier>> gauges = new ArrayList<>();
+
+	static {
+		if ("jmx".equals(System.getProperty(METRICS_PROPERTY))) {
+			JmxMetrics jmxMetrics = new JmxMetrics();
+			try {
+				jmxMetrics.register();
+			} catch (KommaException e) {
+				// the metrics are still recorded and can be accessed through
+				// the instance returned by get()
+			}
+			metrics = jmxMetrics;
+		}
+	}
+
+	/**
+	 * Returns the current metrics instance.
+	 * 
+	 * @return the metrics instance, never <code>null</code>
+	 */
+	public static IMetrics get() {
+		return metrics;
+	}
+
+	/**
+	 * Replaces the current metrics instance.
+	 * 
+	 * @param metrics
+	 *            the new metrics instance or <code>null</code> to disable
+	 *            metrics
+	 */
+	public static void set(IMetrics metrics) {
+		synchronized (gauges) {
+			IMetrics previous = Metrics.metrics;
+			Metrics.metrics = metrics == null ? IMetrics.NOOP : metrics;
+			// move the registered gauges to the new instance
+			for (Map.Entry<String, LongSupplier> gauge : gauges) {
+				previous.removeGauge(gauge.getKey(), gauge.getValue());
+				Metrics.metrics.addGauge(gauge.getKey(), gauge.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Adds a gauge to the current metrics instance. In contrast to
+	 * {@link IMetrics#addGauge(String, LongSupplier)} the gauge is moved to
+	 * another instance that is installed later with {@link #set(IMetrics)}.
+	 * 
+	 * @param name
+	 *            The name of the gauge
+	 * @param gauge
+	 *            The supplier of the current value
+	 */
+	public static void addGauge(String name, LongSupplier gauge) {
+		synchronized (gauges) {
+			gauges.add(new AbstractMap.SimpleImmutableEntry<>(name, gauge));
+			metrics.addGauge(name, gauge);
+		}
+	}
+
+	/**
+	 * Removes a gauge that was added by {@link #addGauge(String, LongSupplier)}.
+	 * 
+	 * @param name
+	 *            The name of the gauge
+	 * @param gauge
+	 *            The supplier of the current value
+	 */
+	public static void removeGauge(String name, LongSupplier gauge) {
+		synchronized (gauges) {
+			if (gauges.remove(new AbstractMap.SimpleImmutableEntry<>(name, gauge))) {
+				metrics.removeGauge(name, gauge);
+			}
+		}
+	}
+
+	/**
+	 * Normalizes the text of a query for the use as part of a metric name.
+	 * <p>
+	 * All whitespace is collapsed, string literals are replaced with
+	 * <code>"?"</code> and the contents of VALUES blocks with <code>?</code>.
+	 * Hence queries that only differ in inlined values share the same name.
+	 * 
+	 * @param query
+	 *            The query text
+	 * @return the normalized text
+	 */
+	public static String normalizeQuery(String query) {
+		StringBuilder sb = new StringBuilder(query.length());
+		boolean space = false, values = false;
+		int length = query.length();
+		for (int i = 0; i < length;) {
+			char c = query.charAt(i);
+			if (Character.isWhitespace(c)) {
+				space = sb.length() > 0;
+				i++;
+				continue;
+			}
+			if (space) {
+				sb.append(' ');
+				space = false;
+			}
+			int end;
+			if (c == '"' || c == '\'') {
+				sb.append("\"?\"");
+				i = skipString(query, i);
+			} else if (c == '<' && (end = skipIri(query, i)) > i) {
+				sb.append(query, i, end);
+				i = end;
+			} else if (values && c == '{') {
+				sb.append("{ ? }");
+				i = skipBlock(query, i);
+				values = false;
+			} else if (isKeyword(query, i, "VALUES")
+					&& (i == 0 || query.charAt(i - 1) != ':')) {
+				sb.append("VALUES");
+				i += 6;
+				values = true;
+			} else {
+				if (Character.isLetter(c) || c == '?' || c == '$') {
+					// skip the remaining characters of names and variables
+					end = i + 1;
+					while (end < length
+							&& (Character.isLetterOrDigit(query.charAt(end))
+									|| query.charAt(end) == '_')) {
+						end++;
+					}
+					sb.append(query, i, end);
+					i = end;
+				} else {
+					sb.append(c);
+					i++;
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static boolean isKeyword(String query, int start, String keyword) {
+		int end = start + keyword.length();
+		return query.regionMatches(true, start, keyword, 0, keyword.length())
+				&& (end == query.length() || !Character
+						.isLetterOrDigit(query.charAt(end)));
+	}
+
+	/**
+	 * Returns the index after the string literal that starts at the given
+	 * index.
+	 */
+	private static int skipString(String query, int start) {
+		char quote = query.charAt(start);
+		boolean isLong = query.startsWith(
+				new String(new char[] { quote, quote, quote }), start);
+		int i = start + (isLong ? 3 : 1);
+		while (i < query.length()) {
+			char c = query.charAt(i);
+			if (c == '\\') {
+				i += 2;
+			} else if (c == quote
+					&& (!isLong || query.startsWith(new String(new char[] {
+							quote, quote, quote }), i))) {
+				return i + (isLong ? 3 : 1);
+			} else {
+				i++;
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the index after the IRI reference that starts at the given
+	 * index or the given index if it does not start an IRI reference.
+	 */
+	private static int skipIri(String query, int start) {
+		for (int i = start + 1; i < query.length(); i++) {
+			char c = query.charAt(i);
+			if (c == '>') {
+				return i + 1;
+			}
+			if (c <= 0x20 || "<\"{}|^`\\".indexOf(c) >= 0) {
+				break;
+			}
+		}
+		return start;
+	}
+
+	/**
+	 * Returns the index after the block that is opened at the given index.
+	 */
+	private static int skipBlock(String query, int start) {
+		int i = start + 1;
+		while (i < query.length()) {
+			char c = query.charAt(i);
+			int end;
+			if (c == '}') {
+				return i + 1;
+			} else if (c == '"' || c == '\'') {
+				i = skipString(query, i);
+			} else if (c == '<' && (end = skipIri(query, i)) > i) {
+				i = end;
+			} else {
+				i++;
+			}
+		}
+		return i;
+	}
+}
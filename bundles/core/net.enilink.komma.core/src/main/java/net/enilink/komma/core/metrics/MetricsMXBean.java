@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link JmxMetrics}.
+ */
+public interface MetricsMXBean {
+	/**
+	 * Returns the current values of all counters.
+	 */
+	Map<String, Long> getCounters();
+
+	/**
+	 * Returns the current values of all gauges.
+	 */
+	Map<String, Long> getGauges();
+
+	/**
+	 * Returns the statistics of all timers.
+	 */
+	Map<String, TimerStatistics> getTimers();
+
+	/**
+	 * Resets all counters and timers.
+	 */
+	void reset();
+}
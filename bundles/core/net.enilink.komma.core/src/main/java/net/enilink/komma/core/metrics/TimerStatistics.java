@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core.metrics;
+
+/**
+ * Snapshot of the durations that were recorded by a timer. Percentiles are
+ * approximated by the upper bounds of power-of-two buckets.
+ */
+public class TimerStatistics {
+	private final long count;
+	private final long totalNanos;
+	private final long maxNanos;
+	private final long p50Nanos;
+	private final long p90Nanos;
+	private final long p99Nanos;
+
+	public TimerStatistics(long count, long totalNanos, long maxNanos,
+			long p50Nanos, long p90Nanos, long p99Nanos) {
+		this.count = count;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+		this.p50Nanos = p50Nanos;
+		this.p90Nanos = p90Nanos;
+		this.p99Nanos = p99Nanos;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public long getP50Nanos() {
+		return p50Nanos;
+	}
+
+	public long getP90Nanos() {
+		return p90Nanos;
+	}
+
+	public long getP99Nanos() {
+		return p99Nanos;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", mean="
+				+ (count == 0 ? 0 : totalNanos / count) + "ns, p50="
+				+ p50Nanos + "ns, p90=" + p90Nanos + "ns, p99=" + p99Nanos
+				+ "ns, max=" + maxNanos + "ns";
+	}
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class BlankNodeTest {
+	@Test
+	public void testPrefix() {
+		assertTrue(BlankNode.generateId().startsWith("_:komma-"));
+		assertTrue(BlankNode.generateId("new-").startsWith("_:new-"));
+	}
+
+	@Test
+	public void testConcurrentGeneration() throws Exception {
+		final int threads = 8;
+		final int count = 5000;
+		final CyclicBarrier barrier = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<List<String>>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				results.add(executor.submit(() -> {
+					barrier.await();
+					List<String> ids = new ArrayList<>(count);
+					for (int i = 0; i < count; i++) {
+						ids.add(BlankNode.generateId());
+					}
+					return ids;
+				}));
+			}
+			Set<String> ids = new HashSet<>();
+			for (Future<List<String>> result : results) {
+				ids.addAll(result.get());
+			}
+			assertEquals(threads * count, ids.size());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CompactGraphTest {
+	static final String NS = "test:";
+
+	static URI uri(String name) {
+		return URIs.createURI(NS + name);
+	}
+
+	URI s1 = uri("s1"), s2 = uri("s2"), p1 = uri("p1"), p2 = uri("p2"),
+			c1 = uri("c1"), c2 = uri("c2");
+
+	Literal l1 = new Literal("l1");
+
+	@Test
+	public void testAddAndMatch() {
+		IGraph graph = new CompactGraph();
+		assertTrue(graph.add(s1, p1, s2));
+		assertFalse(graph.add(new Statement(s1, p1, s2)));
+		assertTrue(graph.add(s1, p2, l1, c1));
+		assertTrue(graph.add(s2, p1, s1, c1, c2));
+		assertEquals(4, graph.size());
+
+		assertTrue(graph.contains(new Statement(s1, p2, l1, c1)));
+		assertFalse(graph.contains(new Statement(s1, p2, l1)));
+		assertTrue(graph.contains(null, null, l1));
+		assertTrue(graph.contains(null, null, null, (IReference) null));
+		assertFalse(graph.contains(s2, null, null, (IReference) null));
+		assertFalse(graph.contains(uri("unknown"), null, null));
+
+		assertEquals(2, graph.filter(s1, null, null).size());
+		assertEquals(2, graph.filter(null, null, null, c1).size());
+		assertEquals(3, graph.filter(null, null, null, c1, c2).size());
+		assertEquals(new HashSet<>(Arrays.asList(s1, s2)), graph.subjects());
+		assertEquals(new HashSet<>(Arrays.asList(null, c1, c2)),
+				graph.contexts());
+		assertEquals(l1, graph.filter(s1, p2, null).objectLiteral());
+		assertEquals(s2, graph.filter(null, p1, s1).subjects().iterator()
+				.next());
+	}
+
+	@Test
+	public void testRemove() {
+		IGraph graph = new CompactGraph();
+		graph.add(s1, p1, s2, c1, c2);
+		graph.add(s1, p2, l1, c1);
+		graph.add(s2, p1, s1);
+
+		assertTrue(graph.remove(null, p1, null, c2));
+		assertEquals(3, graph.size());
+		assertTrue(graph.filter(s1, null, null).predicates().remove(p2));
+		assertEquals(2, graph.size());
+
+		for (Iterator<IReference> it = graph.subjects().iterator(); it
+				.hasNext();) {
+			if (s2.equals(it.next())) {
+				it.remove();
+			}
+		}
+		assertEquals(1, graph.size());
+		assertTrue(graph.contains(new Statement(s1, p1, s2, c1)));
+
+		assertTrue(graph.clear(c1));
+		assertTrue(graph.isEmpty());
+		assertTrue(graph.add(s1, p1, s2));
+		assertEquals(1, graph.size());
+	}
+
+	@Test
+	public void testViews() {
+		IGraph graph = new CompactGraph();
+		IGraph filtered = graph.filter(s1, p1, null);
+		filtered.objects().add(l1);
+		filtered.add(null, null, s2);
+		assertEquals(2, graph.size());
+		assertEquals(2, filtered.objects().size());
+		assertTrue(graph.contains(s1, p1, s2));
+		try {
+			filtered.add(new Statement(s2, p1, l1));
+			throw new AssertionError("Statement should not be accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		filtered.clear();
+		assertTrue(graph.isEmpty());
+	}
+
+	@Test
+	public void testOrderAndCompaction() {
+		CompactGraph graph = new CompactGraph();
+		List<IStatement> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			IStatement stmt = new Statement(uri("s" + i % 10), p1,
+					new Literal(String.valueOf(i)));
+			graph.add(stmt);
+			expected.add(stmt);
+			if (i % 3 == 0) {
+				graph.remove(expected.remove(expected.size() / 2));
+			}
+		}
+		assertEquals(expected, new ArrayList<>(graph));
+		assertEquals(new LinkedHashGraph(expected), graph);
+	}
+
+	@Test
+	public void testCompareWithLinkedHashGraph() {
+		Random random = new Random(42);
+		IGraph compact = new CompactGraph();
+		IGraph linked = new LinkedHashGraph();
+		IReference[] refs = { s1, s2, p1, p2, c1, c2 };
+		IReference[] contexts = { null, c1, c2 };
+		for (int i = 0; i < 5000; i++) {
+			IReference s = refs[random.nextInt(refs.length)];
+			IReference p = refs[random.nextInt(refs.length)];
+			Object o = random.nextBoolean() ? refs[random.nextInt(refs.length)]
+					: new Literal(String.valueOf(random.nextInt(20)));
+			IReference c = contexts[random.nextInt(contexts.length)];
+			if (random.nextInt(4) == 0) {
+				assertEquals(linked.remove(s, null, o, c),
+						compact.remove(s, null, o, c));
+			} else {
+				assertEquals(linked.add(s, p, o, c), compact.add(s, p, o, c));
+			}
+			assertEquals(linked.size(), compact.size());
+		}
+		for (IReference s : refs) {
+			assertEquals(new HashSet<>(linked.filter(s, null, null)),
+					new HashSet<>(compact.filter(s, null, null)));
+			assertEquals(new HashSet<>(linked.filter(null, s, null, c1)),
+					new HashSet<>(compact.filter(null, s, null, c1)));
+			assertEquals(linked.filter(null, null, s).subjects(), compact
+					.filter(null, null, s).subjects());
+		}
+		assertEquals(new HashSet<>(linked), new HashSet<>(compact));
+	}
+
+	@Test
+	public void testInferred() {
+		CompactGraph graph = new CompactGraph();
+		graph.add(s1, p1, s2, c1);
+		graph.add(new Statement(s1, p2, l1, null, true));
+
+		IGraph copy = new CompactGraph(graph);
+		assertEquals(new ArrayList<>(graph), new ArrayList<>(copy));
+		assertTrue(copy.filter(s1, p2, null).iterator().next().isInferred());
+		assertTrue(copy.hasMatch(s1, null, null, false));
+		assertFalse(copy.hasMatch(s1, p2, null, false));
+		assertTrue(copy.hasMatch(s1, p2, null, true));
+	}
+}
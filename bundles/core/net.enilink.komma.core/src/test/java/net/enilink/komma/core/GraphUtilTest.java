@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class GraphUtilTest {
+	static final URI TYPE = URIs.createURI("test:type"),
+			RESTRICTION = URIs.createURI("test:Restriction"),
+			ON_PROPERTY = URIs.createURI("test:onProperty"),
+			VALUES_FROM = URIs.createURI("test:valuesFrom"),
+			NEXT = URIs.createURI("test:next");
+
+	static URI uri(String name) {
+		return URIs.createURI("test:" + name);
+	}
+
+	/**
+	 * Creates restriction-like structures for the given properties.
+	 */
+	static IGraph restrictions(int count, boolean sameShape) {
+		IGraph graph = new LinkedHashGraph();
+		for (int i = 0; i < count; i++) {
+			BlankNode r = new BlankNode();
+			BlankNode list = new BlankNode();
+			graph.add(r, TYPE, RESTRICTION);
+			graph.add(r, ON_PROPERTY, sameShape ? uri("p") : uri("p" + i));
+			graph.add(r, VALUES_FROM, list);
+			graph.add(list, NEXT, uri("C" + (sameShape ? 0 : i % 10)));
+			graph.add(uri("Class" + (sameShape ? 0 : i)), TYPE, r);
+		}
+		return graph;
+	}
+
+	/**
+	 * Creates cycles of blank nodes with the given lengths.
+	 */
+	static IGraph cycles(int... lengths) {
+		IGraph graph = new LinkedHashGraph();
+		for (int length : lengths) {
+			BlankNode[] nodes = new BlankNode[length];
+			for (int i = 0; i < length; i++) {
+				nodes[i] = new BlankNode();
+			}
+			for (int i = 0; i < length; i++) {
+				graph.add(nodes[i], NEXT, nodes[(i + 1) % length]);
+			}
+		}
+		return graph;
+	}
+
+	static IGraph shuffle(IGraph graph, long seed) {
+		List<IStatement> stmts = new ArrayList<>(graph);
+		Collections.shuffle(stmts, new Random(seed));
+		return new LinkedHashGraph(stmts);
+	}
+
+	@Test
+	public void testIsomorphic() {
+		for (boolean sameShape : new boolean[] { false, true }) {
+			IGraph g1 = restrictions(2000, sameShape);
+			IGraph g2 = shuffle(restrictions(2000, sameShape), 1);
+			assertTrue(GraphUtil.equals(g1, g2));
+			assertEquals(GraphUtil.canonicalHash(g1),
+					GraphUtil.canonicalHash(g2));
+
+			g2.remove(g2.iterator().next());
+			g2.add(new BlankNode(), TYPE, RESTRICTION);
+			assertFalse(GraphUtil.equals(g1, g2));
+			assertNotEquals(GraphUtil.canonicalHash(g1),
+					GraphUtil.canonicalHash(g2));
+		}
+	}
+
+	@Test
+	public void testRegularGraphs() {
+		// color refinement alone can not distinguish these graphs
+		IGraph hexagon = cycles(6);
+		IGraph triangles = cycles(3, 3);
+		assertTrue(GraphUtil.equals(hexagon, shuffle(cycles(6), 2)));
+		assertTrue(GraphUtil.equals(triangles, shuffle(cycles(3, 3), 3)));
+		assertFalse(GraphUtil.equals(hexagon, triangles));
+		assertFalse(GraphUtil.equals(triangles, hexagon));
+	}
+
+	@Test
+	public void testContexts() {
+		BlankNode b = new BlankNode();
+		IGraph g1 = new LinkedHashGraph();
+		g1.add(b, TYPE, RESTRICTION, uri("c1"));
+		IGraph g2 = new LinkedHashGraph();
+		g2.add(new BlankNode(), TYPE, RESTRICTION, uri("c2"));
+		assertFalse(GraphUtil.equals(g1, g2));
+		g2.clear();
+		g2.add(new BlankNode(), TYPE, RESTRICTION, uri("c1"));
+		assertTrue(GraphUtil.equals(g1, g2));
+	}
+}
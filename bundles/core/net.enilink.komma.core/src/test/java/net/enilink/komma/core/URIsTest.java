@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class URIsTest {
+	@Test
+	public void testCanonicalInstances() {
+		URI uri = URIs.createURI("http://example.org/test/a");
+		assertSame(uri, URIs.createURI("http://example.org/test/a"));
+
+		URI withFragment = URIs.createURI("http://example.org/test#a");
+		assertSame(withFragment, URIs.createURI("http://example.org/test#a"));
+		assertSame(withFragment.trimFragment(),
+				URIs.createURI("http://example.org/test"));
+		assertEquals("a", withFragment.fragment());
+	}
+
+	@Test
+	public void testConcurrentCreation() throws Exception {
+		final int threads = 8;
+		final int count = 2000;
+		final CyclicBarrier barrier = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<URI[]>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				results.add(executor.submit(new Callable<URI[]>() {
+					@Override
+					public URI[] call() throws Exception {
+						barrier.await();
+						URI[] uris = new URI[count];
+						for (int i = 0; i < count; i++) {
+							uris[i] = URIs.createURI("urn:concurrent:ns#r" + i);
+						}
+						return uris;
+					}
+				}));
+			}
+			URI[] expected = results.get(0).get();
+			for (Future<URI[]> result : results) {
+				URI[] uris = result.get();
+				for (int i = 0; i < count; i++) {
+					assertSame(expected[i], uris[i]);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
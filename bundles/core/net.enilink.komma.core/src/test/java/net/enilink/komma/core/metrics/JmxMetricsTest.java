@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+public class JmxMetricsTest {
+	@Test
+	public void testCountersAndGauges() {
+		JmxMetrics metrics = new JmxMetrics();
+		metrics.count("a", 1);
+		metrics.count("a", 2);
+		LongSupplier g1 = () -> 5, g2 = () -> 7;
+		metrics.addGauge("g", g1);
+		metrics.addGauge("g", g2);
+		assertEquals(Long.valueOf(3), metrics.getCounters().get("a"));
+		assertEquals(Long.valueOf(12), metrics.getGauges().get("g"));
+		metrics.removeGauge("g", g2);
+		assertEquals(Long.valueOf(5), metrics.getGauges().get("g"));
+	}
+
+	@Test
+	public void testMoveGauges() {
+		IMetrics previous = Metrics.get();
+		LongSupplier gauge = () -> 5;
+		Metrics.set(null);
+		try {
+			Metrics.addGauge("g", gauge);
+			// gauges are moved to metrics that are installed later
+			JmxMetrics metrics = new JmxMetrics();
+			Metrics.set(metrics);
+			assertEquals(Long.valueOf(5), metrics.getGauges().get("g"));
+
+			JmxMetrics other = new JmxMetrics();
+			Metrics.set(other);
+			assertEquals(Long.valueOf(0), metrics.getGauges().get("g"));
+			assertEquals(Long.valueOf(5), other.getGauges().get("g"));
+
+			Metrics.removeGauge("g", gauge);
+			assertEquals(Long.valueOf(0), other.getGauges().get("g"));
+		} finally {
+			Metrics.removeGauge("g", gauge);
+			Metrics.set(previous);
+		}
+	}
+
+	@Test
+	public void testTimers() {
+		JmxMetrics metrics = new JmxMetrics(2);
+		for (int i = 1; i <= 100; i++) {
+			metrics.record("t", i * 1000);
+		}
+		TimerStatistics stats = metrics.getTimers().get("t");
+		assertEquals(100, stats.getCount());
+		assertEquals(5050000, stats.getTotalNanos());
+		assertEquals(100000, stats.getMaxNanos());
+		// percentiles are the upper bounds of power-of-two buckets
+		assertTrue(stats.getP50Nanos() >= 50000
+				&& stats.getP50Nanos() < 2 * 50000);
+		assertTrue(stats.getP99Nanos() >= 99000
+				&& stats.getP99Nanos() <= 100000);
+
+		metrics.record("u", 1);
+		metrics.record("v", 1);
+		Map<String, TimerStatistics> timers = metrics.getTimers();
+		assertEquals(3, timers.size());
+		assertEquals(1, timers.get(JmxMetrics.OVERFLOW_TIMER).getCount());
+	}
+
+	@Test
+	public void testNormalizeQuery() {
+		assertEquals("SELECT ?s WHERE { ?s ?p ?o }",
+				Metrics.normalizeQuery(" SELECT ?s\n WHERE {\t?s ?p ?o }"));
+		// inlined values are replaced with placeholders
+		String normalized = "SELECT ?s ?type WHERE { VALUES ?s { ? } ?s <urn:type> ?type }";
+		assertEquals(normalized, Metrics.normalizeQuery(
+				"SELECT ?s ?type WHERE { VALUES ?s { <urn:a> <urn:b> } ?s <urn:type> ?type }"));
+		assertEquals(normalized, Metrics.normalizeQuery(
+				"SELECT ?s ?type WHERE { values ?s {<urn:c>} ?s <urn:type> ?type }"));
+		assertEquals("SELECT ?s WHERE { VALUES (?s ?o) { ? } ?s <urn:p> ?o }",
+				Metrics.normalizeQuery("SELECT ?s WHERE { VALUES (?s ?o) { (<urn:a> \"}\") (<urn:b> UNDEF) } ?s <urn:p> ?o }"));
+		assertEquals("SELECT ?s WHERE { ?s ?p \"?\"@en FILTER (?values != \"?\") }",
+				Metrics.normalizeQuery("SELECT ?s WHERE { ?s ?p \"a \\\" b\"@en FILTER (?values != 'x') }"));
+		// IRIs outside of VALUES blocks are retained
+		assertEquals("ASK { <urn:it's> <urn:p> \"?\" }",
+				Metrics.normalizeQuery("ASK { <urn:it's> <urn:p> \"\"\"long\"text\"\"\" }"));
+	}
+
+	@Test
+	public void testMXBean() throws Exception {
+		JmxMetrics metrics = new JmxMetrics();
+		metrics.register();
+		try {
+			metrics.count("c", 1);
+			metrics.record("query", 1000);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(JmxMetrics.OBJECT_NAME);
+			TabularData counters = (TabularData) server.getAttribute(name,
+					"Counters");
+			assertEquals(1, counters.size());
+			TabularData timers = (TabularData) server.getAttribute(name,
+					"Timers");
+			CompositeData row = (CompositeData) timers.values().iterator()
+					.next();
+			assertEquals("query", row.get("key"));
+			assertEquals(1L,
+					((CompositeData) row.get("value")).get("count"));
+		} finally {
+			metrics.unregister();
+		}
+	}
+}
@@ -5,33 +5,58 @@
  */
 package net.enilink.komma.dm.change;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.MapMaker;
 
 import net.enilink.komma.core.IStatement;
 import net.enilink.komma.core.URI;
+import net.enilink.komma.core.metrics.IMetrics;
+import net.enilink.komma.core.metrics.Metrics;
 import net.enilink.komma.dm.IDataManager;
 import net.enilink.komma.dm.internal.change.AddChange;
+import net.enilink.komma.dm.internal.change.ChangeBuffer;
+import net.enilink.komma.dm.internal.change.ChangeDispatcher;
 import net.enilink.komma.dm.internal.change.NamespaceChange;
 import net.enilink.komma.dm.internal.change.RemoveChange;
 
 /**
  * Tracks changes to an {@link IDataManager} by implementing the interface
  * {@link IDataChangeSupport}.
+ * <p>
+ * By default all listeners are notified synchronously by the thread that
+ * commits the changes. If asynchronous dispatch is enabled with
+ * {@link #setAsynchronous(Executor, int)} then only the internal listeners
+ * are notified synchronously while the other listeners receive the changes
+ * on the given executor.
+ * <p>
+ * Changes are recorded in a separate buffer for each data manager. Recording
+ * changes and reading the options of data managers do not require any global
+ * locks.
  * 
  */
 public class DataChangeSupport implements IDataChangeSupport {
+	/**
+	 * The default maximum number of changes that are queued for asynchronous
+	 * dispatch.
+	 */
+	public static final int DEFAULT_MAX_QUEUED_CHANGES = 100000;
+
 	static class Options {
 		volatile Boolean enabled;
 		volatile Mode mode;
 	}
 
-	protected Map<IDataManager, List<IDataChange>> activeDataManagers = new HashMap<>();
-	protected WeakHashMap<IDataManager, Options> dataManagerOptions = new WeakHashMap<>();
+	protected final ConcurrentMap<IDataManager, ChangeBuffer> activeDataManagers = new ConcurrentHashMap<>();
+	// uses weak keys that are compared by identity
+	protected final ConcurrentMap<IDataManager, Options> dataManagerOptions = new MapMaker().weakKeys().makeMap();
 
 	private CopyOnWriteArraySet<IDataChangeListener> listeners = new CopyOnWriteArraySet<>();
 	private CopyOnWriteArraySet<IDataChangeListener> internalListeners = new CopyOnWriteArraySet<>();
@@ -42,17 +67,40 @@ public class DataChangeSupport implements IDataChangeSupport {
 	private volatile Mode defaultMode = Mode.VERIFY_NONE;
 	private ThreadLocal<Mode> perThreadMode = new ThreadLocal<>();
 
+	private volatile ChangeDispatcher dispatcher;
+	private ExecutorService dispatchExecutor;
+
 	@Override
 	public void add(IDataManager dm, IStatement stmt) {
 		addChange(dm, new AddChange(stmt));
 	}
 
 	private void addChange(IDataManager dm, IDataChange change) {
-		synchronized (activeDataManagers) {
-			ensureList(activeDataManagers, dm).add(change);
+		while (true) {
+			ChangeBuffer buffer = activeDataManagers.get(dm);
+			if (buffer == null) {
+				buffer = activeDataManagers.computeIfAbsent(dm, key -> new ChangeBuffer());
+			}
+			if (buffer.record(change)) {
+				return;
+			}
+			// the buffer was concurrently handed off, retry with a new one
+			activeDataManagers.remove(dm, buffer);
 		}
 	}
 
+	/**
+	 * Seals and removes the change buffer of the given data manager.
+	 */
+	private ChangeBuffer takeChanges(IDataManager dm) {
+		ChangeBuffer buffer = activeDataManagers.get(dm);
+		if (buffer != null) {
+			buffer.seal();
+			activeDataManagers.remove(dm, buffer);
+		}
+		return buffer;
+	}
+
 	@Override
 	public void addChangeListener(IDataChangeListener changeListener) {
 		listeners.add(changeListener);
@@ -64,33 +112,41 @@ public class DataChangeSupport implements IDataChangeSupport {
 
 	@Override
 	public void close(IDataManager dm) {
-		synchronized (activeDataManagers) {
-			activeDataManagers.remove(dm);
-		}
+		takeChanges(dm);
 	}
 
 	@Override
 	public void commit(IDataManager dm) {
-		List<IDataChange> committed = null;
-		synchronized (activeDataManagers) {
-			List<IDataChange> changes = activeDataManagers.get(dm);
-			if (changes != null && !changes.isEmpty()) {
-				committed = new ArrayList<IDataChange>(changes);
-				changes.clear();
+		// the sealed buffer is directly handed off to the listeners
+		List<IDataChange> committed = takeChanges(dm);
+		if (committed != null && !committed.isEmpty()) {
+			ChangeDispatcher dispatcher = this.dispatcher;
+			if (dispatcher == null) {
+				handleChanges(committed);
+			} else {
+				notifyInternalListeners(committed);
+				dispatcher.dispatch(dm, committed);
 			}
 		}
-		if (committed != null) {
-			handleChanges(committed);
-		}
 	}
 
-	private <K, T> List<T> ensureList(Map<K, List<T>> map, K key) {
-		List<T> list = map.get(key);
-		if (list == null) {
-			list = new ArrayList<T>();
-			map.put(key, list);
-		}
-		return list;
+	/**
+	 * Waits until all changes that are dispatched asynchronously have been
+	 * delivered to the listeners. Returns immediately if asynchronous dispatch
+	 * is not enabled.
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the unit of the timeout argument
+	 * @return <code>true</code> if all changes have been delivered, else
+	 *         <code>false</code>
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting
+	 */
+	public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+		ChangeDispatcher dispatcher = this.dispatcher;
+		return dispatcher == null || dispatcher.flush(timeout, unit);
 	}
 
 	@Override
@@ -109,10 +165,8 @@ public class DataChangeSupport implements IDataChangeSupport {
 		if (perThreadModeValue != null) {
 			return perThreadModeValue;
 		} else {
-			synchronized (dataManagerOptions) {
-				Options options = dataManagerOptions.get(dm);
-				return options == null || options.mode == null ? defaultMode : options.mode;
-			}
+			Options options = dm == null ? null : dataManagerOptions.get(dm);
+			return options == null || options.mode == null ? defaultMode : options.mode;
 		}
 	}
 
@@ -126,20 +180,45 @@ public class DataChangeSupport implements IDataChangeSupport {
 		if (perThreadEnabledValue != null) {
 			return perThreadEnabledValue.booleanValue();
 		} else {
-			synchronized (dataManagerOptions) {
-				Options options = dataManagerOptions.get(dm);
-				return options == null || options.enabled == null ? defaultEnabled : options.enabled;
-			}
+			Options options = dm == null ? null : dataManagerOptions.get(dm);
+			return options == null || options.enabled == null ? defaultEnabled : options.enabled;
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if the listeners that are not internal are
+	 * notified asynchronously, else <code>false</code>.
+	 */
+	public boolean isAsynchronous() {
+		return dispatcher != null;
+	}
+
 	protected void notifyListeners(List<IDataChange> changes) {
+		notifyInternalListeners(changes);
+		notifyExternalListeners(changes);
+	}
+
+	protected void notifyInternalListeners(List<IDataChange> changes) {
+		IMetrics metrics = Metrics.get();
+		long start = metrics.isEnabled() ? System.nanoTime() : 0;
 		for (IDataChangeListener internalChangeListener : internalListeners) {
 			internalChangeListener.dataChanged(changes);
 		}
+		if (metrics.isEnabled()) {
+			metrics.record("changes.dispatchInternal", System.nanoTime() - start);
+			metrics.count("changes", changes.size());
+		}
+	}
+
+	protected void notifyExternalListeners(List<IDataChange> changes) {
+		IMetrics metrics = Metrics.get();
+		long start = metrics.isEnabled() ? System.nanoTime() : 0;
 		for (IDataChangeListener changeListener : listeners) {
 			changeListener.dataChanged(changes);
 		}
+		if (metrics.isEnabled()) {
+			metrics.record("changes.dispatch", System.nanoTime() - start);
+		}
 	}
 
 	@Override
@@ -165,12 +244,75 @@ public class DataChangeSupport implements IDataChangeSupport {
 
 	@Override
 	public void rollback(IDataManager dm) {
-		synchronized (activeDataManagers) {
-			List<IDataChange> changes = activeDataManagers.get(dm);
-			if (changes != null) {
-				changes.clear();
+		takeChanges(dm);
+	}
+
+	/**
+	 * Enables or disables the asynchronous dispatch of changes to the
+	 * listeners that are not internal. Asynchronously dispatched changes are
+	 * delivered by a dedicated daemon thread.
+	 * 
+	 * @param asynchronous
+	 *            <code>true</code> if changes should be dispatched
+	 *            asynchronously, else <code>false</code>
+	 * @see #setAsynchronous(Executor, int)
+	 */
+	public void setAsynchronous(boolean asynchronous) {
+		if (asynchronous) {
+			ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "DataChangeSupport-dispatcher");
+				thread.setDaemon(true);
+				return thread;
+			});
+			setDispatcher(executor, DEFAULT_MAX_QUEUED_CHANGES, executor);
+		} else {
+			setDispatcher(null, 0, null);
+		}
+	}
+
+	/**
+	 * Enables the asynchronous dispatch of changes to the listeners that are
+	 * not internal. Internal listeners, for example those keeping caches
+	 * consistent, are still notified synchronously.
+	 * <p>
+	 * The changes are delivered in the order of their commits. Changes of
+	 * multiple commits of the same data manager may be combined into one
+	 * notification. If the given number of changes is awaiting delivery then
+	 * committing threads are blocked until enough changes have been delivered.
+	 * <p>
+	 * Disabling the asynchronous dispatch waits until all queued changes have
+	 * been delivered.
+	 * 
+	 * @param executor
+	 *            the executor for notifying the listeners or <code>null</code>
+	 *            to disable the asynchronous dispatch
+	 * @param maxQueuedChanges
+	 *            the maximum number of changes that are awaiting delivery
+	 */
+	public void setAsynchronous(Executor executor, int maxQueuedChanges) {
+		setDispatcher(executor, maxQueuedChanges, null);
+	}
+
+	private void setDispatcher(Executor executor, int maxQueuedChanges, ExecutorService ownedExecutor) {
+		ChangeDispatcher oldDispatcher;
+		ExecutorService oldExecutor;
+		synchronized (this) {
+			oldDispatcher = dispatcher;
+			oldExecutor = dispatchExecutor;
+			dispatcher = executor == null ? null
+					: new ChangeDispatcher(executor, maxQueuedChanges, this::notifyExternalListeners);
+			dispatchExecutor = ownedExecutor;
+		}
+		if (oldDispatcher != null) {
+			try {
+				oldDispatcher.flush(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			}
 		}
+		if (oldExecutor != null) {
+			oldExecutor.shutdown();
+		}
 	}
 
 	@Override
@@ -187,14 +329,7 @@ public class DataChangeSupport implements IDataChangeSupport {
 		if (dm == null) {
 			perThreadEnabled.set(enabled);
 		} else {
-			synchronized (dataManagerOptions) {
-				Options options = dataManagerOptions.get(dm);
-				if (options == null) {
-					options = new Options();
-					dataManagerOptions.put(dm, options);
-				}
-				options.enabled = enabled;
-			}
+			dataManagerOptions.computeIfAbsent(dm, key -> new Options()).enabled = enabled;
 		}
 	}
 
@@ -203,14 +338,7 @@ public class DataChangeSupport implements IDataChangeSupport {
 		if (dm == null) {
 			perThreadMode.set(mode);
 		} else {
-			synchronized (dataManagerOptions) {
-				Options options = dataManagerOptions.get(dm);
-				if (options == null) {
-					options = new Options();
-					dataManagerOptions.put(dm, options);
-				}
-				options.mode = mode;
-			}
+			dataManagerOptions.computeIfAbsent(dm, key -> new Options()).mode = mode;
 		}
 	}
 
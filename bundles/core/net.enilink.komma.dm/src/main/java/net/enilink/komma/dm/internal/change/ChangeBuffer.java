@@ -0,0 +1,80 @@
+package net.enilink.komma.dm.internal.change;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import net.enilink.komma.dm.change.IDataChange;
+
+/**
+ * Records the changes of a single data manager.
+ * <p>
+ * The changes are stored in fixed-size chunks to avoid copying of already
+ * recorded changes when the buffer grows. A buffer is {@link #seal() sealed}
+ * when it is handed off to the listeners and rejects further changes
+ * afterwards.
+ * <p>
+ * Recording and sealing are synchronized on the buffer. Since each buffer is
+ * only used by one data manager this lock is usually uncontended. Reading the
+ * changes does not acquire the lock and is only safe after the buffer has
+ * been sealed.
+ */
+public class ChangeBuffer extends AbstractList<IDataChange> implements
+		RandomAccess {
+	static final int CHUNK_SHIFT = 10;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private IDataChange[][] chunks = new IDataChange[1][];
+	private int size;
+	private boolean sealed;
+
+	/**
+	 * Records the given change if this buffer is not sealed.
+	 *
+	 * @param change
+	 *            the change to record
+	 * @return <code>true</code> if the change was recorded,
+	 *         <code>false</code> if the buffer is already sealed
+	 */
+	public synchronized boolean record(IDataChange change) {
+		if (sealed) {
+			return false;
+		}
+		int chunk = size >>> CHUNK_SHIFT;
+		if (chunk == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunks.length * 2);
+		}
+		if (chunks[chunk] == null) {
+			// start small since most transactions contain only few changes
+			chunks[chunk] = new IDataChange[chunk == 0 ? 16 : CHUNK_SIZE];
+		} else if (chunk == 0 && size == chunks[0].length) {
+			chunks[0] = Arrays.copyOf(chunks[0],
+					Math.min(CHUNK_SIZE, size * 2));
+		}
+		chunks[chunk][size & CHUNK_MASK] = change;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Seals this buffer. A sealed buffer does not accept further changes.
+	 */
+	public synchronized void seal() {
+		sealed = true;
+	}
+
+	@Override
+	public IDataChange get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size);
+		}
+		return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
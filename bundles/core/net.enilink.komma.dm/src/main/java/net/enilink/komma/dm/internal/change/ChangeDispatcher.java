@@ -0,0 +1,235 @@
+package net.enilink.komma.dm.internal.change;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.dm.change.IDataChange;
+
+/**
+ * Delivers committed changes asynchronously to a consumer.
+ * <p>
+ * All batches are delivered sequentially in the order of their submission.
+ * Consecutive batches of the same data manager that are queued at the same
+ * time are coalesced into a single batch.
+ * <p>
+ * The number of queued changes is bounded. If the limit is reached then
+ * {@link #dispatch(IDataManager, List)} blocks until enough changes have
+ * been delivered.
+ */
+public class ChangeDispatcher {
+	static class Batch {
+		final IDataManager dm;
+		final List<IDataChange> changes;
+
+		Batch(IDataManager dm, List<IDataChange> changes) {
+			this.dm = dm;
+			this.changes = changes;
+		}
+	}
+
+	protected final Executor executor;
+	protected final int maxQueuedChanges;
+	protected final Consumer<List<IDataChange>> consumer;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition idle = lock.newCondition();
+
+	private final ArrayDeque<Batch> queue = new ArrayDeque<>();
+	private int queuedChanges;
+	private boolean running;
+	private volatile Thread dispatchThread;
+
+	/**
+	 * Creates a new dispatcher.
+	 *
+	 * @param executor
+	 *            the executor that is used for delivering the changes
+	 * @param maxQueuedChanges
+	 *            the maximum number of queued changes
+	 * @param consumer
+	 *            the consumer for the changes
+	 */
+	public ChangeDispatcher(Executor executor, int maxQueuedChanges,
+			Consumer<List<IDataChange>> consumer) {
+		if (maxQueuedChanges <= 0) {
+			throw new IllegalArgumentException(
+					"The maximum number of queued changes must be positive.");
+		}
+		this.executor = executor;
+		this.maxQueuedChanges = maxQueuedChanges;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Queues the changes of a data manager for delivery.
+	 *
+	 * @param dm
+	 *            the data manager
+	 * @param changes
+	 *            the committed changes
+	 */
+	public void dispatch(IDataManager dm, List<IDataChange> changes) {
+		boolean start = false;
+		lock.lock();
+		try {
+			// a batch that exceeds the limit is accepted if the queue is
+			// empty, the delivering thread itself is never blocked to
+			// prevent dead-locks if a consumer commits further changes
+			while (queuedChanges > 0
+					&& queuedChanges + changes.size() > maxQueuedChanges
+					&& Thread.currentThread() != dispatchThread) {
+				notFull.awaitUninterruptibly();
+			}
+			queue.add(new Batch(dm, changes));
+			queuedChanges += changes.size();
+			if (!running) {
+				running = start = true;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (start) {
+			start();
+		}
+	}
+
+	/**
+	 * Schedules the delivery of the queued changes. If the executor rejects
+	 * the task then all queued changes are discarded to release waiting
+	 * threads.
+	 */
+	private void start() {
+		try {
+			executor.execute(this::deliver);
+		} catch (RejectedExecutionException e) {
+			lock.lock();
+			try {
+				running = false;
+				queue.clear();
+				queuedChanges = 0;
+				notFull.signalAll();
+				idle.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			throw e;
+		}
+	}
+
+	protected void deliver() {
+		dispatchThread = Thread.currentThread();
+		boolean completed = false;
+		try {
+			while (true) {
+				List<IDataChange> changes;
+				lock.lock();
+				try {
+					Batch batch = queue.poll();
+					if (batch == null) {
+						running = false;
+						idle.signalAll();
+						completed = true;
+						return;
+					}
+					changes = batch.changes;
+					while (!queue.isEmpty() && queue.peek().dm == batch.dm) {
+						if (changes == batch.changes) {
+							changes = new ArrayList<>(changes);
+						}
+						changes.addAll(queue.poll().changes);
+					}
+					queuedChanges -= changes.size();
+					notFull.signalAll();
+				} finally {
+					lock.unlock();
+				}
+				try {
+					consumer.accept(changes);
+				} catch (Throwable e) {
+					// the committing thread is unknown, hence the exception
+					// can only be reported
+					Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(
+							thread, e);
+					if (e instanceof VirtualMachineError) {
+						throw (VirtualMachineError) e;
+					}
+				}
+			}
+		} finally {
+			dispatchThread = null;
+			if (!completed) {
+				restart();
+			}
+		}
+	}
+
+	/**
+	 * Continues the delivery with a new task after the current one was
+	 * aborted, for example by an {@link OutOfMemoryError}. Otherwise no
+	 * further delivery would be scheduled and committing threads would wait
+	 * forever for free space in the queue.
+	 */
+	private void restart() {
+		boolean start;
+		lock.lock();
+		try {
+			start = running = !queue.isEmpty();
+			if (!start) {
+				idle.signalAll();
+			}
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		if (start) {
+			try {
+				start();
+			} catch (RejectedExecutionException e) {
+				// the queue has been cleared by start()
+			}
+		}
+	}
+
+	/**
+	 * Waits until all queued changes have been delivered.
+	 *
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the unit of the timeout argument
+	 * @return <code>true</code> if all changes have been delivered,
+	 *         <code>false</code> if the timeout elapsed or if this method is
+	 *         called while changes are delivered
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting
+	 */
+	public boolean flush(long timeout, TimeUnit unit)
+			throws InterruptedException {
+		if (Thread.currentThread() == dispatchThread) {
+			return false;
+		}
+		long nanos = unit.toNanos(timeout);
+		lock.lock();
+		try {
+			while (running) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = idle.awaitNanos(nanos);
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -10,8 +10,14 @@
  *******************************************************************************/
 package net.enilink.komma.em;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -25,24 +31,46 @@ import com.google.inject.multibindings.Multibinder;
 import net.enilink.komma.core.IEntity;
 import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.metrics.Metrics;
 import net.enilink.komma.dm.change.DataChangeSupport;
 import net.enilink.komma.dm.change.IDataChange;
 import net.enilink.komma.dm.change.IDataChangeListener;
 import net.enilink.komma.dm.change.IDataChangeSupport;
 import net.enilink.komma.dm.change.IStatementChange;
+import net.enilink.komma.em.cache.CaffeineEntityCacheFactory;
+import net.enilink.komma.em.cache.GuavaEntityCacheFactory;
+import net.enilink.komma.em.cache.IEntityCacheFactory;
+import net.enilink.komma.em.cache.SchemaIndexes;
 import net.enilink.komma.em.internal.CachedEntity;
+import net.enilink.komma.em.internal.ContextDependencies;
+import net.enilink.komma.em.internal.PropertyDependencies;
 import net.enilink.komma.em.util.IClosable;
 import net.enilink.vocab.owl.OWL;
 import net.enilink.vocab.rdf.RDF;
+import net.enilink.vocab.rdfs.RDFS;
 
 public class CacheModule extends AbstractModule {
 	static class CacheClosable implements IClosable {
-		@Inject
 		Cache<Object, CachedEntity> cache;
 
+		Map<String, LongSupplier> gauges = new HashMap<>();
+
+		@Inject
+		void setCache(final Cache<Object, CachedEntity> cache) {
+			this.cache = cache;
+			// expose the statistics of the cache as metrics
+			gauges.put("cache.entity.hits", () -> cache.stats().hitCount());
+			gauges.put("cache.entity.misses", () -> cache.stats().missCount());
+			gauges.put("cache.entity.evictions", () -> cache.stats().evictionCount());
+			gauges.put("cache.entity.size", () -> cache.size());
+			// also exposed if metrics are enabled later
+			gauges.forEach(Metrics::addGauge);
+		}
+
 		@Override
 		public void close() {
 			if (cache != null) {
+				gauges.forEach(Metrics::removeGauge);
 				cache.invalidateAll();
 				cache = null;
 			}
@@ -50,9 +78,9 @@ public class CacheModule extends AbstractModule {
 	}
 
 	public static CacheBuilder<Object, Object> DEFAULT_BUILDER = CacheBuilder.newBuilder()
-			.expireAfterAccess(2, TimeUnit.MINUTES).maximumSize(30000);
+			.expireAfterAccess(2, TimeUnit.MINUTES).maximumSize(30000).recordStats();
 
-	protected final CacheBuilder<Object, Object> cacheBuilder;
+	protected final IEntityCacheFactory cacheFactory;
 
 	/**
 	 * Constructs an instance of cache module with cache name.
@@ -63,21 +91,29 @@ public class CacheModule extends AbstractModule {
 	 */
 	@Deprecated
 	public CacheModule(String cacheName) {
-		this(DEFAULT_BUILDER);
+		this();
 	}
 
 	/**
-	 * Constructs an instance of cache module with {@link #DEFAULT_BUILDER}.
+	 * Constructs an instance of cache module with a Caffeine based cache that
+	 * is bounded by the estimated memory of its entries.
 	 */
 	public CacheModule() {
-		this(DEFAULT_BUILDER);
+		this(new CaffeineEntityCacheFactory());
 	}
 
 	/**
 	 * Constructs an instance of cache module with a specific cache builder.
 	 */
 	public CacheModule(CacheBuilder<Object, Object> cacheBuilder) {
-		this.cacheBuilder = cacheBuilder;
+		this(new GuavaEntityCacheFactory(cacheBuilder));
+	}
+
+	/**
+	 * Constructs an instance of cache module with a specific cache backend.
+	 */
+	public CacheModule(IEntityCacheFactory cacheFactory) {
+		this.cacheFactory = cacheFactory;
 	}
 
 	@Override
@@ -88,10 +124,54 @@ public class CacheModule extends AbstractModule {
 		closableBinder.addBinding().to(CacheClosable.class);
 	}
 
+	/**
+	 * Creates the dependencies between cached properties and predicates. The
+	 * cached properties of an entity are only invalidated if a statement with
+	 * one of their predicates is changed.
+	 * 
+	 * @return the dependencies of cached properties
+	 */
+	protected PropertyDependencies createPropertyDependencies() {
+		PropertyDependencies dependencies = new PropertyDependencies();
+		dependencies.register("komma:directClasses", RDF.PROPERTY_TYPE, RDFS.PROPERTY_SUBCLASSOF);
+		dependencies.register("komma:directNamedClasses", RDF.PROPERTY_TYPE, RDFS.PROPERTY_SUBCLASSOF);
+		dependencies.register("getClasses", RDF.PROPERTY_TYPE, RDFS.PROPERTY_SUBCLASSOF);
+		dependencies.register("getDirectNamedSubClasses", RDFS.PROPERTY_SUBCLASSOF);
+		dependencies.register("getNamedSuperClasses", RDFS.PROPERTY_SUBCLASSOF);
+		dependencies.register("komma:directNamedSuperClasses", RDFS.PROPERTY_SUBCLASSOF);
+		dependencies.register("komma:hasNamedSubClasses", RDFS.PROPERTY_SUBCLASSOF);
+		dependencies.register("komma:directSubProperty", RDFS.PROPERTY_SUBPROPERTYOF);
+		dependencies.register("komma:directSuperProperty", RDFS.PROPERTY_SUBPROPERTYOF);
+		dependencies.register("komma:subProperty", RDFS.PROPERTY_SUBPROPERTYOF);
+		dependencies.register("komma:superProperty", RDFS.PROPERTY_SUBPROPERTYOF);
+		dependencies.register("isContainment", RDFS.PROPERTY_SUBPROPERTYOF);
+		dependencies.register("isOrderedContainment", RDFS.PROPERTY_SUBPROPERTYOF);
+		return dependencies;
+	}
+
 	@Provides
 	@Singleton
-	Cache<Object, CachedEntity> provideCache(IDataChangeSupport changeSupport) {
-		final Cache<Object, CachedEntity> cache = cacheBuilder.build();
+	PropertyDependencies providePropertyDependencies() {
+		return createPropertyDependencies();
+	}
+
+	@Provides
+	@Singleton
+	ContextDependencies provideContextDependencies() {
+		return new ContextDependencies();
+	}
+
+	@Provides
+	@Singleton
+	SchemaIndexes provideSchemaIndexes(IDataChangeSupport changeSupport) {
+		return new SchemaIndexes((DataChangeSupport) changeSupport);
+	}
+
+	@Provides
+	@Singleton
+	Cache<Object, CachedEntity> provideCache(IDataChangeSupport changeSupport,
+			final ContextDependencies contextDependencies, final PropertyDependencies propertyDependencies) {
+		final Cache<Object, CachedEntity> cache = cacheFactory.createCache();
 
 		IDataChangeListener refreshListener = new IDataChangeListener() {
 			boolean refresh(Object entity) {
@@ -110,8 +190,21 @@ public class CacheModule extends AbstractModule {
 				return refreshed;
 			}
 
+			/**
+			 * Evicts all entries for the contexts which may read from the given
+			 * graph.
+			 */
+			void invalidateContexts(IReference graph) {
+				Predicate<Object> contextFilter = contextKey -> contextDependencies.dependsOn(contextKey, graph);
+				for (Object key : cache.asMap().keySet()) {
+					cache.asMap().computeIfPresent(key,
+							(k, cached) -> cached.clearContexts(contextFilter) ? null : cached);
+				}
+			}
+
 			@Override
 			public void dataChanged(List<IDataChange> changes) {
+				Set<IReference> invalidatedGraphs = new HashSet<>();
 				for (IDataChange change : changes) {
 					if (change instanceof IStatementChange) {
 						IStatement stmt = ((IStatementChange) change).getStatement();
@@ -126,24 +219,27 @@ public class CacheModule extends AbstractModule {
 						}
 						// TODO refresh all possible objects if stmtObject is null
 
-						// clear cache completely if owl:imports has
-						// changed
-						// TODO find a better approach instead of clearing the
-						// whole cache
+						// a change of owl:imports changes the readable graphs
+						// of all contexts that read from the statement's graph
 						if (stmt.getContext() != null && OWL.PROPERTY_IMPORTS.equals(stmtPredicate)) {
-							cache.invalidateAll();
+							if (invalidatedGraphs.add(stmt.getContext())) {
+								invalidateContexts(stmt.getContext());
+							}
 							continue;
 						}
 
-						// do only remove "properties" node from cache to ensure
-						// that the above refresh logic keeps working
+						// do only remove affected "properties" from cache to
+						// ensure that the above refresh logic keeps working
+						Predicate<Object> propertyFilter = propertyDependencies.affectedBy(stmtPredicate);
+						Predicate<Object> contextFilter = contextKey -> contextDependencies.dependsOn(contextKey,
+								stmt.getContext());
 						CachedEntity cachedSubject = stmtSubject != null ? cache.getIfPresent(stmtSubject) : null;
 						if (cachedSubject != null) {
-							cachedSubject.clearProperties();
+							cachedSubject.clearProperties(contextFilter, propertyFilter);
 						}
-						CachedEntity cachedObject =  stmtObject != null ? cache.getIfPresent(stmtObject) : null;
+						CachedEntity cachedObject = stmtObject != null ? cache.getIfPresent(stmtObject) : null;
 						if (cachedObject != null) {
-							cachedObject.clearProperties();
+							cachedObject.clearProperties(contextFilter, propertyFilter);
 						}
 
 						// remove entity completely from cache if its type has
@@ -96,6 +96,10 @@ public class CachingEntityManagerModule extends DecoratingEntityManagerModule {
 			try {
 				CachedEntity cached = cache.get(entity, CachedEntity.FACTORY);
 				cached.put(contextKey, new Fqn(property, Arrays.asList(parameters)), value);
+				if (cached.isWeightOutdated()) {
+					// update the weight of the entity within the cache
+					cache.asMap().replace(entity, cached, cached);
+				}
 			} catch (ExecutionException e) {
 				log.error("Error while caching property data.", e);
 			}
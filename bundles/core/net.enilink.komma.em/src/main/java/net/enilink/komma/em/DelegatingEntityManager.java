@@ -12,6 +12,7 @@ package net.enilink.komma.em;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -165,6 +166,12 @@ public abstract class DelegatingEntityManager implements IEntityManager {
 		return getDelegate().findAll(javaClass);
 	}
 
+	@Override
+	public <T> List<T> findAll(Collection<? extends IReference> references,
+			Class<T> concept) {
+		return getDelegate().findAll(references, concept);
+	}
+
 	@Override
 	public <T> T findRestricted(IReference reference, Class<T> concept,
 			Class<?>... concepts) {
@@ -1,15 +1,26 @@
 package net.enilink.komma.em;
 
+import java.io.File;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
 
+import net.enilink.composition.BehaviourFactory;
+import net.enilink.composition.ClassCache;
 import net.enilink.composition.ClassDefiner;
 import net.enilink.composition.ClassResolver;
 import net.enilink.composition.CompositionModule;
 import net.enilink.composition.DefaultObjectFactory;
 import net.enilink.composition.ObjectFactory;
+import net.enilink.composition.asm.BehaviourClassProcessor;
+import net.enilink.composition.asm.BehaviourMethodProcessor;
+import net.enilink.composition.helpers.ClassComposer;
 import net.enilink.composition.mappers.ComposedRoleMapper;
 import net.enilink.composition.mappers.RoleMapper;
 import net.enilink.composition.mappers.TypeFactory;
@@ -20,19 +31,62 @@ import net.enilink.composition.properties.mapper.IriAnnotationPropertyMapper;
 import net.enilink.composition.properties.sparql.SparqlBehaviourMethodProcessor;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.LinkedKeyBinding;
 
 import net.enilink.komma.core.*;
+import net.enilink.komma.core.metrics.IMetrics;
+import net.enilink.komma.core.metrics.Metrics;
 import net.enilink.vocab.rdfs.RDFS;
 import net.enilink.komma.em.internal.ByteArrayLiteralMapper;
 import net.enilink.komma.em.internal.behaviours.EntitySupport;
 import net.enilink.komma.literals.LiteralConverter;
 
 public class ManagerCompositionModule extends AbstractModule {
+	/**
+	 * System property with the base directory of a persistent cache for
+	 * generated composite and behaviour classes.
+	 */
+	public static final String CLASS_CACHE_PROPERTY = "net.enilink.komma.classCache";
+
+	/**
+	 * Records the time for generating composite and behaviour classes as
+	 * metric <code>composition.generate</code>.
+	 */
+	static class MeteredClassDefiner extends ClassDefiner {
+		static {
+			registerAsParallelCapable();
+		}
+
+		MeteredClassDefiner(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		public Class<?> resolveClass(String name,
+				final Callable<? extends Class<?>> generator) throws Exception {
+			return super.resolveClass(name, () -> {
+				IMetrics metrics = Metrics.get();
+				if (!metrics.isEnabled()) {
+					return generator.call();
+				}
+				long start = System.nanoTime();
+				try {
+					return generator.call();
+				} finally {
+					metrics.record("composition.generate", System.nanoTime()
+							- start);
+				}
+			});
+		}
+	}
+
 	private static Map<ClassLoader, WeakReference<ClassLoader>> classLoaders = new WeakHashMap<ClassLoader, WeakReference<ClassLoader>>();
 	private static Map<ClassLoader, WeakReference<ClassDefiner>> definers = new WeakHashMap<ClassLoader, WeakReference<ClassDefiner>>();
 
@@ -174,7 +228,54 @@ public class ManagerCompositionModule extends AbstractModule {
 
 	@Provides
 	@Singleton
-	protected ClassDefiner provideSharedClassDefiner(ClassLoader cl) {
+	protected ClassDefiner provideSharedClassDefiner(ClassLoader cl,
+			Injector injector) {
+		ClassDefiner definer = getSharedClassDefiner(cl);
+		String cacheDir = System.getProperty(CLASS_CACHE_PROPERTY);
+		if (cacheDir != null && !cacheDir.isEmpty()) {
+			ClassCache cache = ClassCache.forGenerators(new File(cacheDir),
+					getGeneratorClasses(injector));
+			synchronized (definer) {
+				if (definer.getClassCache() == null) {
+					definer.setClassCache(cache);
+				} else if (!definer.getClassCache().getDirectory()
+						.equals(cache.getDirectory())) {
+					// use a separate definer for different generators
+					definer = new MeteredClassDefiner(definer.getParent());
+					definer.setClassCache(cache);
+				}
+			}
+		}
+		return definer;
+	}
+
+	/**
+	 * Returns the classes that are involved in the generation of composite
+	 * and behaviour classes for the given injector.
+	 */
+	public static Collection<Class<?>> getGeneratorClasses(Injector injector) {
+		Set<Class<?>> generators = new HashSet<>();
+		generators.add(ClassComposer.class);
+		for (Class<?> type : Arrays.asList(BehaviourFactory.class,
+				BehaviourClassProcessor.class, BehaviourMethodProcessor.class)) {
+			for (Binding<?> binding : injector.findBindingsByType(TypeLiteral
+					.get(type))) {
+				if (binding instanceof LinkedKeyBinding<?>) {
+					generators.add(((LinkedKeyBinding<?>) binding)
+							.getLinkedKey().getTypeLiteral().getRawType());
+				} else if (binding instanceof InstanceBinding<?>) {
+					generators.add(((InstanceBinding<?>) binding)
+							.getInstance().getClass());
+				} else {
+					generators.add(binding.getKey().getTypeLiteral()
+							.getRawType());
+				}
+			}
+		}
+		return generators;
+	}
+
+	private ClassDefiner getSharedClassDefiner(ClassLoader cl) {
 		ClassDefiner definer = null;
 		synchronized (definers) {
 			WeakReference<ClassDefiner> ref = definers.get(cl);
@@ -193,7 +294,7 @@ public class ManagerCompositionModule extends AbstractModule {
 						internedLoader = cl;
 					}
 				}
-				definer = new ClassDefiner(internedLoader);
+				definer = new MeteredClassDefiner(internedLoader);
 				definers.put(internedLoader, new WeakReference<>(
 						definer));
 			}
@@ -0,0 +1,118 @@
+package net.enilink.komma.em.cache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Adapts a Caffeine cache to Guava's {@link Cache} interface.
+ */
+class CaffeineCache<K, V> implements Cache<K, V> {
+	@SuppressWarnings("serial")
+	static class CheckedLoadException extends RuntimeException {
+		CheckedLoadException(Exception cause) {
+			super(cause);
+		}
+	}
+
+	final com.github.benmanes.caffeine.cache.Cache<K, V> cache;
+
+	CaffeineCache(com.github.benmanes.caffeine.cache.Cache<K, V> cache) {
+		this.cache = cache;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V getIfPresent(Object key) {
+		return cache.getIfPresent((K) key);
+	}
+
+	@Override
+	public V get(K key, Callable<? extends V> loader) throws ExecutionException {
+		V value;
+		try {
+			value = cache.get(key, k -> {
+				try {
+					return loader.call();
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Exception e) {
+					throw new CheckedLoadException(e);
+				}
+			});
+		} catch (CheckedLoadException e) {
+			throw new ExecutionException(e.getCause());
+		} catch (RuntimeException e) {
+			throw new UncheckedExecutionException(e);
+		} catch (Error e) {
+			throw new ExecutionError(e);
+		}
+		if (value == null) {
+			throw new InvalidCacheLoadException("Loader returned null for key " + key + ".");
+		}
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public ImmutableMap<K, V> getAllPresent(Iterable<? extends Object> keys) {
+		return ImmutableMap.copyOf(cache.getAllPresent((Iterable<K>) keys));
+	}
+
+	@Override
+	public void put(K key, V value) {
+		cache.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<? extends K, ? extends V> m) {
+		cache.putAll(m);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void invalidate(Object key) {
+		cache.invalidate((K) key);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void invalidateAll(Iterable<? extends Object> keys) {
+		cache.invalidateAll((Iterable<K>) keys);
+	}
+
+	@Override
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	@Override
+	public long size() {
+		return cache.estimatedSize();
+	}
+
+	@Override
+	public CacheStats stats() {
+		com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
+		return new CacheStats(stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+				stats.loadFailureCount(), stats.totalLoadTime(), stats.evictionCount());
+	}
+
+	@Override
+	public ConcurrentMap<K, V> asMap() {
+		return cache.asMap();
+	}
+
+	@Override
+	public void cleanUp() {
+		cache.cleanUp();
+	}
+}
@@ -0,0 +1,60 @@
+package net.enilink.komma.em.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.cache.Cache;
+
+import net.enilink.komma.em.internal.CachedEntity;
+
+/**
+ * Creates entity caches that are backed by <a
+ * href="https://github.com/ben-manes/caffeine">Caffeine</a>.
+ * <p>
+ * By default the cache is bounded by the estimated memory of its entries (see
+ * {@link CachedEntity#weigh()}) and uses Caffeine's W-TinyLFU policy for
+ * admission and eviction.
+ */
+public class CaffeineEntityCacheFactory implements IEntityCacheFactory {
+	/**
+	 * The default maximum weight (estimated memory in bytes) of all cached
+	 * entities.
+	 */
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 64L * 1024 * 1024;
+
+	protected final Caffeine<Object, Object> caffeine;
+
+	/**
+	 * Creates a factory for caches with a maximum weight of
+	 * {@link #DEFAULT_MAXIMUM_WEIGHT}.
+	 */
+	public CaffeineEntityCacheFactory() {
+		this(DEFAULT_MAXIMUM_WEIGHT);
+	}
+
+	/**
+	 * Creates a factory for caches with the given maximum weight.
+	 * 
+	 * @param maximumWeight
+	 *            the maximum estimated memory of all cached entities in bytes
+	 */
+	public CaffeineEntityCacheFactory(long maximumWeight) {
+		this(Caffeine.newBuilder().expireAfterAccess(2, TimeUnit.MINUTES).maximumWeight(maximumWeight)
+				.weigher((Object key, Object value) -> ((CachedEntity) value).weigh()).recordStats());
+	}
+
+	/**
+	 * Creates a factory for caches with a specific configuration.
+	 * 
+	 * @param caffeine
+	 *            the builder for new caches
+	 */
+	public CaffeineEntityCacheFactory(Caffeine<Object, Object> caffeine) {
+		this.caffeine = caffeine;
+	}
+
+	@Override
+	public Cache<Object, CachedEntity> createCache() {
+		return new CaffeineCache<>(caffeine.<Object, CachedEntity> build());
+	}
+}
@@ -0,0 +1,22 @@
+package net.enilink.komma.em.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import net.enilink.komma.em.internal.CachedEntity;
+
+/**
+ * Creates entity caches by using Guava's {@link CacheBuilder}.
+ */
+public class GuavaEntityCacheFactory implements IEntityCacheFactory {
+	protected final CacheBuilder<Object, Object> cacheBuilder;
+
+	public GuavaEntityCacheFactory(CacheBuilder<Object, Object> cacheBuilder) {
+		this.cacheBuilder = cacheBuilder;
+	}
+
+	@Override
+	public Cache<Object, CachedEntity> createCache() {
+		return cacheBuilder.build();
+	}
+}
@@ -0,0 +1,22 @@
+package net.enilink.komma.em.cache;
+
+import com.google.common.cache.Cache;
+
+import net.enilink.komma.em.CacheModule;
+import net.enilink.komma.em.internal.CachedEntity;
+
+/**
+ * Service provider interface for the backend of the entity and property cache
+ * that is bound by {@link CacheModule}.
+ * <p>
+ * Implementations should record statistics so that hits, misses and evictions
+ * can be retrieved via {@link Cache#stats()}.
+ */
+public interface IEntityCacheFactory {
+	/**
+	 * Creates a new cache for entities and their properties.
+	 * 
+	 * @return the new cache
+	 */
+	Cache<Object, CachedEntity> createCache();
+}
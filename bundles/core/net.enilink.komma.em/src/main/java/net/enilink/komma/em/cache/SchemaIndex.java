@@ -0,0 +1,565 @@
+package net.enilink.komma.em.cache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.enilink.commons.iterator.IExtendedIterator;
+import net.enilink.commons.util.Pair;
+import net.enilink.komma.core.IEntityManager;
+import net.enilink.komma.core.ILiteral;
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.IReferenceable;
+import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.IValue;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.em.util.SparqlHelper;
+import net.enilink.vocab.komma.KOMMA;
+import net.enilink.vocab.owl.OWL;
+import net.enilink.vocab.rdf.RDF;
+import net.enilink.vocab.rdfs.RDFS;
+
+/**
+ * In-memory index of the schema statements that are visible to an entity
+ * manager, either with or without inferred statements.
+ * <p>
+ * The index contains the statements with the predicates
+ * <code>rdfs:subClassOf</code>, <code>rdfs:subPropertyOf</code>,
+ * <code>rdfs:domain</code>, <code>owl:onProperty</code> and the cardinality
+ * predicates of OWL as well as the <code>rdf:type</code> statements for the
+ * types in {@link #TYPES}. It answers the schema queries of the behaviours for
+ * resources and classes with the same semantics as the corresponding SPARQL
+ * queries.
+ * <p>
+ * Resources are represented by their {@link URI} or, in case of blank nodes,
+ * by their {@link IReference} (see {@link #key(Object)}). The results are
+ * sorted like the results of a SPARQL query with <code>ORDER BY</code>.
+ *
+ * @see SchemaIndexes
+ */
+public class SchemaIndex {
+	/**
+	 * The types whose <code>rdf:type</code> statements are indexed.
+	 */
+	public static final Set<URI> TYPES = Collections.unmodifiableSet(new HashSet<>(
+			Arrays.asList(RDFS.TYPE_CLASS, OWL.TYPE_CLASS, OWL.TYPE_RESTRICTION, OWL.TYPE_ANNOTATIONPROPERTY)));
+
+	static final Set<URI> MIN_CARDINALITIES = new HashSet<>(Arrays.asList(OWL.PROPERTY_MINCARDINALITY,
+			OWL.PROPERTY_CARDINALITY, OWL.PROPERTY_MINQUALIFIEDCARDINALITY, OWL.PROPERTY_QUALIFIEDCARDINALITY));
+
+	static final Set<URI> MAX_CARDINALITIES = new HashSet<>(Arrays.asList(OWL.PROPERTY_MAXCARDINALITY,
+			OWL.PROPERTY_CARDINALITY, OWL.PROPERTY_MAXQUALIFIEDCARDINALITY, OWL.PROPERTY_QUALIFIEDCARDINALITY));
+
+	/**
+	 * The predicates whose statements are indexed (besides
+	 * <code>rdf:type</code>).
+	 */
+	public static final Set<URI> PREDICATES;
+
+	static {
+		Set<URI> predicates = new HashSet<>(Arrays.asList(RDFS.PROPERTY_SUBCLASSOF, RDFS.PROPERTY_SUBPROPERTYOF,
+				RDFS.PROPERTY_DOMAIN, OWL.PROPERTY_ONPROPERTY));
+		predicates.addAll(MIN_CARDINALITIES);
+		predicates.addAll(MAX_CARDINALITIES);
+		PREDICATES = Collections.unmodifiableSet(predicates);
+	}
+
+	/**
+	 * Orders blank nodes before URIs like SPARQL does.
+	 */
+	static final Comparator<Object> SPARQL_ORDER = Comparator
+			.<Object> comparingInt(key -> key instanceof URI ? 1 : 0).thenComparing(Object::toString);
+
+	/**
+	 * Maps predicate -&gt; subject -&gt; objects
+	 */
+	final Map<URI, Map<Object, Set<Object>>> forward = new HashMap<>();
+
+	/**
+	 * Maps predicate -&gt; object -&gt; subjects
+	 */
+	final Map<URI, Map<Object, Set<Object>>> backward = new HashMap<>();
+
+	/**
+	 * Loads the schema statements that are visible to the given entity
+	 * manager.
+	 *
+	 * @param em
+	 *            the entity manager that is used to query the statements
+	 * @param includeInferred
+	 *            if inferred statements should be included
+	 * @return the new index
+	 */
+	public static SchemaIndex load(IEntityManager em, boolean includeInferred) {
+		List<List<URI>> rows = new ArrayList<>();
+		for (URI predicate : PREDICATES) {
+			rows.add(Arrays.asList(predicate, null));
+		}
+		for (URI type : TYPES) {
+			rows.add(Arrays.asList(RDF.PROPERTY_TYPE, type));
+		}
+		String query = "SELECT ?s ?p ?o WHERE { " + SparqlHelper.values(Arrays.asList("p", "o"), rows) + " ?s ?p ?o }";
+
+		SchemaIndex index = new SchemaIndex();
+		IExtendedIterator<Object[]> results = em.createQuery(query, includeInferred)
+				.restrictResultType("s", IReference.class).restrictResultType("p", IReference.class)
+				.restrictResultType("o", IValue.class).evaluate(Object[].class);
+		try {
+			while (results.hasNext()) {
+				Object[] result = results.next();
+				index.add(result[0], ((IReference) result[1]).getURI(), result[2]);
+			}
+		} finally {
+			results.close();
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the key that represents the given value within the index.
+	 *
+	 * @param value
+	 *            a reference, an entity or a literal
+	 * @return the URI of named resources, the reference of blank nodes and the
+	 *         value itself for all other values
+	 */
+	public static Object key(Object value) {
+		if (value instanceof IReferenceable) {
+			value = ((IReferenceable) value).getReference();
+		}
+		if (value instanceof IReference && ((IReference) value).getURI() != null) {
+			return ((IReference) value).getURI();
+		}
+		return value;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given statement may change the contents
+	 * of an index. A statement with a wildcard predicate or object is relevant
+	 * if it may match indexed statements.
+	 *
+	 * @param stmt
+	 *            the added or removed statement
+	 * @return <code>true</code> if the statement is relevant, else
+	 *         <code>false</code>
+	 */
+	public static boolean isRelevant(IStatement stmt) {
+		URI predicate = stmt.getPredicate() == null ? null : stmt.getPredicate().getURI();
+		if (predicate == null || PREDICATES.contains(predicate)) {
+			return true;
+		}
+		return RDF.PROPERTY_TYPE.equals(predicate)
+				&& (stmt.getObject() == null || TYPES.contains(key(stmt.getObject())));
+	}
+
+	static Object cardinality(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).intValue();
+		} else if (value instanceof ILiteral) {
+			try {
+				return Integer.valueOf(((ILiteral) value).getLabel().trim());
+			} catch (NumberFormatException e) {
+				// ignore invalid cardinalities
+			}
+		}
+		return null;
+	}
+
+	Object objectKey(URI predicate, Object object) {
+		if (MIN_CARDINALITIES.contains(predicate) || MAX_CARDINALITIES.contains(predicate)) {
+			return cardinality(object);
+		}
+		Object key = key(object);
+		return key instanceof IReference ? key : null;
+	}
+
+	synchronized void add(Object subject, URI predicate, Object object) {
+		Object s = key(subject), o = objectKey(predicate, object);
+		if (s != null && o != null) {
+			forward.computeIfAbsent(predicate, p -> new HashMap<>()).computeIfAbsent(s, k -> new HashSet<>()).add(o);
+			backward.computeIfAbsent(predicate, p -> new HashMap<>()).computeIfAbsent(o, k -> new HashSet<>()).add(s);
+		}
+	}
+
+	synchronized void remove(Object subject, URI predicate, Object object) {
+		Object s = key(subject), o = objectKey(predicate, object);
+		if (s != null && o != null) {
+			remove(forward.get(predicate), s, o);
+			remove(backward.get(predicate), o, s);
+		}
+	}
+
+	static void remove(Map<Object, Set<Object>> map, Object key, Object value) {
+		Set<Object> values = map == null ? null : map.get(key);
+		if (values != null && values.remove(value) && values.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * Applies a statement that has been added or removed. The statement must
+	 * not contain wildcards.
+	 */
+	void apply(IStatement stmt, boolean add) {
+		if (add) {
+			add(stmt.getSubject(), stmt.getPredicate().getURI(), stmt.getObject());
+		} else {
+			remove(stmt.getSubject(), stmt.getPredicate().getURI(), stmt.getObject());
+		}
+	}
+
+	Set<Object> objects(Object subject, URI predicate) {
+		Map<Object, Set<Object>> map = forward.get(predicate);
+		Set<Object> objects = map == null ? null : map.get(subject);
+		return objects == null ? Collections.emptySet() : objects;
+	}
+
+	Set<Object> subjects(URI predicate, Object object) {
+		Map<Object, Set<Object>> map = backward.get(predicate);
+		Set<Object> subjects = map == null ? null : map.get(object);
+		return subjects == null ? Collections.emptySet() : subjects;
+	}
+
+	boolean contains(Object subject, URI predicate, Object object) {
+		return objects(subject, predicate).contains(object);
+	}
+
+	/**
+	 * Returns all resources that are reachable from the given start by
+	 * following the predicate at least once (like the property path
+	 * <code>predicate+</code>).
+	 */
+	Set<Object> reachable(Object start, URI predicate, boolean inverse) {
+		Set<Object> result = new LinkedHashSet<>();
+		Deque<Object> queue = new ArrayDeque<>();
+		queue.add(start);
+		while (!queue.isEmpty()) {
+			Object current = queue.remove();
+			for (Object next : inverse ? subjects(predicate, current) : objects(current, predicate)) {
+				if (result.add(next)) {
+					queue.add(next);
+				}
+			}
+		}
+		return result;
+	}
+
+	static boolean isNamed(Object key) {
+		return key instanceof URI;
+	}
+
+	/**
+	 * Sorts resources in the order of SPARQL's <code>ORDER BY</code>.
+	 *
+	 * @param keys
+	 *            the keys of the resources
+	 * @return the sorted list
+	 */
+	public static List<Object> sort(Collection<Object> keys) {
+		List<Object> result = new ArrayList<>(keys);
+		result.sort(SPARQL_ORDER);
+		return result;
+	}
+
+	static Set<Object> keys(Collection<?> values) {
+		Set<Object> keys = new LinkedHashSet<>();
+		for (Object value : values) {
+			keys.add(key(value));
+		}
+		return keys;
+	}
+
+	/**
+	 * Returns the subjects of the given predicate and object.
+	 *
+	 * @param predicate
+	 *            the predicate
+	 * @param object
+	 *            the object
+	 * @return the subjects
+	 */
+	public synchronized Set<Object> getSubjects(URI predicate, Object object) {
+		return new LinkedHashSet<>(subjects(predicate, key(object)));
+	}
+
+	/**
+	 * Returns the sub-classes of a class.
+	 *
+	 * @param clazz
+	 *            the class
+	 * @param direct
+	 *            if only direct sub-classes should be returned
+	 * @param named
+	 *            if only named sub-classes should be returned
+	 * @return the sorted sub-classes
+	 */
+	public synchronized List<Object> getSubClasses(Object clazz, boolean direct, boolean named) {
+		clazz = key(clazz);
+		Set<Object> result = new LinkedHashSet<>();
+		if (!direct) {
+			Set<Object> candidates = OWL.TYPE_THING.equals(clazz) ? subjects(RDF.PROPERTY_TYPE, OWL.TYPE_CLASS)
+					: reachable(clazz, RDFS.PROPERTY_SUBCLASSOF, true);
+			for (Object subClass : candidates) {
+				if (!subClass.equals(clazz) && (!named || isNamed(subClass))) {
+					result.add(subClass);
+				}
+			}
+			return sort(result);
+		}
+
+		Set<Object> candidates = new LinkedHashSet<>();
+		// support stores that don't draw the inferences
+		// (someClass rdfs:subClassOf rdfs:Resource) and (someClass
+		// rdfs:subClassOf owl:Thing)
+		if (RDFS.TYPE_RESOURCE.equals(clazz) || OWL.TYPE_THING.equals(clazz)) {
+			for (Object subClass : subjects(RDF.PROPERTY_TYPE,
+					RDFS.TYPE_RESOURCE.equals(clazz) ? RDFS.TYPE_CLASS : OWL.TYPE_CLASS)) {
+				boolean hasOtherSuperClass = false;
+				for (Object superClass : objects(subClass, RDFS.PROPERTY_SUBCLASSOF)) {
+					if (isNamed(superClass) && !superClass.equals(subClass) && !OWL.TYPE_THING.equals(superClass)
+							&& !RDFS.TYPE_RESOURCE.equals(superClass)
+							&& (contains(superClass, RDF.PROPERTY_TYPE, RDFS.TYPE_CLASS)
+									|| contains(superClass, RDF.PROPERTY_TYPE, OWL.TYPE_CLASS))) {
+						hasOtherSuperClass = true;
+						break;
+					}
+				}
+				if (!hasOtherSuperClass) {
+					candidates.add(subClass);
+				}
+			}
+		}
+		candidates.addAll(subjects(RDFS.PROPERTY_SUBCLASSOF, clazz));
+		for (Object subClass : candidates) {
+			if (subClass.equals(clazz) || OWL.TYPE_NOTHING.equals(subClass) || named && !isNamed(subClass)) {
+				continue;
+			}
+			if (!hasIntermediate(subClass, clazz, named)) {
+				result.add(subClass);
+			}
+		}
+		return sort(result);
+	}
+
+	/**
+	 * Determines if another class exists between the given sub- and
+	 * super-class.
+	 */
+	boolean hasIntermediate(Object subClass, Object superClass, boolean named) {
+		for (Object other : objects(subClass, RDFS.PROPERTY_SUBCLASSOF)) {
+			if (!other.equals(subClass) && !other.equals(superClass) && (!named || isNamed(other))
+					&& contains(other, RDFS.PROPERTY_SUBCLASSOF, superClass)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the super-classes of a class that are not restrictions.
+	 *
+	 * @param clazz
+	 *            the class
+	 * @param direct
+	 *            if only direct super-classes should be returned
+	 * @param named
+	 *            if only named super-classes should be returned
+	 * @return the sorted super-classes
+	 */
+	public synchronized List<Object> getSuperClasses(Object clazz, boolean direct, boolean named) {
+		clazz = key(clazz);
+		Set<Object> result = new LinkedHashSet<>();
+		for (Object superClass : objects(clazz, RDFS.PROPERTY_SUBCLASSOF)) {
+			if (superClass.equals(clazz) || contains(superClass, RDF.PROPERTY_TYPE, OWL.TYPE_RESTRICTION)) {
+				continue;
+			}
+			if (direct) {
+				if (named && !isNamed(superClass) || hasIntermediate(clazz, superClass, named)) {
+					continue;
+				}
+			} else if (named && !isNamed(clazz)) {
+				// the SPARQL query filters the sub-class instead of the
+				// super-class
+				continue;
+			}
+			result.add(superClass);
+		}
+		return sort(result);
+	}
+
+	/**
+	 * Determines if a class has sub-classes other than itself and
+	 * <code>owl:Nothing</code>.
+	 *
+	 * @param clazz
+	 *            the class
+	 * @param named
+	 *            if only named sub-classes should be considered
+	 * @return <code>true</code> if the class has sub-classes, else
+	 *         <code>false</code>
+	 */
+	public synchronized boolean hasSubClasses(Object clazz, boolean named) {
+		clazz = key(clazz);
+		for (Object subClass : subjects(RDFS.PROPERTY_SUBCLASSOF, clazz)) {
+			if (!subClass.equals(clazz) && !OWL.TYPE_NOTHING.equals(subClass) && (!named || isNamed(subClass))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the most specific classes among the given types of a resource.
+	 *
+	 * @param types
+	 *            the types of the resource
+	 * @param named
+	 *            if only named classes should be returned
+	 * @return the direct classes in the order of the given types
+	 */
+	public synchronized List<Object> getDirectClasses(Collection<?> types, boolean named) {
+		Set<Object> typeKeys = keys(types);
+		List<Object> result = new ArrayList<>();
+		for (Object clazz : typeKeys) {
+			if (named && !isNamed(clazz)) {
+				continue;
+			}
+			boolean isGeneric = OWL.TYPE_THING.equals(clazz) || RDFS.TYPE_RESOURCE.equals(clazz);
+			boolean direct = true;
+			for (Object other : typeKeys) {
+				if (other.equals(clazz) || named && !isNamed(other)) {
+					continue;
+				}
+				if (isGeneric || contains(other, RDFS.PROPERTY_SUBCLASSOF, clazz)
+						&& !contains(clazz, RDFS.PROPERTY_SUBCLASSOF, other)) {
+					direct = false;
+					break;
+				}
+			}
+			if (direct) {
+				result.add(clazz);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the properties that are applicable to resources with the given
+	 * types. These are annotation properties without domain, sub-properties
+	 * of <code>rdf:type</code> and the properties with one of the types as
+	 * domain or that are restricted by one of the types.
+	 *
+	 * @param types
+	 *            the types of the resource
+	 * @return the sorted properties
+	 */
+	public synchronized List<Object> getApplicableProperties(Collection<?> types) {
+		Set<Object> result = new LinkedHashSet<>();
+		for (Object property : subjects(RDF.PROPERTY_TYPE, OWL.TYPE_ANNOTATIONPROPERTY)) {
+			if (objects(property, RDFS.PROPERTY_DOMAIN).isEmpty()) {
+				result.add(property);
+			}
+		}
+		result.addAll(subjects(RDFS.PROPERTY_SUBPROPERTYOF, RDF.PROPERTY_TYPE));
+		for (Object type : keys(types)) {
+			result.addAll(subjects(RDFS.PROPERTY_DOMAIN, type));
+			for (Object restriction : objects(type, RDFS.PROPERTY_SUBCLASSOF)) {
+				result.addAll(objects(restriction, OWL.PROPERTY_ONPROPERTY));
+			}
+		}
+		return sort(result);
+	}
+
+	/**
+	 * Returns the cardinality of a property for resources with the given
+	 * types as declared by restrictions.
+	 *
+	 * @param types
+	 *            the types of the resource
+	 * @param property
+	 *            the property
+	 * @return the minimum and maximum cardinality
+	 */
+	public synchronized Pair<Integer, Integer> getApplicableCardinality(Collection<?> types, Object property) {
+		property = key(property);
+		int min = 0;
+		int max = Integer.MAX_VALUE;
+		for (Object type : keys(types)) {
+			for (Object restriction : objects(type, RDFS.PROPERTY_SUBCLASSOF)) {
+				if (!contains(restriction, OWL.PROPERTY_ONPROPERTY, property)) {
+					continue;
+				}
+				for (URI predicate : MIN_CARDINALITIES) {
+					for (Object value : objects(restriction, predicate)) {
+						min = Math.max(min, (Integer) value);
+					}
+				}
+				for (URI predicate : MAX_CARDINALITIES) {
+					for (Object value : objects(restriction, predicate)) {
+						max = Math.min(max, (Integer) value);
+					}
+				}
+			}
+		}
+		return new Pair<>(min, max);
+	}
+
+	/**
+	 * Returns all sub-properties of <code>komma:child</code> and
+	 * <code>komma:contains</code>.
+	 *
+	 * @return the child properties
+	 */
+	public synchronized Set<Object> getChildProperties() {
+		Set<Object> result = reachable(KOMMA.PROPERTY_CHILD, RDFS.PROPERTY_SUBPROPERTYOF, true);
+		result.addAll(reachable(KOMMA.PROPERTY_CONTAINS, RDFS.PROPERTY_SUBPROPERTYOF, true));
+		return result;
+	}
+
+	/**
+	 * Returns the most specific child properties that are restricted by the
+	 * given types or their super-classes.
+	 *
+	 * @param types
+	 *            the types of the resource
+	 * @return the child properties
+	 */
+	public synchronized Set<Object> getApplicableChildProperties(Collection<?> types) {
+		Set<Object> childProperties = getChildProperties();
+		Set<Object> result = new LinkedHashSet<>();
+		for (Object type : keys(types)) {
+			Set<Object> restricted = new HashSet<>();
+			for (Object restriction : objects(type, RDFS.PROPERTY_SUBCLASSOF)) {
+				restricted.addAll(objects(restriction, OWL.PROPERTY_ONPROPERTY));
+			}
+			for (Object superClass : reachable(type, RDFS.PROPERTY_SUBCLASSOF, false)) {
+				for (Object property : objects(superClass, OWL.PROPERTY_ONPROPERTY)) {
+					if (!childProperties.contains(property)) {
+						continue;
+					}
+					boolean hasRestrictedSubProperty = false;
+					for (Object subProperty : subjects(RDFS.PROPERTY_SUBPROPERTYOF, property)) {
+						if (!subProperty.equals(property) && restricted.contains(subProperty)) {
+							hasRestrictedSubProperty = true;
+							break;
+						}
+					}
+					if (!hasRestrictedSubProperty) {
+						result.add(property);
+					}
+				}
+			}
+		}
+		return result;
+	}
+}
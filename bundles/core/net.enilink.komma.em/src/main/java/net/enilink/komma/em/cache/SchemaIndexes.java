@@ -0,0 +1,159 @@
+package net.enilink.komma.em.cache;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import net.enilink.komma.core.IEntityManager;
+import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.InferencingCapability;
+import net.enilink.komma.core.KommaException;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.dm.change.DataChangeSupport;
+import net.enilink.komma.dm.change.IDataChange;
+import net.enilink.komma.dm.change.IDataChangeListener;
+import net.enilink.komma.dm.change.IStatementChange;
+
+/**
+ * Holds the {@link SchemaIndex schema indexes} of a model set for each set of
+ * readable graphs and keeps them up to date with the changes of the data.
+ * <p>
+ * The index of explicit statements is built on first use and then updated
+ * incrementally. If the store draws inferences then the index including
+ * inferred statements is rebuilt on its next use after a relevant change since
+ * the inferences of the store can not be reproduced here.
+ * <p>
+ * Changes that are not reported to the listeners, for example while loading
+ * a model with disabled change tracking, require a call of
+ * {@link #invalidate()}.
+ */
+public class SchemaIndexes implements IDataChangeListener {
+	/**
+	 * The maximum number of different sets of readable graphs whose indexes
+	 * are retained.
+	 */
+	public static final int MAXIMUM_SIZE = 32;
+
+	/**
+	 * The indexes for one set of readable graphs.
+	 */
+	static class Entry {
+		final Set<URI> readContexts;
+
+		Boolean inferencing;
+		SchemaIndex explicit;
+		SchemaIndex inferred;
+
+		Entry(Set<URI> readContexts) {
+			this.readContexts = readContexts;
+		}
+
+		synchronized SchemaIndex get(IEntityManager em, boolean includeInferred) {
+			if (inferencing == null) {
+				InferencingCapability capability = em.getInferencing();
+				inferencing = capability.doesRDFS() || capability.doesOWL();
+			}
+			if (includeInferred && inferencing) {
+				if (inferred == null) {
+					inferred = SchemaIndex.load(em, true);
+				}
+				return inferred;
+			}
+			if (explicit == null) {
+				explicit = SchemaIndex.load(em, false);
+			}
+			return explicit;
+		}
+
+		synchronized void apply(IStatement stmt, boolean add) {
+			// inferred statements may be derived from any graph
+			inferred = null;
+
+			URI graph = stmt.getContext() == null ? null : stmt.getContext().getURI();
+			if (explicit == null || !readContexts.isEmpty() && !readContexts.contains(graph)) {
+				return;
+			}
+			if (readContexts.isEmpty() || stmt.getSubject() == null || stmt.getPredicate() == null
+					|| stmt.getObject() == null) {
+				// the affected statements are unknown
+				explicit = null;
+			} else {
+				explicit.apply(stmt, add);
+			}
+		}
+
+		synchronized void invalidate() {
+			explicit = null;
+			inferred = null;
+		}
+	}
+
+	final Cache<Set<URI>, Entry> entries = CacheBuilder.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+
+	/**
+	 * Creates the indexes and registers them as internal listener to ensure
+	 * that they are updated before other listeners are notified.
+	 *
+	 * @param changeSupport
+	 *            the change support of the model set
+	 */
+	public SchemaIndexes(DataChangeSupport changeSupport) {
+		changeSupport.addInternalChangeListener(this);
+	}
+
+	/**
+	 * Returns the schema index for the readable graphs of the given entity
+	 * manager.
+	 * <p>
+	 * No index is returned while a transaction is active since the changes of
+	 * the transaction are not yet reflected by the index.
+	 *
+	 * @param em
+	 *            the entity manager that is used to build the index
+	 * @param readContexts
+	 *            the readable graphs of the entity manager
+	 * @param includeInferred
+	 *            if inferred statements should be included
+	 * @return the index or <code>null</code> if the schema needs to be queried
+	 *         directly
+	 */
+	public SchemaIndex get(IEntityManager em, Set<URI> readContexts, boolean includeInferred) {
+		if (em.getTransaction().isActive()) {
+			return null;
+		}
+		// the readable graphs may change if imports are modified
+		Set<URI> key = ImmutableSet.copyOf(readContexts);
+		try {
+			return entries.get(key, () -> new Entry(key)).get(em, includeInferred);
+		} catch (ExecutionException e) {
+			throw new KommaException(e.getCause());
+		}
+	}
+
+	/**
+	 * Discards all indexes. They are rebuilt on their next use.
+	 */
+	public void invalidate() {
+		for (Entry entry : entries.asMap().values()) {
+			entry.invalidate();
+		}
+	}
+
+	@Override
+	public void dataChanged(List<IDataChange> changes) {
+		for (IDataChange change : changes) {
+			if (change instanceof IStatementChange) {
+				IStatement stmt = ((IStatementChange) change).getStatement();
+				if (SchemaIndex.isRelevant(stmt)) {
+					for (Entry entry : entries.asMap().values()) {
+						entry.apply(stmt, ((IStatementChange) change).isAdd());
+					}
+				}
+			}
+		}
+	}
+}
@@ -10,7 +10,56 @@
  *******************************************************************************/
 package net.enilink.komma.em.concepts;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import net.enilink.commons.iterator.IExtendedIterator;
+import net.enilink.commons.iterator.WrappedIterator;
+import net.enilink.komma.core.IEntityManager;
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.em.cache.SchemaIndex;
+import net.enilink.komma.em.cache.SchemaIndexes;
 import net.enilink.komma.em.util.ISparqlConstants;
 
 public abstract class BehaviorBase implements ISparqlConstants {
+	@Inject(optional = true)
+	private SchemaIndexes schemaIndexes;
+
+	@Inject(optional = true)
+	@Named("readContexts")
+	private Set<URI> readContexts;
+
+	/**
+	 * Returns the index of schema statements that can be used instead of
+	 * SPARQL queries.
+	 * 
+	 * @param em
+	 *            the entity manager of this entity
+	 * @param includeInferred
+	 *            if inferred statements should be included
+	 * @return the index or <code>null</code> if it is not available
+	 */
+	protected SchemaIndex getSchemaIndex(IEntityManager em, boolean includeInferred) {
+		if (schemaIndexes == null || readContexts == null) {
+			return null;
+		}
+		return schemaIndexes.get(em, readContexts, includeInferred);
+	}
+
+	/**
+	 * Converts the resources returned by a schema index into entities.
+	 */
+	protected <T> IExtendedIterator<T> toEntities(IEntityManager em, Collection<Object> keys, Class<T> concept) {
+		List<IReference> references = new ArrayList<>(keys.size());
+		for (Object key : keys) {
+			references.add((IReference) key);
+		}
+		return WrappedIterator.create(em.findAll(references, concept).iterator());
+	}
 }
\ No newline at end of file
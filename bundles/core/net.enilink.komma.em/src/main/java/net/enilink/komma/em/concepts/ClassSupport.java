@@ -17,6 +17,7 @@ import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.IResultDescriptor;
 import net.enilink.komma.core.KommaException;
 import net.enilink.komma.core.URI;
+import net.enilink.komma.em.cache.SchemaIndex;
 import net.enilink.komma.em.results.ResultDescriptor;
 import net.enilink.vocab.komma.KOMMA;
 import net.enilink.vocab.owl.OWL;
@@ -159,6 +160,11 @@ public abstract class ClassSupport extends BehaviorBase implements IClass,
 
 	protected IExtendedIterator<IClass> getSubClasses(boolean direct,
 			boolean includeInferred, boolean named) {
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), includeInferred);
+		if (schema != null) {
+			return toEntities(getEntityManager(), schema.getSubClasses(
+					getBehaviourDelegate(), direct, named), IClass.class);
+		}
 		String queryString;
 		if (direct) {
 			queryString = SELECT_DIRECT_SUBCLASSES(named);
@@ -183,6 +189,10 @@ public abstract class ClassSupport extends BehaviorBase implements IClass,
 
 	@Override
 	public Boolean hasNamedSubClasses() {
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), true);
+		if (schema != null) {
+			return schema.hasSubClasses(getBehaviourDelegate(), true);
+		}
 		return getEntityManager()
 				.createQuery(HAS_NAMED_SUBCLASSES_DESC().toQueryString())
 				.setParameter("superClass", this).getBooleanResult();
@@ -213,6 +223,11 @@ public abstract class ClassSupport extends BehaviorBase implements IClass,
 		log.info("Get super classes for {}", getBehaviourDelegate());
 		// [PERFORMANCE] direct named super-classes are retrieved without
 		// inference
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), false);
+		if (schema != null) {
+			return toEntities(getEntityManager(), schema.getSuperClasses(
+					getBehaviourDelegate(), true, true), IClass.class);
+		}
 		return getEntityManager()
 				.createQuery(DIRECT_NAMED_SUPERCLASSES_DESC().toQueryString(),
 						false).setParameter("subClass", getBehaviourDelegate())
@@ -235,6 +250,11 @@ public abstract class ClassSupport extends BehaviorBase implements IClass,
 		if (direct && named) {
 			return getBehaviourDelegate().getDirectNamedSuperClasses();
 		}
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), includeInferred);
+		if (schema != null) {
+			return toEntities(getEntityManager(), schema.getSuperClasses(
+					getBehaviourDelegate(), direct, named), IClass.class);
+		}
 		IQuery<?> query = getEntityManager().createQuery(
 				direct ? SELECT_DIRECT_SUPERCLASSES(named)
 						: SELECT_SUPERCLASSES(named), includeInferred);
@@ -258,6 +278,10 @@ public abstract class ClassSupport extends BehaviorBase implements IClass,
 			// use cacheable method
 			return getBehaviourDelegate().hasNamedSubClasses();
 		}
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), includeInferred);
+		if (schema != null) {
+			return schema.hasSubClasses(getBehaviourDelegate(), named);
+		}
 		try {
 			IQuery<?> query = getEntityManager().createQuery(
 					HAS_SUBCLASSES(named), includeInferred);
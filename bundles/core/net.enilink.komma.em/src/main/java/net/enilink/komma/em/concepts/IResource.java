@@ -10,8 +10,10 @@
  *******************************************************************************/
 package net.enilink.komma.em.concepts;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import net.enilink.commons.iterator.IExtendedIterator;
 import net.enilink.commons.util.Pair;
@@ -347,6 +349,23 @@ public interface IResource extends Resource {
 	 */
 	void refresh(IReference property);
 
+	/**
+	 * Returns an initializer for the cached state of the given RDF property.
+	 * It accepts all values of the property as beans or literal values that
+	 * are retrieved after this call, for example together with the values of
+	 * other resources.
+	 * 
+	 * <p>
+	 * The values are ignored if the property was changed or refreshed in the
+	 * meantime.
+	 * 
+	 * @param property
+	 *            an RDF property
+	 * @return the initializer or <code>null</code> if the property values are
+	 *         already cached
+	 */
+	Consumer<Collection<?>> createPropertyInitializer(IReference property);
+
 	/**
 	 * Sets the value of a single- or multi-valued property.
 	 * 
@@ -10,11 +10,16 @@
  *******************************************************************************/
 package net.enilink.komma.em.concepts;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import net.enilink.composition.properties.PropertySet;
 import net.enilink.composition.properties.PropertySetFactory;
@@ -30,9 +35,11 @@ import net.enilink.commons.iterator.IExtendedIterator;
 import net.enilink.commons.iterator.UniqueExtendedIterator;
 import net.enilink.commons.util.Pair;
 import net.enilink.vocab.owl.FunctionalProperty;
+import net.enilink.komma.em.cache.SchemaIndex;
 import net.enilink.komma.em.internal.behaviours.OrderedPropertySet;
 import net.enilink.komma.em.results.ResultDescriptor;
 import net.enilink.komma.em.util.KommaUtil;
+import net.enilink.komma.em.util.SparqlHelper;
 import net.enilink.komma.core.IBindings;
 import net.enilink.komma.core.IEntity;
 import net.enilink.komma.core.IQuery;
@@ -41,6 +48,8 @@ import net.enilink.komma.core.IResultDescriptor;
 import net.enilink.komma.core.IStatement;
 import net.enilink.komma.core.IValue;
 import net.enilink.komma.core.Statement;
+import net.enilink.komma.core.URI;
+import net.enilink.vocab.rdfs.RDFS;
 
 public abstract class ResourceSupport extends BehaviorBase implements
 		IResource, Behaviour<IResource> {
@@ -262,25 +271,39 @@ public abstract class ResourceSupport extends BehaviorBase implements
 		return ensurePropertyInfo(property).getPropertySet().getAll();
 	}
 
+	/**
+	 * Returns the types of this resource including inferred types.
+	 */
+	private List<IClass> getTypes() {
+		return getBehaviourDelegate().getClasses(true).toList();
+	}
+
 	@Override
 	public Pair<Integer, Integer> getApplicableCardinality(IReference property) {
-		IQuery<?> query = getEntityManager().createQuery(
-				SELECT_APPLICABLE_CARDINALITY);
-		query.setParameter("resource", getBehaviourDelegate());
-		query.setParameter("property", property);
-
 		int min = 0;
 		int max = Integer.MAX_VALUE;
-		for (//
-		@SuppressWarnings("rawtypes")
-		Iterator<IBindings> it = query.evaluate(IBindings.class); it.hasNext();) {
-			IBindings<?> values = it.next();
-
-			if (values.get("min") instanceof Number) {
-				min = Math.max(min, ((Number) values.get("min")).intValue());
-			}
-			if (values.get("max") instanceof Number) {
-				max = Math.min(max, ((Number) values.get("max")).intValue());
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), true);
+		if (schema != null) {
+			Pair<Integer, Integer> cardinality = schema.getApplicableCardinality(getTypes(), property);
+			min = cardinality.getFirst();
+			max = cardinality.getSecond();
+		} else {
+			IQuery<?> query = getEntityManager().createQuery(
+					SELECT_APPLICABLE_CARDINALITY);
+			query.setParameter("resource", getBehaviourDelegate());
+			query.setParameter("property", property);
+
+			for (//
+			@SuppressWarnings("rawtypes")
+			Iterator<IBindings> it = query.evaluate(IBindings.class); it.hasNext();) {
+				IBindings<?> values = it.next();
+
+				if (values.get("min") instanceof Number) {
+					min = Math.max(min, ((Number) values.get("min")).intValue());
+				}
+				if (values.get("max") instanceof Number) {
+					max = Math.min(max, ((Number) values.get("max")).intValue());
+				}
 			}
 		}
 
@@ -297,6 +320,14 @@ public abstract class ResourceSupport extends BehaviorBase implements
 
 	@Override
 	public IExtendedIterator<IProperty> getApplicableChildProperties() {
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), true);
+		if (schema != null) {
+			Set<Object> properties = new HashSet<>(
+					schema.getApplicableChildProperties(getTypes()));
+			properties.addAll(getUsedChildProperties(schema));
+			return toEntities(getEntityManager(), SchemaIndex.sort(properties),
+					IProperty.class);
+		}
 		IQuery<?> query = getEntityManager().createQuery(
 				SELECT_APPLICABLE_CHILD_PROPERTIES);
 		query.setParameter("resource", this);
@@ -304,6 +335,60 @@ public abstract class ResourceSupport extends BehaviorBase implements
 		return query.evaluate(IProperty.class);
 	}
 
+	/**
+	 * Returns the most specific child properties that are used by this
+	 * resource.
+	 */
+	private Set<Object> getUsedChildProperties(SchemaIndex schema) {
+		List<URI> childProperties = new ArrayList<>();
+		for (Object property : schema.getChildProperties()) {
+			if (property instanceof URI
+					&& SparqlHelper.isIri((URI) property)) {
+				childProperties.add((URI) property);
+			}
+		}
+		if (childProperties.isEmpty()) {
+			return Collections.emptySet();
+		}
+		Map<Object, Set<Object>> objectsByProperty = new HashMap<>();
+		IExtendedIterator<Object[]> results = getEntityManager()
+				.createQuery(
+						"SELECT DISTINCT ?property ?object WHERE { "
+								+ SparqlHelper.values("property",
+										childProperties)
+								+ " ?resource ?property ?object }")
+				.setParameter("resource", getBehaviourDelegate())
+				.restrictResultType("property", IReference.class)
+				.restrictResultType("object", IValue.class)
+				.evaluate(Object[].class);
+		try {
+			while (results.hasNext()) {
+				Object[] result = results.next();
+				objectsByProperty.computeIfAbsent(SchemaIndex.key(result[0]),
+						key -> new HashSet<>()).add(SchemaIndex.key(result[1]));
+			}
+		} finally {
+			results.close();
+		}
+		Set<Object> properties = new HashSet<>();
+		for (Map.Entry<Object, Set<Object>> entry : objectsByProperty.entrySet()) {
+			boolean hasUsedSubProperty = false;
+			for (Object subProperty : schema.getSubjects(
+					RDFS.PROPERTY_SUBPROPERTYOF, entry.getKey())) {
+				Set<Object> objects = objectsByProperty.get(subProperty);
+				if (!subProperty.equals(entry.getKey()) && objects != null
+						&& !Collections.disjoint(objects, entry.getValue())) {
+					hasUsedSubProperty = true;
+					break;
+				}
+			}
+			if (!hasUsedSubProperty) {
+				properties.add(entry.getKey());
+			}
+		}
+		return properties;
+	}
+
 	@Override
 	public int getCardinality(IReference property) {
 		IQuery<?> query = getEntityManager().createQuery(
@@ -342,6 +427,11 @@ public abstract class ResourceSupport extends BehaviorBase implements
 
 	@Override
 	public IExtendedIterator<IClass> getDirectClasses() {
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), true);
+		if (schema != null) {
+			return toEntities(getEntityManager(),
+					schema.getDirectClasses(getTypes(), false), IClass.class);
+		}
 		return getEntityManager()
 				.createQuery(DIRECT_CLASSES_DESC().toQueryString())
 				.setParameter("resource", getBehaviourDelegate())
@@ -350,6 +440,11 @@ public abstract class ResourceSupport extends BehaviorBase implements
 
 	@Override
 	public IExtendedIterator<IClass> getDirectNamedClasses() {
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), true);
+		if (schema != null) {
+			return toEntities(getEntityManager(),
+					schema.getDirectClasses(getTypes(), true), IClass.class);
+		}
 		return getEntityManager()
 				.createQuery(DIRECT_NAMED_CLASSES_DESC().toQueryString())
 				.setParameter("resource", getBehaviourDelegate())
@@ -417,6 +512,11 @@ public abstract class ResourceSupport extends BehaviorBase implements
 
 	@Override
 	public IExtendedIterator<IProperty> getRelevantProperties() {
+		SchemaIndex schema = getSchemaIndex(getEntityManager(), true);
+		if (schema != null) {
+			return toEntities(getEntityManager(),
+					schema.getApplicableProperties(getTypes()), IProperty.class);
+		}
 		IQuery<?> query = getEntityManager().createQuery(
 				SELECT_APPLICABLE_PROPERTIES);
 		query.setParameter("resource", this);
@@ -525,6 +625,17 @@ public abstract class ResourceSupport extends BehaviorBase implements
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	public Consumer<Collection<?>> createPropertyInitializer(IReference property) {
+		PropertySet<Object> propertySet = ensurePropertyInfo(property).getPropertySet();
+		int stamp = propertySet.getCacheStamp();
+		if (stamp < 0) {
+			return null;
+		}
+		return values -> propertySet.init((Collection<Object>) values, stamp);
+	}
+
 	@Override
 	public void removeProperty(IReference property) {
 		getEntityManager().remove(new Statement(this, property, null));
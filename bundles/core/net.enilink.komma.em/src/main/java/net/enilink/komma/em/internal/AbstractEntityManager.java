@@ -495,6 +495,30 @@ public abstract class AbstractEntityManager implements IEntityManager, IEntityMa
 		return createBean(reference, null, concepts, false, true, null);
 	}
 
+	@Override
+	public <T> List<T> findAll(Collection<? extends IReference> references, Class<T> concept) {
+		List<T> result = new ArrayList<>(references.size());
+		prefetchTypes(references);
+		try {
+			for (IReference reference : references) {
+				result.add(find(reference, concept));
+			}
+		} finally {
+			clearPrefetchedTypes();
+		}
+		return result;
+	}
+
+	@Override
+	public void prefetchTypes(Collection<? extends IReference> resources) {
+		getTypeManager().prefetchTypes(resources);
+	}
+
+	@Override
+	public void clearPrefetchedTypes() {
+		getTypeManager().clearPrefetchedTypes();
+	}
+
 	public <T> IExtendedIterator<T> findAll(final Class<T> concept) {
 		StringBuilder querySb = new StringBuilder();
 		querySb.append("SELECT DISTINCT ?subj WHERE {");
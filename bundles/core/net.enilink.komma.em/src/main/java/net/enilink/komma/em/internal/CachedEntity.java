@@ -1,15 +1,20 @@
 package net.enilink.komma.em.internal;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import com.google.common.collect.ImmutableSet;
 
 /**
  * A wrapper for caching a specific RDF resource (entity) with its properties in
  * different contexts (named graphs or models).
+ * <p>
+ * All methods are thread-safe. Reads do not acquire any locks.
  */
 public class CachedEntity {
 	/**
@@ -17,19 +22,27 @@ public class CachedEntity {
 	 */
 	public static final Callable<CachedEntity> FACTORY = () -> new CachedEntity();
 
-	final Map<Object, Object> contextToSelf = new HashMap<>();
-	Map<Object, Map<Object, Object>> contextToProperties;
+	/**
+	 * Estimated sizes in bytes of the data structures that are used for
+	 * computing the weight of an entity.
+	 */
+	static final int ENTITY_SIZE = 96, MAP_SIZE = 64, ENTRY_SIZE = 48, REFERENCE_SIZE = 8, COLLECTION_SIZE = 24;
+
+	/**
+	 * Minimal number of updates before the weight of an entity is considered
+	 * outdated.
+	 */
+	static final int MIN_UPDATES_BEFORE_REWEIGH = 8;
+
+	final Map<Object, Object> contextToSelf = new ConcurrentHashMap<>(2);
+	final Map<Object, Map<Object, Object>> contextToProperties = new ConcurrentHashMap<>(2);
+
+	final AtomicInteger updates = new AtomicInteger();
+	volatile int weighedAtUpdates;
+	volatile int weighedEntries;
 
 	Map<Object, Object> ensureProperties(Object context) {
-		if (contextToProperties == null) {
-			contextToProperties = new HashMap<>();
-		}
-		Map<Object, Object> properties = contextToProperties.get(context);
-		if (properties == null) {
-			properties = new HashMap<>();
-			contextToProperties.put(context, properties);
-		}
-		return properties;
+		return contextToProperties.computeIfAbsent(context, c -> new ConcurrentHashMap<>());
 	}
 
 	/**
@@ -42,11 +55,16 @@ public class CachedEntity {
 	 * @param property
 	 *            property with which the specified value is to be associated.
 	 * @param value
-	 *            value to be associated with the specified property.
+	 *            value to be associated with the specified property or
+	 *            <code>null</code> to remove the mapping.
 	 * @return previous value associated with specified property, or
 	 *         <code>null</code> if there was no mapping for property.
 	 */
-	public synchronized Object put(Object context, Object property, Object value) {
+	public Object put(Object context, Object property, Object value) {
+		if (value == null) {
+			return remove(context, property);
+		}
+		updates.incrementAndGet();
 		return ensureProperties(context).put(property, value);
 	}
 
@@ -61,8 +79,8 @@ public class CachedEntity {
 	 *            property whose mapping is to be removed from the entity
 	 * @return previous value associated with specified entity's property
 	 */
-	public synchronized Object remove(Object context, Object property) {
-		Map<Object, Object> properties = contextToProperties == null ? null : contextToProperties.get(context);
+	public Object remove(Object context, Object property) {
+		Map<Object, Object> properties = contextToProperties.get(context);
 		if (properties == null) {
 			return null;
 		}
@@ -76,8 +94,8 @@ public class CachedEntity {
 	 *            context for the entity to remove
 	 * @return true if the data was removed, false if the data was not found
 	 */
-	public synchronized boolean clearProperties(Object context) {
-		return contextToProperties != null && contextToProperties.remove(context) != null;
+	public boolean clearProperties(Object context) {
+		return contextToProperties.remove(context) != null;
 	}
 
 	/**
@@ -85,12 +103,44 @@ public class CachedEntity {
 	 *
 	 * @return true if the data was removed, false if the data was not found
 	 */
-	public synchronized boolean clearProperties() {
-		if (contextToProperties != null) {
-			contextToProperties.clear();
-			return true;
+	public boolean clearProperties() {
+		boolean removed = !contextToProperties.isEmpty();
+		contextToProperties.clear();
+		return removed;
+	}
+
+	/**
+	 * Removes the property data of the entity that matches the given filters.
+	 *
+	 * @param contextFilter
+	 *            filter for the contexts whose data should be removed
+	 * @param propertyFilter
+	 *            filter for the properties that should be removed
+	 * @return true if any data was removed, false if no matching data was
+	 *         found
+	 */
+	public boolean clearProperties(Predicate<Object> contextFilter, Predicate<Object> propertyFilter) {
+		boolean removed = false;
+		for (Map.Entry<Object, Map<Object, Object>> entry : contextToProperties.entrySet()) {
+			if (contextFilter.test(entry.getKey())) {
+				removed |= entry.getValue().keySet().removeIf(propertyFilter);
+			}
 		}
-		return false;
+		return removed;
+	}
+
+	/**
+	 * Removes the entity and all its property data for the contexts that match
+	 * the given filter.
+	 *
+	 * @param contextFilter
+	 *            filter for the contexts whose data should be removed
+	 * @return true if no data is left for any context, else false
+	 */
+	public boolean clearContexts(Predicate<Object> contextFilter) {
+		contextToSelf.keySet().removeIf(contextFilter);
+		contextToProperties.keySet().removeIf(contextFilter);
+		return contextToSelf.isEmpty() && contextToProperties.isEmpty();
 	}
 
 	/**
@@ -103,8 +153,8 @@ public class CachedEntity {
 	 * @return returns data for the specified property of the entity denoted by
 	 *         context.
 	 */
-	public synchronized Object get(Object context, Object property) {
-		Map<Object, Object> properties = contextToProperties == null ? null : contextToProperties.get(context);
+	public Object get(Object context, Object property) {
+		Map<Object, Object> properties = contextToProperties.get(context);
 		if (properties == null) {
 			return null;
 		}
@@ -113,46 +163,100 @@ public class CachedEntity {
 
 	/**
 	 * The contexts for which the entity is currently cached.
-	 * 
+	 *
 	 * @return the contexts for which the entity is cached
 	 */
-	public synchronized Set<Object> contexts() {
+	public Set<Object> contexts() {
 		return ImmutableSet.copyOf(contextToSelf.keySet());
 	}
 
 	/**
 	 * Returns the cached entity for the given context.
-	 * 
+	 *
 	 * @param context
 	 *            The context for which the entity should be retrieved.
 	 * @return The entity instance or <code>null</code>.
 	 */
-	public synchronized Object getSelf(Object context) {
+	public Object getSelf(Object context) {
 		return contextToSelf.get(context);
 	}
 
 	/**
 	 * Sets the cached entity for the given context.
-	 * 
+	 *
 	 * @param context
 	 *            The context for which the entity should be cached.
 	 * @param self
-	 *            The entity that should be cached.
+	 *            The entity that should be cached or <code>null</code> to
+	 *            remove the cached entity.
 	 * @return The previous cached entity or <code>null</code>.
 	 */
-	public synchronized Object setSelf(Object context, Object self) {
+	public Object setSelf(Object context, Object self) {
+		updates.incrementAndGet();
+		if (self == null) {
+			return contextToSelf.remove(context);
+		}
 		return contextToSelf.put(context, self);
 	}
 
 	/**
 	 * Clears the cached entity for the given context.
-	 * 
+	 *
 	 * @param context
 	 *            The context for which the entity should be removed.
 	 * @return <code>true</code> if the entity was cached for the given context,
 	 *         else <code>false</code>.
 	 */
-	public synchronized boolean clearSelf(Object context) {
+	public boolean clearSelf(Object context) {
 		return contextToSelf.remove(context) != null;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Estimates the memory that is retained by this entry in bytes. Cached
+	 * entities and the elements of cached collections are only counted as
+	 * references since they are usually shared with other entries.
+	 * <p>
+	 * This method is intended to be used as weigher of a cache.
+	 *
+	 * @return the estimated size of this entry
+	 */
+	public int weigh() {
+		int updatesBefore = updates.get();
+		long size = ENTITY_SIZE + MAP_SIZE + (long) ENTRY_SIZE * contextToSelf.size();
+		int entries = contextToSelf.size();
+		for (Map<Object, Object> properties : contextToProperties.values()) {
+			size += ENTRY_SIZE + MAP_SIZE;
+			for (Object value : properties.values()) {
+				size += ENTRY_SIZE + estimateSize(value);
+			}
+			entries += properties.size();
+		}
+		weighedEntries = entries;
+		weighedAtUpdates = updatesBefore;
+		return (int) Math.min(size, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Determines if this entity was updated that often since its last
+	 * {@link #weigh() weighing} that the weight known to the cache should be
+	 * refreshed.
+	 * <p>
+	 * The number of required updates grows with the size of the entity to
+	 * amortize the cost of weighing.
+	 *
+	 * @return <code>true</code> if the entity should be weighed again, else
+	 *         <code>false</code>
+	 */
+	public boolean isWeightOutdated() {
+		return updates.get() - weighedAtUpdates >= Math.max(MIN_UPDATES_BEFORE_REWEIGH, weighedEntries);
+	}
+
+	static long estimateSize(Object value) {
+		if (value instanceof Collection<?>) {
+			return COLLECTION_SIZE + (long) REFERENCE_SIZE * ((Collection<?>) value).size();
+		} else if (value instanceof CharSequence) {
+			return COLLECTION_SIZE + ((CharSequence) value).length();
+		}
+		return REFERENCE_SIZE;
+	}
+}
@@ -10,12 +10,16 @@
  *******************************************************************************/
 package net.enilink.komma.em.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import com.google.common.cache.Cache;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 
 import net.enilink.composition.cache.IPropertyCache;
 import net.enilink.komma.core.IEntity;
@@ -40,6 +44,13 @@ public class CachingEntityManager extends DecoratingEntityManager {
 		super(decorators);
 	}
 
+	@Inject(optional = true)
+	void registerContextKey(ContextDependencies contextDependencies,
+			@Named("readContexts") Set<URI> readContexts) {
+		// allows the targeted invalidation of cache entries for this context
+		contextDependencies.register(contextKey, readContexts);
+	}
+
 	public Object createBean(IReference resource, Collection<URI> types, Collection<Class<?>> concepts,
 			boolean restrictTypes, boolean initialize, IGraph graph) {
 		CachedEntity cached = cache.getIfPresent(resource);
@@ -70,6 +81,10 @@ public class CachingEntityManager extends DecoratingEntityManager {
 			try {
 				CachedEntity cachedEntity = cache.get(resource, CachedEntity.FACTORY);
 				cachedEntity.setSelf(contextKey, entity);
+				if (cachedEntity.isWeightOutdated()) {
+					// update the weight of the entity within the cache
+					cache.asMap().replace(resource, cachedEntity, cachedEntity);
+				}
 			} catch (ExecutionException e) {
 				log.error("Exception while caching entity.", e);
 			}
@@ -77,6 +92,20 @@ public class CachingEntityManager extends DecoratingEntityManager {
 		return entity;
 	}
 
+	@Override
+	public void prefetchTypes(Collection<? extends IReference> resources) {
+		// the types of already cached entities are not required
+		List<IReference> uncached = new ArrayList<>(resources.size());
+		for (IReference resource : resources) {
+			CachedEntity cached = cache.getIfPresent(resource);
+			if (cached == null || cached.getSelf(contextKey) == null) {
+				uncached.add(resource);
+			}
+		}
+		// a scope is always opened to match the call of clearPrefetchedTypes()
+		super.prefetchTypes(uncached.size() > 1 ? uncached : Collections.<IReference> emptyList());
+	}
+
 	@Override
 	protected void initializeCache(Object entity, Object property, Object value) {
 		log.trace("init cache for {}/{}: {}", new Object[] { entity, property, value });
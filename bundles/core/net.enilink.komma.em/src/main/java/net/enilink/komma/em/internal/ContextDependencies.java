@@ -0,0 +1,96 @@
+package net.enilink.komma.em.internal;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.MapMaker;
+
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.URI;
+
+/**
+ * Tracks the readable graphs of the context keys that are used for caching
+ * entities within a {@link CachedEntity}.
+ * <p>
+ * This allows to evict only those context entries from the cache that are
+ * affected by a change within a specific graph.
+ */
+public class ContextDependencies {
+	/**
+	 * The sets of readable graphs are held weakly since they are owned by the
+	 * modules of the entity manager factories. Entries whose sets have all been
+	 * collected are removed by {@link #register(Object, Set)} and
+	 * {@link #dependsOn(Object, IReference)}.
+	 */
+	final Map<Object, Map<Set<URI>, Boolean>> contextToGraphs = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers the readable graphs for the given context key. The set is not
+	 * copied to reflect later changes of the readable graphs.
+	 *
+	 * @param contextKey
+	 *            the context key of an entity manager
+	 * @param readContexts
+	 *            the graphs that are readable by the entity manager
+	 */
+	public void register(Object contextKey, Set<URI> readContexts) {
+		expungeStaleEntries();
+		// the set is added atomically to avoid a concurrent removal of the map
+		contextToGraphs.compute(contextKey, (key, graphs) -> {
+			if (graphs == null) {
+				graphs = new MapMaker().weakKeys().makeMap();
+			}
+			graphs.put(readContexts, Boolean.TRUE);
+			return graphs;
+		});
+	}
+
+	/**
+	 * Removes the entries of context keys whose sets of readable graphs have
+	 * been garbage collected.
+	 */
+	protected void expungeStaleEntries() {
+		for (Object contextKey : contextToGraphs.keySet()) {
+			removeIfEmpty(contextKey);
+		}
+	}
+
+	private void removeIfEmpty(Object contextKey) {
+		contextToGraphs.computeIfPresent(contextKey, (key, graphs) -> graphs.isEmpty() ? null : graphs);
+	}
+
+	/**
+	 * Determines if entities that are cached for the given context key may
+	 * depend on the contents of the given graph.
+	 *
+	 * @param contextKey
+	 *            the context key of a cached entity
+	 * @param graph
+	 *            the graph whose contents have changed or <code>null</code> for
+	 *            the default graph
+	 * @return <code>true</code> if the entities may depend on the graph, else
+	 *         <code>false</code>
+	 */
+	public boolean dependsOn(Object contextKey, IReference graph) {
+		URI graphUri = graph == null ? null : graph.getURI();
+		if (graphUri == null) {
+			return true;
+		}
+		Map<Set<URI>, Boolean> graphs = contextToGraphs.get(contextKey);
+		if (graphs == null || graphs.isEmpty()) {
+			if (graphs != null) {
+				removeIfEmpty(contextKey);
+			}
+			// dependencies are unknown
+			return true;
+		}
+		for (Set<URI> readContexts : graphs.keySet()) {
+			// an empty set denotes that all graphs are readable
+			if (readContexts.isEmpty() || readContexts.contains(graphUri)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -13,6 +13,20 @@ public class Fqn {
 		this.elements = elements;
 	}
 
+	/**
+	 * Returns the number of elements of this key.
+	 */
+	public int size() {
+		return elements.length;
+	}
+
+	/**
+	 * Returns the element at the given position.
+	 */
+	public Object get(int index) {
+		return elements[index];
+	}
+
 	/**
 	 * Computes hash code and caches it.
 	 */
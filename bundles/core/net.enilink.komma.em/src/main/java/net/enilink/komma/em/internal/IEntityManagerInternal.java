@@ -9,4 +9,22 @@ public interface IEntityManagerInternal extends IEntityManager {
 	Object find(IReference resource, Collection<Class<?>> concepts);
 
 	Object findRestricted(IReference resource, Collection<Class<?>> concepts);
+
+	/**
+	 * Retrieves the types of the given resources with a single request. The
+	 * types are used by subsequent calls to <code>find</code> within the
+	 * current thread until {@link #clearPrefetchedTypes()} is invoked. Calls
+	 * may be nested but each call must be followed by exactly one call of
+	 * {@link #clearPrefetchedTypes()}.
+	 * 
+	 * @param resources
+	 *            the resources whose types should be retrieved
+	 */
+	void prefetchTypes(Collection<? extends IReference> resources);
+
+	/**
+	 * Discards the types that were retrieved by the last call of
+	 * {@link #prefetchTypes(Collection)}.
+	 */
+	void clearPrefetchedTypes();
 }
\ No newline at end of file
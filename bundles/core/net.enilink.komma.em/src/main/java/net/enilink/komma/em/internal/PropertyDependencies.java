@@ -0,0 +1,67 @@
+package net.enilink.komma.em.internal;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.google.common.collect.ImmutableSet;
+
+import net.enilink.komma.core.IReference;
+
+/**
+ * Declares the predicates that the cached properties of a
+ * {@link CachedEntity} depend on.
+ * <p>
+ * Cached properties are identified by their cache key. Properties without
+ * declared dependencies are assumed to depend on any predicate.
+ */
+public class PropertyDependencies {
+	final Map<Object, Set<IReference>> keyToPredicates = new ConcurrentHashMap<>();
+
+	/**
+	 * Declares that the cached property with the given key only depends on
+	 * statements with the given predicates.
+	 *
+	 * @param cacheKey
+	 *            the key of a cached property
+	 * @param predicates
+	 *            the predicates that the property depends on
+	 * @return this instance
+	 */
+	public PropertyDependencies register(Object cacheKey, IReference... predicates) {
+		keyToPredicates.merge(cacheKey, ImmutableSet.copyOf(predicates),
+				(a, b) -> ImmutableSet.<IReference> builder().addAll(a).addAll(b).build());
+		return this;
+	}
+
+	/**
+	 * Returns a filter that matches the property entries of a
+	 * {@link CachedEntity} that are affected by a change of a statement with
+	 * the given predicate.
+	 *
+	 * @param predicate
+	 *            the predicate of a changed statement or <code>null</code> if
+	 *            it is unknown
+	 * @return a filter for property entries
+	 */
+	public Predicate<Object> affectedBy(IReference predicate) {
+		if (predicate == null) {
+			return property -> true;
+		}
+		return property -> {
+			Set<IReference> predicates = keyToPredicates.get(cacheKey(property));
+			return predicates == null || predicates.contains(predicate);
+		};
+	}
+
+	/**
+	 * Returns the cache key of a property entry.
+	 */
+	protected Object cacheKey(Object property) {
+		if (property instanceof Fqn && ((Fqn) property).size() > 0) {
+			return ((Fqn) property).get(0);
+		}
+		return property;
+	}
+}
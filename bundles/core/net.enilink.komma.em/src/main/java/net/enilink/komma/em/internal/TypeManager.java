@@ -28,29 +28,51 @@
  */
 package net.enilink.komma.em.internal;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import net.enilink.commons.iterator.IExtendedIterator;
 import net.enilink.vocab.rdf.RDF;
 import net.enilink.vocab.rdfs.RDFS;
 import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.core.IBindings;
 import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.IStatement;
 import net.enilink.komma.core.Statement;
 import net.enilink.komma.core.URI;
+import net.enilink.komma.em.util.SparqlHelper;
 
 /**
  * Reads and manages the rdf:type statements of objects.
  * 
  */
 public class TypeManager {
+	/**
+	 * The maximum number of resources that are queried at once.
+	 */
+	static final int MAX_VALUES = 500;
+
 	IDataManager dm;
 	IReference[] readContexts;
 	IReference[] modifyContexts;
 
+	/**
+	 * The prefetched types of the current thread. Prefetching may be nested,
+	 * for example if beans are created while the results of a query are
+	 * converted, hence each call of {@link #prefetchTypes(Collection)} pushes
+	 * a new scope that is removed by {@link #clearPrefetchedTypes()}.
+	 */
+	final ThreadLocal<Deque<Map<URI, Collection<URI>>>> prefetchedTypes = new ThreadLocal<>();
+
 	public TypeManager(IDataManager dm, IReference[] readContexts,
 			IReference[] modifyContexts) {
 		this.dm = dm;
@@ -59,6 +81,7 @@ public class TypeManager {
 	}
 
 	public void addType(IReference resource, URI type) {
+		discardPrefetchedTypes(resource);
 		if (!RDFS.TYPE_RESOURCE.equals(type)) {
 			dm.add(new Statement(resource, RDF.PROPERTY_TYPE, type),
 					modifyContexts);
@@ -66,6 +89,15 @@ public class TypeManager {
 	}
 
 	public Collection<URI> getTypes(IReference res) {
+		Deque<Map<URI, Collection<URI>>> scopes = prefetchedTypes.get();
+		if (scopes != null && res.getURI() != null) {
+			for (Map<URI, Collection<URI>> scope : scopes) {
+				Collection<URI> types = scope.get(res.getURI());
+				if (types != null) {
+					return types;
+				}
+			}
+		}
 		IExtendedIterator<IStatement> match = dm.match(res, RDF.PROPERTY_TYPE,
 				null, true, readContexts);
 		try {
@@ -93,7 +125,130 @@ public class TypeManager {
 		}
 	}
 
+	/**
+	 * Retrieves the types of multiple resources. The types of named resources
+	 * are retrieved with a single query for up to {@link #MAX_VALUES}
+	 * resources. The types of other resources are retrieved individually.
+	 * 
+	 * @param resources
+	 *            the resources whose types should be retrieved
+	 * @return a map with the types of each resource
+	 */
+	public Map<IReference, Collection<URI>> getTypes(
+			Collection<? extends IReference> resources) {
+		Map<URI, Collection<URI>> typesByUri = queryTypes(uris(resources));
+		Map<IReference, Collection<URI>> result = new LinkedHashMap<IReference, Collection<URI>>();
+		for (IReference resource : resources) {
+			Collection<URI> types = resource.getURI() != null ? typesByUri
+					.get(resource.getURI()) : null;
+			result.put(resource, types != null ? types : getTypes(resource));
+		}
+		return result;
+	}
+
+	protected Map<URI, Collection<URI>> queryTypes(Collection<URI> resources) {
+		Map<URI, Collection<URI>> typesByUri = new HashMap<URI, Collection<URI>>();
+		List<URI> chunk = new ArrayList<URI>();
+		for (URI resource : resources) {
+			typesByUri.put(resource, new ArrayList<URI>(1));
+			chunk.add(resource);
+			if (chunk.size() == MAX_VALUES) {
+				queryTypes(chunk, typesByUri);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			queryTypes(chunk, typesByUri);
+		}
+		return typesByUri;
+	}
+
+	protected void queryTypes(List<URI> resources,
+			Map<URI, Collection<URI>> typesByUri) {
+		String query = "SELECT ?s ?type WHERE { "
+				+ SparqlHelper.values("s", resources) + " ?s <"
+				+ RDF.PROPERTY_TYPE + "> ?type }";
+		IExtendedIterator<?> result = dm.createQuery(query, null, true,
+				readContexts).evaluate();
+		try {
+			while (result.hasNext()) {
+				IBindings<?> bindings = (IBindings<?>) result.next();
+				Object subject = bindings.get("s");
+				Object type = bindings.get("type");
+				if (subject instanceof IReference && type instanceof IReference
+						&& ((IReference) type).getURI() != null) {
+					Collection<URI> types = typesByUri.get(((IReference) subject)
+							.getURI());
+					if (types != null && !types.contains(((IReference) type).getURI())) {
+						types.add(((IReference) type).getURI());
+					}
+				}
+			}
+		} finally {
+			result.close();
+		}
+	}
+
+	/**
+	 * Returns the URIs of the given resources that can be used within a query.
+	 */
+	protected Set<URI> uris(Collection<? extends IReference> resources) {
+		Set<URI> uris = new LinkedHashSet<URI>();
+		for (IReference resource : resources) {
+			if (SparqlHelper.isIri(resource)) {
+				uris.add(resource.getURI());
+			}
+		}
+		return uris;
+	}
+
+	/**
+	 * Retrieves the types of the given resources and keeps them for subsequent
+	 * calls to {@link #getTypes(IReference)} of the current thread until
+	 * {@link #clearPrefetchedTypes()} is called.
+	 * <p>
+	 * Calls may be nested, each call must be followed by exactly one call of
+	 * {@link #clearPrefetchedTypes()}.
+	 * 
+	 * @param resources
+	 *            the resources whose types should be retrieved
+	 */
+	public void prefetchTypes(Collection<? extends IReference> resources) {
+		Set<URI> uris = uris(resources);
+		Deque<Map<URI, Collection<URI>>> scopes = prefetchedTypes.get();
+		if (scopes == null) {
+			scopes = new ArrayDeque<>();
+			prefetchedTypes.set(scopes);
+		}
+		scopes.push(uris.isEmpty() ? new HashMap<URI, Collection<URI>>()
+				: queryTypes(uris));
+	}
+
+	/**
+	 * Discards the types that were retrieved by the last call of
+	 * {@link #prefetchTypes(Collection)} within the current thread.
+	 */
+	public void clearPrefetchedTypes() {
+		Deque<Map<URI, Collection<URI>>> scopes = prefetchedTypes.get();
+		if (scopes != null) {
+			scopes.poll();
+			if (scopes.isEmpty()) {
+				prefetchedTypes.remove();
+			}
+		}
+	}
+
+	protected void discardPrefetchedTypes(IReference resource) {
+		Deque<Map<URI, Collection<URI>>> scopes = prefetchedTypes.get();
+		if (scopes != null && resource.getURI() != null) {
+			for (Map<URI, Collection<URI>> scope : scopes) {
+				scope.remove(resource.getURI());
+			}
+		}
+	}
+
 	public void removeType(IReference resource, URI type) {
+		discardPrefetchedTypes(resource);
 		dm.remove(new Statement(resource, RDF.PROPERTY_TYPE, type), modifyContexts);
 	}
 }
@@ -34,15 +34,17 @@ public class OrderedPropertySet<E> extends KommaPropertySet<E> implements
 	private List<E> internalList = new AbstractList<E>() {
 		@Override
 		public void add(int index, E element) {
-			ensureCache().add(index, element);
+			// the cache is only softly referenced if it is large
+			List<E> cache = ensureCache();
+			cache.add(index, element);
 
 			E succElement = null;
-			if (index < getCache().size() - 1) {
-				succElement = getCache().get(index + 1);
+			if (index < cache.size() - 1) {
+				succElement = cache.get(index + 1);
 			}
 			E predElement = null;
 			if (index > 0) {
-				predElement = getCache().get(index - 1);
+				predElement = cache.get(index - 1);
 			}
 
 			if (succElement != null) {
@@ -75,16 +77,17 @@ public class OrderedPropertySet<E> extends KommaPropertySet<E> implements
 
 		@Override
 		public E remove(int index) {
-			E removed = ensureCache().remove(index);
+			List<E> cache = ensureCache();
+			E removed = cache.remove(index);
 			if (removed != null) {
 				E succElement = null;
-				if (index < getCache().size()) {
-					succElement = getCache().get(index);
+				if (index < cache.size()) {
+					succElement = cache.get(index);
 				}
 
 				E predElement = null;
 				if (index > 0) {
-					predElement = getCache().get(index - 1);
+					predElement = cache.get(index - 1);
 				}
 
 				if (succElement != null) {
@@ -105,9 +108,10 @@ public class OrderedPropertySet<E> extends KommaPropertySet<E> implements
 
 		@Override
 		public E set(int index, E element) {
-			E oldElement = ensureCache().set(index, element);
-			if (index < getCache().size() - 1) {
-				E succElement = getCache().get(index + 1);
+			List<E> cache = ensureCache();
+			E oldElement = cache.set(index, element);
+			if (index < cache.size() - 1) {
+				E succElement = cache.get(index + 1);
 				if (succElement != null) {
 					if (oldElement != null) {
 						getPrecedes(oldElement).remove(succElement);
@@ -117,7 +121,7 @@ public class OrderedPropertySet<E> extends KommaPropertySet<E> implements
 			}
 
 			if (index > 0) {
-				E predElement = getCache().get(index - 1);
+				E predElement = cache.get(index - 1);
 				if (predElement != null) {
 					if (oldElement != null) {
 						getPrecedes(predElement).remove(oldElement);
@@ -190,24 +194,41 @@ public class OrderedPropertySet<E> extends KommaPropertySet<E> implements
 	private final List<E> ensureCache() {
 		List<E> list = getCache();
 		if (list == null) {
-			final List<E> values = super.createElementsIterator().toList();
-
-			list = new LinearExtension<E>(new IPartialOrderProvider<E>() {
-				@Override
-				public Collection<E> getElements() {
-					return values;
-				}
-
-				@Override
-				public Collection<E> getSuccessors(E element) {
-					return getPrecedes(element);
-				}
-			}).createLinearExtension(new ArrayList<E>());
+			list = order(super.createElementsIterator().toList());
 			setCache(list);
 		}
 		return list;
 	}
 
+	private List<E> order(final Collection<? extends E> values) {
+		return new LinearExtension<E>(new IPartialOrderProvider<E>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public Collection<E> getElements() {
+				return (Collection<E>) values;
+			}
+
+			@Override
+			public Collection<E> getSuccessors(E element) {
+				return getPrecedes(element);
+			}
+		}).createLinearExtension(new ArrayList<E>());
+	}
+
+	@Override
+	public void init(Collection<? extends E> values) {
+		if (getCache() == null) {
+			setCache(order(values));
+		}
+	}
+
+	@Override
+	public void init(Collection<? extends E> values, int stamp) {
+		if (stamp >= 0 && stamp == getCacheStamp()) {
+			super.init(order(values), stamp);
+		}
+	}
+
 	@Override
 	public E get(int index) {
 		return internalList.get(index);
@@ -0,0 +1,189 @@
+package net.enilink.komma.em.internal.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import net.enilink.commons.iterator.NiceIterator;
+import net.enilink.commons.iterator.WrappedIterator;
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.em.internal.IEntityManagerInternal;
+
+/**
+ * An iterator that consumes an underlying iterator in batches and converts
+ * the elements of each batch at once.
+ * <p>
+ * Before the elements of a batch are converted the rdf:type statements of all
+ * referenced resources are retrieved with a single query. This avoids a
+ * separate lookup of the types for each resulting bean.
+ * <p>
+ * The size of the batches starts small and grows up to the
+ * {@link #setBatchSize(int) maximum batch size} with the number of consumed
+ * elements to keep the overhead low if only the first results are used. A
+ * maximum batch size of one converts each element when it is requested.
+ *
+ * @param <A>
+ *            the type of the source elements
+ * @param <B>
+ *            the type of the converted elements
+ */
+public abstract class BatchConvertingIterator<A, B> extends NiceIterator<B> {
+	/**
+	 * The size of the first batch.
+	 */
+	static final int INITIAL_BATCH_SIZE = 8;
+
+	/**
+	 * The default maximum size of a batch.
+	 */
+	static final int MAX_BATCH_SIZE = 256;
+
+	protected final IEntityManagerInternal manager;
+
+	private final Iterator<? extends A> base;
+
+	private final int maxResults;
+
+	private int maxBatchSize = MAX_BATCH_SIZE;
+
+	private int batchSize = INITIAL_BATCH_SIZE;
+
+	private List<B> batch = new ArrayList<B>();
+
+	private int batchIndex;
+
+	private int read;
+
+	public BatchConvertingIterator(IEntityManagerInternal manager,
+			Iterator<? extends A> base, int maxResults) {
+		this.manager = manager;
+		this.base = base;
+		this.maxResults = maxResults;
+	}
+
+	/**
+	 * Sets the maximum number of elements that are converted at once. A value
+	 * of one converts each element on its own.
+	 * 
+	 * @param maxBatchSize
+	 *            the maximum number of elements that are converted at once
+	 */
+	public void setBatchSize(int maxBatchSize) {
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+		this.batchSize = Math.min(INITIAL_BATCH_SIZE, this.maxBatchSize);
+	}
+
+	/**
+	 * Converts a single element of the underlying iterator.
+	 */
+	abstract protected B convert(A value);
+
+	/**
+	 * Adds the resources whose types are required to convert the given element
+	 * to the collection <code>resources</code>.
+	 */
+	abstract protected void collectResources(A value,
+			Collection<IReference> resources);
+
+	/**
+	 * Determines if the types of the given value are retrieved when it is
+	 * converted according to the given result information.
+	 */
+	protected static boolean requiresTypes(Object value, ResultInfo resultInfo) {
+		if (!(value instanceof IReference)) {
+			return false;
+		}
+		if (resultInfo == null) {
+			return true;
+		}
+		return !resultInfo.typeRestricted
+				&& (resultInfo.types.isEmpty() || resultInfo.types.get(0) != URI.class);
+	}
+
+	protected void fetchBatch() {
+		batch.clear();
+		batchIndex = 0;
+
+		int limit = batchSize;
+		if (maxResults > 0) {
+			limit = Math.min(limit, maxResults - read);
+		}
+		List<A> values = new ArrayList<A>(limit);
+		while (values.size() < limit && base.hasNext()) {
+			values.add(base.next());
+		}
+		read += values.size();
+		if (maxResults > 0 && read >= maxResults) {
+			// release the underlying result as early as possible
+			close();
+		}
+		batchSize = Math.min(batchSize * 2, maxBatchSize);
+		if (values.isEmpty()) {
+			return;
+		}
+
+		Set<IReference> resources = new LinkedHashSet<IReference>();
+		if (maxBatchSize > 1) {
+			for (A value : values) {
+				collectResources(value, resources);
+			}
+		}
+		boolean prefetch = resources.size() > 1;
+		if (prefetch) {
+			manager.prefetchTypes(resources);
+		}
+		try {
+			for (A value : values) {
+				batch.add(convert(value));
+			}
+		} finally {
+			if (prefetch) {
+				manager.clearPrefetchedTypes();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (batchIndex < batch.size()) {
+			return true;
+		}
+		if (maxResults > 0 && read >= maxResults) {
+			close();
+			return false;
+		}
+		fetchBatch();
+		if (batchIndex < batch.size()) {
+			return true;
+		}
+		close();
+		return false;
+	}
+
+	@Override
+	public B next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		B next = batch.get(batchIndex);
+		// release the converted element
+		batch.set(batchIndex++, null);
+		return next;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException(
+				"Removal of results is not permitted.");
+	}
+
+	@Override
+	public void close() {
+		WrappedIterator.close(base);
+	}
+}
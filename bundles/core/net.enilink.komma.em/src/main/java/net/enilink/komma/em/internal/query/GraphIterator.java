@@ -28,8 +28,10 @@
  */
 package net.enilink.komma.em.internal.query;
 
-import net.enilink.commons.iterator.ConvertingIterator;
+import java.util.Collection;
+
 import net.enilink.komma.core.IGraphResult;
+import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.IStatement;
 import net.enilink.komma.core.IValue;
 import net.enilink.komma.em.internal.IEntityManagerInternal;
@@ -38,25 +40,29 @@ import net.enilink.komma.em.internal.IEntityManagerInternal;
  * Converts the result into an array of Objects.
  * 
  */
-public class GraphIterator extends ConvertingIterator<IStatement, IStatement>
-		implements IGraphResult {
-	private IEntityManagerInternal manager;
-
-	private int maxResults;
-
-	private int position;
-
+public class GraphIterator extends
+		BatchConvertingIterator<IStatement, IStatement> implements IGraphResult {
 	private boolean resolve;
 
 	public GraphIterator(IEntityManagerInternal manager, IGraphResult result,
 			int maxResults, boolean resolve) {
-		super(result);
+		super(manager, result, maxResults);
 
-		this.manager = manager;
-		this.maxResults = maxResults;
 		this.resolve = resolve;
 	}
 
+	@Override
+	protected void collectResources(IStatement stmt,
+			Collection<IReference> resources) {
+		if (resolve) {
+			resources.add(stmt.getSubject());
+			resources.add(stmt.getPredicate());
+			if (stmt.getObject() instanceof IReference) {
+				resources.add((IReference) stmt.getObject());
+			}
+		}
+	}
+
 	@Override
 	protected IStatement convert(IStatement stmt) {
 		if (resolve) {
@@ -67,25 +73,4 @@ public class GraphIterator extends ConvertingIterator<IStatement, IStatement>
 		return stmt;
 	}
 
-	@Override
-	public boolean hasNext() {
-		if (maxResults > 0 && position >= maxResults) {
-			close();
-			return false;
-		}
-		return super.hasNext();
-	}
-
-	@Override
-	public IStatement next() {
-		try {
-			position++;
-			return super.next();
-		} finally {
-			if (maxResults > 0 && position >= maxResults) {
-				close();
-			}
-		}
-	}
-
 }
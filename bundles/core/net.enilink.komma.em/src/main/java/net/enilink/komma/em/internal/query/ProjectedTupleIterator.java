@@ -28,10 +28,10 @@
  */
 package net.enilink.komma.em.internal.query;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
-import net.enilink.commons.iterator.ConvertingIterator;
 import net.enilink.komma.em.internal.IEntityManagerInternal;
 import net.enilink.komma.core.IBindings;
 import net.enilink.komma.core.IReference;
@@ -46,14 +46,8 @@ import net.enilink.komma.core.URI;
  * @author Ken Wenzel
  */
 public class ProjectedTupleIterator extends
-		ConvertingIterator<IBindings<IValue>, Object> implements
+		BatchConvertingIterator<IBindings<IValue>, Object> implements
 		ITupleResult<Object> {
-	private IEntityManagerInternal manager;
-
-	private int maxResults;
-
-	private int position;
-
 	private ITupleResult<IBindings<IValue>> result;
 
 	private ResultInfo resultInfo;
@@ -61,13 +55,21 @@ public class ProjectedTupleIterator extends
 	public ProjectedTupleIterator(IEntityManagerInternal manager,
 			ITupleResult<IBindings<IValue>> result, int maxResults,
 			ResultInfo resultInfo) {
-		super(result);
+		super(manager, result, maxResults);
 		this.result = result;
-		this.manager = manager;
-		this.maxResults = maxResults;
 		this.resultInfo = resultInfo;
 	}
 
+	@Override
+	protected void collectResources(IBindings<IValue> solution,
+			Collection<IReference> resources) {
+		Iterator<IValue> it = solution.iterator();
+		IValue value = it.hasNext() ? it.next() : null;
+		if (requiresTypes(value, resultInfo)) {
+			resources.add((IReference) value);
+		}
+	}
+
 	@Override
 	protected Object convert(IBindings<IValue> solution) {
 		Iterator<IValue> it = solution.iterator();
@@ -142,25 +144,4 @@ public class ProjectedTupleIterator extends
 	// }
 	// }
 
-	@Override
-	public boolean hasNext() {
-		if (maxResults > 0 && position >= maxResults) {
-			close();
-			return false;
-		}
-		return super.hasNext();
-	}
-
-	@Override
-	public Object next() {
-		try {
-			position++;
-			return super.next();
-		} finally {
-			if (maxResults > 0 && position >= maxResults) {
-				close();
-			}
-		}
-	}
-
 }
\ No newline at end of file
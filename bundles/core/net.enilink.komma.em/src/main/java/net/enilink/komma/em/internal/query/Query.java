@@ -3,6 +3,7 @@ package net.enilink.komma.em.internal.query;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,6 +35,8 @@ public class Query<R> extends QueryBase<IQuery<R>> implements IQuery<R> {
 
 	protected IDataManagerQuery<?> query;
 
+	protected int batchSize = BatchConvertingIterator.MAX_BATCH_SIZE;
+
 	@Inject
 	RoleMapper<URI> roleMapper;
 
@@ -135,6 +138,9 @@ public class Query<R> extends QueryBase<IQuery<R>> implements IQuery<R> {
 			iter = new BooleanIterator(((IBooleanResult) result).asBoolean());
 		}
 
+		if (iter instanceof BatchConvertingIterator<?, ?>) {
+			((BatchConvertingIterator<?, ?>) iter).setBatchSize(batchSize);
+		}
 		opened.put(iter, Boolean.TRUE);
 		// skip elements if limit is used
 		if (firstResult > 0) {
@@ -165,6 +171,12 @@ public class Query<R> extends QueryBase<IQuery<R>> implements IQuery<R> {
 
 	@Override
 	public Map<String, Object> getProperties() {
+		if (batchSize != BatchConvertingIterator.MAX_BATCH_SIZE) {
+			Map<String, Object> properties = new HashMap<String, Object>(
+					query.getProperties());
+			properties.put(PROPERTY_BATCH_SIZE, batchSize);
+			return Collections.unmodifiableMap(properties);
+		}
 		return query.getProperties();
 	}
 
@@ -194,7 +206,10 @@ public class Query<R> extends QueryBase<IQuery<R>> implements IQuery<R> {
 
 	@Override
 	public Set<String> getSupportedProperties() {
-		return query.getSupportedProperties();
+		Set<String> properties = new HashSet<String>(
+				query.getSupportedProperties());
+		properties.add(PROPERTY_BATCH_SIZE);
+		return properties;
 	}
 
 	private void doSetParameter(String name, IValue value) {
@@ -202,7 +217,23 @@ public class Query<R> extends QueryBase<IQuery<R>> implements IQuery<R> {
 	}
 
 	public IQuery<R> setProperty(String propertyName, Object value) {
-		query.setProperty(propertyName, value);
+		if (PROPERTY_BATCH_SIZE.equals(propertyName)) {
+			if (value == null) {
+				batchSize = BatchConvertingIterator.MAX_BATCH_SIZE;
+			} else if (value instanceof Number) {
+				batchSize = Math.max(1, ((Number) value).intValue());
+			} else {
+				try {
+					batchSize = Math.max(1,
+							Integer.parseInt(value.toString().trim()));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException(
+							"Invalid batch size: " + value, e);
+				}
+			}
+		} else {
+			query.setProperty(propertyName, value);
+		}
 		return this;
 	}
 
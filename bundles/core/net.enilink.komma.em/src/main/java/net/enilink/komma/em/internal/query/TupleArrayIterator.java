@@ -10,10 +10,10 @@
  *******************************************************************************/
 package net.enilink.komma.em.internal.query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
-import net.enilink.commons.iterator.ConvertingIterator;
 import net.enilink.komma.em.internal.IEntityManagerInternal;
 import net.enilink.komma.core.IBindings;
 import net.enilink.komma.core.IReference;
@@ -26,14 +26,8 @@ import net.enilink.komma.core.URI;
  * 
  */
 public class TupleArrayIterator extends
-		ConvertingIterator<IBindings<IValue>, Object[]> implements
+		BatchConvertingIterator<IBindings<IValue>, Object[]> implements
 		ITupleResult<Object[]> {
-	private IEntityManagerInternal manager;
-
-	private int maxResults;
-
-	private int position;
-
 	private ITupleResult<IBindings<IValue>> result;
 
 	private Map<String, ResultInfo> resultInfos;
@@ -41,13 +35,27 @@ public class TupleArrayIterator extends
 	public TupleArrayIterator(IEntityManagerInternal manager,
 			ITupleResult<IBindings<IValue>> result, int maxResults,
 			Map<String, ResultInfo> resultInfos) {
-		super(result);
+		super(manager, result, maxResults);
 		this.result = result;
-		this.manager = manager;
-		this.maxResults = maxResults;
 		this.resultInfos = resultInfos;
 	}
 
+	@Override
+	protected void collectResources(IBindings<IValue> sol,
+			Collection<IReference> resources) {
+		ResultInfo resultInfoForAll = resultInfos != null ? resultInfos
+				.get(null) : null;
+		for (String bindingName : sol.getKeys()) {
+			IValue value = sol.get(bindingName);
+			ResultInfo resultInfo = resultInfos != null ? resultInfos
+					.get(bindingName) : null;
+			if (requiresTypes(value, resultInfo != null ? resultInfo
+					: resultInfoForAll)) {
+				resources.add((IReference) value);
+			}
+		}
+	}
+
 	@Override
 	protected Object[] convert(IBindings<IValue> sol) {
 		Object[] result = new Object[getBindingNames().size()];
@@ -92,25 +100,4 @@ public class TupleArrayIterator extends
 	public List<String> getBindingNames() {
 		return result.getBindingNames();
 	}
-
-	@Override
-	public boolean hasNext() {
-		if (maxResults > 0 && position >= maxResults) {
-			close();
-			return false;
-		}
-		return super.hasNext();
-	}
-
-	@Override
-	public Object[] next() {
-		try {
-			position++;
-			return super.next();
-		} finally {
-			if (maxResults > 0 && position >= maxResults) {
-				close();
-			}
-		}
-	}
 }
@@ -10,11 +10,11 @@
  *******************************************************************************/
 package net.enilink.komma.em.internal.query;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import net.enilink.commons.iterator.ConvertingIterator;
 import net.enilink.komma.em.internal.IEntityManagerInternal;
 import net.enilink.komma.core.IBindings;
 import net.enilink.komma.core.IReference;
@@ -28,14 +28,8 @@ import net.enilink.komma.core.URI;
  * 
  */
 public class TupleBindingsIterator extends
-		ConvertingIterator<IBindings<IValue>, IBindings<Object>> implements
+		BatchConvertingIterator<IBindings<IValue>, IBindings<Object>> implements
 		ITupleResult<IBindings<Object>> {
-	private IEntityManagerInternal manager;
-
-	private int maxResults;
-
-	private int position;
-
 	private ITupleResult<IBindings<IValue>> result;
 
 	private Map<String, ResultInfo> resultInfos;
@@ -43,13 +37,27 @@ public class TupleBindingsIterator extends
 	public TupleBindingsIterator(IEntityManagerInternal manager,
 			ITupleResult<IBindings<IValue>> result, int maxResults,
 			Map<String, ResultInfo> resultInfos) {
-		super(result);
+		super(manager, result, maxResults);
 		this.result = result;
-		this.manager = manager;
-		this.maxResults = maxResults;
 		this.resultInfos = resultInfos;
 	}
 
+	@Override
+	protected void collectResources(IBindings<IValue> sol,
+			Collection<IReference> resources) {
+		ResultInfo resultInfoForAll = resultInfos != null ? resultInfos
+				.get(null) : null;
+		for (String bindingName : sol.getKeys()) {
+			IValue value = sol.get(bindingName);
+			ResultInfo resultInfo = resultInfos != null ? resultInfos
+					.get(bindingName) : null;
+			if (requiresTypes(value, resultInfo != null ? resultInfo
+					: resultInfoForAll)) {
+				resources.add((IReference) value);
+			}
+		}
+	}
+
 	@Override
 	protected IBindings<Object> convert(IBindings<IValue> sol) {
 		LinkedHashBindings<Object> result = new LinkedHashBindings<Object>();
@@ -94,25 +102,4 @@ public class TupleBindingsIterator extends
 	public List<String> getBindingNames() {
 		return result.getBindingNames();
 	}
-
-	@Override
-	public boolean hasNext() {
-		if (maxResults > 0 && position >= maxResults) {
-			close();
-			return false;
-		}
-		return super.hasNext();
-	}
-
-	@Override
-	public IBindings<Object> next() {
-		try {
-			position++;
-			return super.next();
-		} finally {
-			if (maxResults > 0 && position >= maxResults) {
-				close();
-			}
-		}
-	}
 }
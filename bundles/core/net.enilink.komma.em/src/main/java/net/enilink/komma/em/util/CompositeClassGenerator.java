@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.em.util;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.TypeLiteral;
+import com.google.inject.util.Modules;
+
+import net.enilink.composition.ClassCache;
+import net.enilink.composition.ClassDefiner;
+import net.enilink.composition.ClassResolver;
+import net.enilink.composition.mappers.RoleMapper;
+import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.komma.em.ManagerCompositionModule;
+
+/**
+ * Generates the composite classes for the types of a {@link KommaModule}
+ * ahead of time and stores them in a persistent class cache.
+ * <p>
+ * The cache can be used by setting the system property
+ * {@link ManagerCompositionModule#CLASS_CACHE_PROPERTY} to the same
+ * directory. Composite classes for combinations of types that are not
+ * generated in advance are added to the cache at runtime.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * CompositeClassGenerator &lt;cache directory&gt; [module class ...]
+ * </pre>
+ *
+ * The concepts and behaviours of the core module and of all modules that are
+ * registered on the class path are always included. The given module classes
+ * must have a public no-argument constructor.
+ */
+public class CompositeClassGenerator {
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: " + CompositeClassGenerator.class.getName()
+					+ " <cache directory> [module class ...]");
+			System.exit(1);
+		}
+		KommaModule module = KommaUtil.getCoreModule();
+		for (int i = 1; i < args.length; i++) {
+			module.includeModule((KommaModule) Class.forName(args[i])
+					.getDeclaredConstructor().newInstance());
+		}
+		int count = generate(module, new File(args[0]));
+		System.out.println("Generated " + count + " composite classes.");
+	}
+
+	/**
+	 * Generates the composite classes for each type of the concepts and
+	 * behaviours of the given module.
+	 * <p>
+	 * A dedicated {@link ClassDefiner} is used instead of the definer that is
+	 * shared by all entity managers of the module's class loader. Hence all
+	 * composite classes are generated and written to the cache, regardless
+	 * of the classes that have already been defined within this VM.
+	 *
+	 * @param module
+	 *            the module
+	 * @param cacheDirectory
+	 *            the base directory of the class cache
+	 * @return the number of composite classes
+	 */
+	public static int generate(KommaModule module, final File cacheDirectory) {
+		Injector injector = Guice.createInjector(Modules.override(
+				new ManagerCompositionModule(module)).with(
+				new AbstractModule() {
+					@Provides
+					@Singleton
+					protected ClassDefiner provideClassDefiner(
+							ClassLoader cl, Injector injector) {
+						ClassDefiner definer = new ClassDefiner(cl);
+						definer.setClassCache(ClassCache.forGenerators(
+								cacheDirectory, ManagerCompositionModule
+										.getGeneratorClasses(injector)));
+						return definer;
+					}
+				}));
+
+		RoleMapper<URI> roleMapper = injector
+				.getInstance(new Key<RoleMapper<URI>>() {
+				});
+		Set<URI> types = new LinkedHashSet<>();
+		for (KommaModule.Association association : module.getConcepts()) {
+			addType(association, roleMapper, types);
+		}
+		for (KommaModule.Association association : module.getBehaviours()) {
+			addType(association, roleMapper, types);
+		}
+
+		ClassResolver<URI> resolver = injector
+				.getInstance(Key.get(new TypeLiteral<ClassResolver<URI>>() {
+				}));
+		Set<Class<?>> composites = new LinkedHashSet<>();
+		composites.add(resolver.resolveComposite(Collections.<URI> emptySet()));
+		for (URI type : types) {
+			composites.add(resolver.resolveComposite(Collections
+					.singleton(type)));
+		}
+		return composites.size();
+	}
+
+	private static void addType(KommaModule.Association association,
+			RoleMapper<URI> roleMapper, Set<URI> types) {
+		URI type = association.getRdfType() != null ? URIs
+				.createURI(association.getRdfType()) : roleMapper
+				.findType(association.getJavaClass());
+		if (type != null) {
+			types.add(type);
+		}
+	}
+}
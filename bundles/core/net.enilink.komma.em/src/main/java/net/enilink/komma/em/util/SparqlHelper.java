@@ -1,5 +1,8 @@
 package net.enilink.komma.em.util;
 
+import java.util.List;
+
+import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.URI;
 
 public abstract class SparqlHelper {
@@ -45,4 +48,113 @@ public abstract class SparqlHelper {
 	public static String prefix(String prefix, String ns) {
 		return "PREFIX " + prefix + ": <" + ns + "> ";
 	}
+
+	/**
+	 * Determines if the given reference can be written as IRI reference within
+	 * a SPARQL query. This is not the case for blank nodes and for IRIs that
+	 * contain white space, control characters or one of the characters
+	 * <code>&lt;&gt;"{}|^`\</code>.
+	 * 
+	 * @param reference
+	 *            the reference
+	 * @return <code>true</code> if the reference can be used in a query, else
+	 *         <code>false</code>
+	 */
+	public static boolean isIri(IReference reference) {
+		URI uri = reference.getURI();
+		if (uri == null) {
+			return false;
+		}
+		String str = uri.toString();
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (c <= 0x20 || "<>\"{}|^`\\".indexOf(c) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Appends the given reference as IRI reference to a query.
+	 * 
+	 * @param sb
+	 *            the query
+	 * @param reference
+	 *            the reference
+	 * @return the query
+	 * @throws IllegalArgumentException
+	 *             if the reference can not be written as IRI reference
+	 * @see #isIri(IReference)
+	 */
+	public static StringBuilder appendIri(StringBuilder sb, IReference reference) {
+		if (!isIri(reference)) {
+			throw new IllegalArgumentException("Invalid IRI: " + reference);
+		}
+		return sb.append('<').append(reference.getURI()).append('>');
+	}
+
+	/**
+	 * Creates a VALUES block for a single variable, e.g.
+	 * <code>VALUES ?s { &lt;a&gt; &lt;b&gt; }</code>.
+	 * 
+	 * @param variable
+	 *            the name of the variable without leading question mark
+	 * @param values
+	 *            the values of the variable
+	 * @return the VALUES block
+	 * @throws IllegalArgumentException
+	 *             if a value can not be written as IRI reference
+	 */
+	public static String values(String variable,
+			Iterable<? extends IReference> values) {
+		StringBuilder sb = new StringBuilder("VALUES ?").append(variable)
+				.append(" {");
+		for (IReference value : values) {
+			appendIri(sb.append(' '), value);
+		}
+		return sb.append(" }").toString();
+	}
+
+	/**
+	 * Creates a VALUES block for multiple variables, e.g.
+	 * <code>VALUES (?s ?p) { (&lt;a&gt; &lt;b&gt;) }</code>.
+	 * 
+	 * @param variables
+	 *            the names of the variables without leading question marks
+	 * @param rows
+	 *            the rows of values, each with one value per variable where
+	 *            <code>null</code> is written as <code>UNDEF</code>
+	 * @return the VALUES block
+	 * @throws IllegalArgumentException
+	 *             if a value can not be written as IRI reference or a row has
+	 *             the wrong number of values
+	 */
+	public static String values(List<String> variables,
+			Iterable<? extends List<? extends IReference>> rows) {
+		StringBuilder sb = new StringBuilder("VALUES (");
+		for (int i = 0; i < variables.size(); i++) {
+			sb.append(i > 0 ? " ?" : "?").append(variables.get(i));
+		}
+		sb.append(") {");
+		for (List<? extends IReference> row : rows) {
+			if (row.size() != variables.size()) {
+				throw new IllegalArgumentException("Expected "
+						+ variables.size() + " values but got " + row);
+			}
+			sb.append(" (");
+			for (int i = 0; i < row.size(); i++) {
+				if (i > 0) {
+					sb.append(' ');
+				}
+				if (row.get(i) == null) {
+					sb.append("UNDEF");
+				} else {
+					appendIri(sb, row.get(i));
+				}
+			}
+			sb.append(')');
+		}
+		return sb.append(" }").toString();
+	}
 }
@@ -14,17 +14,99 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.Dataset;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.helpers.SailConnectionWrapper;
+import org.eclipse.rdf4j.sail.helpers.SailWrapper;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
 import org.junit.Test;
 
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+
+import net.enilink.commons.iterator.IExtendedIterator;
+import net.enilink.komma.core.IQuery;
+import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.core.URI;
 import net.enilink.komma.core.URIs;
+import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.dm.IDataManagerFactory;
 import net.enilink.komma.em.concepts.Person;
+import net.enilink.komma.em.internal.TypeManager;
+import net.enilink.komma.rdf4j.RDF4JModule;
 
 public class BasicManagerTest extends EntityManagerTest {
 	private static final String NS = "test:";
 	private Person max;
 	private Person moritz;
 
+	// requests for the rdf:type statements of single resources
+	final AtomicInteger typeMatches = new AtomicInteger();
+	// evaluated queries
+	final AtomicInteger queries = new AtomicInteger();
+
+	@Override
+	protected Module createStorageModule() {
+		// counts the requests that reach the store
+		return new AbstractModule() {
+			@Override
+			protected void configure() {
+				install(new RDF4JModule());
+			}
+
+			@Singleton
+			@Provides
+			Repository provideRepository() {
+				Repository repository = new SailRepository(new SailWrapper(new MemoryStore()) {
+					@Override
+					public SailConnection getConnection() throws SailException {
+						return new SailConnectionWrapper(super.getConnection()) {
+							@Override
+							public CloseableIteration<? extends Statement, SailException> getStatements(Resource subj,
+									IRI pred, Value obj, boolean includeInferred, Resource... contexts)
+									throws SailException {
+								if (subj != null && RDF.TYPE.equals(pred)) {
+									typeMatches.incrementAndGet();
+								}
+								return super.getStatements(subj, pred, obj, includeInferred, contexts);
+							}
+
+							@Override
+							public CloseableIteration<? extends BindingSet, QueryEvaluationException> evaluate(
+									TupleExpr tupleExpr, Dataset dataset, BindingSet bindings, boolean includeInferred)
+									throws SailException {
+								queries.incrementAndGet();
+								return super.evaluate(tupleExpr, dataset, bindings, includeInferred);
+							}
+						};
+					}
+				});
+				repository.init();
+				return repository;
+			}
+		};
+	}
+
 	protected KommaModule createModule() throws Exception {
 		KommaModule module = super.createModule();
 		module.addConcept(Person.class);
@@ -57,4 +139,112 @@ public class BasicManagerTest extends EntityManagerTest {
 		assertFalse(String.format("%s friends contains %s", moritz, max), moritz.getFriends().contains(max));
 		assertEquals(1, max.getFriends().size());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testFindAll() throws Exception {
+		IReference unknown = URIs.createURI(NS + "unknown");
+		List<Object> found = manager.findAll(
+				Arrays.asList(URIs.createURI(NS + "moritz"), unknown, URIs.createURI(NS + "max")), Object.class);
+		assertEquals(3, found.size());
+		assertTrue(found.get(0) instanceof Person);
+		assertEquals("moritz", ((Person) found.get(0)).getName());
+		assertFalse(found.get(1) instanceof Person);
+		assertEquals(unknown, found.get(1));
+		assertTrue(found.get(2) instanceof Person);
+		assertEquals(max, found.get(2));
+	}
+
+	@Test
+	public void testQueryBatches() throws Exception {
+		for (int i = 0; i < 50; i++) {
+			manager.createNamed(URIs.createURI(NS + "person" + i), Person.class);
+		}
+		String query = "SELECT ?p WHERE { ?p a <" + NS + "Person> } ORDER BY ?p";
+		List<?> persons = manager.createQuery(query).evaluate().toList();
+		assertEquals(52, persons.size());
+		for (Object person : persons) {
+			assertTrue(person instanceof Person);
+		}
+		assertEquals(persons, manager.createQuery(query).setProperty(IQuery.PROPERTY_BATCH_SIZE, 1).evaluate()
+				.toList());
+
+		List<Object> limited = new ArrayList<>();
+		for (Object person : manager.createQuery(query).setMaxResults(20).evaluate()) {
+			limited.add(person);
+		}
+		assertEquals(persons.subList(0, 20), limited);
+		assertEquals(persons.subList(10, 30),
+				manager.createQuery(query).setFirstResult(10).setMaxResults(20).evaluate().toList());
+	}
+
+	@Test
+	public void testTypeRequests() throws Exception {
+		List<URI> uris = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			uris.add(URIs.createURI(NS + "person" + i));
+			manager.createNamed(uris.get(i), Person.class);
+		}
+		String query = "SELECT ?p WHERE { ?p a <" + NS + "Person> } ORDER BY ?p";
+
+		// batches of 8, 16 and 32 results with one type query each
+		typeMatches.set(0);
+		queries.set(0);
+		assertEquals(52, manager.createQuery(query).evaluate().toList().size());
+		assertEquals(1 + 3, queries.get());
+		assertEquals(0, typeMatches.get());
+
+		// the first batch is converted at once
+		typeMatches.set(0);
+		queries.set(0);
+		try (IExtendedIterator<?> it = manager.createQuery(query).evaluate()) {
+			assertTrue(it.next() instanceof Person);
+		}
+		assertEquals(1 + 1, queries.get());
+		assertEquals(0, typeMatches.get());
+
+		// a batch size of one converts only the requested results
+		typeMatches.set(0);
+		queries.set(0);
+		try (IExtendedIterator<?> it = manager.createQuery(query).setProperty(IQuery.PROPERTY_BATCH_SIZE, 1)
+				.evaluate()) {
+			assertTrue(it.next() instanceof Person);
+		}
+		assertEquals(1, queries.get());
+		assertEquals(1, typeMatches.get());
+
+		typeMatches.set(0);
+		queries.set(0);
+		assertEquals(50, manager.findAll(uris, Person.class).size());
+		assertEquals(1, queries.get());
+		assertEquals(0, typeMatches.get());
+	}
+
+	@Test
+	public void testNestedTypePrefetch() throws Exception {
+		IDataManager dm = injector.getInstance(IDataManagerFactory.class).get();
+		try {
+			URI maxUri = URIs.createURI(NS + "max"), moritzUri = URIs.createURI(NS + "moritz");
+			TypeManager typeManager = new TypeManager(dm, new IReference[0], new IReference[0]);
+			typeManager.prefetchTypes(Arrays.asList(maxUri, moritzUri));
+			// a nested prefetch does not discard the types of the outer one
+			typeManager.prefetchTypes(Arrays.asList(URIs.createURI(NS + "other"), moritzUri));
+			typeManager.clearPrefetchedTypes();
+
+			typeMatches.set(0);
+			assertFalse(typeManager.getTypes(maxUri).isEmpty());
+			assertEquals(0, typeMatches.get());
+
+			// the types are only visible to the prefetching thread
+			Thread thread = new Thread(() -> typeManager.getTypes(maxUri));
+			thread.start();
+			thread.join();
+			assertEquals(1, typeMatches.get());
+
+			typeManager.clearPrefetchedTypes();
+			typeManager.getTypes(maxUri);
+			assertEquals(2, typeMatches.get());
+		} finally {
+			dm.close();
+		}
+	}
+}
@@ -10,21 +10,44 @@
  *******************************************************************************/
 package net.enilink.komma.em;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
 import org.junit.Test;
 
+import com.google.common.cache.Cache;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
 import net.enilink.komma.core.IEntity;
 import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.core.Literal;
+import net.enilink.komma.core.Statement;
 import net.enilink.komma.core.URI;
 import net.enilink.komma.core.URIs;
+import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.dm.IDataManagerFactory;
 import net.enilink.komma.em.concepts.Person;
+import net.enilink.komma.em.internal.CachedEntity;
+import net.enilink.komma.em.internal.ContextDependencies;
+import net.enilink.komma.em.internal.Fqn;
+import net.enilink.vocab.owl.OWL;
+import net.enilink.vocab.rdfs.RDFS;
 import net.enilink.vocab.rdfs.Resource;
 
 public class CachingEntityManagerTest extends EntityManagerTest {
 	private static final String NS = "test:";
 
+	// the sets of readable graphs are only held weakly by the context dependencies
+	List<Set<URI>> readContexts;
+
 	protected KommaModule createModule() throws Exception {
 		KommaModule module = super.createModule();
 		module.addConcept(Person.class);
@@ -70,4 +93,75 @@ public class CachingEntityManagerTest extends EntityManagerTest {
 		assertTrue(uriMoritz + " must be converted to a person",
 			manager.toInstance(uriMoritz, Person.class, null) instanceof Person);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testTargetedInvalidation() throws Exception {
+		Cache<Object, CachedEntity> cache = injector.getInstance(Key.get(new TypeLiteral<Cache<Object, CachedEntity>>() {
+		}));
+		ContextDependencies contextDependencies = injector.getInstance(ContextDependencies.class);
+
+		URI graphA = URIs.createURI(NS + "graphA");
+		URI graphB = URIs.createURI(NS + "graphB");
+		Fqn ctxA = new Fqn(graphA);
+		Fqn ctxB = new Fqn(graphB);
+		readContexts = Arrays.asList(Collections.singleton(graphA), Collections.singleton(graphB));
+		contextDependencies.register(ctxA, readContexts.get(0));
+		contextDependencies.register(ctxB, readContexts.get(1));
+
+		URI subject = URIs.createURI(NS + "subject");
+		Fqn classesKey = new Fqn("komma:directClasses", Arrays.asList());
+		Fqn otherKey = new Fqn("other", Arrays.asList());
+		CachedEntity cached = cache.get(subject, CachedEntity.FACTORY);
+		for (Fqn ctx : Arrays.asList(ctxA, ctxB)) {
+			cached.setSelf(ctx, "self");
+			cached.put(ctx, classesKey, "classes");
+			cached.put(ctx, otherKey, "other");
+		}
+
+		IDataManager dm = injector.getInstance(IDataManagerFactory.class).get();
+		try {
+			// only properties that may depend on rdfs:label within graph A are removed
+			dm.add(Arrays.asList(new Statement(subject, RDFS.PROPERTY_LABEL, new Literal("label"))), graphA);
+			assertNull(cached.get(ctxA, otherKey));
+			assertEquals("classes", cached.get(ctxA, classesKey));
+			assertEquals("other", cached.get(ctxB, otherKey));
+
+			dm.add(Arrays.asList(new Statement(subject, RDFS.PROPERTY_SUBCLASSOF, RDFS.TYPE_RESOURCE)), graphA);
+			assertNull(cached.get(ctxA, classesKey));
+			assertEquals("classes", cached.get(ctxB, classesKey));
+
+			// changed imports only evict the contexts that read from graph B
+			dm.add(Arrays.asList(new Statement(graphB, OWL.PROPERTY_IMPORTS, graphA)), graphB);
+			assertEquals("self", cached.getSelf(ctxA));
+			assertNull(cached.getSelf(ctxB));
+			assertNull(cached.get(ctxB, classesKey));
+			assertTrue(cache.getIfPresent(subject) == cached);
+
+			// null removes the cached entity like for properties
+			assertEquals("self", cached.setSelf(ctxA, null));
+			assertNull(cached.getSelf(ctxA));
+		} finally {
+			dm.close();
+		}
+	}
+
+	@Test
+	public void testCacheStatistics() throws Exception {
+		Cache<Object, CachedEntity> cache = injector.getInstance(Key.get(new TypeLiteral<Cache<Object, CachedEntity>>() {
+		}));
+		URI uriMax = URIs.createURI(NS + "max");
+		long hits = cache.stats().hitCount();
+		IEntity entity = manager.find(uriMax);
+		assertTrue(entity == manager.find(uriMax));
+		assertTrue(cache.stats().hitCount() > hits);
+
+		CachedEntity cached = cache.getIfPresent(uriMax);
+		int weight = cached.weigh();
+		for (int i = 0; i < 100; i++) {
+			cached.put(new Fqn(), new Fqn("property" + i), Arrays.asList(i, i + 1));
+		}
+		assertTrue(cached.isWeightOutdated());
+		assertTrue(cached.weigh() > weight);
+		assertTrue(!cached.isWeightOutdated());
+	}
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.em;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.em.concepts.Person;
+import net.enilink.komma.em.util.CompositeClassGenerator;
+import net.enilink.komma.em.util.KommaUtil;
+
+public class CompositeClassGeneratorTest {
+	@Test
+	public void testGenerate() throws IOException {
+		KommaModule module = KommaUtil.getCoreModule();
+		module.addConcept(Person.class);
+		File dir = Files.createTempDirectory("classes").toFile();
+		int count = CompositeClassGenerator.generate(module, dir);
+		assertTrue(count > 1);
+		long cached = countCached(dir);
+		assertTrue(cached >= count);
+
+		// classes that were generated before are also written to a new cache
+		File otherDir = Files.createTempDirectory("classes").toFile();
+		assertEquals(count, CompositeClassGenerator.generate(module, otherDir));
+		assertEquals(cached, countCached(otherDir));
+	}
+
+	private long countCached(File dir) throws IOException {
+		// a single cache for the generators with one entry per composite
+		File[] caches = dir.listFiles();
+		assertEquals(1, caches.length);
+		try (Stream<Path> files = Files.walk(caches[0].toPath())) {
+			return files.filter(p -> p.toString().endsWith(".cached")).count();
+		}
+	}
+}
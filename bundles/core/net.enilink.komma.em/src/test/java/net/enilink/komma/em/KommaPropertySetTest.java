@@ -31,8 +31,11 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -104,8 +107,15 @@ public class KommaPropertySetTest extends EntityManagerTest {
 			super(subject, property, valueType, rdfValueType);
 		}
 
+		@Override
+		protected boolean containsWithoutCache(Object o) {
+			storeReads++;
+			return super.containsWithoutCache(o);
+		}
+
 		@Override
 		protected IExtendedIterator<E> createElementsIterator(String filterPattern, int limit) {
+			storeReads++;
 			return new WrappedIterator<>(super.createElementsIterator(filterPattern, limit)) {
 				@Override
 				public boolean hasNext() {
@@ -124,6 +134,8 @@ public class KommaPropertySetTest extends EntityManagerTest {
 
 	volatile static boolean waitInIteration = false;
 
+	volatile static int storeReads = 0;
+
 	@BeforeClass
 	public static void before() {
 		waitInIteration = false;
@@ -316,4 +328,117 @@ public class KommaPropertySetTest extends EntityManagerTest {
 		manager.refresh(a);
 		assertEquals(1337, a.getAnyProperty().toArray()[0]);
 	}
+
+	/**
+	 * Tests the elements, size and contained values of a property set that
+	 * is read directly from the matching statements.
+	 */
+	@Test
+	public void testMatchedElements() {
+		URI uri = URIs.createURI(NS + "one");
+		URI anyProperty = URIs.createURI(NS + "anyProperty");
+		Concept a = manager.createNamed(uri, Concept.class);
+		assertTrue(a.getAnyProperty().isEmpty());
+		assertEquals(0, a.getAnyProperty().size());
+
+		URI other = URIs.createURI(NS + "other");
+		manager.createNamed(other, Concept.class);
+		manager.add(new Statement(uri, anyProperty, "string"));
+		manager.add(new Statement(uri, anyProperty, 1337));
+		manager.add(new Statement(uri, anyProperty, other));
+		manager.refresh(a);
+
+		Set<Object> values = a.getAnyProperty();
+		assertFalse(values.isEmpty());
+		assertEquals(3, values.size());
+		assertTrue(values.contains("string"));
+		assertTrue(values.contains(1337));
+		assertFalse(values.contains("other string"));
+
+		Set<Object> elements = new HashSet<>(Arrays.asList(values.toArray()));
+		assertEquals(3, elements.size());
+		assertTrue(elements.contains("string"));
+		assertTrue(elements.contains(1337));
+		for (Object element : elements) {
+			if (element instanceof IReference) {
+				assertEquals(other, ((IReference) element).getURI());
+				assertTrue(element instanceof Concept);
+			}
+		}
+		assertTrue(values.contains(manager.find(other)));
+	}
+
+	/**
+	 * Tests that values retrieved in advance are only cached if the property
+	 * set has not been refreshed since the stamp was obtained.
+	 */
+	@Test
+	public void testInitWithStamp() {
+		URI uri = URIs.createURI(NS + "one");
+		Concept a = manager.createNamed(uri, Concept.class);
+		a.setName("a");
+		PropertySet<String> names = a.getInjector()
+				.getInstance(PropertySetFactory.class)
+				.createPropertySet(a, NS + "name", String.class);
+		names.refresh();
+
+		int stamp = names.getCacheStamp();
+		assertTrue(stamp >= 0);
+		names.refresh();
+		names.init(Arrays.asList("b"), stamp);
+		int reads = storeReads;
+		assertEquals("a", names.getSingle());
+		assertEquals(reads + 1, storeReads);
+
+		// the values are already cached
+		assertEquals(-1, names.getCacheStamp());
+		names.init(Arrays.asList("b"), -1);
+		assertEquals("a", names.getSingle());
+
+		names.refresh();
+		names.init(Arrays.asList("b"), names.getCacheStamp());
+		reads = storeReads;
+		assertEquals("b", names.getSingle());
+		assertEquals(reads, storeReads);
+	}
+
+	/**
+	 * Tests that sets with many elements are completely cached up to the limit
+	 * of the property set factory.
+	 */
+	@Test
+	public void testCachingLargeSets() {
+		URI uri = URIs.createURI(NS + "one");
+		URI anyProperty = URIs.createURI(NS + "anyProperty");
+		Concept a = manager.createNamed(uri, Concept.class);
+		for (int i = 0; i < 100; i++) {
+			manager.add(new Statement(uri, anyProperty, "value" + i));
+		}
+		manager.refresh(a);
+
+		Set<Object> values = a.getAnyProperty();
+		assertEquals(100, values.toArray().length);
+		int reads = storeReads;
+		assertTrue(values.contains("value50"));
+		assertFalse(values.contains("value100"));
+		assertTrue(values.containsAll(Arrays.asList("value0", "value99")));
+		assertEquals(100, values.size());
+		assertEquals(reads, storeReads);
+
+		KommaPropertySetFactory factory = (KommaPropertySetFactory) a.getInjector()
+				.getInstance(PropertySetFactory.class);
+		int cacheLimit = factory.getCacheLimit();
+		factory.setCacheLimit(50);
+		try {
+			manager.refresh(a);
+			values = a.getAnyProperty();
+			assertEquals(100, values.toArray().length);
+			reads = storeReads;
+			// only the first elements are cached
+			assertFalse(values.contains("value100"));
+			assertEquals(reads + 1, storeReads);
+		} finally {
+			factory.setCacheLimit(cacheLimit);
+		}
+	}
 }
@@ -0,0 +1,157 @@
+package net.enilink.komma.em;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import net.enilink.commons.iterator.IExtendedIterator;
+import net.enilink.commons.util.Pair;
+import net.enilink.komma.core.BlankNode;
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.ITransaction;
+import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.core.Statement;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.komma.em.cache.SchemaIndex;
+import net.enilink.komma.em.cache.SchemaIndexes;
+import net.enilink.komma.em.concepts.IClass;
+import net.enilink.komma.em.concepts.IResource;
+import net.enilink.komma.em.util.KommaUtil;
+import net.enilink.vocab.komma.KOMMA;
+import net.enilink.vocab.owl.OWL;
+import net.enilink.vocab.rdf.RDF;
+import net.enilink.vocab.rdfs.RDFS;
+
+public class SchemaIndexTest extends EntityManagerTest {
+	private static final String NS = "test:";
+	private static final URI GRAPH = URIs.createURI(NS + "graph");
+
+	URI a = uri("A"), b = uri("B"), c = uri("C"), d = uri("D"), e = uri("E");
+	URI name = uri("name"), hasPart = uri("hasPart"), contents = uri("contents");
+
+	static URI uri(String localPart) {
+		return URIs.createURI(NS + localPart);
+	}
+
+	@Override
+	protected KommaModule createModule() throws Exception {
+		KommaModule module = super.createModule();
+		module.includeModule(KommaUtil.getCoreModule());
+		module.addReadableGraph(GRAPH);
+		module.addWritableGraph(GRAPH);
+		return module;
+	}
+
+	@Override
+	protected boolean enableCaching() {
+		return true;
+	}
+
+	void createSchema() {
+		for (URI clazz : Arrays.asList(a, b, c, d)) {
+			manager.add(new Statement(clazz, RDF.PROPERTY_TYPE, OWL.TYPE_CLASS));
+		}
+		manager.add(new Statement(b, RDFS.PROPERTY_SUBCLASSOF, a));
+		manager.add(new Statement(c, RDFS.PROPERTY_SUBCLASSOF, b));
+		manager.add(new Statement(d, RDFS.PROPERTY_SUBCLASSOF, a));
+
+		manager.add(new Statement(name, RDFS.PROPERTY_DOMAIN, c));
+		manager.add(new Statement(hasPart, RDFS.PROPERTY_SUBPROPERTYOF, KOMMA.PROPERTY_CHILD));
+		manager.add(new Statement(contents, RDFS.PROPERTY_SUBPROPERTYOF, KOMMA.PROPERTY_CONTAINS));
+		IReference restriction = new BlankNode();
+		manager.add(new Statement(restriction, RDF.PROPERTY_TYPE, OWL.TYPE_RESTRICTION));
+		manager.add(new Statement(restriction, OWL.PROPERTY_ONPROPERTY, hasPart));
+		manager.add(new Statement(restriction, OWL.PROPERTY_MAXCARDINALITY, 1));
+		manager.add(new Statement(c, RDFS.PROPERTY_SUBCLASSOF, restriction));
+	}
+
+	static List<Object> uris(IExtendedIterator<? extends IReference> it) {
+		List<Object> uris = new ArrayList<>();
+		for (IReference ref : it) {
+			uris.add(ref.getURI() != null ? ref.getURI() : ref);
+		}
+		return uris;
+	}
+
+	/**
+	 * Compares the results of the index with those of the SPARQL queries that
+	 * are used while a transaction is active.
+	 */
+	<T> void assertSameAsQuery(T expected, Supplier<T> actual) {
+		assertEquals(expected, actual.get());
+		ITransaction tx = manager.getTransaction();
+		tx.begin();
+		try {
+			assertEquals(expected, actual.get());
+		} finally {
+			tx.rollback();
+		}
+	}
+
+	@Test
+	public void testClasses() {
+		createSchema();
+		IClass classA = manager.find(a, IClass.class);
+		IClass classB = manager.find(b, IClass.class);
+		IClass classC = manager.find(c, IClass.class);
+
+		assertSameAsQuery(Arrays.asList(b, d), () -> uris(classA.getSubClasses(true, false)));
+		assertSameAsQuery(Arrays.asList(b, c, d), () -> uris(classA.getSubClasses(false, true)));
+		assertSameAsQuery(Arrays.asList(c), () -> uris(classB.getSubClasses(true, true)));
+		assertSameAsQuery(Arrays.asList(b), () -> uris(classC.getSuperClasses(true, true)));
+		assertSameAsQuery(true, () -> classB.hasSubClasses(true));
+		assertSameAsQuery(false, () -> classC.hasSubClasses(false));
+		assertEquals(Arrays.asList(b, d), uris(classA.getDirectNamedSubClasses()));
+	}
+
+	@Test
+	public void testResources() {
+		createSchema();
+		IResource resource = manager.createNamed(uri("resource"), IResource.class);
+		manager.add(new Statement(resource, RDF.PROPERTY_TYPE, c));
+		manager.add(new Statement(resource, contents, uri("content")));
+
+		assertSameAsQuery(Arrays.asList(hasPart, name), () -> uris(resource.getRelevantProperties()));
+		assertSameAsQuery(Arrays.asList(contents, hasPart), () -> uris(resource.getApplicableChildProperties()));
+		assertSameAsQuery(Arrays.asList(c), () -> uris(resource.getDirectClasses()));
+		assertEquals(new Pair<>(0, 1), resource.getApplicableCardinality(hasPart));
+	}
+
+	@Test
+	public void testIncrementalUpdate() {
+		createSchema();
+		SchemaIndexes indexes = injector.getInstance(SchemaIndexes.class);
+		Set<URI> readContexts = factory.getModule().getReadableGraphs();
+		IClass classA = manager.find(a, IClass.class);
+		assertEquals(Arrays.asList(b, d), uris(classA.getSubClasses(true, false)));
+
+		SchemaIndex index = indexes.get(manager, readContexts, false);
+		assertNotNull(index);
+		manager.add(new Statement(e, RDFS.PROPERTY_SUBCLASSOF, a));
+		manager.add(new Statement(d, RDFS.PROPERTY_SUBCLASSOF, b));
+		// the index of explicit statements is updated in place
+		assertSame(index, indexes.get(manager, readContexts, false));
+		assertEquals(Arrays.asList(b, e), uris(classA.getSubClasses(true, false)));
+
+		manager.remove(new Statement(e, RDFS.PROPERTY_SUBCLASSOF, a));
+		assertEquals(Arrays.asList(b), uris(classA.getSubClasses(true, false)));
+
+		manager.getTransaction().begin();
+		try {
+			assertNull(indexes.get(manager, readContexts, false));
+		} finally {
+			manager.getTransaction().rollback();
+		}
+	}
+
+}
@@ -109,8 +109,36 @@ public interface IModelSet extends INotifier<INotification> {
 		 * @return Factory class for {@link PropertySet}s or <code>null</code>.
 		 */
 		Class<? extends PropertySetFactory> getPropertySetFactoryClass();
+
+		/**
+		 * Returns the models for the given URIs and loads all models that are
+		 * not yet loaded.
+		 * <p>
+		 * The models are loaded in parallel by the executor given in the
+		 * {@link #getLoadOptions() load option} {@link #OPTION_LOAD_EXECUTOR}.
+		 * Each model is loaded into its own named graph.
+		 * </p>
+		 * 
+		 * @param uris
+		 *            the URIs of the models
+		 * @param failures
+		 *            receives the exceptions for models that could not be
+		 *            created or loaded
+		 * @return the successfully loaded models in the order of the given
+		 *         URIs
+		 */
+		Map<URI, IModel> loadModels(Collection<URI> uris,
+				Map<URI, Throwable> failures);
 	}
 
+	/**
+	 * A {@link #getLoadOptions() load option} that specifies the
+	 * {@link java.util.concurrent.Executor} for loading multiple models in
+	 * parallel, e.g. the imports closure of a model. If this option is not
+	 * set then a shared pool with one thread per processor is used.
+	 */
+	String OPTION_LOAD_EXECUTOR = "LOAD_EXECUTOR";
+
 	/**
 	 * Returns the adapter set which contains dynamic adapters registered with
 	 * this model set
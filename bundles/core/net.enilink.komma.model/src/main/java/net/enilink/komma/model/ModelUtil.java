@@ -580,13 +580,13 @@ public class ModelUtil {
 		}
 		ValueFactory valueFactory = new SimpleValueFactory() {
 			@Override
-			public synchronized BNode createBNode() {
+			public BNode createBNode() {
 				return super.createBNode(BlankNode.generateId("new-")
 						.substring(2));
 			}
 
 			@Override
-			public synchronized BNode createBNode(String nodeID) {
+			public BNode createBNode(String nodeID) {
 				if (preserveBNodeIDs) {
 					return super.createBNode(nodeID);
 				} else {
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.model.base;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates named daemon threads for the background tasks of models and model
+ * sets.
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+	protected final String prefix;
+	protected final AtomicInteger count = new AtomicInteger();
+
+	public DaemonThreadFactory(String prefix) {
+		this.prefix = prefix;
+	}
+
+	@Override
+	public Thread newThread(Runnable r) {
+		Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
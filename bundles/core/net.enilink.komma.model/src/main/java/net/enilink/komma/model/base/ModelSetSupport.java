@@ -11,15 +11,24 @@
 package net.enilink.komma.model.base;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import net.enilink.commons.util.extensions.RegistryFactoryHelper;
 import net.enilink.composition.properties.PropertySetFactory;
@@ -55,10 +64,12 @@ import net.enilink.komma.model.IModel;
 import net.enilink.komma.model.IModelSet;
 import net.enilink.komma.model.IURIConverter;
 import net.enilink.komma.model.ModelPlugin;
+import net.enilink.komma.model.ModelUtil;
 import net.enilink.komma.model.concepts.ModelSet;
 import net.enilink.komma.model.event.IStatementNotification;
 import net.enilink.komma.model.event.NamespaceNotification;
 import net.enilink.komma.model.event.StatementNotification;
+import net.enilink.komma.rdf4j.IDataSourceResolver;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -67,6 +78,7 @@ import org.eclipse.core.runtime.IExtensionRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Module;
@@ -134,7 +146,7 @@ public abstract class ModelSetSupport implements IModelSet.Internal, ModelSet,
 
 		protected NotificationSupport<INotification> notificationSupport = new NotificationSupport<INotification>();
 
-		protected Map<IReference, CopyOnWriteArraySet<INotificationListener<INotification>>> subjectListeners = new HashMap<>();
+		protected ConcurrentMap<IReference, CopyOnWriteArraySet<INotificationListener<INotification>>> subjectListeners = new ConcurrentHashMap<>();
 
 		protected Injector injector;
 
@@ -231,16 +243,13 @@ public abstract class ModelSetSupport implements IModelSet.Internal, ModelSet,
 	@Override
 	public void addSubjectListener(IReference subject,
 			INotificationListener<INotification> listener) {
-		CopyOnWriteArraySet<INotificationListener<INotification>> listeners;
-		Map<IReference, CopyOnWriteArraySet<INotificationListener<INotification>>> subjectListeners = state().subjectListeners;
-		synchronized (subjectListeners) {
-			listeners = subjectListeners.get(subject);
+		state().subjectListeners.compute(subject, (s, listeners) -> {
 			if (listeners == null) {
 				listeners = new CopyOnWriteArraySet<INotificationListener<INotification>>();
-				subjectListeners.put(subject, listeners);
 			}
-		}
-		listeners.add(listener);
+			listeners.add(listener);
+			return listeners;
+		});
 	}
 
 	@Override
@@ -261,6 +270,30 @@ public abstract class ModelSetSupport implements IModelSet.Internal, ModelSet,
 								.getPropertySetFactoryClass();
 					}
 				}));
+		modules.add(new AbstractModule() {
+			@Override
+			protected void configure() {
+				// SPARQL LOAD operations read their sources via the URI
+				// converter of this model set
+				bind(IDataSourceResolver.class).toInstance(
+						new IDataSourceResolver() {
+							@Override
+							public InputStream openStream(URI uri)
+									throws IOException {
+								return getBehaviourDelegate()
+										.getURIConverter()
+										.createInputStream(uri);
+							}
+
+							@Override
+							public String getMimeType(URI uri) {
+								String fileName = uri.lastSegment();
+								return fileName != null ? ModelUtil
+										.mimeType(fileName) : null;
+							}
+						});
+			}
+		});
 	}
 
 	@Override
@@ -391,30 +424,21 @@ public abstract class ModelSetSupport implements IModelSet.Internal, ModelSet,
 		Map<IReference, CopyOnWriteArraySet<INotificationListener<INotification>>> subjectListeners = state().subjectListeners;
 
 		// notify subject listeners if required
-		synchronized (subjectListeners) {
-			if (subjectListeners.isEmpty()) {
-				return;
-			}
+		if (subjectListeners.isEmpty()) {
+			return;
 		}
 
 		Map<Object, List<INotification>> groupedNotifications = null;
 		for (INotification notification : notifications) {
 			Object subject = notification.getSubject();
-			boolean notify;
-			synchronized (subjectListeners) {
-				notify = subjectListeners.containsKey(subject);
-			}
-			if (notify) {
+			if (subject != null && subjectListeners.containsKey(subject)) {
 				groupedNotifications = addNotification(groupedNotifications,
 						notification, subject);
 			}
 			// also send notifications for objects of statements
 			if (notification instanceof IStatementNotification) {
 				subject = ((IStatementNotification) notification).getObject();
-				synchronized (subjectListeners) {
-					notify = subjectListeners.containsKey(subject);
-				}
-				if (notify) {
+				if (subject != null && subjectListeners.containsKey(subject)) {
 					groupedNotifications = addNotification(
 							groupedNotifications, notification, subject);
 				}
@@ -423,17 +447,15 @@ public abstract class ModelSetSupport implements IModelSet.Internal, ModelSet,
 		if (groupedNotifications != null) {
 			for (Map.Entry<Object, List<INotification>> entry : groupedNotifications
 					.entrySet()) {
-				Collection<INotificationListener<INotification>> listeners;
-				synchronized (subjectListeners) {
-					listeners = subjectListeners.get(entry.getKey());
-				}
+				Collection<INotificationListener<INotification>> listeners = subjectListeners
+						.get(entry.getKey());
 				if (listeners != null) {
-					List<INotification> cache = new ArrayList<INotification>();
 					for (INotificationListener<INotification> listener : listeners) {
+						// only the notifications of this subject are filtered
 						Collection<INotification> filtered = FilterUtil.select(
-								notifications, listener.getFilter(), cache);
+								entry.getValue(), listener.getFilter());
 						if (!filtered.isEmpty()) {
-							listener.notifyChanged(entry.getValue());
+							listener.notifyChanged(filtered);
 						}
 					}
 				}
@@ -516,6 +538,90 @@ public abstract class ModelSetSupport implements IModelSet.Internal, ModelSet,
 		return null;
 	}
 
+	@Override
+	public Map<URI, IModel> loadModels(Collection<URI> uris,
+			Map<URI, Throwable> failures) {
+		Map<URI, IModel> models = new LinkedHashMap<>();
+		List<IModel> unloaded = new ArrayList<>();
+		for (URI uri : uris) {
+			try {
+				IModel model = getModel(uri, false);
+				if (model == null) {
+					model = demandCreateModel(uri);
+					if (model == null) {
+						throw new RuntimeException("Cannot create a model for '"
+								+ uri + "'; a registered model factory is needed");
+					}
+				}
+				models.put(uri, model);
+				if (!model.isLoaded()) {
+					unloaded.add(model);
+				}
+			} catch (Throwable e) {
+				failures.put(uri, e);
+			}
+		}
+		if (unloaded.size() == 1) {
+			IModel model = unloaded.get(0);
+			try {
+				demandLoadHelper(model);
+			} catch (Throwable e) {
+				models.remove(model.getURI());
+				failures.put(model.getURI(), e);
+			}
+		} else if (!unloaded.isEmpty()) {
+			// parse the documents in parallel, each model uses its own data
+			// manager and writes only to its own named graph
+			Executor executor = getLoadExecutor();
+			Map<IModel, CompletableFuture<Void>> tasks = new LinkedHashMap<>();
+			for (final IModel model : unloaded) {
+				tasks.put(model, CompletableFuture.runAsync(() -> {
+					IUnitOfWork uow = getUnitOfWork();
+					uow.begin();
+					try {
+						demandLoadHelper(model);
+					} finally {
+						uow.end();
+					}
+				}, executor));
+			}
+			for (Map.Entry<IModel, CompletableFuture<Void>> task : tasks
+					.entrySet()) {
+				try {
+					task.getValue().join();
+				} catch (CompletionException e) {
+					URI uri = task.getKey().getURI();
+					models.remove(uri);
+					failures.put(uri, e.getCause());
+				}
+			}
+		}
+		return models;
+	}
+
+	/**
+	 * Returns the executor that is used by
+	 * {@link #loadModels(Collection, Map)}.
+	 * 
+	 * @return the executor for loading models
+	 */
+	protected Executor getLoadExecutor() {
+		Object executor = getLoadOptions().get(OPTION_LOAD_EXECUTOR);
+		if (executor instanceof Executor) {
+			return (Executor) executor;
+		}
+		return DefaultLoadExecutor.INSTANCE;
+	}
+
+	/**
+	 * Lazily initialized pool that is shared by all model sets.
+	 */
+	static class DefaultLoadExecutor {
+		static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+				Runtime.getRuntime().availableProcessors(),
+				new DaemonThreadFactory("komma-model-loader"));
+	}
+
 	/*
 	 * Javadoc copied from interface.
 	 */
@@ -699,15 +805,11 @@ public abstract class ModelSetSupport implements IModelSet.Internal, ModelSet,
 	@Override
 	public void removeSubjectListener(IReference subject,
 			INotificationListener<INotification> listener) {
-		Map<IReference, CopyOnWriteArraySet<INotificationListener<INotification>>> subjectListeners = state().subjectListeners;
-
-		CopyOnWriteArraySet<INotificationListener<INotification>> listeners;
-		synchronized (subjectListeners) {
-			listeners = subjectListeners.get(subject);
-		}
-		if (listeners != null) {
+		// empty sets are removed atomically with respect to additions
+		state().subjectListeners.computeIfPresent(subject, (s, listeners) -> {
 			listeners.remove(listener);
-		}
+			return listeners.isEmpty() ? null : listeners;
+		});
 	}
 
 	public void setDataChangeSupport(IDataChangeSupport changeSupport) {
@@ -24,10 +24,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -39,6 +38,7 @@ import org.eclipse.core.runtime.Status;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.inject.Binding;
 import com.google.inject.ConfigurationException;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -69,6 +69,7 @@ import net.enilink.komma.core.URI;
 import net.enilink.komma.core.URIs;
 import net.enilink.komma.dm.IDataManager;
 import net.enilink.komma.em.DelegatingEntityManager;
+import net.enilink.komma.em.cache.SchemaIndexes;
 import net.enilink.komma.em.concepts.IOntology;
 import net.enilink.komma.em.util.ISparqlConstants;
 import net.enilink.komma.model.IModel;
@@ -503,27 +504,69 @@ public abstract class ModelSupport
 
 	@Override
 	public Set<URI> getImportsClosure() {
-		// duplicated from getModuleClosure, except includeModule() call
 		Set<URI> seen = new HashSet<>();
-		Queue<IModel> queue = new LinkedList<>();
-		queue.add(getBehaviourDelegate());
-		while (!queue.isEmpty()) {
-			IModel model = queue.remove();
-			for (URI imported : model.getImports()) {
-				if (seen.add(imported)) {
-					try {
-						boolean demandLoad = getBehaviourDelegate().demandLoadImport(imported);
-						queue.add(getModelSet().getModel(imported, demandLoad));
-					} catch (Throwable e) {
-						getErrors().add(new DiagnosticWrappedException(getURI().toString(),
-								new KommaException("Error while loading import: " + imported, e)));
+		List<IModel> level = Collections.singletonList(getBehaviourDelegate());
+		while (!level.isEmpty()) {
+			List<URI> imports = new ArrayList<>();
+			for (IModel model : level) {
+				for (URI imported : model.getImports()) {
+					if (seen.add(imported)) {
+						imports.add(imported);
 					}
 				}
 			}
+			level = resolveImports(imports);
 		}
 		return seen;
 	}
 
+	/**
+	 * Resolves the models for the given imports. All imports that should be
+	 * {@link #demandLoadImport(URI) loaded on demand} are loaded in parallel.
+	 * Errors are reported within {@link #getErrors()}.
+	 * 
+	 * @param imports
+	 *            URIs of imported models
+	 * @return the imported models in the order of the given URIs
+	 */
+	protected List<IModel> resolveImports(List<URI> imports) {
+		if (imports.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Set<URI> demandLoaded = new LinkedHashSet<>();
+		for (URI imported : imports) {
+			if (getBehaviourDelegate().demandLoadImport(imported)) {
+				demandLoaded.add(imported);
+			}
+		}
+		Map<URI, Throwable> failures = new HashMap<>();
+		Map<URI, IModel> loaded = demandLoaded.isEmpty() ? Collections.<URI, IModel> emptyMap()
+				: getModelSet().loadModels(demandLoaded, failures);
+		List<IModel> models = new ArrayList<>(imports.size());
+		for (URI imported : imports) {
+			IModel importedModel = loaded.get(imported);
+			if (importedModel == null) {
+				Throwable failure = failures.get(imported);
+				if (failure != null) {
+					getErrors().add(new DiagnosticWrappedException(getURI().toString(),
+							new KommaException("Error while loading import: " + imported, failure)));
+				}
+				// try to re-fetch model if the loading on demand has been failed
+				// or if it was not requested
+				try {
+					importedModel = getModelSet().getModel(imported, false);
+				} catch (Throwable e) {
+					getErrors().add(new DiagnosticWrappedException(getURI().toString(),
+							new KommaException("Error while loading import: " + imported, e)));
+				}
+			}
+			if (importedModel != null) {
+				models.add(importedModel);
+			}
+		}
+		return models;
+	}
+
 	@Override
 	public synchronized KommaModule getModuleClosure() {
 		KommaModule moduleClosure = state().moduleClosure;
@@ -567,42 +610,28 @@ public abstract class ModelSupport
 			// include modules from the imports closure
 			Set<URI> seen = new HashSet<>();
 			seen.add(getURI());
-			Queue<IModel> queue = new LinkedList<>();
-			queue.add(getBehaviourDelegate());
-			while (!queue.isEmpty()) {
-				IModel model = queue.remove();
-				KommaModule importedModule = ((IModel.Internal) model).getModule(); 
-				// only include concepts and behaviours
-				moduleClosure.includeModule(importedModule, false);
-				// add readable graphs but ignore writable graphs
-				for (URI graph : importedModule.getReadableGraphs()) {
-					moduleClosure.addReadableGraph(graph);
-				}
-				// add namespaces
-				for (INamespace ns : importedModule.getNamespaces()) {
-					moduleClosure.addNamespace(ns);
-				}
-				for (URI imported : model.getImports()) {
-					if (seen.add(imported)) {
-						boolean demandLoad = getBehaviourDelegate().demandLoadImport(imported);
-						IModel importedModel = null;
-						try {
-							importedModel = getModelSet().getModel(imported, demandLoad);
-						} catch (Throwable e) {
-							getErrors().add(new DiagnosticWrappedException(getURI().toString(),
-									new KommaException("Error while loading import: " + imported, e)));
-						}
-						// try to re-fetch model if load-on-demand is requested
-						// and
-						// the initial loading has been failed
-						if (demandLoad && importedModel == null) {
-							importedModel = getModelSet().getModel(imported, false);
-						}
-						if (importedModel != null) {
-							queue.add(importedModel);
+			List<IModel> level = Collections.singletonList(getBehaviourDelegate());
+			while (!level.isEmpty()) {
+				List<URI> imports = new ArrayList<>();
+				for (IModel model : level) {
+					KommaModule importedModule = ((IModel.Internal) model).getModule();
+					// only include concepts and behaviours
+					moduleClosure.includeModule(importedModule, false);
+					// add readable graphs but ignore writable graphs
+					for (URI graph : importedModule.getReadableGraphs()) {
+						moduleClosure.addReadableGraph(graph);
+					}
+					// add namespaces
+					for (INamespace ns : importedModule.getNamespaces()) {
+						moduleClosure.addNamespace(ns);
+					}
+					for (URI imported : model.getImports()) {
+						if (seen.add(imported)) {
+							imports.add(imported);
 						}
 					}
 				}
+				level = resolveImports(imports);
 			}
 		}
 		return moduleClosure;
@@ -1031,6 +1060,13 @@ public abstract class ModelSupport
 				}
 				dm.close();
 			}
+			// the schema indexes are not notified while change tracking is
+			// disabled
+			Binding<SchemaIndexes> schemaIndexes = getModelSet().getInjector()
+					.getExistingBinding(Key.get(SchemaIndexes.class));
+			if (schemaIndexes != null) {
+				schemaIndexes.getProvider().get().invalidate();
+			}
 			// rename model in meta data
 			getEntityManager().rename(this, uri);
 			setModified(true);
@@ -10,12 +10,24 @@
  *******************************************************************************/
 package net.enilink.komma.model.event;
 
+import java.util.function.Function;
+
 import net.enilink.komma.common.notify.INotification;
+import net.enilink.komma.common.notify.NotificationFilter;
 import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.IStatement;
 import net.enilink.komma.model.IModelSet;
 
 public interface IStatementNotification extends INotification {
+	/**
+	 * The attribute for the {@link #getPredicate() predicate} of statement
+	 * notifications that may be used with
+	 * {@link NotificationFilter#hasValue(Function, Object)}.
+	 */
+	Function<INotification, Object> PREDICATE = n -> n instanceof IStatementNotification
+			? ((IStatementNotification) n).getPredicate()
+			: null;
+
 	IModelSet getModelSet();
 	
 	IReference getSubject();
@@ -17,14 +17,17 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,63 +46,152 @@ import net.enilink.komma.core.Statement;
 import net.enilink.komma.core.URI;
 import net.enilink.komma.core.visitor.IDataAndNamespacesVisitor;
 import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.em.cache.SchemaIndexes;
 import net.enilink.komma.em.util.ISparqlConstants;
 import net.enilink.komma.em.util.KommaUtil;
 import net.enilink.komma.model.IModel;
 import net.enilink.komma.model.IModelSet;
 import net.enilink.komma.model.MODELS;
 import net.enilink.komma.model.ModelUtil;
+import net.enilink.komma.model.base.DaemonThreadFactory;
 import net.enilink.komma.model.concepts.Model;
 
 import org.eclipse.core.runtime.content.IContentDescription;
 import org.eclipse.rdf4j.rio.Rio;
 
+import com.google.inject.Binding;
+import com.google.inject.Key;
+
 @Iri(MODELS.NAMESPACE + "SerializableModel")
 public abstract class SerializableModelSupport implements IModel.Internal,
 		Model, Behaviour<IModel> {
 	/**
-	 * Iterator where <code>hasNext()</code> blocks until element gets available
-	 * in <code>queue</code>.
+	 * Shared pool of daemon threads that run the parsers for
+	 * {@link #load(InputStream, Map)}.
+	 */
+	static final ExecutorService parserPool = Executors
+			.newCachedThreadPool(new DaemonThreadFactory("komma-model-parser"));
+
+	/**
+	 * Bounded hand-off of parsed statements from a parser thread to the
+	 * consuming thread.
+	 * <p>
+	 * The parser collects statements into chunks and blocks if
+	 * {@link #CAPACITY} chunks are waiting to be consumed. The consumer
+	 * iterates over the statements of all chunks and blocks until a chunk
+	 * gets available. If the consumer calls {@link #cancel()} then the
+	 * parser is stopped with the next statement.
 	 */
-	class BlockingIterator<T> implements Iterator<T>, Iterable<T> {
-		Queue<T> queue;
-		AtomicBoolean finished;
+	static class StatementPipeline implements Iterator<IStatement>,
+			Iterable<IStatement> {
+		static final int CHUNK_SIZE = 1000;
+		static final int CAPACITY = 16;
+		static final List<IStatement> END = Collections.emptyList();
+
+		final BlockingQueue<List<IStatement>> queue = new ArrayBlockingQueue<>(
+				CAPACITY);
+		volatile boolean cancelled;
+		volatile Throwable exception;
+
+		// producer state
+		List<IStatement> chunk = new ArrayList<>(CHUNK_SIZE);
+
+		// consumer state
+		Iterator<IStatement> current = Collections.emptyIterator();
+		boolean ended;
+
+		/**
+		 * Adds a statement. Called by the parser thread.
+		 * 
+		 * @throws CancellationException
+		 *             if the consumer has cancelled the pipeline
+		 */
+		void put(IStatement stmt) {
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			chunk.add(stmt);
+			if (chunk.size() == CHUNK_SIZE) {
+				offer(chunk);
+				chunk = new ArrayList<>(CHUNK_SIZE);
+			}
+		}
+
+		/**
+		 * Signals the end of the input. Called by the parser thread.
+		 */
+		void finish(Throwable exception) {
+			this.exception = exception;
+			try {
+				if (exception == null && !chunk.isEmpty()) {
+					offer(chunk);
+				}
+				offer(END);
+			} catch (CancellationException e) {
+				// consumer is already gone
+			} finally {
+				chunk = null;
+			}
+		}
 
-		T next;
-		boolean nextComputed = false;
+		void offer(List<IStatement> statements) {
+			try {
+				while (!queue.offer(statements, 100, TimeUnit.MILLISECONDS)) {
+					if (cancelled) {
+						throw new CancellationException();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException();
+			}
+			if (cancelled) {
+				throw new CancellationException();
+			}
+		}
 
-		public BlockingIterator(Queue<T> queue, AtomicBoolean finished) {
-			this.queue = queue;
-			this.finished = finished;
+		/**
+		 * Stops the parser and releases all buffered statements. Called by
+		 * the consumer thread.
+		 */
+		void cancel() {
+			cancelled = true;
+			queue.clear();
 		}
 
 		@Override
-		public Iterator<T> iterator() {
+		public Iterator<IStatement> iterator() {
 			return this;
 		}
 
 		@Override
 		public boolean hasNext() {
-			if (!nextComputed) {
-				synchronized (queue) {
-					try {
-						while (!finished.get() && queue.isEmpty()) {
-							queue.wait();
-						}
-						next = queue.isEmpty() ? null : queue.remove();
-					} catch (InterruptedException e) {
-						next = null;
+			while (!current.hasNext()) {
+				if (ended) {
+					return false;
+				}
+				try {
+					List<IStatement> next = queue.take();
+					if (next == END) {
+						ended = true;
+					} else {
+						current = next.iterator();
 					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					cancel();
+					throw new KommaException(e);
 				}
-				nextComputed = true;
 			}
-			return next != null;
+			return true;
 		}
 
 		@Override
-		public T next() {
-			nextComputed = false;
-			return next;
+		public IStatement next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return current.next();
 		}
 
 		@Override
@@ -179,12 +271,11 @@ public abstract class SerializableModelSupport implements IModel.Internal,
 			if (in != null && in.available() > 0) {
 				dm.getTransaction().begin();
 
-				final AtomicBoolean finished = new AtomicBoolean(false);
-				final Queue<IStatement> queue = new LinkedList<IStatement>();
-				final Throwable[] exception = { null };
-				Executors.newSingleThreadExecutor().execute(new Runnable() {
+				final StatementPipeline pipeline = new StatementPipeline();
+				parserPool.execute(new Runnable() {
 					@Override
 					public void run() {
+						Throwable exception = null;
 						try {
 							IDataAndNamespacesVisitor<Void> visitor = new IDataAndNamespacesVisitor<Void>() {
 								@Override
@@ -202,10 +293,7 @@ public abstract class SerializableModelSupport implements IModel.Internal,
 									if (nodeIdMapper != null) {
 										stmt = nodeIdMapper.map(stmt);
 									}
-									synchronized (queue) {
-										queue.add(stmt);
-										queue.notify();
-									}
+									pipeline.put(stmt);
 									return null;
 								}
 
@@ -230,24 +318,24 @@ public abstract class SerializableModelSupport implements IModel.Internal,
 									.orElse(null);
 							}
 							ModelUtil.readData(in, getURI().toString(), mimeType, nodeIdMapper != null, visitor);
-						} catch (IOException e) {
-							exception[0] = e;
-						} catch (RuntimeException e) {
-							exception[0] = e;
+						} catch (IOException | RuntimeException e) {
+							exception = e;
 						} finally {
-							finished.set(true);
-							synchronized (queue) {
-								queue.notify();
-							}
+							pipeline.finish(exception);
 						}
 					}
 				});
-				// BlockingIterator ensures that add method does not return
+				// the pipeline ensures that add method does not return
 				// until endRDF of the above handler is called
-				dm.add(new BlockingIterator<IStatement>(queue, finished),
-						getURI());
-				if (exception[0] != null) {
-					throw exception[0];
+				try {
+					dm.add(pipeline, getURI());
+				} catch (Throwable e) {
+					// stop the parser if the statements cannot be stored
+					pipeline.cancel();
+					throw e;
+				}
+				if (pipeline.exception != null) {
+					throw pipeline.exception;
 				}
 				dm.getTransaction().commit();
 
@@ -282,6 +370,14 @@ public abstract class SerializableModelSupport implements IModel.Internal,
 				dm.getTransaction().rollback();
 			}
 			dm.close();
+
+			// the schema indexes are not notified while change tracking is
+			// disabled
+			Binding<SchemaIndexes> schemaIndexes = ((IModelSet.Internal) getModelSet())
+					.getInjector().getExistingBinding(Key.get(SchemaIndexes.class));
+			if (schemaIndexes != null) {
+				schemaIndexes.getProvider().get().invalidate();
+			}
 		}
 		setModelLoaded(true);
 	}
@@ -11,12 +11,22 @@
 package net.enilink.komma.model;
 
 import static org.junit.Assert.assertEquals;
-
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import net.enilink.komma.core.KommaException;
 import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.core.URI;
 import net.enilink.komma.core.URIs;
 import net.enilink.komma.model.IModel;
 import net.enilink.komma.model.IModelSet;
@@ -79,4 +89,77 @@ public class ModelLoadTest {
 
         assertEquals("The elements where not found.", 1, test.size());
     }
+
+    @Test
+    public void testLoadImportsClosure() throws Exception {
+        Path dir = Files.createTempDirectory("komma-imports");
+        // root imports a, b and c while a and b both import d
+        URI root = writeOntology(dir, "root", "a", "b", "c");
+        URI a = writeOntology(dir, "a", "d");
+        URI b = writeOntology(dir, "b", "d");
+        URI c = writeOntology(dir, "c");
+        URI d = writeOntology(dir, "d");
+
+        IModel model = modelSet.getModel(root, true);
+        Set<URI> closure = model.getImportsClosure();
+        assertEquals(4, closure.size());
+        for (URI imported : new URI[] { a, b, c, d }) {
+            assertTrue(closure.contains(imported));
+            IModel importedModel = modelSet.getModel(imported, false);
+            assertTrue("Import should be loaded: " + imported, importedModel != null && importedModel.isLoaded());
+        }
+        assertTrue(model.getErrors().isEmpty());
+    }
+
+    URI writeOntology(Path dir, String name, String... imports) throws Exception {
+        Path file = dir.resolve(name + ".ttl");
+        file.toFile().deleteOnExit();
+        StringBuilder data = new StringBuilder();
+        data.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+        data.append("<> a owl:Ontology");
+        for (String imported : imports) {
+            data.append(" ; owl:imports <").append(imported).append(".ttl>");
+        }
+        data.append(" .\n");
+        Files.write(file, data.toString().getBytes(StandardCharsets.UTF_8));
+        return URIs.createURI(file.toUri().toString());
+    }
+
+    @Test
+    public void testLoadLargeTurtle() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            data.append("<urn:test:s").append(i / 10).append("> <urn:test:p> \"value ")
+                .append(i).append("\" .\n");
+        }
+        IModel model = modelSet.createModel(URIs.createURI("urn:test:large"));
+        Map<Object, Object> options = new HashMap<>();
+        options.put(IModel.OPTION_MIME_TYPE, "text/turtle");
+        model.load(new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.UTF_8)), options);
+
+        Object count = model.getManager()
+            .createQuery("SELECT (count(*) as ?c) { ?s <urn:test:p> ?o }")
+            .getSingleResult();
+        assertEquals(50000, ((Number) count).intValue());
+    }
+
+    @Test
+    public void testLoadInvalidTurtle() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            data.append("<urn:test:s").append(i).append("> <urn:test:p> <urn:test:o> .\n");
+        }
+        data.append("<urn:test:s> <urn:test:p> <urn:test:o\n");
+        IModel model = modelSet.createModel(URIs.createURI("urn:test:invalid"));
+        Map<Object, Object> options = new HashMap<>();
+        options.put(IModel.OPTION_MIME_TYPE, "text/turtle");
+        try {
+            model.load(new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.UTF_8)), options);
+            fail("Loading of invalid data should fail.");
+        } catch (KommaException e) {
+            // expected
+        }
+        assertFalse("Data of failed load should be discarded.", model.getManager()
+            .hasMatch(null, URIs.createURI("urn:test:p"), null));
+    }
 }
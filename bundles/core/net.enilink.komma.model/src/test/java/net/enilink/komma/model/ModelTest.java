@@ -13,7 +13,10 @@ package net.enilink.komma.model;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
@@ -31,9 +34,13 @@ import net.enilink.komma.model.MODELS;
 import net.enilink.komma.model.ModelPlugin;
 import net.enilink.komma.model.ModelSetModule;
 import net.enilink.komma.model.event.IStatementNotification;
+import net.enilink.komma.core.IEntityManager;
 import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.core.Statement;
+import net.enilink.komma.core.URI;
 import net.enilink.komma.core.URIs;
 import net.enilink.komma.em.concepts.IClass;
+import net.enilink.vocab.rdfs.RDFS;
 
 public class ModelTest {
 	IModelSet modelSet;
@@ -87,4 +94,69 @@ public class ModelTest {
 
 		assertTrue(notified[0]);
 	}
-}
\ No newline at end of file
+
+	static class RecordingListener implements
+			INotificationListener<INotification> {
+		final NotificationFilter<INotification> filter;
+		final List<INotification> notifications = new ArrayList<>();
+
+		RecordingListener(NotificationFilter<INotification> filter) {
+			this.filter = filter;
+		}
+
+		@Override
+		public NotificationFilter<INotification> getFilter() {
+			return filter;
+		}
+
+		@Override
+		public void notifyChanged(
+				Collection<? extends INotification> notifications) {
+			this.notifications.addAll(notifications);
+		}
+	}
+
+	@Test
+	public void testIndexedNotifications() throws Exception {
+		IModel model = modelSet.createModel(URIs
+				.createURI("http://iwu.fraunhofer.de/test/model1"));
+		IEntityManager em = model.getManager();
+		URI a = URIs.createURI("test:a"), b = URIs.createURI("test:b");
+
+		RecordingListener bySubject = new RecordingListener(
+				NotificationFilter.hasValue(NotificationFilter.SUBJECT, a));
+		RecordingListener byPredicate = new RecordingListener(
+				NotificationFilter.instanceOf(IStatementNotification.class)
+						.and(NotificationFilter.hasValue(
+								IStatementNotification.PREDICATE,
+								RDFS.PROPERTY_LABEL)));
+		RecordingListener forSubjectA = new RecordingListener(null);
+		RecordingListener forSubjectB = new RecordingListener(
+				NotificationFilter.hasValue(IStatementNotification.PREDICATE,
+						RDFS.PROPERTY_COMMENT));
+		modelSet.addListener(bySubject);
+		modelSet.addListener(byPredicate);
+		modelSet.addSubjectListener(a, forSubjectA);
+		modelSet.addSubjectListener(b, forSubjectB);
+
+		em.add(Arrays.asList(new Statement(a, RDFS.PROPERTY_LABEL, "a"),
+				new Statement(b, RDFS.PROPERTY_LABEL, "b"),
+				new Statement(b, RDFS.PROPERTY_COMMENT, "b")));
+
+		assertEquals(1, bySubject.notifications.size());
+		assertEquals(2, byPredicate.notifications.size());
+		assertEquals(1, forSubjectA.notifications.size());
+		// only the notifications that match the filter are delivered
+		assertEquals(1, forSubjectB.notifications.size());
+		assertEquals(RDFS.PROPERTY_COMMENT,
+				((IStatementNotification) forSubjectB.notifications.get(0))
+						.getPredicate());
+
+		modelSet.removeListener(bySubject);
+		modelSet.removeSubjectListener(a, forSubjectA);
+		em.add(new Statement(a, RDFS.PROPERTY_LABEL, "a2"));
+		assertEquals(1, bySubject.notifications.size());
+		assertEquals(3, byPredicate.notifications.size());
+		assertEquals(1, forSubjectA.notifications.size());
+	}
+}
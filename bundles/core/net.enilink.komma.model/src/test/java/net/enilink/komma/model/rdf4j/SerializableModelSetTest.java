@@ -13,6 +13,7 @@ package net.enilink.komma.model.rdf4j;
 import junit.framework.AssertionFailedError;
 import net.enilink.komma.core.IReference;
 import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.Statement;
 import net.enilink.komma.core.URIs;
 import net.enilink.komma.core.visitor.IDataVisitor;
 import net.enilink.komma.model.IModel;
@@ -20,6 +21,7 @@ import net.enilink.komma.model.IModelSet;
 import net.enilink.komma.model.ModelUtil;
 import net.enilink.komma.model.rdf4j.SerializableModelSupport.ReconstructNodeIds;
 import net.enilink.komma.model.rdf4j.SerializableModelSupport.ShortenNodeIds;
+import net.enilink.komma.model.rdf4j.SerializableModelSupport.StatementPipeline;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.Collection;
@@ -28,6 +30,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -125,6 +128,23 @@ public class SerializableModelSetTest {
         assertEquals(expectedNodeIds, nodeIdsWithSuffix);
     }
 
+    @Test
+    public void testCancelPipeline() throws Exception {
+        StatementPipeline pipeline = new StatementPipeline();
+        IStatement stmt = new Statement(URIs.createURI("test:s"), URIs.createURI("test:p"),
+            URIs.createURI("test:o"));
+        pipeline.put(stmt);
+        pipeline.cancel();
+        // the parser is stopped with the next statement
+        try {
+            pipeline.put(stmt);
+            Assert.fail("Statement was added to a cancelled pipeline");
+        } catch (CancellationException e) {
+            // expected
+        }
+        Assert.assertEquals(1, pipeline.chunk.size());
+    }
+
     class ShortIdCollector implements IDataVisitor<IStatement> {
 
         final Set<String> nodeIds;
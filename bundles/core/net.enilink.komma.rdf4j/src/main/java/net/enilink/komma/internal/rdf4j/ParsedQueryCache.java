@@ -0,0 +1,180 @@
+package net.enilink.komma.internal.rdf4j;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.parser.ParsedBooleanQuery;
+import org.eclipse.rdf4j.query.parser.ParsedGraphQuery;
+import org.eclipse.rdf4j.query.parser.ParsedOperation;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+import org.eclipse.rdf4j.query.parser.ParsedUpdate;
+import org.eclipse.rdf4j.query.parser.QueryParserUtil;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import net.enilink.komma.core.KommaException;
+
+/**
+ * A thread-safe cache for parsed SPARQL queries and updates that is shared by
+ * the data managers of a repository.
+ * <p>
+ * The parsed algebra only depends on the query text and the base URI. The
+ * dataset, the inferencing flag and the bindings are set on the prepared
+ * query object. Therefore the cached algebra can be used regardless of these
+ * settings.
+ * <p>
+ * The size of the cache is bounded by the total length of the cached query
+ * strings.
+ */
+public class ParsedQueryCache {
+	/**
+	 * The default limit for the total length of all cached queries.
+	 */
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 4L * 1024 * 1024;
+
+	static class Key {
+		final boolean update;
+		final String text;
+		final String baseURI;
+
+		Key(boolean update, String text, String baseURI) {
+			this.update = update;
+			this.text = text;
+			this.baseURI = baseURI;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return update == other.update && text.equals(other.text)
+					&& Objects.equals(baseURI, other.baseURI);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(update, text, baseURI);
+		}
+
+		int weigh() {
+			return text.length() + (baseURI == null ? 0 : baseURI.length());
+		}
+	}
+
+	protected final Cache<Key, ParsedOperation> cache;
+
+	public ParsedQueryCache() {
+		this(DEFAULT_MAXIMUM_WEIGHT);
+	}
+
+	/**
+	 * Creates a cache whose size is bounded by the given total length of the
+	 * cached query strings.
+	 *
+	 * @param maximumWeight
+	 *            the maximum total length of the cached queries
+	 */
+	public ParsedQueryCache(long maximumWeight) {
+		this.cache = CacheBuilder.newBuilder().maximumWeight(maximumWeight)
+				.<Key, ParsedOperation> weigher((key, value) -> key.weigh())
+				.recordStats().build();
+	}
+
+	protected ParsedOperation get(Key key) {
+		try {
+			return cache.get(key, () -> key.update ? QueryParserUtil
+					.parseUpdate(QueryLanguage.SPARQL, key.text, key.baseURI)
+					: QueryParserUtil.parseQuery(QueryLanguage.SPARQL,
+							key.text, key.baseURI));
+		} catch (UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				// e.g. a MalformedQueryException
+				throw (RuntimeException) e.getCause();
+			}
+			throw new KommaException(e.getCause());
+		} catch (ExecutionException e) {
+			throw new KommaException(e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the parsed form of the given SPARQL query.
+	 * <p>
+	 * The result is a copy of the cached query that shares the algebra with
+	 * it. The algebra must not be modified. RDF4J sails only evaluate copies
+	 * of the algebra.
+	 *
+	 * @param query
+	 *            the query text
+	 * @param baseURI
+	 *            the base URI or <code>null</code>
+	 * @return the parsed query
+	 * @throws MalformedQueryException
+	 *             if the query is invalid
+	 */
+	public ParsedQuery parseQuery(String query, String baseURI)
+			throws MalformedQueryException {
+		ParsedQuery cached = (ParsedQuery) get(new Key(false, query, baseURI));
+		ParsedQuery copy;
+		if (cached instanceof ParsedTupleQuery) {
+			copy = new ParsedTupleQuery(cached.getSourceString(),
+					cached.getTupleExpr());
+		} else if (cached instanceof ParsedGraphQuery) {
+			copy = new ParsedGraphQuery(cached.getSourceString(),
+					cached.getTupleExpr(),
+					((ParsedGraphQuery) cached).getQueryNamespaces());
+		} else if (cached instanceof ParsedBooleanQuery) {
+			copy = new ParsedBooleanQuery(cached.getSourceString(),
+					cached.getTupleExpr());
+		} else {
+			// unknown type of query, do not share it
+			return QueryParserUtil.parseQuery(QueryLanguage.SPARQL, query,
+					baseURI);
+		}
+		copy.setDataset(cached.getDataset());
+		return copy;
+	}
+
+	/**
+	 * Returns the parsed form of the given SPARQL update. The update must not
+	 * be modified.
+	 *
+	 * @param update
+	 *            the update text
+	 * @param baseURI
+	 *            the base URI or <code>null</code>
+	 * @return the parsed update
+	 * @throws MalformedQueryException
+	 *             if the update is invalid
+	 */
+	public ParsedUpdate parseUpdate(String update, String baseURI)
+			throws MalformedQueryException {
+		return (ParsedUpdate) get(new Key(true, update, baseURI));
+	}
+
+	/**
+	 * Returns the statistics of this cache including the number of hits and
+	 * misses.
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * Removes all cached queries and updates.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+}
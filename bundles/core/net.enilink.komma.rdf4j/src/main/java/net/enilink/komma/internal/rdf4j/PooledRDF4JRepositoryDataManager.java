@@ -0,0 +1,29 @@
+package net.enilink.komma.internal.rdf4j;
+
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+import com.google.inject.Inject;
+
+import net.enilink.komma.dm.change.IDataChangeSupport;
+import net.enilink.komma.rdf4j.RDF4JConnectionPool;
+
+/**
+ * Data manager that borrows its connection from a {@link RDF4JConnectionPool}
+ * and returns it to the pool when the data manager is closed.
+ */
+public class PooledRDF4JRepositoryDataManager extends
+		RDF4JRepositoryDataManager {
+	protected final RDF4JConnectionPool pool;
+
+	@Inject
+	public PooledRDF4JRepositoryDataManager(RDF4JConnectionPool pool,
+			IDataChangeSupport changeSupport) {
+		super(pool.borrow(), changeSupport);
+		this.pool = pool;
+	}
+
+	@Override
+	protected void releaseConnection(RepositoryConnection connection) {
+		pool.release(connection);
+	}
+}
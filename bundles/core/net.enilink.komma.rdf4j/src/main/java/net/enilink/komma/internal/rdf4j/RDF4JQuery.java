@@ -30,9 +30,12 @@ import net.enilink.commons.iterator.IExtendedIterator;
 import net.enilink.komma.core.IValue;
 import net.enilink.komma.core.KommaException;
 import net.enilink.komma.core.Properties;
+import net.enilink.komma.core.metrics.IMetrics;
+import net.enilink.komma.core.metrics.Metrics;
 import net.enilink.komma.dm.IDataManagerQuery;
 import net.enilink.komma.internal.rdf4j.result.RDF4JBooleanResult;
 import net.enilink.komma.internal.rdf4j.result.RDF4JGraphResult;
+import net.enilink.komma.internal.rdf4j.result.RDF4JResult;
 import net.enilink.komma.internal.rdf4j.result.RDF4JTupleResult;
 import net.enilink.komma.rdf4j.RDF4JValueConverter;
 
@@ -50,35 +53,73 @@ public class RDF4JQuery<R> implements IDataManagerQuery<R> {
 
 	protected Query query;
 
+	/**
+	 * The query text for per-query metrics or <code>null</code> if unknown.
+	 */
+	protected String queryText;
+
+	/**
+	 * The metric name of this query that is derived from {@link #queryText}.
+	 */
+	private String metricName;
+
 	@Inject
 	RDF4JValueConverter valueConverter;
 
 	public RDF4JQuery(Query query) {
+		this(query, null);
+	}
+
+	public RDF4JQuery(Query query, String queryText) {
 		this.query = query;
+		this.queryText = queryText;
 	}
 
+	/**
+	 * Evaluates the query. If metrics are enabled then the time until the
+	 * result is closed or completely consumed is recorded.
+	 */
 	@SuppressWarnings({ "unchecked", "resource" })
 	@Override
 	public IExtendedIterator<R> evaluate() {
+		IMetrics metrics = Metrics.get();
+		long start = metrics.isEnabled() ? System.nanoTime() : 0;
 		try {
-			IExtendedIterator<R> convertedResult;
+			RDF4JResult<?, ?> convertedResult;
 			if (query instanceof TupleQuery) {
-				convertedResult = (IExtendedIterator<R>) new RDF4JTupleResult(
+				convertedResult = new RDF4JTupleResult(
 						((TupleQuery) query).evaluate());
 			} else if (query instanceof GraphQuery) {
-				convertedResult = (IExtendedIterator<R>) new RDF4JGraphResult(
+				convertedResult = new RDF4JGraphResult(
 						((GraphQuery) query).evaluate());
 			} else {
-				convertedResult = (IExtendedIterator<R>) new RDF4JBooleanResult(
+				convertedResult = new RDF4JBooleanResult(
 						((BooleanQuery) query).evaluate());
 			}
 			injector.injectMembers(convertedResult);
-			return convertedResult;
+			if (metrics.isEnabled()) {
+				convertedResult.onClose(() -> record(metrics, start));
+			}
+			return (IExtendedIterator<R>) convertedResult;
 		} catch (Exception e) {
+			if (metrics.isEnabled()) {
+				record(metrics, start);
+			}
 			throw new KommaException(e);
 		}
 	}
 
+	private void record(IMetrics metrics, long start) {
+		long duration = System.nanoTime() - start;
+		metrics.record("dm.query", duration);
+		if (queryText != null) {
+			if (metricName == null) {
+				metricName = "dm.query:" + Metrics.normalizeQuery(queryText);
+			}
+			metrics.record(metricName, duration);
+		}
+	}
+
 	@Override
 	public Map<String, Object> getProperties() {
 		return properties == null ? Collections.<String, Object> emptyMap()
@@ -1,22 +1,45 @@
 package net.enilink.komma.internal.rdf4j;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF4J;
+import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.Operation;
 import org.eclipse.rdf4j.query.Query;
 import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.query.Update;
+import org.eclipse.rdf4j.query.algebra.QueryRoot;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.impl.SimpleDataset;
+import org.eclipse.rdf4j.query.parser.ParsedBooleanQuery;
+import org.eclipse.rdf4j.query.parser.ParsedGraphQuery;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+import org.eclipse.rdf4j.queryrender.sparql.SparqlTupleExprRenderer;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.sail.SailBooleanQuery;
+import org.eclipse.rdf4j.repository.sail.SailGraphQuery;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailTupleQuery;
+import org.eclipse.rdf4j.rio.ntriples.NTriplesUtil;
 
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -33,6 +56,8 @@ import net.enilink.komma.core.InferencingCapability;
 import net.enilink.komma.core.KommaException;
 import net.enilink.komma.core.Statement;
 import net.enilink.komma.core.URIs;
+import net.enilink.komma.core.metrics.IMetrics;
+import net.enilink.komma.core.metrics.Metrics;
 import net.enilink.komma.dm.IDataManager;
 import net.enilink.komma.dm.IDataManagerQuery;
 import net.enilink.komma.dm.IDataManagerUpdate;
@@ -44,6 +69,12 @@ import net.enilink.komma.rdf4j.RDF4JValueConverter;
 public class RDF4JRepositoryDataManager implements IDataManager {
 	protected static final IReference[] NULL_CTX = { null };
 
+	/**
+	 * The number of statements that are handed to the repository at once by
+	 * {@link #add(Iterable, IReference[], IReference...)}.
+	 */
+	protected static final int ADD_CHUNK_SIZE = 1000;
+
 	protected IDataChangeSupport changeSupport;
 
 	protected RepositoryConnection connection;
@@ -54,6 +85,9 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 	@Inject
 	protected Injector injector;
 
+	@Inject(optional = true)
+	protected ParsedQueryCache queryCache;
+
 	@Inject
 	protected Repository repository;
 
@@ -65,13 +99,27 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 	@Inject
 	public RDF4JRepositoryDataManager(Repository repository,
 			IDataChangeSupport changeSupport) {
+		this(openConnection(repository), changeSupport);
+	}
+
+	/**
+	 * Creates a data manager that works on an already opened connection. The
+	 * connection is handed to {@link #releaseConnection(RepositoryConnection)}
+	 * when this data manager is closed.
+	 */
+	protected RDF4JRepositoryDataManager(RepositoryConnection connection,
+			IDataChangeSupport changeSupport) {
+		this.connection = connection;
+		this.changeSupport = changeSupport;
+		this.transaction = new RDF4JTransaction(this, changeSupport);
+	}
+
+	private static RepositoryConnection openConnection(Repository repository) {
 		try {
-			connection = repository.getConnection();
+			return repository.getConnection();
 		} catch (Exception e) {
 			throw new KommaException(e);
 		}
-		this.changeSupport = changeSupport;
-		this.transaction = new RDF4JTransaction(this, changeSupport);
 	}
 
 	protected IReference[] addNullContext(boolean includeInferred,
@@ -97,36 +145,29 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 		IRI[] readCtx = valueConverter.toRdf4jIRI(readContexts);
 		IRI[] addCtx = valueConverter.toRdf4jIRI(addContexts);
 		try {
-			Iterator<? extends IStatement> it = statements.iterator();
-
 			RepositoryConnection conn = getConnection();
 			boolean trackChanges = changeSupport.isEnabled(this);
 			boolean verifyChanges = changeSupport.getMode(this) == IDataChangeSupport.Mode.VERIFY_ALL;
-			while (it.hasNext()) {
-				IStatement stmt = it.next();
-
-				Resource subject = valueConverter.toRdf4j(stmt.getSubject());
-				IRI predicate = (IRI) valueConverter.toRdf4j(stmt
-						.getPredicate());
-				Value object = valueConverter.toRdf4j((IValue) stmt
-						.getObject());
-
-				if (trackChanges) {
-					if (!verifyChanges || !conn.hasStatement(subject, predicate, object, false,
-							readCtx)) {
-						for (IReference ctx : addContexts) {
-							changeSupport.add(
-									this,
-									new Statement(stmt.getSubject(), stmt
-											.getPredicate(), stmt.getObject(),
-											ctx, stmt.isInferred()));
-						}
-					}
-				}
-				if (!stmt.isInferred()) {
-					conn.add(subject, predicate, object, addCtx);
+
+			List<IStatement> chunk = new ArrayList<>(ADD_CHUNK_SIZE);
+			List<org.eclipse.rdf4j.model.Statement> converted = new ArrayList<>(
+					ADD_CHUNK_SIZE);
+			ValueFactory vf = conn.getValueFactory();
+			for (IStatement stmt : statements) {
+				chunk.add(stmt);
+				converted.add(vf.createStatement(
+						valueConverter.toRdf4j(stmt.getSubject()),
+						(IRI) valueConverter.toRdf4j(stmt.getPredicate()),
+						valueConverter.toRdf4j((IValue) stmt.getObject())));
+				if (chunk.size() == ADD_CHUNK_SIZE) {
+					addChunk(conn, chunk, converted, trackChanges,
+							verifyChanges, readCtx, addContexts, addCtx);
 				}
 			}
+			if (!chunk.isEmpty()) {
+				addChunk(conn, chunk, converted, trackChanges, verifyChanges,
+						readCtx, addContexts, addCtx);
+			}
 			if (!getTransaction().isActive()) {
 				clearNodeMappings();
 				if (changeSupport.isEnabled(this)) {
@@ -139,6 +180,113 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 		return this;
 	}
 
+	/**
+	 * Records the changes for a chunk of statements and adds all
+	 * non-inferred statements of the chunk with one call to the repository.
+	 * Both lists are cleared afterwards so that they can be reused.
+	 */
+	protected void addChunk(RepositoryConnection conn,
+			List<IStatement> chunk,
+			List<org.eclipse.rdf4j.model.Statement> converted,
+			boolean trackChanges, boolean verifyChanges, IRI[] readCtx,
+			IReference[] addContexts, IRI[] addCtx) throws RepositoryException {
+		boolean hasInferred = false;
+		if (trackChanges) {
+			Set<org.eclipse.rdf4j.model.Statement> existing = verifyChanges ? findExisting(
+					conn, converted, readCtx) : Collections.emptySet();
+			for (int i = 0; i < chunk.size(); i++) {
+				IStatement stmt = chunk.get(i);
+				hasInferred |= stmt.isInferred();
+				// the set also contains preceding statements of this chunk,
+				// which reflects the previous statement-by-statement behavior
+				if (!verifyChanges || existing.add(converted.get(i))) {
+					for (IReference ctx : addContexts) {
+						changeSupport.add(this,
+								new Statement(stmt.getSubject(), stmt
+										.getPredicate(), stmt.getObject(),
+										ctx, stmt.isInferred()));
+					}
+				}
+			}
+		} else {
+			for (IStatement stmt : chunk) {
+				hasInferred |= stmt.isInferred();
+			}
+		}
+		if (hasInferred) {
+			List<org.eclipse.rdf4j.model.Statement> explicit = new ArrayList<>(
+					converted.size());
+			for (int i = 0; i < chunk.size(); i++) {
+				if (!chunk.get(i).isInferred()) {
+					explicit.add(converted.get(i));
+				}
+			}
+			conn.add(explicit, addCtx);
+		} else {
+			conn.add(converted, addCtx);
+		}
+		Metrics.get().count("dm.add", chunk.size());
+		chunk.clear();
+		converted.clear();
+	}
+
+	/**
+	 * Determines which of the given statements already exist within the
+	 * given contexts. Statements without blank nodes are checked with one
+	 * query, statements with blank nodes and small chunks are checked
+	 * individually.
+	 */
+	protected Set<org.eclipse.rdf4j.model.Statement> findExisting(
+			RepositoryConnection conn,
+			List<org.eclipse.rdf4j.model.Statement> stmts, IRI[] readCtx)
+			throws RepositoryException {
+		Set<org.eclipse.rdf4j.model.Statement> existing = new HashSet<>();
+		StringBuilder values = new StringBuilder();
+		boolean probe = stmts.size() < 10;
+		for (org.eclipse.rdf4j.model.Statement stmt : stmts) {
+			if (probe || stmt.getSubject() instanceof BNode
+					|| stmt.getObject() instanceof BNode) {
+				if (conn.hasStatement(stmt.getSubject(), stmt.getPredicate(),
+						stmt.getObject(), false, readCtx)) {
+					existing.add(stmt);
+				}
+			} else {
+				values.append("(")
+						.append(NTriplesUtil.toNTriplesString(stmt.getSubject()))
+						.append(" ")
+						.append(NTriplesUtil.toNTriplesString(stmt.getPredicate()))
+						.append(" ")
+						.append(NTriplesUtil.toNTriplesString(stmt.getObject()))
+						.append(")\n");
+			}
+		}
+		if (values.length() > 0) {
+			TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL,
+					"SELECT ?s ?p ?o WHERE { VALUES (?s ?p ?o) {\n" + values
+							+ "} ?s ?p ?o }");
+			query.setIncludeInferred(false);
+			if (readCtx.length > 0) {
+				SimpleDataset ds = new SimpleDataset();
+				for (IRI graph : readCtx) {
+					// the default graph has to be referenced explicitly
+					ds.addDefaultGraph(graph == null ? RDF4J.NIL : graph);
+				}
+				query.setDataset(ds);
+			}
+			ValueFactory vf = conn.getValueFactory();
+			try (TupleQueryResult result = query.evaluate()) {
+				while (result.hasNext()) {
+					BindingSet bindings = result.next();
+					existing.add(vf.createStatement(
+							(Resource) bindings.getValue("s"),
+							(IRI) bindings.getValue("p"),
+							bindings.getValue("o")));
+				}
+			}
+		}
+		return existing;
+	}
+
 	@Override
 	public IDataManager add(Iterable<? extends IStatement> statements,
 			IReference... addContexts) {
@@ -170,7 +318,7 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 		}
 		changeSupport.close(this);
 		try {
-			connection.close();
+			releaseConnection(connection);
 		} catch (Exception e) {
 			throw new KommaException(e);
 		} finally {
@@ -178,11 +326,43 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 		}
 	}
 
+	/**
+	 * Frees the connection of this data manager. The default implementation
+	 * simply closes the connection.
+	 */
+	protected void releaseConnection(RepositoryConnection connection)
+			throws RepositoryException {
+		connection.close();
+	}
+
 	protected Query prepareRdf4jQuery(String query, String baseURI,
 			boolean includeInferred) throws MalformedQueryException,
 			RepositoryException {
-		return getConnection().prepareQuery(QueryLanguage.SPARQL, query,
-				baseURI);
+		RepositoryConnection conn = getConnection();
+		// parsed queries are only shared for plain sail repositories
+		// whose query objects can be created directly
+		if (queryCache != null
+				&& conn.getClass() == SailRepositoryConnection.class) {
+			SailRepositoryConnection sailConn = (SailRepositoryConnection) conn;
+			ParsedQuery parsedQuery = queryCache.parseQuery(query, baseURI);
+			if (parsedQuery instanceof ParsedTupleQuery) {
+				return new SailTupleQuery((ParsedTupleQuery) parsedQuery,
+						sailConn);
+			} else if (parsedQuery instanceof ParsedGraphQuery) {
+				// the constructors of SailGraphQuery and SailBooleanQuery are
+				// protected (only SailTupleQuery's is public) and
+				// SailRepositoryConnection offers no method for preparing an
+				// already parsed query, hence the empty anonymous subclasses
+				return new SailGraphQuery((ParsedGraphQuery) parsedQuery,
+						sailConn) {
+				};
+			} else if (parsedQuery instanceof ParsedBooleanQuery) {
+				return new SailBooleanQuery((ParsedBooleanQuery) parsedQuery,
+						sailConn) {
+				};
+			}
+		}
+		return conn.prepareQuery(QueryLanguage.SPARQL, query, baseURI);
 	}
 
 	protected String ensureBindingsInGraph(String query, IReference[] contexts) {
@@ -274,12 +454,7 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 			// query = ensureBindingsInGraph(query, contexts);
 			Query rdf4jQuery = prepareRdf4jQuery(query, baseURI,
 					includeInferred);
-			setDataset(rdf4jQuery, contexts);
-			rdf4jQuery.setIncludeInferred(includeInferred);
-
-			RDF4JQuery<R> result = new RDF4JQuery<R>(rdf4jQuery);
-			injector.injectMembers(result);
-			return result;
+			return wrapQuery(rdf4jQuery, query, includeInferred, contexts);
 		} catch (RepositoryException e) {
 			throw new KommaException(e);
 		} catch (MalformedQueryException e) {
@@ -287,6 +462,52 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 		}
 	}
 
+	/**
+	 * Creates a tuple query for an already parsed query expression. The
+	 * expression may be shared and is not modified.
+	 * <p>
+	 * Plain sail repositories evaluate the expression directly, other
+	 * repositories evaluate a rendered SPARQL form of it.
+	 */
+	public <R> IDataManagerQuery<R> createQuery(TupleExpr tupleExpr,
+			String baseURI, boolean includeInferred, IReference... contexts) {
+		contexts = addNullContext(includeInferred, contexts);
+		try {
+			RepositoryConnection conn = getConnection();
+			Query rdf4jQuery;
+			if (conn.getClass() == SailRepositoryConnection.class) {
+				// the sail evaluates a copy of the expression
+				rdf4jQuery = new SailTupleQuery(new ParsedTupleQuery(
+						tupleExpr), (SailRepositoryConnection) conn);
+			} else {
+				String query = new SparqlTupleExprRenderer()
+						.render(new QueryRoot(tupleExpr.clone()));
+				rdf4jQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL,
+						query, baseURI);
+			}
+			return wrapQuery(rdf4jQuery, includeInferred, contexts);
+		} catch (KommaException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new KommaException(e);
+		}
+	}
+
+	protected <R> IDataManagerQuery<R> wrapQuery(Query rdf4jQuery,
+			boolean includeInferred, IReference[] contexts) {
+		return wrapQuery(rdf4jQuery, null, includeInferred, contexts);
+	}
+
+	protected <R> IDataManagerQuery<R> wrapQuery(Query rdf4jQuery,
+			String queryText, boolean includeInferred, IReference[] contexts) {
+		setDataset(rdf4jQuery, contexts);
+		rdf4jQuery.setIncludeInferred(includeInferred);
+
+		RDF4JQuery<R> result = new RDF4JQuery<R>(rdf4jQuery, queryText);
+		injector.injectMembers(result);
+		return result;
+	}
+
 	@Override
 	public IDataManagerUpdate createUpdate(final String update, String baseURI,
 			final boolean includeInferred, final IReference... contexts) {
@@ -300,8 +521,19 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 			IReference... modifyContexts) {
 		readContexts = addNullContext(includeInferred, readContexts);
 		if (changeSupport.isEnabled(this)) {
-			RDF4JUpdate result = new RDF4JUpdate(this, update, baseURI,
-					includeInferred, readContexts, modifyContexts);
+			RDF4JUpdate result;
+			if (queryCache != null) {
+				try {
+					result = new RDF4JUpdate(this, queryCache.parseUpdate(
+							update, baseURI), baseURI, includeInferred,
+							readContexts, modifyContexts);
+				} catch (MalformedQueryException e) {
+					throw new KommaException(e);
+				}
+			} else {
+				result = new RDF4JUpdate(this, update, baseURI,
+						includeInferred, readContexts, modifyContexts);
+			}
 			injector.injectMembers(result);
 			return result;
 		} else {
@@ -405,6 +637,7 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 	public boolean hasMatch(IReference subject, IReference predicate,
 			IValue object, boolean includeInferred, IReference... contexts) {
 		contexts = addNullContext(includeInferred, contexts);
+		Metrics.get().count("dm.hasMatch", 1);
 		try {
 			return getConnection().hasStatement(
 					(Resource) valueConverter.toRdf4j(subject),
@@ -426,6 +659,7 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 			IReference predicate, IValue object, boolean includeInferred,
 			IReference... contexts) {
 		contexts = addNullContext(includeInferred, contexts);
+		Metrics.get().count("dm.match", 1);
 		try {
 			RDF4JGraphResult result = new RDF4JGraphResult(getConnection()
 					.getStatements(valueConverter.toRdf4j(subject),
@@ -465,6 +699,7 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 			contexts = NULL_CTX;
 		}
 		IRI[] removeContexts = valueConverter.toRdf4jIRI(contexts);
+		IMetrics metrics = Metrics.get();
 		try {
 			RepositoryConnection conn = getConnection();
 			boolean trackChanges = changeSupport.isEnabled(this);
@@ -526,6 +761,7 @@ public class RDF4JRepositoryDataManager implements IDataManager {
 					}
 					conn.remove(subject, predicate, object, removeContexts);
 				}
+				metrics.count("dm.remove", 1);
 			}
 			if (changeSupport.isEnabled(this) && !getTransaction().isActive()) {
 				changeSupport.commit(this);
@@ -17,6 +17,7 @@ import net.enilink.komma.core.KommaException;
 import net.enilink.komma.core.LinkedHashBindings;
 import net.enilink.komma.dm.IDataManager;
 import net.enilink.komma.dm.IDataManagerUpdate;
+import net.enilink.komma.rdf4j.IDataSourceResolver;
 import net.enilink.komma.rdf4j.RDF4JValueConverter;
 
 /**
@@ -30,6 +31,9 @@ public class RDF4JUpdate implements IDataManagerUpdate {
 	@Inject
 	ValueFactory vf;
 
+	@Inject(optional = true)
+	IDataSourceResolver sourceResolver;
+
 	final IDataManager dm;
 	final ParsedUpdate parsedUpdate;
 	final String baseURI;
@@ -56,10 +60,25 @@ public class RDF4JUpdate implements IDataManagerUpdate {
 		this.modifyContexts = modifyContexts;
 	}
 
+	/**
+	 * Creates an update for an already parsed update request. The parsed
+	 * update may be shared and is not modified.
+	 */
+	public RDF4JUpdate(IDataManager dm, ParsedUpdate parsedUpdate,
+			String baseURI, boolean includeInferred,
+			IReference[] readContexts, IReference[] modifyContexts) {
+		this.dm = dm;
+		this.parsedUpdate = parsedUpdate;
+		this.baseURI = baseURI;
+		this.includeInferred = includeInferred;
+		this.readContexts = readContexts;
+		this.modifyContexts = modifyContexts;
+	}
+
 	@Override
 	public void execute() {
 		SparqlUpdateExecutor updateExecutor = new SparqlUpdateExecutor(dm,
-				valueConverter, vf);
+				valueConverter, vf, sourceResolver);
 		boolean localTransaction = !dm.getTransaction().isActive();
 		try {
 			if (localTransaction) {
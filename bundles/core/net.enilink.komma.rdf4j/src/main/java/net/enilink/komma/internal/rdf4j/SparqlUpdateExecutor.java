@@ -17,14 +17,18 @@
 package net.enilink.komma.internal.rdf4j;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import org.eclipse.rdf4j.model.Resource;
@@ -51,8 +55,11 @@ import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.helpers.StatementPatternCollector;
 import org.eclipse.rdf4j.queryrender.sparql.SparqlTupleExprRenderer;
 import org.eclipse.rdf4j.repository.sail.helpers.SPARQLUpdateDataBlockParser;
+import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,8 +73,11 @@ import net.enilink.komma.core.IStatementPattern;
 import net.enilink.komma.core.IValue;
 import net.enilink.komma.core.KommaException;
 import net.enilink.komma.core.LinkedHashBindings;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
 import net.enilink.komma.dm.IDataManager;
 import net.enilink.komma.dm.IDataManagerQuery;
+import net.enilink.komma.rdf4j.IDataSourceResolver;
 import net.enilink.komma.rdf4j.RDF4JValueConverter;
 
 public class SparqlUpdateExecutor {
@@ -79,6 +89,19 @@ public class SparqlUpdateExecutor {
 
 	private final ValueFactory vf;
 
+	private final IDataSourceResolver sourceResolver;
+
+	/**
+	 * The number of solutions of a WHERE clause whose DELETE and INSERT
+	 * templates are applied together.
+	 */
+	static final int MODIFY_BATCH_SIZE = 1000;
+
+	/**
+	 * The number of statements of a LOAD operation that are added together.
+	 */
+	static final int LOAD_BATCH_SIZE = 10000;
+
 	static final Collection<IStatementPattern> ANY_STATEMENT = Collections
 			.<IStatementPattern> singleton(new net.enilink.komma.core.StatementPattern(null, null, null));
 
@@ -102,9 +125,15 @@ public class SparqlUpdateExecutor {
 	}
 
 	public SparqlUpdateExecutor(IDataManager dm, RDF4JValueConverter valueConverter, ValueFactory vf) {
+		this(dm, valueConverter, vf, null);
+	}
+
+	public SparqlUpdateExecutor(IDataManager dm, RDF4JValueConverter valueConverter, ValueFactory vf,
+			IDataSourceResolver sourceResolver) {
 		this.dm = dm;
 		this.valueConverter = valueConverter;
 		this.vf = vf;
+		this.sourceResolver = sourceResolver;
 	}
 
 	public void executeUpdate(UpdateExpr updateExpr, String baseURI, IReference[] readContexts,
@@ -137,7 +166,57 @@ public class SparqlUpdateExecutor {
 	protected void executeLoad(Load load, UpdateContext uc) throws KommaException {
 		Value source = load.getSource().getValue();
 		Value graph = load.getGraph() != null ? load.getGraph().getValue() : null;
-		// TODO load source into graph
+		IReference[] contexts = graph instanceof Resource
+				? new IReference[] { valueConverter.fromRdf4j((Resource) graph) }
+				: uc.modifyContexts;
+		URI sourceUri = URIs.createURI(source.stringValue());
+		try (InputStream in = openSource(sourceUri)) {
+			RDFParser parser = Rio.createParser(determineFormat(sourceUri), vf);
+			// the statements are added in batches while the source is parsed
+			final List<IStatement> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+			parser.setRDFHandler(new AbstractRDFHandler() {
+				@Override
+				public void handleStatement(Statement stmt) throws RDFHandlerException {
+					batch.add(new net.enilink.komma.core.Statement(
+							(IReference) valueConverter.fromRdf4j(stmt.getSubject()),
+							(IReference) valueConverter.fromRdf4j(stmt.getPredicate()),
+							valueConverter.fromRdf4j(stmt.getObject())));
+					if (batch.size() == LOAD_BATCH_SIZE) {
+						dm.add(batch, contexts);
+						batch.clear();
+					}
+				}
+			});
+			parser.parse(in, sourceUri.toString());
+			if (!batch.isEmpty()) {
+				dm.add(batch, contexts);
+			}
+		} catch (IOException | RDFParseException | RDFHandlerException | KommaException e) {
+			if (!load.isSilent()) {
+				throw e instanceof KommaException ? (KommaException) e
+						: new KommaException("Loading of " + sourceUri + " failed", e);
+			}
+		}
+	}
+
+	protected InputStream openSource(URI uri) throws IOException {
+		if (sourceResolver != null) {
+			return sourceResolver.openStream(uri);
+		}
+		if ("file".equals(uri.scheme()) || "jar".equals(uri.scheme())) {
+			return new URL(uri.toString()).openStream();
+		}
+		throw new IOException("Unsupported source for LOAD: " + uri);
+	}
+
+	protected RDFFormat determineFormat(URI uri) {
+		String mimeType = sourceResolver != null ? sourceResolver.getMimeType(uri) : null;
+		Optional<RDFFormat> format = mimeType != null ? Rio.getParserFormatForMIMEType(mimeType)
+				: Optional.empty();
+		if (!format.isPresent() && uri.lastSegment() != null) {
+			format = Rio.getParserFormatForFileName(uri.lastSegment());
+		}
+		return format.orElse(RDFFormat.RDFXML);
 	}
 
 	protected void executeCreate(Create create, UpdateContext uc) throws KommaException {
@@ -289,8 +368,14 @@ public class SparqlUpdateExecutor {
 
 	protected IExtendedIterator<?> evaluateSparql(TupleExpr tupleExpr, UpdateContext uc) {
 		try {
+			if (dm instanceof RDF4JRepositoryDataManager) {
+				// evaluate the algebra directly without rendering and parsing
+				return ((RDF4JRepositoryDataManager) dm)
+						.createQuery(tupleExpr, uc.baseURI, uc.includeInferred, uc.readContexts).evaluate();
+			}
 			SparqlTupleExprRenderer renderer = new SparqlTupleExprRenderer();
-			String sparql = renderer.render(tupleExpr);
+			// the expression may be shared, hence it is copied before adding a root
+			String sparql = renderer.render(new QueryRoot(tupleExpr.clone()));
 			return dm.createQuery(sparql, uc.baseURI, uc.includeInferred, uc.readContexts).evaluate();
 		} catch (KommaException e) {
 			throw e;
@@ -302,13 +387,72 @@ public class SparqlUpdateExecutor {
 
 	protected void executeModify(Modify modify, UpdateContext uc) throws KommaException {
 		TupleExpr whereClause = modify.getWhereExpr();
-		if (!(whereClause instanceof QueryRoot)) {
-			whereClause = new QueryRoot(whereClause);
+		if (whereClause instanceof QueryRoot) {
+			whereClause = ((QueryRoot) whereClause).getArg();
 		}
+		List<StatementPattern> deletePatterns = modify.getDeleteExpr() != null
+				? StatementPatternCollector.process(modify.getDeleteExpr())
+				: Collections.<StatementPattern> emptyList();
+		List<StatementPattern> insertPatterns = modify.getInsertExpr() != null
+				? StatementPatternCollector.process(modify.getInsertExpr())
+				: Collections.<StatementPattern> emptyList();
+		// all solutions are computed before any change is applied, else the
+		// solutions of later batches could see the changes of earlier ones
+		List<IBindings<IValue>> solutions;
 		try (IExtendedIterator<IBindings<IValue>> sourceBindings = evaluateWhereClause(whereClause, uc)) {
-			for (IBindings<IValue> bs : sourceBindings) {
-				deleteBoundTriples(bs, modify.getDeleteExpr(), uc);
-				insertBoundTriples(bs, modify.getInsertExpr(), uc);
+			solutions = sourceBindings.toList();
+		}
+		// the triples of all solutions are removed before any triple is added
+		List<StatementPattern> noPatterns = Collections.emptyList();
+		for (int i = 0; i < solutions.size(); i += MODIFY_BATCH_SIZE) {
+			modifyBatch(solutions.subList(i, Math.min(i + MODIFY_BATCH_SIZE, solutions.size())), deletePatterns,
+					noPatterns, uc);
+		}
+		for (int i = 0; i < solutions.size(); i += MODIFY_BATCH_SIZE) {
+			modifyBatch(solutions.subList(i, Math.min(i + MODIFY_BATCH_SIZE, solutions.size())), noPatterns,
+					insertPatterns, uc);
+		}
+	}
+
+	/**
+	 * Instantiates the DELETE and INSERT templates for a batch of solutions.
+	 * All triples of the batch are removed and afterwards added with one call
+	 * to the data manager per target context.
+	 * <p>
+	 * {@link #executeModify(Modify, UpdateContext)} evaluates the WHERE clause
+	 * completely and calls this method first with the DELETE templates for all
+	 * batches and then with the INSERT templates for all batches.
+	 */
+	protected void modifyBatch(List<IBindings<IValue>> batch, List<StatementPattern> deletePatterns,
+			List<StatementPattern> insertPatterns, UpdateContext uc) throws KommaException {
+		if (!deletePatterns.isEmpty()) {
+			// triples without an explicit graph are mapped to the null key
+			Map<IReference, List<IStatementPattern>> deletes = new LinkedHashMap<>();
+			for (IBindings<IValue> bs : batch) {
+				deleteBoundTriples(bs, deletePatterns, deletes);
+			}
+			for (Map.Entry<IReference, List<IStatementPattern>> entry : deletes.entrySet()) {
+				if (entry.getKey() != null) {
+					dm.remove(entry.getValue(), entry.getKey());
+				} else {
+					dm.remove(entry.getValue(), uc.modifyContexts);
+				}
+			}
+		}
+		if (!insertPatterns.isEmpty()) {
+			Map<IReference, List<IStatement>> inserts = new LinkedHashMap<>();
+			for (IBindings<IValue> bs : batch) {
+				insertBoundTriples(bs, insertPatterns, inserts);
+			}
+			for (Map.Entry<IReference, List<IStatement>> entry : inserts.entrySet()) {
+				IReference[] with = uc.modifyContexts;
+				if (entry.getKey() != null) {
+					dm.add(entry.getValue(), entry.getKey());
+				} else if (with == null) {
+					dm.add(entry.getValue());
+				} else {
+					dm.add(entry.getValue(), with);
+				}
 			}
 		}
 	}
@@ -348,58 +492,40 @@ public class SparqlUpdateExecutor {
 
 	}
 
-	private void deleteBoundTriples(IBindings<IValue> whereBinding, TupleExpr deleteClause, UpdateContext uc)
-			throws KommaException {
-		if (deleteClause != null) {
-			List<StatementPattern> deletePatterns = StatementPatternCollector.process(deleteClause);
-			for (StatementPattern deletePattern : deletePatterns) {
-				IReference subject = (IReference) getValueForVar(deletePattern.getSubjectVar(), whereBinding);
-				IReference predicate = (IReference) getValueForVar(deletePattern.getPredicateVar(), whereBinding);
-				IValue object = getValueForVar(deletePattern.getObjectVar(), whereBinding);
-
-				IReference context = null;
-				if (deletePattern.getContextVar() != null) {
-					context = (IReference) getValueForVar(deletePattern.getContextVar(), whereBinding);
-				}
+	private void deleteBoundTriples(IBindings<IValue> whereBinding, List<StatementPattern> deletePatterns,
+			Map<IReference, List<IStatementPattern>> deletes) throws KommaException {
+		for (StatementPattern deletePattern : deletePatterns) {
+			IReference subject = (IReference) getValueForVar(deletePattern.getSubjectVar(), whereBinding);
+			IReference predicate = (IReference) getValueForVar(deletePattern.getPredicateVar(), whereBinding);
+			IValue object = getValueForVar(deletePattern.getObjectVar(), whereBinding);
 
-				if (subject == null || predicate == null || object == null) {
-					// skip removal of triple if any variable is unbound (may
-					// happen with optional patterns)
-					// See SES-1047.
-					continue;
-				}
+			IReference context = null;
+			if (deletePattern.getContextVar() != null) {
+				context = (IReference) getValueForVar(deletePattern.getContextVar(), whereBinding);
+			}
 
-				net.enilink.komma.core.StatementPattern stmt = new net.enilink.komma.core.StatementPattern(subject,
-						predicate, object);
-				if (context != null) {
-					dm.remove(Collections.singleton(stmt), context);
-				} else {
-					dm.remove(Collections.singleton(stmt), uc.modifyContexts);
-				}
+			if (subject == null || predicate == null || object == null) {
+				// skip removal of triple if any variable is unbound (may
+				// happen with optional patterns)
+				// See SES-1047.
+				continue;
 			}
+
+			deletes.computeIfAbsent(context, c -> new ArrayList<>())
+					.add(new net.enilink.komma.core.StatementPattern(subject, predicate, object));
 		}
 	}
 
-	private void insertBoundTriples(IBindings<IValue> whereBinding, TupleExpr insertClause, UpdateContext uc)
-			throws KommaException {
-		if (insertClause != null) {
-			List<StatementPattern> insertPatterns = StatementPatternCollector.process(insertClause);
-			// bnodes in the insert pattern are locally scoped for each
-			// individual source binding.
-			Map<String, IReference> bnodeMapping = new HashMap<>();
-			for (StatementPattern insertPattern : insertPatterns) {
-				net.enilink.komma.core.Statement toBeInserted = createStatementFromPattern(insertPattern, whereBinding,
-						bnodeMapping);
-				if (toBeInserted != null) {
-					IReference[] with = uc.modifyContexts;
-					if (with == null && toBeInserted.getContext() == null) {
-						dm.add(toBeInserted);
-					} else if (toBeInserted.getContext() == null) {
-						dm.add(toBeInserted, with);
-					} else {
-						dm.add(toBeInserted, toBeInserted.getContext());
-					}
-				}
+	private void insertBoundTriples(IBindings<IValue> whereBinding, List<StatementPattern> insertPatterns,
+			Map<IReference, List<IStatement>> inserts) throws KommaException {
+		// bnodes in the insert pattern are locally scoped for each
+		// individual source binding.
+		Map<String, IReference> bnodeMapping = new HashMap<>();
+		for (StatementPattern insertPattern : insertPatterns) {
+			net.enilink.komma.core.Statement toBeInserted = createStatementFromPattern(insertPattern, whereBinding,
+					bnodeMapping);
+			if (toBeInserted != null) {
+				inserts.computeIfAbsent(toBeInserted.getContext(), c -> new ArrayList<>()).add(toBeInserted);
 			}
 		}
 	}
@@ -435,7 +561,7 @@ public class SparqlUpdateExecutor {
 		} else {
 			object = sourceBindings.get(pattern.getObjectVar().getName());
 			if (object == null && pattern.getObjectVar().isAnonymous()) {
-				object = bnodeMapping.get(pattern.getSubjectVar().getName());
+				object = bnodeMapping.get(pattern.getObjectVar().getName());
 				if (object == null) {
 					object = dm.blankNode();
 					bnodeMapping.put(pattern.getObjectVar().getName(), (IReference) object);
@@ -11,6 +11,8 @@ public abstract class RDF4JResult<S, T> extends NiceIterator<T> {
 
 	private S current;
 
+	private Runnable closeHandler;
+
 	public RDF4JResult(CloseableIteration<S, ? extends Exception> delegate) {
 		this.delegate = delegate;
 		if (!hasNext()) {
@@ -28,10 +30,30 @@ public abstract class RDF4JResult<S, T> extends NiceIterator<T> {
 				throw new KommaException(e);
 			} finally {
 				open = false;
+				if (closeHandler != null) {
+					closeHandler.run();
+					closeHandler = null;
+				}
 			}
 		}
 	}
 
+	/**
+	 * Sets a handler that is run once when this result is closed, either
+	 * explicitly or after the last element was consumed. The handler is run
+	 * immediately if the result is already closed.
+	 * 
+	 * @param closeHandler
+	 *            the handler
+	 */
+	public void onClose(Runnable closeHandler) {
+		if (open) {
+			this.closeHandler = closeHandler;
+		} else {
+			closeHandler.run();
+		}
+	}
+
 	protected abstract T convert(S element) throws Exception;
 
 	public boolean hasNext() {
@@ -0,0 +1,36 @@
+package net.enilink.komma.rdf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.enilink.komma.core.URI;
+
+/**
+ * Resolves the sources of SPARQL <code>LOAD</code> operations.
+ * <p>
+ * If no resolver is bound then only <code>file</code> and <code>jar</code>
+ * URIs can be loaded.
+ */
+public interface IDataSourceResolver {
+	/**
+	 * Opens an input stream for the RDF data at the given URI.
+	 *
+	 * @param uri
+	 *            the URI of the data source
+	 * @return an input stream for the data
+	 * @throws IOException
+	 *             if the source can not be opened
+	 */
+	InputStream openStream(URI uri) throws IOException;
+
+	/**
+	 * Returns the MIME type of the data at the given URI.
+	 *
+	 * @param uri
+	 *            the URI of the data source
+	 * @return the MIME type or <code>null</code> if it is unknown
+	 */
+	default String getMimeType(URI uri) {
+		return null;
+	}
+}
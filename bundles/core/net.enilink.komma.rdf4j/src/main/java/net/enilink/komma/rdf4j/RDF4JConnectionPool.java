@@ -0,0 +1,286 @@
+package net.enilink.komma.rdf4j;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.enilink.komma.core.KommaException;
+
+/**
+ * A bounded pool of {@link RepositoryConnection}s for one {@link Repository}.
+ * <p>
+ * Connections are validated when they are borrowed and closed if they were
+ * idle for longer than the configured idle timeout. Returned connections are
+ * rolled back if they still have an active transaction.
+ */
+public class RDF4JConnectionPool {
+	private static final Logger log = LoggerFactory
+			.getLogger(RDF4JConnectionPool.class);
+
+	static class IdleConnection {
+		final RepositoryConnection connection;
+		final long idleSince;
+
+		IdleConnection(RepositoryConnection connection, long idleSince) {
+			this.connection = connection;
+			this.idleSince = idleSince;
+		}
+	}
+
+	protected final Repository repository;
+
+	protected final int maxSize;
+
+	protected final long idleTimeoutNanos;
+
+	protected final long maxWaitNanos;
+
+	protected final Semaphore permits;
+
+	protected final Deque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+
+	protected volatile boolean closed;
+
+	protected final AtomicLong borrowCount = new AtomicLong();
+
+	protected final AtomicLong createCount = new AtomicLong();
+
+	protected final AtomicLong waitNanos = new AtomicLong();
+
+	/**
+	 * Creates a new connection pool.
+	 *
+	 * @param repository
+	 *            The repository whose connections are pooled
+	 * @param maxSize
+	 *            The maximum number of connections that may be borrowed at
+	 *            the same time
+	 * @param minIdle
+	 *            The number of connections that are opened in advance
+	 * @param idleTimeout
+	 *            The time in milliseconds after which an idle connection is
+	 *            closed or <code>0</code> to keep idle connections forever
+	 * @param maxWait
+	 *            The maximum time in milliseconds to wait for a free
+	 *            connection
+	 */
+	public RDF4JConnectionPool(Repository repository, int maxSize,
+			int minIdle, long idleTimeout, long maxWait) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException(
+					"The pool size must be greater than zero.");
+		}
+		this.repository = repository;
+		this.maxSize = maxSize;
+		this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWait);
+		this.permits = new Semaphore(maxSize, true);
+		for (int i = 0; i < Math.min(minIdle, maxSize); i++) {
+			idle.push(new IdleConnection(createConnection(), System
+					.nanoTime()));
+		}
+	}
+
+	/**
+	 * Borrows a connection from this pool. The connection has to be returned
+	 * by calling {@link #release(RepositoryConnection)}.
+	 *
+	 * @return A valid connection
+	 */
+	public RepositoryConnection borrow() {
+		ensureOpen();
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+				throw new KommaException(
+						"Timeout while waiting for a repository connection.");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KommaException(e);
+		}
+		waitNanos.addAndGet(System.nanoTime() - start);
+		borrowCount.incrementAndGet();
+		try {
+			IdleConnection candidate;
+			while ((candidate = idle.pollFirst()) != null) {
+				if (isExpired(candidate, System.nanoTime())
+						|| !validate(candidate.connection)) {
+					closeQuietly(candidate.connection);
+				} else {
+					return candidate.connection;
+				}
+			}
+			return createConnection();
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns a connection to this pool.
+	 *
+	 * @param connection
+	 *            A connection that was acquired by {@link #borrow()}
+	 */
+	public void release(RepositoryConnection connection) {
+		try {
+			if (closed || !reset(connection)) {
+				closeQuietly(connection);
+			} else {
+				long now = System.nanoTime();
+				idle.push(new IdleConnection(connection, now));
+				evictExpired(now);
+			}
+		} finally {
+			permits.release();
+		}
+		if (closed) {
+			// the pool may have been closed concurrently
+			clearIdle();
+		}
+	}
+
+	/**
+	 * Closes all idle connections and rejects further calls to
+	 * {@link #borrow()}. Borrowed connections are closed when they are
+	 * released.
+	 */
+	public void close() {
+		closed = true;
+		clearIdle();
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Returns the number of connections that are currently borrowed.
+	 */
+	public int getBorrowedCount() {
+		return maxSize - permits.availablePermits();
+	}
+
+	/**
+	 * Returns the number of idle connections.
+	 */
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	/**
+	 * Returns the total number of successful calls to {@link #borrow()}.
+	 */
+	public long getBorrowCount() {
+		return borrowCount.get();
+	}
+
+	/**
+	 * Returns the total number of connections that were opened by this pool.
+	 */
+	public long getCreateCount() {
+		return createCount.get();
+	}
+
+	/**
+	 * Returns the accumulated time in milliseconds that callers of
+	 * {@link #borrow()} have waited for a free connection.
+	 */
+	public long getWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	protected RepositoryConnection createConnection() {
+		try {
+			RepositoryConnection connection = repository.getConnection();
+			createCount.incrementAndGet();
+			return connection;
+		} catch (Exception e) {
+			throw new KommaException(e);
+		}
+	}
+
+	/**
+	 * Checks whether an idle connection can be handed out again.
+	 */
+	protected boolean validate(RepositoryConnection connection) {
+		try {
+			return connection.isOpen() && !connection.isActive();
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Brings a returned connection into a clean state.
+	 *
+	 * @return <code>true</code> if the connection can be reused, else
+	 *         <code>false</code>
+	 */
+	protected boolean reset(RepositoryConnection connection) {
+		try {
+			if (!connection.isOpen()) {
+				return false;
+			}
+			if (connection.isActive()) {
+				connection.rollback();
+			}
+			return true;
+		} catch (Exception e) {
+			log.warn("Discarding pooled connection", e);
+			return false;
+		}
+	}
+
+	protected boolean isExpired(IdleConnection candidate, long now) {
+		return idleTimeoutNanos > 0
+				&& now - candidate.idleSince > idleTimeoutNanos;
+	}
+
+	protected void evictExpired(long now) {
+		if (idleTimeoutNanos <= 0) {
+			return;
+		}
+		// the oldest connections are at the end of the deque
+		IdleConnection oldest;
+		while ((oldest = idle.peekLast()) != null && isExpired(oldest, now)) {
+			if (idle.removeLastOccurrence(oldest)) {
+				closeQuietly(oldest.connection);
+			}
+		}
+	}
+
+	protected void clearIdle() {
+		IdleConnection candidate;
+		while ((candidate = idle.pollFirst()) != null) {
+			closeQuietly(candidate.connection);
+		}
+	}
+
+	protected void ensureOpen() {
+		if (closed) {
+			throw new IllegalStateException("Connection pool is closed.");
+		}
+	}
+
+	protected void closeQuietly(RepositoryConnection connection) {
+		try {
+			connection.close();
+		} catch (Exception e) {
+			log.warn("Error while closing connection", e);
+		}
+	}
+}
@@ -8,12 +8,15 @@ import com.google.inject.Provides;
 import com.google.inject.Singleton;
 
 import net.enilink.komma.dm.IDataManagerFactory;
+import net.enilink.komma.internal.rdf4j.ParsedQueryCache;
 
 public class RDF4JModule extends AbstractModule {
 	@Override
 	protected void configure() {
 		bind(RDF4JDataManagerFactory.class).in(Singleton.class);
 		bind(IDataManagerFactory.class).to(RDF4JDataManagerFactory.class);
+		// parsed queries are shared by all data managers of the repository
+		bind(ParsedQueryCache.class).in(Singleton.class);
 	}
 
 	@Provides
@@ -0,0 +1,89 @@
+package net.enilink.komma.rdf4j;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.dm.change.IDataChangeSupport;
+import net.enilink.komma.internal.rdf4j.PooledRDF4JRepositoryDataManager;
+
+/**
+ * Data manager factory that reuses repository connections.
+ * <p>
+ * All data managers share a bounded {@link RDF4JConnectionPool}. Closing a
+ * data manager returns its connection to the pool. The pool can be configured
+ * by binding the following named constants:
+ * <ul>
+ * <li><code>rdf4j.pool.maxSize</code> - maximum number of borrowed
+ * connections (default: {@value #DEFAULT_MAX_SIZE})</li>
+ * <li><code>rdf4j.pool.minIdle</code> - number of connections that are opened
+ * in advance (default: {@value #DEFAULT_MIN_IDLE})</li>
+ * <li><code>rdf4j.pool.idleTimeout</code> - milliseconds after which idle
+ * connections are closed (default: {@value #DEFAULT_IDLE_TIMEOUT})</li>
+ * <li><code>rdf4j.pool.maxWait</code> - milliseconds to wait for a free
+ * connection (default: {@value #DEFAULT_MAX_WAIT})</li>
+ * </ul>
+ */
+public class RDF4JPooledDataManagerFactory extends RDF4JDataManagerFactory {
+	public static final int DEFAULT_MAX_SIZE = 32;
+	public static final int DEFAULT_MIN_IDLE = 2;
+	public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+	public static final long DEFAULT_MAX_WAIT = 30000;
+
+	@Inject(optional = true)
+	@Named("rdf4j.pool.maxSize")
+	protected int maxSize = DEFAULT_MAX_SIZE;
+
+	@Inject(optional = true)
+	@Named("rdf4j.pool.minIdle")
+	protected int minIdle = DEFAULT_MIN_IDLE;
+
+	@Inject(optional = true)
+	@Named("rdf4j.pool.idleTimeout")
+	protected long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+	@Inject(optional = true)
+	@Named("rdf4j.pool.maxWait")
+	protected long maxWait = DEFAULT_MAX_WAIT;
+
+	protected RDF4JConnectionPool pool;
+
+	@Override
+	public IDataManager get() {
+		IDataManager dm = new PooledRDF4JRepositoryDataManager(getPool(),
+				injector.getInstance(IDataChangeSupport.class));
+		injector.injectMembers(dm);
+		return dm;
+	}
+
+	/**
+	 * Returns the connection pool of this factory.
+	 * 
+	 * @return The connection pool
+	 */
+	public synchronized RDF4JConnectionPool getPool() {
+		if (pool == null) {
+			if (repository == null) {
+				throw new IllegalStateException("Factory is closed.");
+			}
+			pool = createPool();
+		}
+		return pool;
+	}
+
+	protected RDF4JConnectionPool createPool() {
+		return new RDF4JConnectionPool(repository, maxSize, minIdle,
+				idleTimeout, maxWait);
+	}
+
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (pool != null) {
+				pool.close();
+				pool = null;
+			}
+		}
+		super.close();
+	}
+}
@@ -0,0 +1,92 @@
+package net.enilink.komma.rdf4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Singleton;
+import com.google.inject.util.Modules;
+
+import net.enilink.komma.core.Literal;
+import net.enilink.komma.core.Statement;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.dm.IDataManagerFactory;
+import net.enilink.komma.dm.change.DataChangeSupport;
+import net.enilink.komma.dm.change.IDataChangeSupport;
+
+public class RDF4JPooledDataManagerFactoryTest {
+	RDF4JPooledDataManagerFactory factory;
+
+	@Before
+	public void beforeTest() {
+		factory = Guice.createInjector(
+				Modules.override(new RDF4JMemoryStoreModule()).with(
+						new AbstractModule() {
+							@Override
+							protected void configure() {
+								bind(RDF4JPooledDataManagerFactory.class).in(
+										Singleton.class);
+								bind(IDataManagerFactory.class).to(
+										RDF4JPooledDataManagerFactory.class);
+								bind(IDataChangeSupport.class).to(
+										DataChangeSupport.class);
+							}
+						})).getInstance(RDF4JPooledDataManagerFactory.class);
+	}
+
+	@After
+	public void afterTest() {
+		factory.close();
+	}
+
+	@Test
+	public void testReuseConnections() {
+		RDF4JConnectionPool pool = factory.getPool();
+		URI s = URIs.createURI("test:s");
+		URI p = URIs.createURI("test:p");
+
+		IDataManager dm = factory.get();
+		assertEquals(1, pool.getBorrowedCount());
+		dm.add(Arrays.asList(new Statement(s, p, new Literal("o"))));
+		dm.close();
+		assertFalse(dm.isOpen());
+		assertEquals(0, pool.getBorrowedCount());
+
+		for (int i = 0; i < 10; i++) {
+			dm = factory.get();
+			assertTrue(dm.hasMatch(s, p, null, false));
+			dm.close();
+		}
+		assertEquals(11, pool.getBorrowCount());
+		assertEquals(RDF4JPooledDataManagerFactory.DEFAULT_MIN_IDLE,
+				pool.getCreateCount());
+	}
+
+	@Test
+	public void testRollbackOnRelease() {
+		RDF4JConnectionPool pool = factory.getPool();
+		URI s = URIs.createURI("test:s");
+		URI p = URIs.createURI("test:p");
+
+		IDataManager dm = factory.get();
+		dm.getTransaction().begin();
+		dm.add(Arrays.asList(new Statement(s, p, new Literal("o"))));
+		dm.close();
+
+		assertEquals(0, pool.getBorrowedCount());
+		dm = factory.get();
+		assertFalse(dm.getTransaction().isActive());
+		assertFalse(dm.hasMatch(s, p, null, false));
+		dm.close();
+	}
+}
@@ -0,0 +1,417 @@
+package net.enilink.komma.rdf4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+
+import net.enilink.commons.iterator.IExtendedIterator;
+import net.enilink.komma.core.BlankNode;
+import net.enilink.komma.core.IBindings;
+import net.enilink.komma.core.ILiteral;
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.IStatement;
+import net.enilink.komma.core.Literal;
+import net.enilink.komma.core.Statement;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.komma.core.metrics.JmxMetrics;
+import net.enilink.komma.core.metrics.Metrics;
+import net.enilink.komma.core.metrics.TimerStatistics;
+import net.enilink.komma.dm.IDataManager;
+import net.enilink.komma.dm.IDataManagerFactory;
+import net.enilink.komma.dm.change.DataChangeSupport;
+import net.enilink.komma.dm.change.IDataChange;
+import net.enilink.komma.dm.change.IDataChangeSupport;
+import net.enilink.komma.dm.change.IStatementChange;
+import net.enilink.komma.internal.rdf4j.ParsedQueryCache;
+
+public class RDF4JRepositoryDataManagerTest {
+	Injector injector;
+	IDataManagerFactory factory;
+	DataChangeSupport changeSupport;
+	List<IDataChange> changes = new ArrayList<>();
+
+	@Before
+	public void beforeTest() {
+		injector = Guice.createInjector(new RDF4JMemoryStoreModule(),
+				new AbstractModule() {
+					@Override
+					protected void configure() {
+						bind(DataChangeSupport.class).in(Singleton.class);
+						bind(IDataChangeSupport.class).to(
+								DataChangeSupport.class);
+					}
+				});
+		changeSupport = injector.getInstance(DataChangeSupport.class);
+		changeSupport.setDefaultMode(IDataChangeSupport.Mode.VERIFY_ALL);
+		changeSupport.addChangeListener(changes::addAll);
+		factory = injector.getInstance(IDataManagerFactory.class);
+	}
+
+	@After
+	public void afterTest() {
+		changeSupport.setAsynchronous(false);
+		factory.close();
+	}
+
+	@Test
+	public void testAddChunksWithVerification() {
+		URI ctx = URIs.createURI("test:ctx");
+		URI p = URIs.createURI("test:p");
+		IReference bnode = new BlankNode();
+
+		List<IStatement> stmts = new ArrayList<>();
+		for (int i = 0; i < 2500; i++) {
+			stmts.add(new Statement(URIs.createURI("test:s" + i), p,
+					new Literal("value " + i)));
+		}
+		stmts.add(new Statement(bnode, p, URIs.createURI("test:s1")));
+
+		IDataManager dm = factory.get();
+		dm.add(stmts.subList(0, 1000), ctx);
+		assertEquals(1000, changes.size());
+
+		changes.clear();
+		// contains duplicates of existing and of newly added statements
+		List<IStatement> more = new ArrayList<>(stmts);
+		more.addAll(stmts.subList(1500, 2500));
+		dm.add(more, ctx);
+		assertEquals(1501, changes.size());
+		for (IDataChange change : changes) {
+			assertTrue(change instanceof IStatementChange);
+			assertEquals(ctx, ((IStatementChange) change).getStatement()
+					.getContext());
+		}
+		assertTrue(dm.hasMatch(null, p, URIs.createURI("test:s1"), false,
+				ctx));
+
+		changes.clear();
+		dm.add(stmts, ctx);
+		assertEquals(0, changes.size());
+
+		// statements within the default context
+		changes.clear();
+		IReference[] defaultCtx = { null };
+		dm.add(stmts.subList(0, 10), defaultCtx);
+		assertEquals(10, changes.size());
+		changes.clear();
+		dm.add(stmts.subList(0, 20), defaultCtx);
+		assertEquals(10, changes.size());
+		dm.close();
+	}
+
+	@Test
+	public void testAsynchronousDispatch() throws Exception {
+		URI p = URIs.createURI("test:p");
+		List<IDataChange> internalChanges = new ArrayList<>();
+		List<IDataChange> asyncChanges = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> asyncThreads = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch blocked = new CountDownLatch(1);
+		changeSupport.addInternalChangeListener(internalChanges::addAll);
+		changeSupport.addChangeListener(list -> {
+			try {
+				blocked.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			asyncThreads.add(Thread.currentThread());
+			asyncChanges.addAll(list);
+		});
+		changeSupport.setAsynchronous(true);
+		assertTrue(changeSupport.isAsynchronous());
+		changes.clear();
+
+		IDataManager dm = factory.get();
+		List<IStatement> stmts = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			IStatement stmt = new Statement(URIs.createURI("test:s" + i), p, new Literal("value " + i));
+			stmts.add(stmt);
+			dm.add(stmt);
+		}
+		// internal listeners are notified by the committing thread
+		assertEquals(100, internalChanges.size());
+		assertEquals(0, asyncChanges.size());
+
+		blocked.countDown();
+		assertTrue(changeSupport.flush(10, TimeUnit.SECONDS));
+		assertEquals(100, asyncChanges.size());
+		assertEquals(100, changes.size());
+		for (int i = 0; i < stmts.size(); i++) {
+			assertEquals(stmts.get(i), ((IStatementChange) asyncChanges.get(i)).getStatement());
+		}
+		// changes of multiple commits are coalesced
+		assertTrue(asyncThreads.size() < 100);
+		assertSame(asyncThreads.get(0), asyncThreads.get(asyncThreads.size() - 1));
+		assertNotSame(Thread.currentThread(), asyncThreads.get(0));
+		dm.close();
+	}
+
+	@Test
+	public void testAsynchronousDispatchAfterError() throws Exception {
+		URI p = URIs.createURI("test:p");
+		List<IDataChange> asyncChanges = Collections.synchronizedList(new ArrayList<>());
+		List<Throwable> reported = Collections.synchronizedList(new ArrayList<>());
+		changeSupport.addChangeListener(list -> {
+			if (asyncChanges.isEmpty()) {
+				asyncChanges.addAll(list);
+				Thread.currentThread().setUncaughtExceptionHandler((t, e) -> reported.add(e));
+				throw new AssertionError("listener failed");
+			}
+			asyncChanges.addAll(list);
+		});
+		changeSupport.setAsynchronous(true);
+
+		IDataManager dm = factory.get();
+		dm.add(new Statement(URIs.createURI("test:s1"), p, new Literal("value 1")));
+		assertTrue(changeSupport.flush(10, TimeUnit.SECONDS));
+		assertEquals(1, reported.size());
+		assertTrue(reported.get(0) instanceof AssertionError);
+
+		// the dispatcher keeps delivering changes after the error
+		dm.add(new Statement(URIs.createURI("test:s2"), p, new Literal("value 2")));
+		assertTrue(changeSupport.flush(10, TimeUnit.SECONDS));
+		assertEquals(2, asyncChanges.size());
+		dm.close();
+	}
+
+	@Test
+	public void testConcurrentChangeRecording() throws Exception {
+		URI p = URIs.createURI("test:p");
+		List<List<IDataChange>> batches = Collections.synchronizedList(new ArrayList<>());
+		changeSupport.addChangeListener(batches::add);
+
+		int threads = 4, stmtsPerThread = 1500;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				URI ctx = URIs.createURI("test:ctx" + t);
+				futures.add(executor.submit(() -> {
+					IDataManager dm = factory.get();
+					try {
+						dm.getTransaction().begin();
+						for (int i = 0; i < stmtsPerThread; i++) {
+							dm.add(new Statement(URIs.createURI("test:s" + i), p, new Literal("value " + i)), ctx);
+						}
+						dm.getTransaction().commit();
+					} finally {
+						dm.close();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// each transaction is delivered as a single batch
+		assertEquals(threads, batches.size());
+		for (List<IDataChange> batch : batches) {
+			assertEquals(stmtsPerThread, batch.size());
+			IReference ctx = ((IStatementChange) batch.get(0)).getStatement().getContext();
+			for (IDataChange change : batch) {
+				assertEquals(ctx, ((IStatementChange) change).getStatement().getContext());
+			}
+		}
+	}
+
+	@Test
+	public void testParsedQueryCache() {
+		URI ctx1 = URIs.createURI("test:ctx1"), ctx2 = URIs.createURI("test:ctx2");
+		URI p = URIs.createURI("test:p");
+		IDataManager dm = factory.get();
+		dm.add(new Statement(URIs.createURI("test:s1"), p, new Literal("1")), ctx1);
+		dm.add(new Statement(URIs.createURI("test:s2"), p, new Literal("2")), ctx2);
+
+		ParsedQueryCache cache = injector.getInstance(ParsedQueryCache.class);
+		cache.invalidateAll();
+		long hits = cache.stats().hitCount(), misses = cache.stats().missCount();
+
+		String query = "SELECT ?o WHERE { ?s ?p ?o }";
+		for (URI ctx : new URI[] { ctx1, ctx2 }) {
+			List<Object> values = dm.createQuery(query, null, false, ctx).setParameter("p", p).evaluate().toList();
+			assertEquals(1, values.size());
+			assertEquals(ctx == ctx1 ? "1" : "2",
+					((ILiteral) ((IBindings<?>) values.get(0)).get("o")).getLabel());
+		}
+		assertTrue(dm.createQuery("ASK { ?s ?p ?o }", null, false, ctx1).setParameter("s",
+				URIs.createURI("test:s1")).evaluate().next() == Boolean.TRUE);
+		assertEquals(misses + 2, cache.stats().missCount());
+		assertEquals(hits + 1, cache.stats().hitCount());
+		dm.close();
+	}
+
+	@Test
+	public void testQueryMetrics() {
+		URI p = URIs.createURI("test:p");
+		IDataManager dm = factory.get();
+		for (int i = 0; i < 3; i++) {
+			dm.add(new Statement(URIs.createURI("test:s" + i), p, new Literal("" + i)));
+		}
+		JmxMetrics metrics = new JmxMetrics();
+		Metrics.set(metrics);
+		try {
+			for (int i = 0; i < 3; i++) {
+				IExtendedIterator<?> result = dm.createQuery(
+						"SELECT ?o WHERE { VALUES ?s { <test:s" + i + "> } ?s ?p ?o }", null, false).evaluate();
+				// the time is recorded when the result is consumed
+				assertEquals(i, count(metrics, "dm.query"));
+				result.toList();
+				assertEquals(i + 1, count(metrics, "dm.query"));
+			}
+			// queries with different inlined values share a timer
+			assertEquals(3, count(metrics,
+					"dm.query:SELECT ?o WHERE { VALUES ?s { ? } ?s ?p ?o }"));
+		} finally {
+			Metrics.set(null);
+			dm.close();
+		}
+	}
+
+	long count(JmxMetrics metrics, String name) {
+		TimerStatistics timer = metrics.getTimers().get(name);
+		return timer == null ? 0 : timer.getCount();
+	}
+
+	@Test
+	public void testModifyBatches() {
+		URI ctx = URIs.createURI("test:ctx"), other = URIs.createURI("test:other");
+		URI p = URIs.createURI("test:p"), q = URIs.createURI("test:q");
+		IDataManager dm = factory.get();
+		List<IStatement> stmts = new ArrayList<>();
+		for (int i = 0; i < 2500; i++) {
+			stmts.add(new Statement(URIs.createURI("test:s" + i), p, new Literal("value " + i)));
+		}
+		dm.add(stmts, ctx);
+
+		changes.clear();
+		// solutions of several batches with templates for different graphs
+		dm.createUpdate("DELETE { ?s <test:p> ?o } INSERT { ?s <test:q> ?o . GRAPH <test:other> { ?s <test:p> [] } } "
+				+ "WHERE { ?s <test:p> ?o }", null, false, ctx).execute();
+		assertEquals(7500, changes.size());
+		int added = 0;
+		for (IDataChange change : changes) {
+			IStatementChange stmtChange = (IStatementChange) change;
+			IStatement stmt = stmtChange.getStatement();
+			if (stmtChange.isAdd()) {
+				added++;
+				assertEquals(p.equals(stmt.getPredicate()) ? other : ctx, stmt.getContext());
+			} else {
+				assertEquals(ctx, stmt.getContext());
+				assertEquals(p, stmt.getPredicate());
+			}
+		}
+		assertEquals(5000, added);
+		assertEquals(0, dm.match(null, p, null, false, ctx).toList().size());
+		assertEquals(2500, dm.match(null, q, null, false, ctx).toList().size());
+		// each solution has its own blank node
+		Set<Object> bnodes = new HashSet<>();
+		for (IStatement stmt : dm.match(null, p, null, false, other)) {
+			bnodes.add(stmt.getObject());
+		}
+		assertEquals(2500, bnodes.size());
+		dm.close();
+	}
+
+	@Test
+	public void testModifyOverlappingBatches() {
+		URI ctx = URIs.createURI("test:ctx");
+		URI p = URIs.createURI("test:p");
+		IDataManager dm = factory.get();
+		List<IStatement> stmts = new ArrayList<>();
+		for (int i = 0; i < 2500; i++) {
+			stmts.add(new Statement(URIs.createURI("test:s" + i), p, URIs.createURI("test:s" + (i + 1))));
+		}
+		// the inverse of the first triple
+		stmts.add(new Statement(URIs.createURI("test:s1"), p, URIs.createURI("test:s0")));
+		dm.add(stmts, ctx);
+
+		List<Long> queriesBeforeChanges = new ArrayList<>();
+		JmxMetrics metrics = new JmxMetrics() {
+			@Override
+			public void count(String name, long delta) {
+				if (name.equals("dm.remove") && queriesBeforeChanges.isEmpty()) {
+					queriesBeforeChanges.add(RDF4JRepositoryDataManagerTest.this.count(this, "dm.query"));
+				}
+				super.count(name, delta);
+			}
+		};
+		Metrics.set(metrics);
+		try {
+			// the inserted triples of each batch match the WHERE clause of
+			// later batches
+			dm.createUpdate("DELETE { ?s <test:p> ?o } INSERT { ?o <test:p> ?s } WHERE { ?s <test:p> ?o }", null,
+					false, ctx).execute();
+		} finally {
+			Metrics.set(null);
+		}
+		// all solutions are computed before the first change is applied
+		assertEquals(Collections.singletonList(1L), queriesBeforeChanges);
+		Set<IStatement> expected = new HashSet<>();
+		for (int i = 0; i < 2500; i++) {
+			expected.add(new Statement(URIs.createURI("test:s" + (i + 1)), p, URIs.createURI("test:s" + i), ctx));
+		}
+		// inserted again after all triples were removed
+		expected.add(new Statement(URIs.createURI("test:s0"), p, URIs.createURI("test:s1"), ctx));
+		assertEquals(expected, new HashSet<>(dm.match(null, p, null, false, ctx).toList()));
+		dm.close();
+	}
+
+	@Test
+	public void testLoad() throws Exception {
+		File file = File.createTempFile("load", ".ttl");
+		file.deleteOnExit();
+		try (Writer writer = Files.newBufferedWriter(file.toPath())) {
+			for (int i = 0; i < 25000; i++) {
+				writer.write("<test:s" + i + "> <test:p> \"value " + i + "\" .\n");
+			}
+		}
+		URI ctx = URIs.createURI("test:ctx");
+		IDataManager dm = factory.get();
+		changes.clear();
+		dm.createUpdate("LOAD <" + file.toURI() + "> INTO GRAPH <test:ctx>", null, false).execute();
+		assertEquals(25000, changes.size());
+		for (IDataChange change : changes) {
+			assertEquals(ctx, ((IStatementChange) change).getStatement().getContext());
+		}
+		assertEquals(25000, dm.match(null, URIs.createURI("test:p"), null, false, ctx).toList().size());
+
+		// missing sources are only ignored by silent operations
+		String missing = new File(file.getParentFile(), "missing-" + file.getName()).toURI().toString();
+		dm.createUpdate("LOAD SILENT <" + missing + ">", null, false).execute();
+		try {
+			dm.createUpdate("LOAD <" + missing + ">", null, false).execute();
+			fail("Loading of a missing source should fail");
+		} catch (RuntimeException e) {
+			// expected
+		}
+		dm.close();
+	}
+}
@@ -0,0 +1,184 @@
+package net.enilink.komma.edit.provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import net.enilink.commons.iterator.IExtendedIterator;
+import net.enilink.komma.common.adapter.IAdapterFactory;
+import net.enilink.komma.core.IEntityManager;
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.IValue;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.em.concepts.IProperty;
+import net.enilink.komma.em.concepts.IResource;
+import net.enilink.komma.em.util.SparqlHelper;
+
+/**
+ * Retrieves the children of multiple objects at once, for example of all
+ * nodes that are shown or expanded in a tree viewer.
+ * <p>
+ * The values of the {@link ItemProviderAdapter#getChildrenProperties(Object)
+ * children properties} of all objects are loaded with a single query per
+ * entity manager and are used to {@link IResource#createPropertyInitializer(
+ * IReference) initialize} the property caches of the objects. Subsequent calls
+ * to {@link ITreeItemContentProvider#getChildren(Object)} and
+ * {@link ITreeItemContentProvider#hasChildren(Object)} are then answered
+ * without further requests to the store. Properties whose values are already
+ * cached are not loaded again.
+ */
+public class ChildrenPrefetcher {
+	/**
+	 * The maximum number of resource and property pairs per query.
+	 */
+	static final int MAX_VALUES = 500;
+
+	/**
+	 * The values of a property that are requested for a resource.
+	 */
+	protected static class Request {
+		final IResource resource;
+		final IProperty property;
+		final Consumer<Collection<?>> initializer;
+
+		Request(IResource resource, IProperty property,
+				Consumer<Collection<?>> initializer) {
+			this.resource = resource;
+			this.property = property;
+			this.initializer = initializer;
+		}
+	}
+
+	protected IAdapterFactory adapterFactory;
+
+	public ChildrenPrefetcher(IAdapterFactory adapterFactory) {
+		this.adapterFactory = adapterFactory;
+	}
+
+	/**
+	 * Loads the children of the given objects. Objects that are not adapted by
+	 * an {@link ItemProviderAdapter} or whose children are already held by a
+	 * {@link ItemProviderAdapter.ChildrenStore} are ignored.
+	 */
+	public void prefetch(Collection<?> objects) {
+		Map<IEntityManager, List<Request>> requestsByManager = new LinkedHashMap<>();
+		for (Object object : objects) {
+			if (!(object instanceof IResource)
+					|| !SparqlHelper.isIri((IResource) object)) {
+				continue;
+			}
+			IResource resource = (IResource) object;
+			IEntityManager em = resource.getEntityManager();
+			// the caches are not used while a transaction is active
+			if (em.getTransaction().isActive()) {
+				continue;
+			}
+			Object provider = adapterFactory.adapt(object,
+					ITreeItemContentProvider.class);
+			if (provider instanceof ItemProviderAdapter) {
+				ItemProviderAdapter adapter = (ItemProviderAdapter) provider;
+				if (adapter.getChildrenStore(object) != null) {
+					continue;
+				}
+				for (IProperty property : adapter.getChildrenProperties(object)) {
+					if (!SparqlHelper.isIri(property)) {
+						continue;
+					}
+					Consumer<Collection<?>> initializer = resource
+							.createPropertyInitializer(property);
+					// is null if the values are already cached
+					if (initializer != null) {
+						requestsByManager.computeIfAbsent(em,
+								m -> new ArrayList<>()).add(
+								new Request(resource, property, initializer));
+					}
+				}
+			}
+		}
+		for (Map.Entry<IEntityManager, List<Request>> entry : requestsByManager
+				.entrySet()) {
+			List<Request> requests = entry.getValue();
+			for (int i = 0; i < requests.size(); i += MAX_VALUES) {
+				prefetch(entry.getKey(), requests.subList(i,
+						Math.min(requests.size(), i + MAX_VALUES)));
+			}
+		}
+	}
+
+	protected void prefetch(IEntityManager em, List<Request> requests) {
+		List<List<IReference>> rows = new ArrayList<>(requests.size());
+		for (Request request : requests) {
+			rows.add(Arrays.<IReference> asList(request.resource,
+					request.property));
+		}
+
+		Map<URI, Map<URI, Set<IValue>>> objects = new HashMap<>();
+		IExtendedIterator<Object[]> results = em
+				.createQuery(
+						"SELECT DISTINCT ?s ?p ?o WHERE { "
+								+ SparqlHelper.values(Arrays.asList("s", "p"),
+										rows) + " ?s ?p ?o }")
+				.restrictResultType("s", IReference.class)
+				.restrictResultType("p", IReference.class)
+				.restrictResultType("o", IValue.class)
+				.evaluate(Object[].class);
+		try {
+			while (results.hasNext()) {
+				Object[] result = results.next();
+				objects.computeIfAbsent(((IReference) result[0]).getURI(),
+						s -> new HashMap<>())
+						.computeIfAbsent(((IReference) result[1]).getURI(),
+								p -> new LinkedHashSet<>())
+						.add((IValue) result[2]);
+			}
+		} finally {
+			results.close();
+		}
+
+		// retrieve the types of all children at once
+		Set<IReference> references = new LinkedHashSet<>();
+		for (Map<URI, Set<IValue>> valuesByProperty : objects.values()) {
+			for (Set<IValue> propertyValues : valuesByProperty.values()) {
+				for (IValue value : propertyValues) {
+					if (value instanceof IReference) {
+						references.add((IReference) value);
+					}
+				}
+			}
+		}
+		Map<IReference, Object> beans = new HashMap<>();
+		if (!references.isEmpty()) {
+			Iterator<Object> it = em.findAll(references, Object.class)
+					.iterator();
+			for (IReference reference : references) {
+				beans.put(reference, it.next());
+			}
+		}
+
+		for (Request request : requests) {
+			Map<URI, Set<IValue>> valuesByProperty = objects
+					.get(request.resource.getURI());
+			Set<IValue> propertyValues = valuesByProperty == null ? null
+					: valuesByProperty.get(request.property.getURI());
+			if (propertyValues == null) {
+				request.initializer.accept(Collections.emptyList());
+			} else {
+				List<Object> instances = new ArrayList<>(propertyValues.size());
+				for (IValue value : propertyValues) {
+					instances.add(value instanceof IReference ? beans
+							.get(value) : em.toInstance(value));
+				}
+				request.initializer.accept(instances);
+			}
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Fraunhofer IWU and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Fraunhofer IWU - initial API and implementation
+ *******************************************************************************/
+package net.enilink.komma.edit.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+
+import net.enilink.komma.common.adapter.IAdapterFactory;
+import net.enilink.komma.core.IEntityManager;
+import net.enilink.komma.core.IReference;
+import net.enilink.komma.core.KommaModule;
+import net.enilink.komma.core.Statement;
+import net.enilink.komma.core.URI;
+import net.enilink.komma.core.URIs;
+import net.enilink.komma.em.concepts.IProperty;
+import net.enilink.komma.em.concepts.IResource;
+import net.enilink.komma.model.IModelSet;
+import net.enilink.komma.model.IModelSetFactory;
+import net.enilink.komma.model.MODELS;
+import net.enilink.komma.model.ModelPlugin;
+import net.enilink.komma.model.ModelSetModule;
+
+public class ChildrenPrefetcherTest {
+	private static final String NS = "test:";
+
+	IModelSet modelSet;
+
+	IEntityManager manager;
+
+	IProperty contains, parts;
+
+	/**
+	 * The number of resource and property pairs of each query.
+	 */
+	List<Integer> queries = new ArrayList<>();
+
+	ChildrenPrefetcher prefetcher;
+
+	@Before
+	public void beforeTest() throws Exception {
+		KommaModule module = ModelPlugin.createModelSetModule(getClass()
+				.getClassLoader());
+		IModelSetFactory factory = Guice.createInjector(
+				new ModelSetModule(module)).getInstance(IModelSetFactory.class);
+		modelSet = factory.createModelSet(MODELS.NAMESPACE_URI
+				.appendLocalPart("MemoryModelSet"));
+		manager = modelSet.createModel(URIs.createURI(NS + "model"))
+				.getManager();
+		contains = manager.createNamed(URIs.createURI(NS + "contains"),
+				IProperty.class);
+		parts = manager.createNamed(URIs.createURI(NS + "parts"),
+				IProperty.class);
+
+		final ItemProviderAdapter provider = new ItemProviderAdapter(null) {
+			@Override
+			protected Collection<? extends IProperty> getChildrenProperties(
+					Object object) {
+				return Arrays.asList(contains, parts);
+			}
+		};
+		prefetcher = new ChildrenPrefetcher(new IAdapterFactory() {
+			@Override
+			public boolean isFactoryForType(Object type) {
+				return true;
+			}
+
+			@Override
+			public Object adapt(Object object, Object type) {
+				return provider;
+			}
+		}) {
+			@Override
+			protected void prefetch(IEntityManager em, List<Request> requests) {
+				queries.add(requests.size());
+				super.prefetch(em, requests);
+			}
+		};
+	}
+
+	@After
+	public void afterTest() throws Exception {
+		modelSet.dispose();
+	}
+
+	IResource createResource(String name) {
+		URI uri = URIs.createURI(NS + name);
+		manager.createNamed(uri, IResource.class);
+		// a fresh bean without cached property values
+		return manager.find(uri, IResource.class);
+	}
+
+	@Test
+	public void testSingleQuery() {
+		List<IResource> resources = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			IResource resource = createResource("r" + i);
+			for (int j = 0; j < 2; j++) {
+				manager.add(new Statement(resource, contains, URIs
+						.createURI(NS + "r" + i + "-child" + j)));
+			}
+			resources.add(manager.find(resource, IResource.class));
+		}
+		prefetcher.prefetch(resources);
+		assertEquals(Arrays.asList(6), queries);
+
+		for (int i = 0; i < 3; i++) {
+			IResource resource = resources.get(i);
+			// the values of both properties are cached
+			assertNull(resource.createPropertyInitializer(contains));
+			assertNull(resource.createPropertyInitializer(parts));
+			Set<URI> children = new HashSet<>();
+			for (Object child : resource.getAsSet(contains)) {
+				children.add(((IReference) child).getURI());
+			}
+			assertEquals(new HashSet<>(Arrays.asList(URIs.createURI(NS + "r"
+					+ i + "-child0"), URIs.createURI(NS + "r" + i + "-child1"))),
+					children);
+		}
+
+		// cached properties are not requested again
+		prefetcher.prefetch(resources);
+		assertEquals(Arrays.asList(6), queries);
+	}
+
+	@Test
+	public void testEmptyProperties() {
+		IResource resource = createResource("r");
+		prefetcher.prefetch(Arrays.asList(resource));
+		assertEquals(Arrays.asList(2), queries);
+
+		// properties without values are cached as empty
+		assertNull(resource.createPropertyInitializer(contains));
+		assertNull(resource.createPropertyInitializer(parts));
+		assertTrue(resource.getAsSet(contains).isEmpty());
+		assertTrue(resource.getAsSet(parts).isEmpty());
+	}
+
+	@Test
+	public void testChunks() {
+		List<IResource> resources = new ArrayList<>();
+		for (int i = 0; i < ChildrenPrefetcher.MAX_VALUES; i++) {
+			resources.add(createResource("r" + i));
+		}
+		// two pairs per resource
+		prefetcher.prefetch(resources);
+		assertEquals(Arrays.asList(ChildrenPrefetcher.MAX_VALUES,
+				ChildrenPrefetcher.MAX_VALUES), queries);
+
+		queries.clear();
+		resources.add(createResource("r" + ChildrenPrefetcher.MAX_VALUES));
+		prefetcher.prefetch(resources);
+		assertEquals(Arrays.asList(2), queries);
+	}
+
+	@Test
+	public void testTransaction() {
+		IResource resource = createResource("r");
+		manager.getTransaction().begin();
+		try {
+			// the caches are not used while a transaction is active
+			prefetcher.prefetch(Arrays.asList(resource));
+			assertTrue(queries.isEmpty());
+		} finally {
+			manager.getTransaction().rollback();
+		}
+		prefetcher.prefetch(Arrays.asList(resource));
+		assertEquals(Arrays.asList(2), queries);
+	}
+}
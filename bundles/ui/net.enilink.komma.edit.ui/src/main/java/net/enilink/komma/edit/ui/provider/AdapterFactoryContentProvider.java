@@ -44,6 +44,7 @@ import net.enilink.komma.common.notify.NotificationFilter;
 import net.enilink.komma.core.IReference;
 import net.enilink.komma.edit.domain.AdapterFactoryEditingDomain;
 import net.enilink.komma.edit.domain.IEditingDomain;
+import net.enilink.komma.edit.provider.ChildrenPrefetcher;
 import net.enilink.komma.edit.provider.IItemPropertySource;
 import net.enilink.komma.edit.provider.IStructuredItemContentProvider;
 import net.enilink.komma.edit.provider.ITreeItemContentProvider;
@@ -170,8 +171,12 @@ public class AdapterFactoryContentProvider implements ITreeContentProvider,
 				.adapt(object, ITreeItemContentProviderClass);
 
 		// Either delegate the call or return nothing.
-		return (treeItemContentProvider != null ? treeItemContentProvider
-				.getChildren(object) : Collections.EMPTY_LIST).toArray();
+		Collection<?> children = treeItemContentProvider != null ? treeItemContentProvider
+				.getChildren(object) : Collections.EMPTY_LIST;
+		// the viewer asks each child for its children to decide if it can be
+		// expanded, hence these are loaded at once
+		new ChildrenPrefetcher(adapterFactory).prefetch(children);
+		return children.toArray();
 	}
 
 	/**